@@ -24,6 +24,8 @@
 package org.opennars.control;
 
 import org.opennars.entity.*;
+import org.opennars.inference.RuleProfile;
+import org.opennars.inference.RuleProfile.Rejection;
 import org.opennars.inference.TruthFunctions;
 import org.opennars.interfaces.Timable;
 import org.opennars.io.events.Events;
@@ -52,6 +54,12 @@ public class DerivationContext {
     protected Sentence currentBelief;
     protected Stamp newStamp;
     public StampBuilder newStampBuilder;
+    /** counters of the rule being applied, the tasks it derives are counted for it */
+    protected RuleProfile.Counters currentRule;
+    /** amount of conclusions a rule can compute into the holders of the context before deriving the tasks */
+    public static final int CONCLUSIONS = 4;
+    private final TruthValue[] truths = new TruthValue[CONCLUSIONS];
+    private final BudgetValue[] budgets = new BudgetValue[CONCLUSIONS];
 
     public Parameters narParameters;
 
@@ -68,6 +76,84 @@ public class DerivationContext {
         memory.emit(c, o);
     }
 
+    /**
+     * Count an application of a rule, until {@link #ruleApplied} the derived tasks are counted for it
+     *
+     * @param rule The counters of the rule
+     * @return The rule applied before, which applies this rule
+     */
+    public RuleProfile.Counters applyingRule(final RuleProfile.Counters rule) {
+        final RuleProfile.Counters outer = currentRule;
+        rule.invocations.increment();
+        currentRule = rule;
+        return outer;
+    }
+
+    /**
+     * Count the time of the rule applied since {@link #applyingRule}
+     *
+     * @param outer The rule applied before, as returned by applyingRule
+     * @param start The value of System.nanoTime() when the rule was applied
+     */
+    public void ruleApplied(final RuleProfile.Counters outer, final long start) {
+        currentRule.nanos.add(System.nanoTime() - start);
+        currentRule = outer;
+    }
+
+    /**
+     * Truth value to compute the truth value of a conclusion of the rule being applied into, the sentence of the
+     * derived task takes it over, only then the next call creates a new one
+     * <p>
+     * The rule must not use it after deriving the task, or for another conclusion before
+     *
+     * @param conclusion Index of the conclusion, below {@link #CONCLUSIONS}
+     * @return The truth value of the conclusion
+     */
+    public TruthValue truth(final int conclusion) {
+        TruthValue t = truths[conclusion];
+        if (t == null) {
+            t = truths[conclusion] = new TruthValue(narParameters);
+        }
+        return t;
+    }
+
+    /**
+     * Budget to compute the budget of a conclusion of the rule being applied into, it is reused as the task
+     * copies its budget
+     * <p>
+     * The rule must not use it after deriving the task, or for another conclusion before
+     *
+     * @param conclusion Index of the conclusion, below {@link #CONCLUSIONS}
+     * @return The budget of the conclusion
+     */
+    public BudgetValue budget(final int conclusion) {
+        BudgetValue b = budgets[conclusion];
+        if (b == null) {
+            b = budgets[conclusion] = new BudgetValue(0, 0, 0, narParameters);
+        }
+        return b;
+    }
+
+    /** hand the truth value over to the sentence of a derived task, if it is one of the holders of {@link #truth} */
+    private TruthValue stored(final TruthValue truth) {
+        for (int i = 0; i < CONCLUSIONS; i++) {
+            if (truths[i] == truth) {
+                truths[i] = null;
+            }
+        }
+        return truth;
+    }
+
+    private RuleProfile.Counters currentRuleCounters() {
+        return currentRule != null ? currentRule : memory.ruleProfile.of(RuleProfile.UNATTRIBUTED);
+    }
+
+    private boolean reject(final Task task, final Rejection reason) {
+        currentRuleCounters().reject(reason);
+        memory.removeTask(task, reason.reason);
+        return false;
+    }
+
     /**
      * Derived task comes from the inference rules.
      *
@@ -84,32 +170,29 @@ public class DerivationContext {
 
         if((task.sentence.isGoal() || task.sentence.isQuest()) && (task.sentence.term instanceof Implication ||
                                       task.sentence.term instanceof Equivalence)) {
+            currentRuleCounters().reject(Rejection.UNSUPPORTED_GOAL);
             return false; //implication and equivalence goals and quests are not supported anymore
         }
         if (!task.budget.aboveThreshold()) {
-            memory.removeTask(task, "Insufficient Budget");
-            return false;
+            return reject(task, Rejection.INSUFFICIENT_BUDGET);
         } 
         if (task.sentence != null && task.sentence.truth != null) {
             final double conf = task.sentence.truth.getConfidence();
             if (conf < narParameters.TRUTH_EPSILON) {
                 //no confidence - we can delete the wrongs out that way.
-                memory.removeTask(task, "Ignored (zero confidence)");
-                return false;
+                return reject(task, Rejection.ZERO_CONFIDENCE);
             }
         }
         if (task.sentence.term instanceof Operation) {
             final Operation op = (Operation) task.sentence.term;
             if (op.getSubject() instanceof Variable || op.getPredicate() instanceof Variable) {
-                memory.removeTask(task, "Operation with variable as subject or predicate");
-                return false;
+                return reject(task, Rejection.OPERATION_WITH_VARIABLE);
             }
         }
-        if(task.sentence.term.cloneDeep() == null) {
+        if(!Term.valid(task.sentence.term)) {
             //sorted subterm version leaded to a invalid term that remained undetected while the term was constructed optimistically
             //example: (&,a,b) --> (&,b,a) which gets normalized to (&,a,b) --> (&,a,b) which is invalid.
-            memory.removeTask(task, "Wrong Format");
-            return false;
+            return reject(task, Rejection.WRONG_FORMAT);
         }
 
         final Stamp stamp = task.sentence.stamp;
@@ -119,14 +202,12 @@ public class DerivationContext {
             //!single since the derivation shouldn't depend on whether there is a current belief or not!!
             final boolean doublePremiseEvidentalBaseOverlap = !single && this.evidentalOverlap;
             if (doublePremiseEvidentalBaseOverlap) {
-                memory.removeTask(task, "overlapping evidential base");
-                return false;
+                return reject(task, Rejection.OVERLAPPING_EVIDENCE);
             }
 
             final boolean selfOverlap = stamp.evidenceIsCyclic();
             if (selfOverlap) {
-                memory.removeTask(task, "overlapping evidential base");
-                return false;
+                return reject(task, Rejection.OVERLAPPING_EVIDENCE);
             }
         }
         
@@ -138,11 +219,17 @@ public class DerivationContext {
             }
         }*/
         
+        if(addToMemory && memory.derivationFilter.isEnabled() &&
+                memory.derivationFilter.isRepeated(task.sentence, narParameters.TRUTH_EPSILON, narParameters.DURATION)) {
+            return reject(task, Rejection.DUPLICATE); //derived recently from other premises
+        }
+        
         task.setElemOfSequenceBuffer(false);
         if(!revised) {
             task.getBudget().setDurability(task.getBudget().getDurability()*narParameters.DERIVATION_DURABILITY_LEAK);
             task.getBudget().setPriority(task.getBudget().getPriority()*narParameters.DERIVATION_PRIORITY_LEAK);
         }
+        currentRuleCounters().derived.increment();
         memory.event.emit(Events.TaskDerive.class, task, revised, single);
         //memory.logic.TASK_DERIVED.commit(task.budget.getPriority());
         
@@ -178,7 +265,7 @@ public class DerivationContext {
         final Sentence newSentence = new Sentence(
             conclusionTerm,
             getCurrentTask().sentence.punctuation,
-            newTruth,
+            stored(newTruth),
             derived_stamp);
 
         final Task newTask = new Task(newSentence, newBudget, getCurrentBelief());
@@ -217,7 +304,7 @@ public class DerivationContext {
             Sentence newSentence = new Sentence(
                 newContent,
                 getCurrentTask().sentence.punctuation,
-                newTruth,
+                stored(newTruth),
                 derive_stamp);
 
             newSentence.producedByTemporalInduction=temporalInduction;
@@ -303,7 +390,7 @@ public class DerivationContext {
         final Sentence newSentence = new Sentence(
             newContent,
             punctuation,
-            newTruth,
+            stored(newTruth),
             derive_stamp);
 
         final Task newTask = new Task(newSentence, newBudget, Task.EnumType.DERIVED);
@@ -0,0 +1,170 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.control;
+
+import org.opennars.entity.EvidentialBase;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Stamp;
+import org.opennars.language.Term;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recently derived sentences, to drop a conclusion which is derived again from other premises
+ * before it reaches the task buffer of the memory
+ * <p>
+ * Two sentences are repeats if they have equal terms and punctuations, frequencies and confidences which round
+ * to the same multiple of TRUTH_EPSILON, equal evidential bases and occurrence times in the same duration.
+ * Truth values closer than TRUTH_EPSILON on both sides of a rounding boundary are not repeats.
+ * The filter keeps two generations of at most half of its capacity each, when the current one is full
+ * the older one is forgotten, so a repeat is dropped if it is derived within capacity/2 to capacity derivations.
+ * It is disabled while its capacity is 0.
+ */
+public class DerivationFilter implements Serializable {
+
+    private static final class Key implements Serializable {
+        final Term term;
+        final char punctuation;
+        final int frequency;
+        final int confidence;
+        final EvidentialBase evidentialBase;
+        final long occurrence;
+        final int hash;
+
+        Key(final Sentence sentence, final float truthEpsilon, final int duration) {
+            this.term = sentence.term;
+            this.punctuation = sentence.punctuation;
+            //rounded to the nearest multiple of the epsilon, the bucket of the value
+            this.frequency = sentence.truth == null ? -1 : Math.round(sentence.truth.getFrequency() / truthEpsilon);
+            this.confidence = sentence.truth == null ? -1 : (int) Math.round(sentence.truth.getConfidence() / truthEpsilon);
+            this.evidentialBase = sentence.stamp.getEvidentialBase();
+            final long occurrenceTime = sentence.stamp.getOccurrenceTime();
+            this.occurrence = occurrenceTime == Stamp.ETERNAL ? Stamp.ETERNAL : Math.floorDiv(occurrenceTime, Math.max(1, duration));
+            int h = term.hashCode();
+            h = 31 * h + punctuation;
+            h = 31 * h + frequency;
+            h = 31 * h + confidence;
+            h = 31 * h + evidentialBase.hashCode();
+            this.hash = 31 * h + Long.hashCode(occurrence);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (this == that) {
+                return true;
+            }
+            if (!(that instanceof Key)) {
+                return false;
+            }
+            final Key k = (Key) that;
+            return hash == k.hash && punctuation == k.punctuation && frequency == k.frequency && confidence == k.confidence
+                && occurrence == k.occurrence && term.equals(k.term) && evidentialBase.equals(k.evidentialBase);
+        }
+    }
+
+    private final int capacity;
+    private Set<Key> current = new HashSet<>();
+    private Set<Key> previous = new HashSet<>();
+
+    /** amount of repeats dropped */
+    public final LongAdder hits = new LongAdder();
+    /** amount of sentences passed */
+    public final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity Amount of sentences remembered at most, 0 to disable the filter
+     */
+    public DerivationFilter(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Remember a derived sentence
+     *
+     * @param sentence The derived sentence
+     * @param truthEpsilon The resolution of the truth values
+     * @param duration The duration, the resolution of the occurrence times
+     * @return Whether the sentence is a repeat of a recently derived one
+     */
+    public synchronized boolean isRepeated(final Sentence sentence, final float truthEpsilon, final int duration) {
+        final Key key = new Key(sentence, truthEpsilon, duration);
+        if (current.contains(key) || previous.contains(key)) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        if (current.size() >= Math.max(1, capacity / 2)) {
+            final Set<Key> forgotten = previous;
+            previous = current;
+            forgotten.clear();
+            current = forgotten;
+        }
+        current.add(key);
+        return false;
+    }
+
+    /**
+     * @return Fraction of the derived sentences which were dropped as repeats
+     */
+    public double hitRate() {
+        final long h = hits.sum();
+        final long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * @return The hits, misses and hit rate, with a header line, for the *profile command
+     */
+    public String toCSV() {
+        return "derivation_filter_hits,derivation_filter_misses,derivation_filter_hit_rate\n"
+            + hits.sum() + ',' + misses.sum() + ',' + hitRate() + '\n';
+    }
+
+    /**
+     * @return An object with the hits, misses and hit rate, for the *profile command
+     */
+    public String toJSON() {
+        return "{\"derivationFilter\":{\"hits\":" + hits.sum() + ",\"misses\":" + misses.sum()
+            + ",\"hitRate\":" + hitRate() + "}}";
+    }
+
+    public synchronized void clear() {
+        current.clear();
+        previous.clear();
+        hits.reset();
+        misses.reset();
+    }
+}
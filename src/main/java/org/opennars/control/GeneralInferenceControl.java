@@ -29,6 +29,7 @@ import org.opennars.entity.Concept;
 import org.opennars.entity.Task;
 import org.opennars.entity.TermLink;
 import org.opennars.inference.BudgetFunctions;
+import org.opennars.inference.RuleProfile;
 import org.opennars.inference.RuleTables;
 import org.opennars.interfaces.Timable;
 import org.opennars.io.events.Events;
@@ -48,7 +49,7 @@ public class GeneralInferenceControl {
     
     public static void selectConceptForInference(final Memory mem, final Parameters narParameters, final Nar nar) {
         final Concept currentConcept;
-        synchronized (mem.concepts) { //modify concept bag
+        synchronized (mem.concepts.lockFor(null)) { //modify concept bag
             currentConcept = mem.concepts.takeOut();
             if (currentConcept==null) {
                 return;
@@ -61,12 +62,16 @@ public class GeneralInferenceControl {
         synchronized(currentConcept) { //use current concept (current concept is the resource)  
             ProcessAnticipation.maintainDisappointedAnticipations(narParameters, currentConcept, nar);
             if(currentConcept.taskLinks.size() == 0) { //remove concepts without tasklinks and without termlinks
-                mem.concepts.pickOut(currentConcept.getTerm());
+                synchronized (mem.concepts.lockFor(currentConcept.getTerm())) {
+                    mem.concepts.pickOut(currentConcept.getTerm());
+                }
                 mem.conceptRemoved(currentConcept);
                 return;
             }
             if(currentConcept.termLinks.size() == 0) {  //remove concepts without tasklinks and without termlinks
-                mem.concepts.pickOut(currentConcept.getTerm());
+                synchronized (mem.concepts.lockFor(currentConcept.getTerm())) {
+                    mem.concepts.pickOut(currentConcept.getTerm());
+                }
                 mem.conceptRemoved(currentConcept);
                 return;
             }
@@ -80,8 +85,12 @@ public class GeneralInferenceControl {
             }
         }
         if(putBackConcept) { // put back into bag (bag is the resource)
-            synchronized (nal.memory.concepts) {
-                nal.memory.concepts.putBack(nal.currentConcept, forgetCycles, nal.memory);
+            final Concept displaced;
+            synchronized (nal.memory.concepts.lockFor(nal.currentConcept.getTerm())) {
+                displaced = nal.memory.concepts.putBack(nal.currentConcept, forgetCycles, nal.memory);
+            }
+            if(displaced != null) {
+                nal.memory.conceptRemoved(displaced);
             }
         }
     }
@@ -117,7 +126,13 @@ public class GeneralInferenceControl {
             nal.setCurrentBelief(null);
             //TermLink tasklink_as_termlink = new TermLink(nal.currentTaskLink.getTerm(), TermLink.TRANSFORM, nal.getCurrentTaskLink().index);
             //if(nal.currentTaskLink.novel(tasklink_as_termlink, nal.memory.time(), true)) { //then record yourself, but also here novelty counts
-                RuleTables.transformTask(nal.currentTaskLink, nal); // to turn this into structural inference as below?
+                final RuleProfile.Counters outer = nal.applyingRule(nal.memory.ruleProfile.of("RuleTables.transformTask"));
+                final long start = System.nanoTime();
+                try {
+                    RuleTables.transformTask(nal.currentTaskLink, nal); // to turn this into structural inference as below?
+                } finally {
+                    nal.ruleApplied(outer, start);
+                }
             //}
         } else {            
             while (termLinks > 0) {
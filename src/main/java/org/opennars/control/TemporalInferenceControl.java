@@ -25,14 +25,19 @@ package org.opennars.control;
 
 import org.opennars.entity.*;
 import org.opennars.inference.BudgetFunctions;
+import org.opennars.inference.RuleProfile;
 import org.opennars.inference.TemporalRules;
 import org.opennars.io.Symbols;
 import org.opennars.io.events.Events;
 import org.opennars.language.CompoundTerm;
+import org.opennars.language.Term;
 import org.opennars.operator.Operation;
 import org.opennars.storage.Bag;
+import org.opennars.storage.BagFactory;
 import org.opennars.storage.Memory;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -67,7 +72,13 @@ public class TemporalInferenceControl {
         final Sentence currentBelief = newEvent;
 
         //if(newEvent.getPriority()>Parameters.TEMPORAL_INDUCTION_MIN_PRIORITY)
-        return TemporalRules.temporalInduction(currentBelief, previousBelief, nal, SucceedingEventsInduction, addToMemory, allowSequence);
+        final RuleProfile.Counters outer = nal.applyingRule(nal.memory.ruleProfile.of("TemporalRules.temporalInduction"));
+        final long start = System.nanoTime();
+        try {
+            return TemporalRules.temporalInduction(currentBelief, previousBelief, nal, SucceedingEventsInduction, addToMemory, allowSequence);
+        } finally {
+            nal.ruleApplied(outer, start);
+        }
     }
 
     public static boolean eventInference(final Task newEvent, final DerivationContext nal) {
@@ -82,32 +93,25 @@ public class TemporalInferenceControl {
             return false;
        }
 
-        final Set<Task> already_attempted = new LinkedHashSet<>();
         final Set<Task> already_attempted_ops = new LinkedHashSet<>();
         //Sequence formation:
-        for(int i =0; i<nal.narParameters.SEQUENCE_BAG_ATTEMPTS; i++) {
-            synchronized(nal.memory.seq_current) {
-                final Task takeout = nal.memory.seq_current.takeOut();
-                if(takeout == null) {
-                    break; //there were no elements in the bag to try
-                }
-
-                if(already_attempted.contains(takeout) || 
-                        Stamp.baseOverlap(newEvent.sentence.stamp, takeout.sentence.stamp)) {
-                    nal.memory.seq_current.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
+        final List<Task<Term>> takeouts = new ArrayList<>(nal.narParameters.SEQUENCE_BAG_ATTEMPTS);
+        synchronized(nal.memory.seq_current) {
+            //the taken out elements are distinct, so none is attempted twice
+            nal.memory.seq_current.takeOut(nal.narParameters.SEQUENCE_BAG_ATTEMPTS, takeouts);
+            for(final Task<Term> takeout : takeouts) {
+                if(Stamp.baseOverlap(newEvent.sentence.stamp, takeout.sentence.stamp)) {
                     continue;
                 }
-                already_attempted.add(takeout);
                 proceedWithTemporalInduction(newEvent.sentence, takeout.sentence, newEvent, nal, true, true, true);
-                nal.memory.seq_current.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
             }
+            nal.memory.seq_current.putBackAll(takeouts, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
         }
 
         //Conditioning:
         if(nal.memory.lastDecision != null && newEvent != nal.memory.lastDecision) {
             already_attempted_ops.clear();
             for(int k = 0; k<nal.narParameters.OPERATION_SAMPLES;k++) {
-                already_attempted.clear(); //todo move into k loop
                 final Task Toperation = k == 0 ? nal.memory.lastDecision : nal.memory.recent_operations.takeOut();
                 if(Toperation == null) {
                     break; //there were no elements in the bag to try
@@ -122,22 +126,18 @@ public class TemporalInferenceControl {
                 final Concept opc = nal.memory.concept(Toperation.getTerm());
                 if(opc != null) {
                     if(opc.seq_before == null) {
-                        opc.seq_before = new Bag<>(nal.narParameters.SEQUENCE_BAG_LEVELS, nal.narParameters.SEQUENCE_BAG_SIZE, nal.narParameters);
+                        opc.seq_before = BagFactory.newBag(nal.narParameters.SEQUENCE_BAG_TYPE, nal.narParameters.SEQUENCE_BAG_LEVELS, nal.narParameters.SEQUENCE_BAG_SIZE, nal.narParameters);
                     }
-                    for(int i = 0; i<nal.narParameters.CONDITION_BAG_ATTEMPTS; i++) {
-                        final Task takeout = opc.seq_before.takeOut();
-                        if(takeout == null) {
-                            break; //there were no elements in the bag to try
-                        }
-                        if(already_attempted.contains(takeout)) {
-                            opc.seq_before.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
-                            continue;
-                        }
-                        already_attempted.add(takeout);
+                    final List<Task<Term>> conditions = new ArrayList<>(nal.narParameters.CONDITION_BAG_ATTEMPTS);
+                    opc.seq_before.takeOut(nal.narParameters.CONDITION_BAG_ATTEMPTS, conditions); //distinct, so none is attempted twice
+                    final Iterator<Task<Term>> conditionIterator = conditions.iterator();
+                    while(conditionIterator.hasNext()) {
+                        final Task<Term> takeout = conditionIterator.next();
                         final long x = Toperation.sentence.getOccurenceTime();
                         final long y = takeout.sentence.getOccurenceTime();
                         if(y > x) { //something wrong here?
                             System.out.println("analyze case in TemporalInferenceControl!");
+                            conditionIterator.remove(); //not put back
                             continue;
                         }
                         final List<Task> seq_op = proceedWithTemporalInduction(Toperation.sentence, takeout.sentence, nal.memory.lastDecision, nal, true, false, true);
@@ -149,9 +149,8 @@ public class TemporalInferenceControl {
                                 }*/
                             }
                         }
-
-                        opc.seq_before.putBack(takeout, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
                     }
+                    opc.seq_before.putBackAll(conditions, nal.memory.cycles(nal.memory.narParameters.EVENT_FORGET_DURATIONS), nal.memory);
                 }
                 //put Toperation back into bag if it was taken out
                 if(k > 0) {
@@ -231,7 +230,7 @@ public class TemporalInferenceControl {
         synchronized(mem.seq_current) {
             if(c != null) {
                 if(c.seq_before == null) {
-                    c.seq_before = new Bag<>(mem.narParameters.SEQUENCE_BAG_LEVELS, mem.narParameters.SEQUENCE_BAG_SIZE, mem.narParameters);
+                    c.seq_before = BagFactory.newBag(mem.narParameters.SEQUENCE_BAG_TYPE, mem.narParameters.SEQUENCE_BAG_LEVELS, mem.narParameters.SEQUENCE_BAG_SIZE, mem.narParameters);
                 }
                 for(final Task t : mem.seq_current) {
                     if(task.sentence.getOccurenceTime() > t.sentence.getOccurenceTime()) {
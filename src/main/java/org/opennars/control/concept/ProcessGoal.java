@@ -25,16 +25,13 @@ package org.opennars.control.concept;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import org.opennars.control.DerivationContext;
 import org.opennars.entity.BudgetValue;
 import org.opennars.entity.Concept;
 import org.opennars.entity.Sentence;
 import org.opennars.entity.Stamp;
-import org.opennars.entity.Stamp.BaseEntry;
 import org.opennars.entity.Task;
 import org.opennars.entity.TruthValue;
 import org.opennars.inference.LocalRules;
@@ -184,19 +181,9 @@ public class ProcessGoal {
         if(projectedGoal.truth.getExpectation() > nal.narParameters.DECISION_THRESHOLD) {
             //see whether the goal evidence is fully included in the old goal, if yes don't execute
             //as execution for this reason already happened (or did not since there was evidence against it)
-            final Set<BaseEntry> oldEvidence = new LinkedHashSet<>();
             boolean Subset=false;
             if(oldGoalT != null) {
-                Subset = true;
-                for(final BaseEntry l: oldGoalT.sentence.stamp.evidentialBase) {
-                    oldEvidence.add(l);
-                }
-                for(final BaseEntry l: task.sentence.stamp.evidentialBase) {
-                    if(!oldEvidence.contains(l)) {
-                        Subset = false;
-                        break;
-                    }
-                }
+                Subset = oldGoalT.sentence.stamp.getEvidentialBase().includes(task.sentence.stamp.getEvidentialBase());
             }
             if(!Subset && !executeOperation(nal, task)) {
                 concept.memory.emit(Events.UnexecutableGoal.class, task, concept, nal);
@@ -88,26 +88,33 @@ public class ProcessQuestion {
     }
     
     /**
-     * Recognize an existing belief task as solution to the what question task, which contains a query variable
+     * Recognize existing beliefs as solutions to the what question task, which contains a query variable
+     * <p>
+     * The concepts which may answer it are found in the index of the concept terms of the memory,
+     * see {@link org.opennars.storage.Memory#unifiableConceptTerms}, instead of trying each task link
      *
      * @param concept The concept which potentially outdated anticipations should be processed
-     * @param ques The belief task
+     * @param ques The question task
      * @param nal The derivation context
      */
     // called only in GeneralInferenceControl.insertTaskLink on concept selection
     public static void ProcessWhatQuestion(final Concept concept, final Task ques, final DerivationContext nal) {
         if(!(ques.sentence.isJudgment()) && ques.getTerm().hasVarQuery()) { //ok query var, search
+            final Term question = CompoundTerm.replaceIntervals(ques.getTerm());
+            if(question == null) {
+                return;
+            }
             boolean newAnswer = false;
-            for(final TaskLink t : concept.taskLinks) {
-                final Term[] u = new Term[] { CompoundTerm.replaceIntervals(ques.getTerm()), CompoundTerm.replaceIntervals(t.getTerm()) };
-                if(!t.getTerm().hasVarQuery() && Variables.unify(nal.memory.randomNumber, Symbols.VAR_QUERY, u)) {
-                    final Concept c = nal.memory.concept(t.getTerm());
+            for(final Term candidate : nal.memory.unifiableConceptTerms(question, Symbols.VAR_QUERY)) {
+                final Term[] u = new Term[] { question, candidate };
+                if(!candidate.hasVarQuery() && Variables.unify(nal.memory, Symbols.VAR_QUERY, u)) {
+                    final Concept c = nal.memory.concept(candidate);
                     if(c == null) {
                         continue; //target concept is already gone
                     }
                     synchronized(c) { //changing target concept, lock it
                         final List<Task> answers = ques.sentence.isQuest() ? c.desires : c.beliefs;
-                        if(c != null && answers.size() > 0) {
+                        if(answers.size() > 0) {
                             final Task taskAnswer = answers.get(0);
                             if(taskAnswer!=null) {
                                 newAnswer |= trySolution(taskAnswer.sentence, ques, nal, false); //order important here
@@ -139,7 +146,7 @@ public class ProcessQuestion {
                     (ques.sentence.isQuest()    && t.sentence.isGoal())) && ques.getTerm().hasVarQuery()) {
                     boolean newAnswer = false;
                     final Term[] u = new Term[] { CompoundTerm.replaceIntervals(ques.getTerm()), CompoundTerm.replaceIntervals(t.getTerm()) };
-                    if(ques.sentence.term.hasVarQuery() && !t.getTerm().hasVarQuery() && Variables.unify(nal.memory.randomNumber, Symbols.VAR_QUERY, u)) {
+                    if(ques.sentence.term.hasVarQuery() && !t.getTerm().hasVarQuery() && Variables.unify(nal.memory, Symbols.VAR_QUERY, u)) {
                         final Concept c = nal.memory.concept(t.getTerm());
                         if(c == null) {
                             continue; //target doesn't exist anymore
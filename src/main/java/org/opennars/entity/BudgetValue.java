@@ -76,6 +76,17 @@ public class BudgetValue implements Cloneable, Serializable {
      */
     public BudgetValue(final float p, final float d, final float q, Parameters narParameters) {
         this.narParameters = narParameters;
+        set(p, d, q);
+    }
+
+    /**
+     * Set all factors like the constructor does, for budgets which hold the results of the budget functions
+     * @param p The priority, at most 1
+     * @param d The durability, below 1
+     * @param q The quality
+     * @return this budget
+     */
+    public BudgetValue set(final float p, final float d, final float q) {
         priority = p;
         durability = d;
         quality = q;
@@ -88,6 +99,7 @@ public class BudgetValue implements Cloneable, Serializable {
             priority=1.0f;
             //throw new IllegalStateException("priority value above 1");
         }
+        return this;
     }
 
     /**
@@ -33,6 +33,7 @@ import org.opennars.language.Term;
 import org.opennars.main.Shell;
 import org.opennars.main.Parameters;
 import org.opennars.storage.Bag;
+import org.opennars.storage.BagFactory;
 import org.opennars.storage.Memory;
 
 import java.io.Serializable;
@@ -142,8 +143,8 @@ public class Concept extends Item<Term> implements Serializable {
         this.quests = new ArrayList<>();
         this.desires = new ArrayList<>();
 
-        this.taskLinks = new Bag<>(memory.narParameters.TASK_LINK_BAG_LEVELS, memory.narParameters.TASK_LINK_BAG_SIZE, memory.narParameters);
-        this.termLinks = new Bag<>(memory.narParameters.TERM_LINK_BAG_LEVELS, memory.narParameters.TERM_LINK_BAG_SIZE, memory.narParameters);
+        this.taskLinks = BagFactory.newBag(memory.narParameters.TASK_LINK_BAG_TYPE, memory.narParameters.TASK_LINK_BAG_LEVELS, memory.narParameters.TASK_LINK_BAG_SIZE, memory.narParameters);
+        this.termLinks = BagFactory.newBag(memory.narParameters.TERM_LINK_BAG_TYPE, memory.narParameters.TERM_LINK_BAG_LEVELS, memory.narParameters.TERM_LINK_BAG_SIZE, memory.narParameters);
                 
         if (tm instanceof CompoundTerm) {
             this.termLinkTemplates = ((CompoundTerm) tm).prepareComponentLinks();
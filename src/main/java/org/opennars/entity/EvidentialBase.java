@@ -0,0 +1,309 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.entity;
+
+import org.opennars.entity.Stamp.BaseEntry;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Evidential base of a stamp, the set of the inputs a sentence is derived from, in a compact encoding
+ * <p>
+ * The entries are sorted by NAR id and input id, and grouped into runs of consecutive input ids of one NAR.
+ * Each run is written as three unsigned variable-length numbers: the difference of its NAR id to the one of the
+ * previous run, the difference of its first input id to the end of the previous run of the same NAR (or to 0),
+ * and its length minus 1. A set has only one encoding, so two bases are equal if their codes are equal.
+ * Union, overlap and inclusion read the codes run by run without materializing the entries.
+ */
+public final class EvidentialBase implements Serializable {
+
+    private final byte[] code;
+    /** amount of entries */
+    private final int size;
+    /** one bit for each block of 64 input ids, two bases without common bits have no common entry */
+    private final long signature;
+    private final int hash;
+
+    private EvidentialBase(final byte[] code, final int size, final long signature) {
+        this.code = code;
+        this.size = size;
+        this.signature = signature;
+        this.hash = Arrays.hashCode(code);
+    }
+
+    /**
+     * @param entry The only entry
+     * @return The evidential base of an input
+     */
+    public static EvidentialBase of(final BaseEntry entry) {
+        final Builder b = new Builder(1);
+        b.append(entry.narId, entry.inputId, entry.inputId + 1);
+        return b.build(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Merge two evidential bases, for the stamp of a derivation
+     *
+     * @param a The first base
+     * @param b The second base
+     * @param capacity Maximum amount of entries, the oldest entries (lowest input ids) are evicted beyond it
+     * @return The union of both
+     */
+    public static EvidentialBase union(final EvidentialBase a, final EvidentialBase b, final int capacity) {
+        final Runs x = new Runs(a.code);
+        final Runs y = new Runs(b.code);
+        final Builder builder = new Builder(a.size + b.size);
+        boolean hasX = x.next();
+        boolean hasY = y.next();
+        while (hasX || hasY) {
+            if (hasX && (!hasY || x.narId < y.narId || (x.narId == y.narId && x.start <= y.start))) {
+                builder.append(x.narId, x.start, x.end);
+                hasX = x.next();
+            } else {
+                builder.append(y.narId, y.start, y.end);
+                hasY = y.next();
+            }
+        }
+        return builder.build(capacity);
+    }
+
+    /**
+     * @param a The first base
+     * @param b The second base
+     * @return Whether the bases have a common entry
+     */
+    public static boolean overlap(final EvidentialBase a, final EvidentialBase b) {
+        if ((a.signature & b.signature) == 0) {
+            return false;
+        }
+        final Runs x = new Runs(a.code);
+        final Runs y = new Runs(b.code);
+        boolean hasX = x.next();
+        boolean hasY = y.next();
+        while (hasX && hasY) {
+            if (x.narId == y.narId && x.start < y.end && y.start < x.end) {
+                return true;
+            }
+            if (x.narId < y.narId || (x.narId == y.narId && x.end < y.end)) {
+                hasX = x.next();
+            } else {
+                hasY = y.next();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param other The other base
+     * @return Whether each entry of the other base is in this one
+     */
+    public boolean includes(final EvidentialBase other) {
+        final Runs x = new Runs(code);
+        final Runs y = new Runs(other.code);
+        boolean hasX = x.next();
+        while (y.next()) {
+            //the runs are maximal, so the run of the other base has to be within one run of this base
+            while (hasX && (x.narId < y.narId || (x.narId == y.narId && x.end < y.end))) {
+                hasX = x.next();
+            }
+            if (!hasX || x.narId != y.narId || x.start > y.start) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The entries, sorted, for display
+     */
+    public BaseEntry[] toArray() {
+        final BaseEntry[] entries = new BaseEntry[size];
+        final Runs x = new Runs(code);
+        int i = 0;
+        while (x.next()) {
+            for (long id = x.start; id != x.end; id++) {
+                entries[i++] = new BaseEntry(x.narId, id);
+            }
+        }
+        return entries;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Amount of bytes of the encoded entries
+     */
+    public int encodedLength() {
+        return code.length;
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) {
+            return true;
+        }
+        if (!(that instanceof EvidentialBase)) {
+            return false;
+        }
+        final EvidentialBase e = (EvidentialBase) that;
+        return hash == e.hash && size == e.size && Arrays.equals(code, e.code);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /** reads the runs of a code one after another */
+    private static final class Runs {
+        private final byte[] code;
+        private int pos = 0;
+        long narId = 0;
+        long start = 0;
+        /** first input id after the run */
+        long end = 0;
+
+        Runs(final byte[] code) {
+            this.code = code;
+        }
+
+        boolean next() {
+            if (pos == code.length) {
+                return false;
+            }
+            final long narDelta = read();
+            if (narDelta != 0) {
+                narId += narDelta;
+                end = 0;
+            }
+            start = end + read();
+            end = start + read() + 1;
+            return true;
+        }
+
+        private long read() {
+            long v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = code[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return v;
+        }
+    }
+
+    /** collects sorted runs, joins the ones which overlap or adjoin, and encodes them */
+    private static final class Builder {
+        private long[] narIds;
+        private long[] starts;
+        private long[] ends;
+        private int runs = 0;
+
+        Builder(final int capacity) {
+            narIds = new long[Math.max(1, capacity)];
+            starts = new long[narIds.length];
+            ends = new long[narIds.length];
+        }
+
+        void append(final long narId, final long start, final long end) {
+            if (runs > 0 && narIds[runs - 1] == narId && start <= ends[runs - 1]) {
+                ends[runs - 1] = Math.max(ends[runs - 1], end);
+                return;
+            }
+            if (runs == narIds.length) {
+                narIds = Arrays.copyOf(narIds, runs * 2);
+                starts = Arrays.copyOf(starts, runs * 2);
+                ends = Arrays.copyOf(ends, runs * 2);
+            }
+            narIds[runs] = narId;
+            starts[runs] = start;
+            ends[runs] = end;
+            runs++;
+        }
+
+        EvidentialBase build(final int capacity) {
+            long size = 0;
+            for (int i = 0; i < runs; i++) {
+                size += ends[i] - starts[i];
+            }
+            int first = 0;
+            for (long evict = size - capacity; evict > 0; ) { //evict the lowest input ids
+                final long length = ends[first] - starts[first];
+                if (length <= evict) {
+                    evict -= length;
+                    size -= length;
+                    first++;
+                } else {
+                    starts[first] += evict;
+                    size -= evict;
+                    evict = 0;
+                }
+            }
+            final byte[] buffer = new byte[(runs - first) * 30];
+            int pos = 0;
+            long narId = 0;
+            long end = 0;
+            long signature = 0;
+            for (int i = first; i < runs; i++) {
+                final long narDelta = narIds[i] - narId;
+                if (narDelta != 0) {
+                    narId = narIds[i];
+                    end = 0;
+                }
+                pos = write(buffer, pos, narDelta);
+                pos = write(buffer, pos, starts[i] - end);
+                pos = write(buffer, pos, ends[i] - starts[i] - 1);
+                end = ends[i];
+                final long lastBlock = (ends[i] - 1) >> 6;
+                if (lastBlock - (starts[i] >> 6) >= 256) {
+                    signature = -1L; //all bits, a long run is likely to overlap anyway
+                }
+                for (long block = starts[i] >> 6; block <= lastBlock && signature != -1L; block++) {
+                    signature |= 1L << (mix(narId * 0x9E3779B97F4A7C15L + block) >>> 58);
+                }
+            }
+            return new EvidentialBase(Arrays.copyOf(buffer, pos), (int) size, signature);
+        }
+
+        private static int write(final byte[] buffer, int pos, long v) {
+            while ((v & ~0x7FL) != 0) {
+                buffer[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buffer[pos++] = (byte) v;
+            return pos;
+        }
+
+        private static long mix(long x) {
+            x = (x ^ (x >>> 33)) * 0xFF51AFD7ED558CCDL;
+            x = (x ^ (x >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return x ^ (x >>> 33);
+        }
+    }
+}
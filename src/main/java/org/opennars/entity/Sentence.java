@@ -26,6 +26,7 @@ package org.opennars.entity;
 import org.opennars.inference.TemporalRules;
 import org.opennars.inference.TruthFunctions;
 import org.opennars.inference.TruthFunctions.EternalizedTruthValue;
+import org.opennars.inference.UtilityFunctions;
 import org.opennars.io.Symbols;
 import org.opennars.io.Texts;
 import org.opennars.language.*;
@@ -80,6 +81,12 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
      */
     private CharSequence key;
 
+    /**
+     * caches the most recent 'projection()' truths, newest first, replaced as a whole
+     * so threads of different concepts can share it without locking
+     */
+    private transient volatile Projection[] projections;
+
     private final int hash;
     
     
@@ -340,10 +347,66 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
       *
       * @param targetTime The time to be projected into
       * @param currentTime The current time as a reference
-      * @return The projected belief
+      * @return The projected belief, a new sentence on every call, its truth may be
+      *         reused from an earlier call as long as this sentence was not modified
       */    
     public Sentence projection(final long targetTime, final long currentTime, Memory mem) {
-            
+        final int capacity = mem.narParameters.PROJECTION_CACHE_SIZE;
+        if (capacity <= 0) {
+            return project(targetTime, currentTime, mem);
+        }
+
+        //the result depends on the times only through its occurrence time and confidence, which
+        //are cheap to compute, so these key the cache: most calls project to the same eternal result
+        long occurrence = targetTime;
+        double confidence = truth.getConfidence();
+        if (!stamp.isEternal()) {
+            occurrence = Stamp.ETERNAL;
+            confidence = UtilityFunctions.w2c(truth.getConfidence(), mem.narParameters);
+            if (targetTime != Stamp.ETERNAL) {
+                final float factor = TruthFunctions.temporalProjection(stamp.getOccurrenceTime(), targetTime, currentTime, mem.narParameters);
+                final double projectedConfidence = factor * truth.getConfidence();
+                final double maxConfidence = 1.0 - mem.narParameters.TRUTH_EPSILON;
+                if (projectedConfidence > (confidence < maxConfidence ? confidence : maxConfidence)) {
+                    occurrence = targetTime;
+                    confidence = projectedConfidence;
+                }
+            }
+        }
+
+        Projection[] cache = projections;
+        if (cache == null || cache.length != capacity) {
+            cache = new Projection[capacity];
+        }
+        //the matching entry, or the least recently used one if there is none
+        int slot = cache.length - 1;
+        for (int i = 0; i < cache.length; i++) {
+            final Projection p = cache[i];
+            if (p == null || (p.occurrence == occurrence && p.confidence == confidence)) {
+                slot = i;
+                break;
+            }
+        }
+        final Projection p = cache[slot];
+        if (p != null && p.occurrence == occurrence && p.confidence == confidence && p.isValid(this)) {
+            if (slot > 0) {
+                final Projection[] reordered = cache.clone();
+                System.arraycopy(cache, 0, reordered, 1, slot);
+                reordered[0] = p;
+                projections = reordered;
+            }
+            return p.toSentence(this, mem.narParameters);
+        }
+        final Sentence result = project(targetTime, currentTime, mem);
+        final Projection[] updated = new Projection[capacity];
+        System.arraycopy(cache, 0, updated, 1, slot);
+        System.arraycopy(cache, slot + 1, updated, slot + 1, capacity - slot - 1);
+        updated[0] = new Projection(occurrence, confidence, this, result);
+        projections = updated;
+        return result;
+    }
+
+    private Sentence project(final long targetTime, final long currentTime, Memory mem) {
         final TruthValue newTruth = projectionTruth(targetTime, currentTime, mem);
         final boolean eternalizing = (newTruth instanceof EternalizedTruthValue);
                 
@@ -581,4 +644,59 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
     public TruthValue getTruth() {
         return truth;
     }
+
+    /**
+     * The truth of a cached projection, together with the state of the source it was computed from:
+     * truth values and stamps are mutable, so an entry is only reused while the source has not been modified.
+     * The results are never handed out, each hit builds a new sentence from the stored values.
+     */
+    private static final class Projection {
+        final long occurrence;
+        final double confidence;
+
+        final float sourceFrequency;
+        final double sourceConfidence;
+        final boolean sourceAnalytic;
+        final long sourceOccurrenceTime;
+        final long sourceCreationTime;
+
+        final float projectedFrequency;
+        final double projectedConfidence;
+        final boolean projectedAnalytic;
+        final boolean eternalized;
+
+        Projection(final long occurrence, final double confidence, final Sentence source, final Sentence result) {
+            this.occurrence = occurrence;
+            this.confidence = confidence;
+            this.sourceFrequency = source.truth.getFrequency();
+            this.sourceConfidence = source.truth.getConfidence();
+            this.sourceAnalytic = source.truth.getAnalytic();
+            this.sourceOccurrenceTime = source.stamp.getOccurrenceTime();
+            this.sourceCreationTime = source.stamp.getCreationTime();
+            this.projectedFrequency = result.truth.getFrequency();
+            this.projectedConfidence = result.truth.getConfidence();
+            this.projectedAnalytic = result.truth.getAnalytic();
+            this.eternalized = result.truth instanceof EternalizedTruthValue;
+        }
+
+        boolean isValid(final Sentence source) {
+            return source.truth.getFrequency() == sourceFrequency &&
+                source.truth.getConfidence() == sourceConfidence &&
+                source.truth.getAnalytic() == sourceAnalytic &&
+                source.stamp.getOccurrenceTime() == sourceOccurrenceTime &&
+                source.stamp.getCreationTime() == sourceCreationTime;
+        }
+
+        /**
+         * @param source The projected sentence
+         * @param narParameters parameters of the reasoner
+         * @return A new sentence like the one project built for this entry
+         */
+        Sentence toSentence(final Sentence source, final Parameters narParameters) {
+            final TruthValue truth = eternalized ?
+                new EternalizedTruthValue(projectedFrequency, projectedConfidence, narParameters) :
+                new TruthValue(projectedFrequency, projectedConfidence, projectedAnalytic, narParameters);
+            return new Sentence(source.term, source.punctuation, truth, source.stamp.cloneWithNewOccurrenceTime(occurrence), false);
+        }
+    }
 }
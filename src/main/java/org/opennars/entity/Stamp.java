@@ -32,9 +32,6 @@ import org.opennars.storage.Memory;
 
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 import static org.opennars.inference.TemporalRules.*;
 import static org.opennars.language.Tense.*;
@@ -47,11 +44,11 @@ import org.opennars.main.Parameters;
  * @author Patrick Hammer
  */
 public class Stamp implements Cloneable, Serializable {
-    /** serial numbers. not to be modified after Stamp constructor has initialized it*/
-    public BaseEntry[] evidentialBase;
+    /** serial numbers of the inputs the sentence is derived from, shared by the stamps with the same evidence */
+    private EvidentialBase evidentialBase;
 
-    /** the length of @see evidentialBase */
-    public int baseLength;
+    /** whether an input was used more than once in the derivation */
+    private boolean cyclic;
 
     /** creation time of the stamp */
     private long creationTime;
@@ -62,9 +59,6 @@ public class Stamp implements Cloneable, Serializable {
     /** default for atemporal events means "always" in Judgment/Question, but "current" in Goal/Quest*/
     public static final long ETERNAL = Integer.MIN_VALUE;
 
-    /** caches evidentialBase as a set for comparisons and hashcode, stores the unique Long's in-order for efficiency*/
-    private BaseEntry[] evidentialSet = null;
-
     /** Tense of the item*/
     private Tense tense;
 
@@ -80,9 +74,6 @@ public class Stamp implements Cloneable, Serializable {
      * Uses LinkedHashSet for optimal contains/indexOf performance.
      * TODO use thread-safety for this
      */
-    
-    /** cache of hashcode of evidential base */
-    private int evidentialHash;
 
     
     public boolean before(final Stamp s, final int duration) {
@@ -97,14 +88,12 @@ public class Stamp implements Cloneable, Serializable {
         return order(s.occurrenceTime, occurrenceTime, duration) == TemporalRules.ORDER_FORWARD;        }
 
     public float getOriginality() {
-        return 1.0f / (evidentialBase.length + 1);
+        return 1.0f / (evidentialBase.size() + 1);
     }
     
     /** used for when the ocrrence time will be set later; so should not be called from externally but through another Stamp constructor */
     protected Stamp(final Tense tense, final BaseEntry serial) {
-        this.baseLength = 1;
-        this.evidentialBase = new BaseEntry[baseLength];
-        this.evidentialBase[0] = serial;
+        this.evidentialBase = EvidentialBase.of(serial);
         this.tense = tense;
         this.creationTime = -1;
     }
@@ -143,7 +132,7 @@ public class Stamp implements Cloneable, Serializable {
 
     public Stamp(final Stamp old, final long creationTime, final Stamp useEvidentialBase) {        
         this.evidentialBase = useEvidentialBase.evidentialBase;
-        this.baseLength = useEvidentialBase.baseLength;
+        this.cyclic = useEvidentialBase.cyclic;
         this.creationTime = creationTime;
 
         this.occurrenceTime = old.getOccurrenceTime();
@@ -151,36 +140,16 @@ public class Stamp implements Cloneable, Serializable {
     
     /**
      * Generate a new stamp for derived sentence by merging the two from parents
-     * the first one is no shorter than the second
      *
      * @param first The first Stamp
      * @param second The second Stamp
      */
     public Stamp(final Stamp first, final Stamp second, final long time, Parameters narParameters) {
-        //TODO use iterators instead of repeated first and second .get's?
-        
-        int i1, i2, j;
-        i1 = i2 = j = 0;
-        this.baseLength = Math.min(first.baseLength + second.baseLength, narParameters.MAXIMUM_EVIDENTAL_BASE_LENGTH);
-        this.evidentialBase = new BaseEntry[baseLength];
-
-        final BaseEntry[] firstBase = first.evidentialBase;
-        final BaseEntry[] secondBase = second.evidentialBase;     
-        final int firstLength = firstBase.length;
-        final int secondLength = secondBase.length;
+        this.evidentialBase = EvidentialBase.union(first.evidentialBase, second.evidentialBase, narParameters.MAXIMUM_EVIDENTAL_BASE_LENGTH);
+        this.cyclic = first.cyclic || second.cyclic || EvidentialBase.overlap(first.evidentialBase, second.evidentialBase);
 
         creationTime = time;
         occurrenceTime = first.getOccurrenceTime();    // use the occurrence of task
-        
-        //https://code.google.com/p/open-nars/source/browse/trunk/nars_core_java/nars/entity/Stamp.java#143        
-        while (j < baseLength) {
-            if(i2 < secondLength) {
-                evidentialBase[j++] = secondBase[i2++];
-            }
-            if(i1 < firstLength) {
-                evidentialBase[j++] = firstBase[i1++];
-            }
-        }
     }
 
     public Stamp(final Timable time, final Memory memory, final Tense tense) {
@@ -192,36 +161,20 @@ public class Stamp implements Cloneable, Serializable {
         this(time, memory, Tense.Present);
     }
     
-    /** Detects evidental base overlaps **/
+    /** Detects evidental base overlaps, also within one of the bases **/
     public static boolean baseOverlap(final Stamp a, final Stamp b) {
-        final BaseEntry[] base1 = a.evidentialBase;
-        final BaseEntry[] base2 = b.evidentialBase;
-
-        final Set<BaseEntry> task_base = new LinkedHashSet<>(base1.length + base2.length);
-        for (final BaseEntry aBase1 : base1) {
-            if (task_base.contains(aBase1)) { //can have an overlap in itself already
-                return true;
-            }
-            task_base.add(aBase1);
-        }
-        for (final BaseEntry aBase2 : base2) {
-            if (task_base.contains(aBase2)) {
-                return true;
-            }
-            task_base.add(aBase2); //also add to detect collision with itself
-        }
-        return false;
-     }
+        return a.cyclic || b.cyclic || EvidentialBase.overlap(a.evidentialBase, b.evidentialBase);
+    }
     
     public boolean evidenceIsCyclic() {
-        final Set<BaseEntry> task_base = new LinkedHashSet<>(this.evidentialBase.length);
-        for (final BaseEntry anEvidentialBase : this.evidentialBase) {
-            if (task_base.contains(anEvidentialBase)) { //can have an overlap in itself already
-                return true;
-            }
-            task_base.add(anEvidentialBase);
-        }
-        return false;
+        return cyclic;
+    }
+
+    /**
+     * @return The inputs the sentence is derived from
+     */
+    public EvidentialBase getEvidentialBase() {
+        return evidentialBase;
     }
 
     public boolean isEternal() {
@@ -295,21 +248,6 @@ public class Stamp implements Cloneable, Serializable {
         return sorted;
     }
 
-    /**
-     * Convert the evidentialBase into a set
-     *
-     * @return The NavigableSet representation of the evidential base
-     */
-    private BaseEntry[] toSet() {        
-        if (evidentialSet == null) {        
-            evidentialSet = toSetArray(evidentialBase);
-            evidentialHash = Arrays.hashCode(evidentialSet);
-        }
-        
-        return evidentialSet;
-    }
-
-    
     @Override public boolean equals(final Object that) {
         throw new IllegalStateException("Use other equals() method");
     }
@@ -328,8 +266,7 @@ public class Stamp implements Cloneable, Serializable {
         if (ocurrenceTime)
             if (getOccurrenceTime()!=s.getOccurrenceTime()) return false;       
         if (evidentialBase) {
-            if (evidentialHash() != s.evidentialHash()) return false;
-            return Arrays.equals(toSet(), s.toSet());
+            return this.evidentialBase.equals(s.evidentialBase);
         }
         
         return true;        
@@ -341,9 +278,7 @@ public class Stamp implements Cloneable, Serializable {
      * @return hash code
      */
     public final int evidentialHash() {
-        if (evidentialSet==null)
-            toSet();       
-        return evidentialHash;
+        return evidentialBase.hashCode();
     }
     
     public Stamp cloneWithNewOccurrenceTime(final long newOcurrenceTime) {
@@ -421,7 +356,8 @@ public class Stamp implements Cloneable, Serializable {
     public CharSequence name() {
         if (name == null) {
             
-            final int estimatedInitialSize = 10 * baseLength;
+            final BaseEntry[] entries = evidentialBase.toArray();
+            final int estimatedInitialSize = 10 * entries.length;
 
             final StringBuilder buffer = new StringBuilder(estimatedInitialSize);
             buffer.append(Symbols.STAMP_OPENER).append(getCreationTime());
@@ -429,9 +365,9 @@ public class Stamp implements Cloneable, Serializable {
                 buffer.append('|').append(occurrenceTime);
             }
             buffer.append(' ').append(Symbols.STAMP_STARTER).append(' ');
-            for (int i = 0; i < baseLength; i++) {
-                buffer.append(evidentialBase[i].toString());
-                if (i < (baseLength - 1)) {
+            for (int i = 0; i < entries.length; i++) {
+                buffer.append(entries[i].toString());
+                if (i < (entries.length - 1)) {
                     buffer.append(Symbols.STAMP_SEPARATOR);
                 }
             }
@@ -510,7 +446,9 @@ public class Stamp implements Cloneable, Serializable {
 
         @Override
         public int compareTo(Object o) {
-            return Comparator.comparing(BaseEntry::getNarId).thenComparing(BaseEntry::getInputId).compare(this, (BaseEntry) o);
+            final BaseEntry other = (BaseEntry) o;
+            final int c = Long.compare(narId, other.narId);
+            return c != 0 ? c : Long.compare(inputId, other.inputId);
         }
     }
 }
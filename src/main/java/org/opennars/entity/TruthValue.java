@@ -295,4 +295,19 @@ public class TruthValue implements Cloneable, Serializable { // implements Clone
         setConfidence(confidence);
         return this;
     }
+
+    /**
+     * Set all factors like the constructor does, for truth values which hold the results of the truth functions
+     *
+     * @param frequency frequency value
+     * @param confidence confidence value, limited like by {@link #setConfidence}
+     * @param analytic is the truth value an analytic one?
+     * @return this truth value
+     */
+    public TruthValue set(final float frequency, final double confidence, final boolean analytic) {
+        setFrequency(frequency);
+        setConfidence(confidence);
+        setAnalytic(analytic);
+        return this;
+    }
 }
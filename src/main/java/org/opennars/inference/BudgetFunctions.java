@@ -32,6 +32,9 @@ import org.opennars.main.Parameters;
 
 /**
  * Budget functions for resources allocation
+ * <p>
+ * The budgets of the derived tasks can be computed into a budget of the caller, which the inference rules
+ * reuse as the task copies its budget, see {@link org.opennars.control.DerivationContext#budget(int)}
  *
  * @author Pei Wang
  * @author Patrick Hammer
@@ -48,7 +51,18 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The quality of the judgment, according to truth value only
      */
     public final static float truthToQuality(final TruthValue t) {
-        final float exp = t.getExpectation();
+        return truthToQuality(t.getFrequency(), t.getConfidence());
+    }
+
+    /**
+     * {@link #truthToQuality(TruthValue)} of the truth value (frequency, confidence)
+     *
+     * @param frequency The frequency of a judgment
+     * @param confidence The confidence of a judgment
+     * @return The quality of the judgment, according to truth value only
+     */
+    public final static float truthToQuality(final float frequency, final double confidence) {
+        final float exp = ((float)confidence * (frequency - 0.5f) + 0.5f);
         return (float) max(exp, (1 - exp)*0.75);
     }
 
@@ -78,6 +92,13 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget for the new task
      */
     static BudgetValue revise(final TruthValue tTruth, final TruthValue bTruth, final TruthValue truth, final boolean feedbackToLinks, final org.opennars.control.DerivationContext nal) {
+        return revise(tTruth, bTruth, truth, feedbackToLinks, nal, newBudget(nal));
+    }
+
+    /**
+     * {@link #revise(TruthValue, TruthValue, TruthValue, boolean, org.opennars.control.DerivationContext)} into result
+     */
+    static BudgetValue revise(final TruthValue tTruth, final TruthValue bTruth, final TruthValue truth, final boolean feedbackToLinks, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
         final float difT = truth.getExpDifAbs(tTruth);
         final Task task = nal.getCurrentTask();
         task.decPriority(1 - difT);
@@ -114,7 +135,7 @@ public final class BudgetFunctions extends UtilityFunctions {
         }
         */
         
-        return new BudgetValue(priority, durability, quality, nal.narParameters);
+        return result.set(priority, durability, quality);
     }
 
     /**
@@ -217,7 +238,12 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget value of the conclusion
      */
     public static BudgetValue forward(final TruthValue truth, final org.opennars.control.DerivationContext nal) {
-        return budgetInference(truthToQuality(truth), 1, nal);
+        return forward(truth, nal, newBudget(nal));
+    }
+
+    /** {@link #forward(TruthValue, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue forward(final TruthValue truth, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
+        return budgetInference(truthToQuality(truth), 1, nal, result);
     }
 
     /**
@@ -228,7 +254,12 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget value of the conclusion
      */
     public static BudgetValue backward(final TruthValue truth, final org.opennars.control.DerivationContext nal) {
-        return budgetInference(truthToQuality(truth), 1, nal);
+        return backward(truth, nal, newBudget(nal));
+    }
+
+    /** {@link #backward(TruthValue, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue backward(final TruthValue truth, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
+        return budgetInference(truthToQuality(truth), 1, nal, result);
     }
 
     /**
@@ -239,7 +270,12 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget value of the conclusion
      */
     public static BudgetValue backwardWeak(final TruthValue truth, final org.opennars.control.DerivationContext nal) {
-        return budgetInference((float)w2c(1, nal.narParameters) * truthToQuality(truth), 1, nal);
+        return backwardWeak(truth, nal, newBudget(nal));
+    }
+
+    /** {@link #backwardWeak(TruthValue, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue backwardWeak(final TruthValue truth, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
+        return budgetInference((float)w2c(1, nal.narParameters) * truthToQuality(truth), 1, nal, result);
     }
 
     /* ----- Task derivation in CompositionalRules and StructuralRules ----- */
@@ -252,8 +288,13 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget of the conclusion
      */
     public static BudgetValue compoundForward(final TruthValue truth, final Term content, final org.opennars.control.DerivationContext nal) {
+        return compoundForward(truth, content, nal, newBudget(nal));
+    }
+
+    /** {@link #compoundForward(TruthValue, Term, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue compoundForward(final TruthValue truth, final Term content, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
         final float complexity = (content == null) ? nal.narParameters.COMPLEXITY_UNIT : nal.narParameters.COMPLEXITY_UNIT*content.getComplexity();
-        return budgetInference(truthToQuality(truth), complexity, nal);
+        return budgetInference(truthToQuality(truth), complexity, nal, result);
     }
 
     /**
@@ -264,7 +305,12 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget of the conclusion
      */
     public static BudgetValue compoundBackward(final Term content, final org.opennars.control.DerivationContext nal) {
-        return budgetInference(1, content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, nal);
+        return compoundBackward(content, nal, newBudget(nal));
+    }
+
+    /** {@link #compoundBackward(Term, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue compoundBackward(final Term content, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
+        return budgetInference(1, content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, nal, result);
     }
 
     /**
@@ -275,7 +321,12 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @return The budget of the conclusion
      */
     public static BudgetValue compoundBackwardWeak(final Term content, final org.opennars.control.DerivationContext nal) {
-        return budgetInference((float)w2c(1, nal.narParameters), content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, nal);
+        return compoundBackwardWeak(content, nal, newBudget(nal));
+    }
+
+    /** {@link #compoundBackwardWeak(Term, org.opennars.control.DerivationContext)} into result */
+    public static BudgetValue compoundBackwardWeak(final Term content, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
+        return budgetInference((float)w2c(1, nal.narParameters), content.getComplexity()*nal.narParameters.COMPLEXITY_UNIT, nal, result);
     }
 
     /**
@@ -295,9 +346,10 @@ public final class BudgetFunctions extends UtilityFunctions {
      * @param qual Quality of the inference
      * @param complexity Syntactic complexity of the conclusion
      * @param nal Reference to the memory
-     * @return Budget of the conclusion task
+     * @param result Budget receiving the budget of the conclusion
+     * @return result
      */
-    private static BudgetValue budgetInference(final float qual, final float complexity, final org.opennars.control.DerivationContext nal) {
+    private static BudgetValue budgetInference(final float qual, final float complexity, final org.opennars.control.DerivationContext nal, final BudgetValue result) {
         Item t = nal.getCurrentTaskLink();
         if (t == null) {
             t = nal.getCurrentTask();
@@ -313,7 +365,11 @@ public final class BudgetFunctions extends UtilityFunctions {
             bLink.incPriority(or(quality, targetActivation));
             bLink.incDurability(quality);
         }
-        return new BudgetValue(priority, durability, quality, nal.narParameters);
+        return result.set(priority, durability, quality);
+    }
+
+    private static BudgetValue newBudget(final org.opennars.control.DerivationContext nal) {
+        return new BudgetValue(0, 0, 0, nal.narParameters);
     }
 
     @Deprecated static BudgetValue solutionEval(final Sentence problem, final Sentence solution, final Task task, final Memory memory) {
@@ -23,17 +23,15 @@
  */
 package org.opennars.inference;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import org.opennars.control.DerivationContext;
 import org.opennars.entity.*;
 import org.opennars.io.Symbols;
 import org.opennars.language.*;
 import org.opennars.main.Debug;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -86,8 +84,8 @@ public final class CompositionalRules {
         }
         final TruthValue truthT = nal.getCurrentTask().sentence.truth;
         final TruthValue truthB = nal.getCurrentBelief().truth;
-        final TruthValue truthOr = union(truthT, truthB, nal.narParameters);
-        final TruthValue truthAnd = intersection(truthT, truthB, nal.narParameters);
+        final TruthValue truthOr = union(truthT, truthB, nal.truth(0), nal.narParameters);
+        final TruthValue truthAnd = intersection(truthT, truthB, nal.truth(1), nal.narParameters);
         TruthValue truthDif = null;
         Term termOr = null;
         Term termAnd = null;
@@ -99,11 +97,11 @@ public final class CompositionalRules {
                 if (truthB.isNegative()) {
                     if (!truthT.isNegative()) {
                         termDif = DifferenceExt.make(componentT, componentB);
-                        truthDif = intersection(truthT, negation(truthB, nal.narParameters), nal.narParameters);
+                        truthDif = intersection(truthT, negation(truthB, nal.truth(2), nal.narParameters), nal.truth(2), nal.narParameters);
                     }
                 } else if (truthT.isNegative()) {
                     termDif = DifferenceExt.make(componentB, componentT);
-                    truthDif = intersection(truthB, negation(truthT, nal.narParameters), nal.narParameters);
+                    truthDif = intersection(truthB, negation(truthT, nal.truth(2), nal.narParameters), nal.truth(2), nal.narParameters);
                 }
             } else if (taskContent instanceof Implication) {
                 termOr = Disjunction.make(componentT, componentB);
@@ -121,11 +119,11 @@ public final class CompositionalRules {
                 if (truthB.isNegative()) {
                     if (!truthT.isNegative()) {
                         termDif = DifferenceInt.make(componentT, componentB);
-                        truthDif = intersection(truthT, negation(truthB, nal.narParameters), nal.narParameters);
+                        truthDif = intersection(truthT, negation(truthB, nal.truth(2), nal.narParameters), nal.truth(2), nal.narParameters);
                     }
                 } else if (truthT.isNegative()) {
                     termDif = DifferenceInt.make(componentB, componentT);
-                    truthDif = intersection(truthB, negation(truthT, nal.narParameters), nal.narParameters);
+                    truthDif = intersection(truthB, negation(truthT, nal.truth(2), nal.narParameters), nal.truth(2), nal.narParameters);
                 }
             } else if (taskContent instanceof Implication) {
                 termOr = Conjunction.make(componentT, componentB);
@@ -157,7 +155,7 @@ public final class CompositionalRules {
         if ((content == null) || statement == null || content.equals(statement) || content.equals(nal.getCurrentBelief().term)) {
             return;
         }
-        final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal);
+        final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         nal.doublePremiseTask(content, truth, budget, false, false); //(allow overlap) but not needed here, isn't detachment, this one would be even problematic from control perspective because its composition
     }
 
@@ -202,7 +200,7 @@ public final class CompositionalRules {
         TruthValue truth = null;
         if (index == 0) {
             if (oldContent instanceof Inheritance) {
-                truth = lookupTruthOrNull(v1, v2, nal.narParameters,
+                truth = lookupTruthOrNull(v1, v2, nal.truth(0), nal.narParameters,
                     compound instanceof IntersectionExt,               EnumType.REDUCECONJUNCTION,
                     compound instanceof IntersectionInt,                       EnumType.REDUCEDISJUNCTION,
                     compound instanceof SetInt && component instanceof SetInt, EnumType.REDUCECONJUNCTION,
@@ -210,21 +208,21 @@ public final class CompositionalRules {
 
                 if (truth == null && compound instanceof DifferenceExt) {
                     if (compound.term[0].equals(component)) {
-                        truth = reduceDisjunction(v2, v1, nal.narParameters);
+                        truth = reduceDisjunction(v2, v1, nal.truth(0), nal.narParameters);
                     } else {
-                        truth = reduceConjunctionNeg(v1, v2, nal.narParameters);
+                        truth = reduceConjunctionNeg(v1, v2, nal.truth(0), nal.narParameters);
                     }
                 }
             } else if (oldContent instanceof Implication) {
                 if (compound instanceof Conjunction) {
-                    truth = reduceConjunction(v1, v2, nal.narParameters);
+                    truth = reduceConjunction(v1, v2, nal.truth(0), nal.narParameters);
                 } else if (compound instanceof Disjunction) {
-                    truth = reduceDisjunction(v1, v2, nal.narParameters);
+                    truth = reduceDisjunction(v1, v2, nal.truth(0), nal.narParameters);
                 }
             }
         } else {
             if (oldContent instanceof Inheritance) {
-                truth = lookupTruthOrNull(v1, v2, nal.narParameters,
+                truth = lookupTruthOrNull(v1, v2, nal.truth(0), nal.narParameters,
                     compound instanceof IntersectionInt,               EnumType.REDUCECONJUNCTION,
                     compound instanceof IntersectionExt,                       EnumType.REDUCEDISJUNCTION,
                     compound instanceof SetExt && component instanceof SetExt, EnumType.REDUCECONJUNCTION,
@@ -232,21 +230,21 @@ public final class CompositionalRules {
 
                 if( truth == null && compound instanceof DifferenceInt ) {
                     if (compound.term[1].equals(component)) {
-                        truth = reduceDisjunction(v2, v1, nal.narParameters);
+                        truth = reduceDisjunction(v2, v1, nal.truth(0), nal.narParameters);
                     } else {
-                        truth = reduceConjunctionNeg(v1, v2, nal.narParameters);
+                        truth = reduceConjunctionNeg(v1, v2, nal.truth(0), nal.narParameters);
                     }
                 }
             } else if (oldContent instanceof Implication) {
                 if (compound instanceof Disjunction) {
-                    truth = reduceConjunction(v1, v2, nal.narParameters);
+                    truth = reduceConjunction(v1, v2, nal.truth(0), nal.narParameters);
                 } else if (compound instanceof Conjunction) {
-                    truth = reduceDisjunction(v1, v2, nal.narParameters);
+                    truth = reduceDisjunction(v1, v2, nal.truth(0), nal.narParameters);
                 }
             }
         }
         if (truth != null) {
-            final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal);
+            final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
             if (delta != 0) {
                 long baseTime = task.sentence.getOccurenceTime();
                 if (baseTime != Stamp.ETERNAL) {
@@ -287,7 +285,7 @@ public final class CompositionalRules {
         TruthValue truth = null;
         BudgetValue budget;
         if (taskSentence.isQuestion() || taskSentence.isQuest()) {
-            budget = BudgetFunctions.compoundBackward(content, nal);
+            budget = BudgetFunctions.compoundBackward(content, nal, nal.budget(0));
             nal.getTheNewStamp().setOccurrenceTime(occurrence_time);
             nal.doublePremiseTask(content, truth, budget, false, false);
             // special inference to answer conjunctive questions with query variables
@@ -305,8 +303,8 @@ public final class CompositionalRules {
 
                 nal.setCurrentTask(contentTask);
                 final Term conj = Conjunction.make(component, content);
-                truth = intersection(contentBelief.truth, belief.truth, nal.narParameters);
-                budget = BudgetFunctions.compoundForward(truth, conj, nal);
+                truth = intersection(contentBelief.truth, belief.truth, nal.truth(0), nal.narParameters);
+                budget = BudgetFunctions.compoundForward(truth, conj, nal, nal.budget(0));
                 nal.getTheNewStamp().setOccurrenceTime(occurrence_time);
                 nal.doublePremiseTask(conj, truth, budget, false, false);
             }
@@ -324,19 +322,19 @@ public final class CompositionalRules {
 
             if (compound instanceof Conjunction) {
                 if (taskSentence.isGoal()) {
-                    truth = intersection(v1, v2, nal.narParameters);
+                    truth = intersection(v1, v2, nal.truth(0), nal.narParameters);
                 } else { // isJudgment
-                    truth = reduceConjunction(v1, v2, nal.narParameters);
+                    truth = reduceConjunction(v1, v2, nal.truth(0), nal.narParameters);
                 }
             } else {
                 if (taskSentence.isGoal()) {
-                    truth = reduceConjunction(v2, v1, nal.narParameters);
+                    truth = reduceConjunction(v2, v1, nal.truth(0), nal.narParameters);
                 } else {  // isJudgment
-                    truth = reduceDisjunction(v1, v2, nal.narParameters);
+                    truth = reduceDisjunction(v1, v2, nal.truth(0), nal.narParameters);
                 }
             }
 
-            budget = BudgetFunctions.compoundForward(truth, content, nal);
+            budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         }
         nal.getTheNewStamp().setOccurrenceTime(occurrence_time);
         nal.doublePremiseTask(content, truth, budget, false, false);
@@ -378,29 +376,29 @@ public final class CompositionalRules {
         for(boolean subjectIntroduction : new boolean[]{true, false}) {
             Set<Pair<Term,Float>> contents = CompositionalRules.introduceVariables(nal, Implication.make(state1, state2),subjectIntroduction);
             for(Pair<Term,Float> content_penalty : contents) {
-                TruthValue truth = induction(truthT, truthB, nal.narParameters).mulConfidence(content_penalty.getRight());
-                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal);
+                TruthValue truth = induction(truthT, truthB, nal.truth(0), nal.narParameters).mulConfidence(content_penalty.getRight());
+                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal, nal.budget(0));
                 nal.doublePremiseTask(content_penalty.getLeft(), truth, budget.clone(), false, false);
             }
 
             contents = CompositionalRules.introduceVariables(nal, Implication.make(state2, state1), subjectIntroduction);
              for(Pair<Term,Float> content_penalty : contents) {
-                TruthValue truth = induction(truthB, truthT, nal.narParameters).mulConfidence(content_penalty.getRight());
-                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal);
+                TruthValue truth = induction(truthB, truthT, nal.truth(0), nal.narParameters).mulConfidence(content_penalty.getRight());
+                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal, nal.budget(0));
                 nal.doublePremiseTask(content_penalty.getLeft(), truth, budget.clone(), false, false);
             }
 
             contents = CompositionalRules.introduceVariables(nal, Equivalence.make(state1, state2), subjectIntroduction);
              for(Pair<Term,Float> content_penalty : contents) {
-                TruthValue truth = comparison(truthT, truthB, nal.narParameters).mulConfidence(content_penalty.getRight());
-                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal);
+                TruthValue truth = comparison(truthT, truthB, nal.truth(0), nal.narParameters).mulConfidence(content_penalty.getRight());
+                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal, nal.budget(0));
                 nal.doublePremiseTask(content_penalty.getLeft(), truth, budget.clone(), false, false);
             }
 
             contents = CompositionalRules.introduceVariables(nal, Conjunction.make(state1, state2), subjectIntroduction);
             for(Pair<Term,Float> content_penalty : contents) {
-                TruthValue truth = intersection(truthT, truthB, nal.narParameters).mulConfidence(content_penalty.getRight());
-                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal);
+                TruthValue truth = intersection(truthT, truthB, nal.truth(0), nal.narParameters).mulConfidence(content_penalty.getRight());
+                BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal, nal.budget(0));
                 nal.doublePremiseTask(content_penalty.getLeft(), truth, budget.clone(), false, false);
             }
         }
@@ -433,8 +431,8 @@ public final class CompositionalRules {
             for(boolean subjectIntro : new boolean[]{true, false}) {
                 Set<Pair<Term,Float>> conts = introduceVariables(nal, content, subjectIntro);
                 for(Pair<Term,Float> content_penalty : conts) {
-                    final TruthValue truth = intersection(taskSentence.truth, belief.truth, nal.narParameters).mulConfidence(content_penalty.getRight());
-                    final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+                    final TruthValue truth = intersection(taskSentence.truth, belief.truth, nal.truth(0), nal.narParameters).mulConfidence(content_penalty.getRight());
+                    final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
                     b1 |= (nal.doublePremiseTask(content_penalty.getLeft(), truth, budget, false, false))!=null;
                 }
             }
@@ -450,12 +448,12 @@ public final class CompositionalRules {
                 for(Pair<Term,Float> content_penalty : conts) {
                     final TruthValue truth;
                     if (premise1.equals(taskSentence.term)) {
-                        truth = induction(belief.truth, taskSentence.truth, nal.narParameters);
+                        truth = induction(belief.truth, taskSentence.truth, nal.truth(0), nal.narParameters);
                     } else {
-                        truth = induction(taskSentence.truth, belief.truth, nal.narParameters);
+                        truth = induction(taskSentence.truth, belief.truth, nal.truth(0), nal.narParameters);
                     }
                     truth.mulConfidence(content_penalty.getRight());
-                    final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+                    final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
                     b2 |= nal.doublePremiseTask(content_penalty.getLeft(), truth, budget, false, false)!=null;
                 }
             }
@@ -551,8 +549,8 @@ public final class CompositionalRules {
                                 continue;
                             }
                             if (s2!=null && !s2.equals(s1) && (sentence.truth != null) && (belief.truth != null)) {
-                                final TruthValue truth = abduction(sentence.truth, belief.truth, nal.narParameters);
-                                final BudgetValue budget = BudgetFunctions.compoundForward(truth, s2, nal);
+                                final TruthValue truth = abduction(sentence.truth, belief.truth, nal.truth(0), nal.narParameters);
+                                final BudgetValue budget = BudgetFunctions.compoundForward(truth, s2, nal, nal.budget(0));
                                 nal.doublePremiseTask(s2, truth, budget, false, false);
                             }
                         }
@@ -575,8 +573,8 @@ public final class CompositionalRules {
                                 continue;
                             }
                             if (s2!=null && !s2.equals(s1) && (sentence.truth != null) && (belief.truth != null)) {
-                                final TruthValue truth = abduction(sentence.truth, belief.truth, nal.narParameters);
-                                final BudgetValue budget = BudgetFunctions.compoundForward(truth, s2, nal);
+                                final TruthValue truth = abduction(sentence.truth, belief.truth, nal.truth(0), nal.narParameters);
+                                final BudgetValue budget = BudgetFunctions.compoundForward(truth, s2, nal, nal.budget(0));
                                 nal.doublePremiseTask(s2, truth, budget, false, false);
                             }
                         }
@@ -617,8 +615,8 @@ public final class CompositionalRules {
                 continue;
             }
             if (!s2.equals(s12) && (sentence.truth != null) && (belief.truth != null)) {
-                final TruthValue truth = abduction(sentence.truth, belief.truth, nal.narParameters);
-                final BudgetValue budget = BudgetFunctions.compoundForward(truth, s2, nal);
+                final TruthValue truth = abduction(sentence.truth, belief.truth, nal.truth(0), nal.narParameters);
+                final BudgetValue budget = BudgetFunctions.compoundForward(truth, s2, nal, nal.budget(0));
                 nal.doublePremiseTask(s2, truth, budget, false, false);
             }
         }
@@ -654,11 +652,11 @@ public final class CompositionalRules {
             if(T == null) {
                 return;
             }
-            final TruthValue truth = induction(originalMainSentence.truth, subSentence.truth, nal.narParameters);
+            final TruthValue truth = induction(originalMainSentence.truth, subSentence.truth, nal.truth(0), nal.narParameters);
             for(boolean subjectIntro : new boolean[]{true, false}) {
                 Set<Pair<Term,Float>> conts = introduceVariables(nal, T, subjectIntro);
                 for(Pair<Term,Float> content_penalty : conts) {
-                    final BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal);
+                    final BudgetValue budget = BudgetFunctions.compoundForward(truth, content_penalty.getLeft(), nal, nal.budget(0));
                     final TruthValue truthVal = truth.clone();
                     truthVal.mulConfidence(content_penalty.getRight());
                     nal.doublePremiseTask(content_penalty.getLeft(), truthVal, budget.clone(), false, false);
@@ -668,32 +666,6 @@ public final class CompositionalRules {
     }
     
     
-    /**
-     * The power set, from João Silva, https://stackoverflow.com/questions/1670862/obtaining-a-powerset-of-a-set-in-java
-     * 
-     * @param <T>
-     * @param originalSet
-     * @return 
-     */
-    public static <T> Set<Set<T>> powerSet(Set<T> originalSet) {
-        Set<Set<T>> sets = new LinkedHashSet<Set<T>>();
-        if (originalSet.isEmpty()) {
-            sets.add(new LinkedHashSet<T>());
-            return sets;
-        }
-        List<T> list = new ArrayList<T>(originalSet);
-        T head = list.get(0);
-        Set<T> rest = new LinkedHashSet<T>(list.subList(1, list.size())); 
-        for (Set<T> set : powerSet(rest)) {
-            Set<T> newSet = new LinkedHashSet<T>();
-            newSet.add(head);
-            newSet.addAll(set);
-            sets.add(newSet);
-            sets.add(set);
-        }       
-        return sets;
-    }
-    
     /**
      * Introduction of variables that appear either within subjects or within predicates and more than once
      * 
@@ -739,30 +711,31 @@ public final class CompositionalRules {
             }
         }
         
-        List<Term> shuffledVariables = new ArrayList<Term>();
-        for(Term t : app.keySet()) {
-            shuffledVariables.add(t);
-        }
-        Collections.shuffle(shuffledVariables, nal.memory.randomNumber);
-        Set<Term> selected = new LinkedHashSet<Term>();
-        int i = 1;
-        for(Term t : shuffledVariables) {
-            selected.add(t);
-            if(Math.pow(2.0, i) > nal.narParameters.VARIABLE_INTRODUCTION_COMBINATIONS_MAX) {
-                break;
-            }
-            i++;
-        }
-        Set<Set<Term>> powerset = powerSet(selected);
-        for(Set<Term> combo : powerset) {
-            Map<Term,Term> mapping = new LinkedHashMap<>();
-            for(Term vIntro : combo) {
-                mapping.put(vIntro, app.get(vIntro));
-            }
-            if(mapping.size() > 0) {
-                Float generalizationPenalty = (float) Math.pow(nal.narParameters.VARIABLE_INTRODUCTION_CONFIDENCE_MUL, mapping.size()-1);
-                result.add(new ImmutablePair<>(((CompoundTerm)implicationEquivalenceOrJunction).applySubstitute(mapping),generalizationPenalty));
+        //shuffled like Collections.shuffle, so the same random numbers are drawn
+        final Term[] selected = app.keySet().toArray(new Term[0]);
+        for(int j = selected.length; j > 1; j--) {
+            final int swapped = nal.memory.randomNumber.nextInt(j);
+            final Term t = selected[j-1];
+            selected[j-1] = selected[swapped];
+            selected[swapped] = t;
+        }
+        int amount = 1;
+        while(amount < selected.length && Math.pow(2.0, amount) <= nal.narParameters.VARIABLE_INTRODUCTION_COMBINATIONS_MAX) {
+            amount++;
+        }
+        amount = Math.min(amount, selected.length);
+        //each combination of the selected terms is a bit mask, descending masks give the order of the former power set,
+        //one mapping is reused as the substitution applied is not kept
+        final Map<Term,Term> mapping = new HashMap<>();
+        for(int combo = (1 << amount) - 1; combo > 0; combo--) {
+            mapping.clear();
+            for(int j = 0; j < amount; j++) {
+                if((combo & (1 << j)) != 0) {
+                    mapping.put(selected[j], app.get(selected[j]));
+                }
             }
+            final Float generalizationPenalty = (float) Math.pow(nal.narParameters.VARIABLE_INTRODUCTION_CONFIDENCE_MUL, mapping.size()-1);
+            result.add(new ImmutablePair<>(((CompoundTerm)implicationEquivalenceOrJunction).applySubstitute(mapping),generalizationPenalty));
         }
         return result;
     }
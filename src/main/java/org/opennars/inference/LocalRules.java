@@ -73,7 +73,7 @@ public class LocalRules {
         } else {
             if (matchingOrder(sentence, belief)) {
                 final Term[] u = new Term[] { sentence.term, belief.term };
-                if (Variables.unify(nal.memory.randomNumber, Symbols.VAR_QUERY, u)) {
+                if (Variables.unify(nal.memory, Symbols.VAR_QUERY, u)) {
                     trySolution(belief, task, nal, true);
                 }
             }
@@ -120,23 +120,29 @@ public class LocalRules {
             return false;
         }
         
-        newBelief.stamp.alreadyAnticipatedNegConfirmation = oldBelief.stamp.alreadyAnticipatedNegConfirmation;
-        final TruthValue newTruth = newBelief.truth.clone();
-        final TruthValue oldTruth = oldBelief.truth;
-        boolean useNewBeliefTerm = intervalProjection(nal, newBelief.getTerm(), oldBelief.getTerm(), beliefConcept.recent_intervals, newTruth);
+        final RuleProfile.Counters outer = nal.applyingRule(nal.memory.ruleProfile.of("LocalRules.revision"));
+        final long start = System.nanoTime();
+        try {
+            newBelief.stamp.alreadyAnticipatedNegConfirmation = oldBelief.stamp.alreadyAnticipatedNegConfirmation;
+            final TruthValue newTruth = newBelief.truth.clone();
+            final TruthValue oldTruth = oldBelief.truth;
+            boolean useNewBeliefTerm = intervalProjection(nal, newBelief.getTerm(), oldBelief.getTerm(), beliefConcept.recent_intervals, newTruth);
         
-        final TruthValue truth = TruthFunctions.revision(newTruth, oldTruth, nal.narParameters);
-        final BudgetValue budget = BudgetFunctions.revise(newTruth, oldTruth, truth, feedbackToLinks, nal);
+            final TruthValue truth = TruthFunctions.revision(newTruth, oldTruth, nal.truth(0), nal.narParameters);
+            final BudgetValue budget = BudgetFunctions.revise(newTruth, oldTruth, truth, feedbackToLinks, nal, nal.budget(0));
         
-        if (budget.aboveThreshold()) {
-            long counter = -1; // -1 is invalid
-            if (newBelief.term instanceof Implication && oldBelief.term instanceof Implication) {
-                counter = ((Implication)newBelief.term).counter + ((Implication)oldBelief.term).counter; // add because the evidence adds up
+            if (budget.aboveThreshold()) {
+                long counter = -1; // -1 is invalid
+                if (newBelief.term instanceof Implication && oldBelief.term instanceof Implication) {
+                    counter = ((Implication)newBelief.term).counter + ((Implication)oldBelief.term).counter; // add because the evidence adds up
+                }
+                return nal.doublePremiseTaskRevised(useNewBeliefTerm ? newBelief.term : oldBelief.term, truth, budget, counter);
             }
-            return nal.doublePremiseTaskRevised(useNewBeliefTerm ? newBelief.term : oldBelief.term, truth, budget, counter);
+            
+            return false;
+        } finally {
+            nal.ruleApplied(outer, start);
         }
-        
-        return false;
     }
 
     /**
@@ -381,8 +387,8 @@ public class LocalRules {
         }
         final TruthValue value1 = judgment1.truth;
         final TruthValue value2 = judgment2.truth;
-        final TruthValue truth = TruthFunctions.intersection(value1, value2, nal.narParameters);
-        final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+        final TruthValue truth = TruthFunctions.intersection(value1, value2, nal.truth(0), nal.narParameters);
+        final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         nal.doublePremiseTask(content, truth, budget,false, false); //(allow overlap) but not needed here, isn't detachment
     }
 
@@ -403,8 +409,8 @@ public class LocalRules {
         final Statement content = Statement.make(statement, sub, pre, statement.getTemporalOrder());
         if (content == null) return;
         
-        final TruthValue truth = TruthFunctions.reduceConjunction(sym.truth, asym.truth, nal.narParameters);
-        final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+        final TruthValue truth = TruthFunctions.reduceConjunction(sym.truth, asym.truth, nal.truth(0), nal.narParameters);
+        final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         nal.doublePremiseTask(content, truth, budget,false, false);
     }
 
@@ -417,8 +423,8 @@ public class LocalRules {
      * @param nal Reference to the memory
      */
     private static void conversion(final DerivationContext nal) {
-        final TruthValue truth = TruthFunctions.conversion(nal.getCurrentBelief().truth, nal.narParameters);
-        final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+        final TruthValue truth = TruthFunctions.conversion(nal.getCurrentBelief().truth, nal.truth(0), nal.narParameters);
+        final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         convertedJudgment(truth, budget, nal);
     }
 
@@ -432,11 +438,11 @@ public class LocalRules {
     private static void convertRelation(final DerivationContext nal) {
         TruthValue truth = nal.getCurrentBelief().truth;
         if (((CompoundTerm) nal.getCurrentTask().getTerm()).isCommutative()) {
-            truth = TruthFunctions.abduction(truth, 1.0f, nal.narParameters);
+            truth = TruthFunctions.abduction(truth, 1.0f, nal.truth(0), nal.narParameters);
         } else {
-            truth = TruthFunctions.deduction(truth, 1.0f, nal.narParameters);
+            truth = TruthFunctions.deduction(truth, 1.0f, nal.truth(0), nal.narParameters);
         }
-        final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+        final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         convertedJudgment(truth, budget, nal);
     }
 
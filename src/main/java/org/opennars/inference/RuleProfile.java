@@ -0,0 +1,174 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.inference;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the inference rules of a reasoner: how often each rule was applied, the time spent in it,
+ * and the tasks it derived which were accepted or rejected by DerivationContext.derivedTask, per reason
+ * <p>
+ * The time of a rule includes the rules it applies itself, like LocalRules.match in RuleTables.reason.
+ * The counters are updated without locks, so they stay enabled.
+ */
+public class RuleProfile implements Serializable {
+
+    /** reasons of derivedTask to reject a derived task */
+    public enum Rejection {
+        UNSUPPORTED_GOAL("implication or equivalence goal or quest"),
+        INSUFFICIENT_BUDGET("Insufficient Budget"),
+        ZERO_CONFIDENCE("Ignored (zero confidence)"),
+        OPERATION_WITH_VARIABLE("Operation with variable as subject or predicate"),
+        WRONG_FORMAT("Wrong Format"),
+        OVERLAPPING_EVIDENCE("overlapping evidential base"),
+        DUPLICATE("Repeated derivation");
+
+        /** the reason as given to Memory.removeTask */
+        public final String reason;
+
+        Rejection(final String reason) {
+            this.reason = reason;
+        }
+    }
+
+    /** counters of one rule */
+    public static final class Counters implements Serializable {
+        public final String rule;
+        public final LongAdder invocations = new LongAdder();
+        public final LongAdder nanos = new LongAdder();
+        public final LongAdder derived = new LongAdder();
+        private final LongAdder[] rejected = new LongAdder[Rejection.values().length];
+
+        Counters(final String rule) {
+            this.rule = rule;
+            for (int i = 0; i < rejected.length; i++) {
+                rejected[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * @param reason The reason of the rejection
+         * @return Amount of derived tasks rejected for the reason
+         */
+        public long rejected(final Rejection reason) {
+            return rejected[reason.ordinal()].sum();
+        }
+
+        public void reject(final Rejection reason) {
+            rejected[reason.ordinal()].increment();
+        }
+    }
+
+    /** name of the counters of the tasks derived outside of a profiled rule */
+    public static final String UNATTRIBUTED = "unattributed";
+
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentSkipListMap<>();
+    /** the counters of the rules of the rule table by ordinal, so applying a rule does not look up its name */
+    private final Counters[] ruleTable = new Counters[RuleTables.Rule.values().length];
+
+    /**
+     * @param rule Name of the rule
+     * @return The counters of the rule, created on first use
+     */
+    public Counters of(final String rule) {
+        final Counters c = counters.get(rule);
+        return c != null ? c : counters.computeIfAbsent(rule, Counters::new);
+    }
+
+    /**
+     * @param rule A rule of the rule table
+     * @return The counters of the rule, the same as for its name
+     */
+    public Counters of(final RuleTables.Rule rule) {
+        final Counters c = ruleTable[rule.ordinal()];
+        if (c != null) {
+            return c;
+        }
+        final Counters named = of(rule.name()); //a race only stores the same counters twice
+        ruleTable[rule.ordinal()] = named;
+        return named;
+    }
+
+    /**
+     * @return The counters of the rules applied so far, by name
+     */
+    public Map<String, Counters> getCounters() {
+        return counters;
+    }
+
+    public void clear() {
+        Arrays.fill(ruleTable, null);
+        counters.clear();
+    }
+
+    /**
+     * @return One line per rule, with a header line
+     */
+    public String toCSV() {
+        final StringBuilder s = new StringBuilder("rule,invocations,nanoseconds,derived");
+        for (final Rejection r : Rejection.values()) {
+            s.append(",rejected_").append(r.name().toLowerCase());
+        }
+        s.append('\n');
+        for (final Counters c : counters.values()) {
+            s.append(c.rule).append(',').append(c.invocations.sum()).append(',').append(c.nanos.sum()).append(',').append(c.derived.sum());
+            for (final Rejection r : Rejection.values()) {
+                s.append(',').append(c.rejected(r));
+            }
+            s.append('\n');
+        }
+        return s.toString();
+    }
+
+    /**
+     * @return An object with the counters of each rule by its name
+     */
+    public String toJSON() {
+        final StringBuilder s = new StringBuilder("{");
+        boolean first = true;
+        for (final Counters c : counters.values()) {
+            if (!first) {
+                s.append(',');
+            }
+            first = false;
+            s.append('"').append(c.rule).append("\":{\"invocations\":").append(c.invocations.sum())
+             .append(",\"nanoseconds\":").append(c.nanos.sum())
+             .append(",\"derived\":").append(c.derived.sum())
+             .append(",\"rejected\":{");
+            for (final Rejection r : Rejection.values()) {
+                s.append('"').append(r.name().toLowerCase()).append("\":").append(c.rejected(r));
+                if (r.ordinal() < Rejection.values().length - 1) {
+                    s.append(',');
+                }
+            }
+            s.append("}}");
+        }
+        return s.append('}').toString();
+    }
+}
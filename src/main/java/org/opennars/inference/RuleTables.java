@@ -26,11 +26,15 @@ package org.opennars.inference;
 import org.opennars.control.DerivationContext;
 import org.opennars.entity.*;
 import org.opennars.io.Symbols;
+import org.opennars.io.Symbols.NativeOperator;
 import org.opennars.io.events.Events;
 import org.opennars.language.*;
 import org.opennars.operator.Operation;
 import org.opennars.storage.Memory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.opennars.io.Symbols.*;
 import static org.opennars.language.Statement.retOppositeSide;
 import static org.opennars.language.Terms.equalSubTermsInRespectToImageAndProduct;
@@ -103,7 +107,15 @@ public class RuleTables {
             
             nal.emit(Events.BeliefReason.class, belief, beliefTerm, taskTerm, nal);
             
-            if (LocalRules.match(task, belief, beliefConcept, nal)) { //new tasks resulted from the match, so return
+            final RuleProfile.Counters outer = nal.applyingRule(nal.memory.ruleProfile.of("LocalRules.match"));
+            final long start = System.nanoTime();
+            final boolean matched;
+            try {
+                matched = LocalRules.match(task, belief, beliefConcept, nal);
+            } finally {
+                nal.ruleApplied(outer, start);
+            }
+            if (matched) { //new tasks resulted from the match, so return
                 return;
             }
         }
@@ -123,130 +135,276 @@ public class RuleTables {
         applyRuleTable(tLink, bLink, nal, task, taskSentence, taskTerm, beliefTerm, belief);
     }
 
-    private static void applyRuleTable(TaskLink tLink, TermLink bLink, DerivationContext nal, Task task, Sentence taskSentence, Term taskTerm, Term beliefTerm, Sentence belief) {
-        final short tIndex = tLink.getIndex(0);
-        short bIndex = bLink.getIndex(0);
-        switch (tLink.type) {          // dispatch first by TaskLink type
-            case TermLink.SELF:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bIndex,  nal);
-                        break;
-                    case TermLink.COMPOUND:
-                        compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bIndex, nal);
-                        break;
-                    case TermLink.COMPONENT_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Statement) {
-                                SyllogisticRules.detachment(taskSentence, belief, bIndex, nal);
+    /** kinds of terms which tell the rules apart, by the operators of the terms */
+    private static final int TERM = 0, COMPOUND = 1, STATEMENT = 2, IMPLICATION = 3, EQUIVALENCE = 4;
+    private static final int KINDS = 5;
+    /** amount of link types, see TermLink */
+    private static final int LINK_TYPES = 10;
+    private static final int[] kindOfOperator = new int[NativeOperator.values().length];
+    /** the rules for each pair of link types, kinds of the terms and presence of a belief, see {@link #ruleTableIndex} */
+    private static final Rule[][] ruleTable = new Rule[LINK_TYPES * LINK_TYPES * KINDS * KINDS * 2][];
+
+    static {
+        for (final NativeOperator op : NativeOperator.values()) {
+            final int kind;
+            switch (op) {
+                case IMPLICATION: case IMPLICATION_AFTER: case IMPLICATION_WHEN: case IMPLICATION_BEFORE:
+                    kind = IMPLICATION;
+                    break;
+                case EQUIVALENCE: case EQUIVALENCE_AFTER: case EQUIVALENCE_WHEN:
+                    kind = EQUIVALENCE;
+                    break;
+                case ATOM:
+                    kind = TERM;
+                    break;
+                default:
+                    kind = op.relation ? STATEMENT : COMPOUND;
+            }
+            kindOfOperator[op.ordinal()] = kind;
+        }
+        final Rule[] none = new Rule[0];
+        for (int tType = 0; tType < LINK_TYPES; tType++) {
+            for (int bType = 0; bType < LINK_TYPES; bType++) {
+                for (int taskKind = 0; taskKind < KINDS; taskKind++) {
+                    for (int beliefKind = 0; beliefKind < KINDS; beliefKind++) {
+                        for (final boolean hasBelief : new boolean[] {false, true}) {
+                            final List<Rule> rules = new ArrayList<>();
+                            for (final Rule rule : Rule.values()) {
+                                if (rule.applies(tType, bType, taskKind, beliefKind, hasBelief)) {
+                                    rules.add(rule);
+                                }
                             }
-                        } //else {
-                        goalFromQuestion(task, taskTerm, nal);
-                        //}
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            SyllogisticRules.detachment(belief, taskSentence, bIndex, nal);
+                            ruleTable[ruleTableIndex(tType, bType, taskKind, beliefKind, hasBelief)] = rules.isEmpty() ? none : rules.toArray(none);
                         }
-                        break;
-                    case TermLink.COMPONENT_CONDITION:
-                        if ((belief != null) && (taskTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(task.sentence,(Implication) taskTerm, bIndex, beliefTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if ((belief != null) && (beliefTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(belief,(Implication) beliefTerm, bIndex, taskTerm, tIndex, nal);
-                        }
-                        break;
+                    }
                 }
-                break;
-            case TermLink.COMPOUND:
-                switch (bLink.type) {
-                    case TermLink.COMPOUND:
-                        if(taskTerm instanceof CompoundTerm && beliefTerm instanceof CompoundTerm) {
-                            compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tIndex, bIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        compoundAndStatement((CompoundTerm) taskTerm, tIndex, (Statement) beliefTerm, bIndex, beliefTerm, nal);
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            if (beliefTerm instanceof Implication) {
-                                final Term[] u = new Term[] { beliefTerm, taskTerm };
-                                if (Variables.unify(nal.memory.randomNumber, VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
-                                    final Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
-                                    final Sentence newTaskSentence = taskSentence.clone(u[1]);
-                                    detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
-                                } else {
-                                    SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
-                                }
+            }
+        }
+    }
 
-                            } else if (beliefTerm instanceof Equivalence) {
-                                SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bIndex, taskTerm, -1, nal);
-                            }
-                        }
-                        break;
+    private static int ruleTableIndex(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+        return (((tType * LINK_TYPES + bType) * KINDS + taskKind) * KINDS + beliefKind) * 2 + (hasBelief ? 1 : 0);
+    }
+
+    private static boolean isStatement(final int kind) {
+        return kind >= STATEMENT;
+    }
+
+    /**
+     * The inference rules of the rule table, each applied to the premises for which {@link #applies} holds,
+     * in the order of declaration
+     */
+    public enum Rule {
+        COMPOUND_AND_SELF_TASK {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.SELF && bType == TermLink.COMPONENT;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bLink.getIndex(0), nal);
+            }
+        },
+        COMPOUND_AND_SELF_BELIEF {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.SELF && bType == TermLink.COMPOUND;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bLink.getIndex(0), nal);
+            }
+        },
+        DETACHMENT_TASK {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.SELF && bType == TermLink.COMPONENT_STATEMENT && hasBelief && isStatement(taskKind);
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                SyllogisticRules.detachment(taskSentence, belief, bLink.getIndex(0), nal);
+            }
+        },
+        GOAL_FROM_QUESTION {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.SELF && bType == TermLink.COMPONENT_STATEMENT;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                goalFromQuestion(task, taskTerm, nal);
+            }
+        },
+        DETACHMENT_BELIEF {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.SELF && bType == TermLink.COMPOUND_STATEMENT && hasBelief;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                SyllogisticRules.detachment(belief, taskSentence, bLink.getIndex(0), nal);
+            }
+        },
+        CONDITIONAL_DED_IND_TASK {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.SELF && bType == TermLink.COMPONENT_CONDITION && hasBelief && taskKind == IMPLICATION;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                SyllogisticRules.conditionalDedInd(task.sentence, (Implication) taskTerm, bLink.getIndex(1), beliefTerm, tLink.getIndex(0), nal);
+            }
+        },
+        CONDITIONAL_DED_IND_BELIEF {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.SELF && bType == TermLink.COMPOUND_CONDITION && hasBelief && beliefKind == IMPLICATION;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bLink.getIndex(1), taskTerm, tLink.getIndex(0), nal);
+            }
+        },
+        COMPOUND_AND_COMPOUND {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND && bType == TermLink.COMPOUND && taskKind != TERM && beliefKind != TERM;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tLink.getIndex(0), bLink.getIndex(0), nal);
+            }
+        },
+        COMPOUND_AND_STATEMENT_TASK {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND && bType == TermLink.COMPOUND_STATEMENT;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                compoundAndStatement((CompoundTerm) taskTerm, tLink.getIndex(0), (Statement) beliefTerm, bLink.getIndex(0), beliefTerm, nal);
+            }
+        },
+        CONDITION_UNIFICATION {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND && bType == TermLink.COMPOUND_CONDITION && hasBelief && beliefKind == IMPLICATION;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                final short bIndex = bLink.getIndex(0);
+                final Term[] u = new Term[] { beliefTerm, taskTerm };
+                if (Variables.unify(nal.memory, VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
+                    final Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
+                    final Sentence newTaskSentence = taskSentence.clone(u[1]);
+                    detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
+                } else {
+                    SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
                 }
-                break;
-            case TermLink.COMPOUND_STATEMENT:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        if (taskTerm instanceof Statement) {
-                            goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
-                            componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND:
-                        if (taskTerm instanceof Statement && beliefTerm instanceof CompoundTerm) {
-                            compoundAndStatement((CompoundTerm) beliefTerm, bIndex, (Statement) taskTerm, tIndex, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            syllogisms(tLink, bLink, taskTerm, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            bIndex = bLink.getIndex(1);
-                            if ((taskTerm instanceof Statement) && (beliefTerm instanceof Implication)) {
-                                conditionalDedIndWithVar(belief, (Implication) beliefTerm, bIndex, (Statement) taskTerm, tIndex, nal);
-                            }
-                        }
-                        break;
+            }
+        },
+        CONDITIONAL_ANALOGY {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND && bType == TermLink.COMPOUND_CONDITION && hasBelief && beliefKind == EQUIVALENCE;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bLink.getIndex(0), taskTerm, -1, nal);
+            }
+        },
+        GOAL_FROM_WANT_BELIEF {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND_STATEMENT && bType == TermLink.COMPONENT && isStatement(taskKind);
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                goalFromWantBelief(task, tLink.getIndex(0), bLink.getIndex(0), taskTerm, nal, beliefTerm);
+            }
+        },
+        COMPONENT_AND_STATEMENT {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND_STATEMENT && bType == TermLink.COMPONENT && isStatement(taskKind);
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bLink.getIndex(0), (Statement) taskTerm, tLink.getIndex(0), nal);
+            }
+        },
+        COMPOUND_AND_STATEMENT_BELIEF {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND_STATEMENT && bType == TermLink.COMPOUND && isStatement(taskKind) && beliefKind != TERM;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                compoundAndStatement((CompoundTerm) beliefTerm, bLink.getIndex(0), (Statement) taskTerm, tLink.getIndex(0), beliefTerm, nal);
+            }
+        },
+        SYLLOGISMS {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND_STATEMENT && bType == TermLink.COMPOUND_STATEMENT && hasBelief;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                syllogisms(tLink, bLink, taskTerm, beliefTerm, nal);
+            }
+        },
+        CONDITIONAL_DED_IND_WITH_VAR_BELIEF {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND_STATEMENT && bType == TermLink.COMPOUND_CONDITION && hasBelief && isStatement(taskKind) && beliefKind == IMPLICATION;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                conditionalDedIndWithVar(belief, (Implication) beliefTerm, bLink.getIndex(1), (Statement) taskTerm, tLink.getIndex(0), nal);
+            }
+        },
+        DETACHMENT_WITH_VAR {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND_CONDITION && bType == TermLink.COMPOUND && hasBelief;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                detachmentWithVar(taskSentence, belief, tLink.getIndex(0), nal);
+            }
+        },
+        CONDITIONAL_DED_IND_WITH_VAR_TASK {
+            @Override boolean applies(final int tType, final int bType, final int taskKind, final int beliefKind, final boolean hasBelief) {
+                return tType == TermLink.COMPOUND_CONDITION && bType == TermLink.COMPOUND_STATEMENT && hasBelief && taskKind == IMPLICATION;
+            }
+            @Override void apply(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+                final short tIndex = tLink.getIndex(0);
+                final short bIndex = bLink.getIndex(0);
+                final Term subj = ((Statement) taskTerm).getSubject();
+                if (subj instanceof Negation) { //a negated condition is a component of the task
+                    if (taskSentence.isJudgment()) {
+                        componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
+                    } else {
+                        componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
+                    }
+                } else {
+                    conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
                 }
-                break;
-            case TermLink.COMPOUND_CONDITION:
-                switch (bLink.type) {
-                      case TermLink.COMPOUND:
-                        if (belief != null) {
-                            detachmentWithVar(taskSentence, belief, tIndex, nal);
-                        }
-                        break;
-
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Implication) // TODO maybe put instanceof test within conditionalDedIndWithVar()
-                            {
-                                final Term subj = ((Statement) taskTerm).getSubject();
-                                if (subj instanceof Negation) {
-                                    if (taskSentence.isJudgment()) {
-                                        componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
-                                    } else {
-                                        componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                    }
-                                } else {
-                                    conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                }
-                            }
-                            break;
-                        }
-                        break;
+            }
+        };
+
+        private volatile boolean enabled = true;
+
+        /**
+         * Whether the rule applies to the premises, decided once for the rule table
+         *
+         * @param tType Type of the task link
+         * @param bType Type of the term link
+         * @param taskKind Kind of the term of the task
+         * @param beliefKind Kind of the term of the belief, or of the target of the term link without belief
+         * @param hasBelief Whether a belief was selected
+         * @return Whether the rule is in the table for the premises
+         */
+        abstract boolean applies(int tType, int bType, int taskKind, int beliefKind, boolean hasBelief);
+
+        abstract void apply(TaskLink tLink, TermLink bLink, DerivationContext nal, Task task, Sentence taskSentence, Term taskTerm, Term beliefTerm, Sentence belief);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Switch the rule on or off, for all reasoners
+         *
+         * @param enabled Whether the rule is applied
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    private static void applyRuleTable(final TaskLink tLink, final TermLink bLink, final DerivationContext nal, final Task task, final Sentence taskSentence, final Term taskTerm, final Term beliefTerm, final Sentence belief) {
+        if (tLink.type < 0 || tLink.type >= LINK_TYPES || bLink.type < 0 || bLink.type >= LINK_TYPES) {
+            return;
+        }
+        final Rule[] rules = ruleTable[ruleTableIndex(tLink.type, bLink.type,
+                kindOfOperator[taskTerm.operator().ordinal()], kindOfOperator[beliefTerm.operator().ordinal()], belief != null)];
+        for (final Rule rule : rules) {
+            if (rule.enabled) {
+                final RuleProfile.Counters outer = nal.applyingRule(nal.memory.ruleProfile.of(rule));
+                final long start = System.nanoTime();
+                try {
+                    rule.apply(tLink, bLink, nal, task, taskSentence, taskTerm, beliefTerm, belief);
+                } finally {
+                    nal.ruleApplied(outer, start);
                 }
+            }
         }
     }
 
@@ -254,8 +412,8 @@ public class RuleTables {
         if(task.sentence.isJudgment() && tIndex == 0 && bIndex == 1 && taskTerm instanceof Operation) {
             final Operation op = (Operation) taskTerm;
             if(op.getPredicate() == nal.memory.getOperator("^want")) {
-                final TruthValue newTruth = TruthFunctions.deduction(task.sentence.truth, nal.narParameters.reliance, nal.narParameters);
-                nal.singlePremiseTask(((Operation)taskTerm).getArguments().term[1], Symbols.GOAL_MARK, newTruth, BudgetFunctions.forward(newTruth, nal));
+                final TruthValue newTruth = TruthFunctions.deduction(task.sentence.truth, nal.narParameters.reliance, nal.truth(0), nal.narParameters);
+                nal.singlePremiseTask(((Operation)taskTerm).getArguments().term[1], Symbols.GOAL_MARK, newTruth, BudgetFunctions.forward(newTruth, nal, nal.budget(0)));
             }
         }
     }
@@ -299,8 +457,10 @@ public class RuleTables {
             final TruthValue truth=new TruthValue(1.0f,nal.narParameters.DEFAULT_GOAL_CONFIDENCE*nal.narParameters.CURIOSITY_DESIRE_CONFIDENCE_MUL, nal.narParameters);
             if(goalterm!=null && !(goalterm instanceof Variable) && goalterm instanceof CompoundTerm) {
                 goalterm = goalterm.cloneDeep();
-                CompoundTerm.transformIndependentVariableToDependent((CompoundTerm) goalterm);
-                ((CompoundTerm)goalterm).invalidateName();
+                if(goalterm.hasVarIndep()) { //only copies with variables may be modified in place
+                    CompoundTerm.transformIndependentVariableToDependent((CompoundTerm) goalterm);
+                    ((CompoundTerm)goalterm).invalidateName();
+                }
                 final Sentence sent=new Sentence(
                     goalterm,
                     Symbols.GOAL_MARK,
@@ -313,8 +473,10 @@ public class RuleTables {
             }
             if(goalterm instanceof CompoundTerm && goalterm2!=null && !(goalterm2 instanceof Variable) && goalterm2 instanceof CompoundTerm) {
                 goalterm2 = goalterm2.cloneDeep();
-                CompoundTerm.transformIndependentVariableToDependent((CompoundTerm) goalterm2);
-                ((CompoundTerm)goalterm2).invalidateName();
+                if(goalterm2.hasVarIndep()) { //only copies with variables may be modified in place
+                    CompoundTerm.transformIndependentVariableToDependent((CompoundTerm) goalterm2);
+                    ((CompoundTerm)goalterm2).invalidateName();
+                }
                 final Sentence sent=new Sentence(
                     goalterm2,
                     Symbols.GOAL_MARK,
@@ -430,7 +592,7 @@ public class RuleTables {
         final Statement.EnumStatementSide figureLeft = retSideFromFigure(figure, EnumFigureSide.LEFT);
         final Statement.EnumStatementSide figureRight = retSideFromFigure(figure, EnumFigureSide.RIGHT);
 
-        if (!Variables.unify(nal.memory.randomNumber, VAR_INDEPENDENT, taskStatement.retBySide(figureLeft), beliefStatement.retBySide(figureRight), u)) {
+        if (!Variables.unify(nal.memory, VAR_INDEPENDENT, taskStatement.retBySide(figureLeft), beliefStatement.retBySide(figureRight), u)) {
             return;
         }
 
@@ -480,7 +642,7 @@ public class RuleTables {
             t1 = isDeduction ? beliefStatement.getSubject() : taskStatement.getSubject();
             t2 = isDeduction ? taskStatement.getPredicate() : beliefStatement.getPredicate();
 
-            if (Variables.unify(nal.memory.randomNumber, VAR_QUERY, t1, t2, new Term[]{taskStatement, beliefStatement})) {
+            if (Variables.unify(nal.memory, VAR_QUERY, t1, t2, new Term[]{taskStatement, beliefStatement})) {
                 LocalRules.matchReverse(nal);
             } else {
                 SyllogisticRules.dedExe(t1, t2, taskSentence, belief, nal);
@@ -509,7 +671,7 @@ public class RuleTables {
         final Statement.EnumStatementSide figureRight = retSideFromFigure(figure, EnumFigureSide.RIGHT);
 
         final Term[] u = new Term[] { asymSt, symSt };
-        if (!Variables.unify(nal.memory.randomNumber, VAR_INDEPENDENT, asymSt.retBySide(figureLeft), symSt.retBySide(figureRight), u)) {
+        if (!Variables.unify(nal.memory, VAR_INDEPENDENT, asymSt.retBySide(figureLeft), symSt.retBySide(figureRight), u)) {
             return;
         }
 
@@ -518,7 +680,7 @@ public class RuleTables {
         final Term t1 = asymSt.retBySide(retOppositeSide(figureLeft));
         final Term t2 = symSt.retBySide(retOppositeSide(figureRight));
 
-        if (Variables.unify(nal.memory.randomNumber, VAR_QUERY, t1, t2, u)) {
+        if (Variables.unify(nal.memory, VAR_QUERY, t1, t2, u)) {
             LocalRules.matchAsymSym(asym, sym, figure, nal);
         } else {
             switch (figure) {
@@ -593,7 +755,7 @@ public class RuleTables {
         Term rt2 = s2.retBySide(retOppositeSide(figureRight));
         
         final Term[] u = new Term[] { s1, s2 };
-        if (Variables.unify(nal.memory.randomNumber, VAR_INDEPENDENT, ut1, ut2, u)) {
+        if (Variables.unify(nal.memory, VAR_INDEPENDENT, ut1, ut2, u)) {
             //recalculate rt1, rt2 from above:
             switch (figure) {
                 case 11: rt1 = s1.getPredicate();   rt2 = s2.getPredicate(); break;
@@ -644,7 +806,7 @@ public class RuleTables {
             
             if (!component.hasVarIndep() && !component.hasVarDep()) { //because of example: <<(*,w1,#2) --> [good]> ==> <w1 --> TRANSLATE>>. <(*,w1,w2) --> [good]>.
                 SyllogisticRules.detachment(mainSentence, subSentence, index, checkTermAgain, nal);
-            } else if (Variables.unify(nal.memory.randomNumber, VAR_INDEPENDENT, component, content, u)) { //happens through syllogisms
+            } else if (Variables.unify(nal.memory, VAR_INDEPENDENT, component, content, u)) { //happens through syllogisms
                 mainSentence = mainSentence.clone(u[0]);
                 subSentence = subSentence.clone(u[1]);
                 SyllogisticRules.detachment(mainSentence, subSentence, index, false, nal);
@@ -696,7 +858,7 @@ public class RuleTables {
 
         if (component2 != null) {
             final Term[] u = new Term[] { conditional, statement };
-            if (Variables.unify(nal.memory.randomNumber, VAR_INDEPENDENT, component, component2, u)) {
+            if (Variables.unify(nal.memory, VAR_INDEPENDENT, component, component2, u)) {
                 conditional = (Implication) u[0];
                 statement = (Statement) u[1];
                 SyllogisticRules.conditionalDedInd(conditionalSentence, conditional, index, statement, side, nal);
@@ -772,7 +934,7 @@ public class RuleTables {
             if ((compound instanceof Conjunction) && (nal.getCurrentBelief() != null)) {
                 final Conjunction conj = (Conjunction) compound;
                 final Term[] u = new Term[] { compound, statement };
-                if (Variables.unify(nal.memory.randomNumber, VAR_DEPENDENT, component, statement, u) && u[0] instanceof Conjunction && u[1] instanceof Statement) {
+                if (Variables.unify(nal.memory, VAR_DEPENDENT, component, statement, u) && u[0] instanceof Conjunction && u[1] instanceof Statement) {
                     compound = (Conjunction) u[0];
                     statement = (Statement) u[1];
                     if(conj.isSpatial || compound.getTemporalOrder() != TemporalRules.ORDER_FORWARD || //only allow dep var elimination
@@ -100,8 +100,8 @@ public final class StructuralRules {
         }
         
         final Sentence sentence = nal.getCurrentTask().sentence;
-        final TruthValue truth = TruthFunctions.deduction(sentence.truth, nal.narParameters.reliance, nal.narParameters);
-        final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal);
+        final TruthValue truth = TruthFunctions.deduction(sentence.truth, nal.narParameters.reliance, nal.truth(0), nal.narParameters);
+        final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         nal.singlePremiseTask(content, truth, budget);
     }
 
@@ -145,9 +145,9 @@ public final class StructuralRules {
         final TruthValue truth = sentence.truth;
         final BudgetValue budget;
         if (sentence.isQuestion() || sentence.isQuest()) {
-            budget = BudgetFunctions.compoundBackward(content, nal);
+            budget = BudgetFunctions.compoundBackward(content, nal, nal.budget(0));
         } else {
-            budget = BudgetFunctions.compoundForward(truth, content, nal);
+            budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         }
         nal.singlePremiseTask(content, truth, budget);
     }
@@ -184,8 +184,8 @@ public final class StructuralRules {
         final TruthValue truth = sentence.truth;
         
         final float reliance = nal.narParameters.reliance;
-        final TruthValue truthDed = TruthFunctions.deduction(truth, reliance, nal.narParameters);
-        final TruthValue truthNDed = TruthFunctions.negation(TruthFunctions.deduction(truth, reliance, nal.narParameters), nal.narParameters);
+        final TruthValue truthDed = TruthFunctions.deduction(truth, reliance, nal.truth(0), nal.narParameters);
+        final TruthValue truthNDed = TruthFunctions.negation(TruthFunctions.deduction(truth, reliance, nal.truth(1), nal.narParameters), nal.truth(1), nal.narParameters);
         
         final Term subj = statement.getSubject();
         final Term pred = statement.getPredicate();
@@ -242,8 +242,8 @@ public final class StructuralRules {
         }
         
         final float reliance = nal.narParameters.reliance;
-        final TruthValue truthDed = TruthFunctions.deduction(truth, reliance, nal.narParameters);
-        final TruthValue truthNDed = TruthFunctions.negation(TruthFunctions.deduction(truth, reliance, nal.narParameters), nal.narParameters);
+        final TruthValue truthDed = TruthFunctions.deduction(truth, reliance, nal.truth(0), nal.narParameters);
+        final TruthValue truthNDed = TruthFunctions.negation(TruthFunctions.deduction(truth, reliance, nal.truth(1), nal.narParameters), nal.truth(1), nal.narParameters);
         
         final Term subj = statement.getSubject();
         final Term pred = statement.getPredicate();
@@ -289,7 +289,7 @@ public final class StructuralRules {
         if (oldContent instanceof Statement) {
             final Statement content = Statement.make((Statement) oldContent, subject, predicate, order);
             if (content != null) {
-                final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal);
+                final BudgetValue budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
                 nal.singlePremiseTask(content, truth, budget);
             }
         }
@@ -334,9 +334,9 @@ public final class StructuralRules {
         final TruthValue truth = sentence.truth;
         final BudgetValue budget;
         if (sentence.isJudgment()) {
-            budget = BudgetFunctions.compoundForward(truth, content, nal);
+            budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         } else {
-            budget = BudgetFunctions.compoundBackward(content, nal);
+            budget = BudgetFunctions.compoundBackward(content, nal, nal.budget(0));
         }
         nal.singlePremiseTask(content, truth, budget);
     }
@@ -466,9 +466,9 @@ public final class StructuralRules {
         final TruthValue truth = sentence.truth;
         final BudgetValue budget;
         if (sentence.isQuestion() || sentence.isQuest()) {
-            budget = BudgetFunctions.compoundBackward(content, nal);
+            budget = BudgetFunctions.compoundBackward(content, nal, nal.budget(0));
         } else {
-            budget = BudgetFunctions.compoundForward(truth, content, nal);
+            budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         }
         
         nal.singlePremiseTask(content, truth, budget);
@@ -503,9 +503,9 @@ public final class StructuralRules {
                     inheritance = Inheritance.make(newSubj, newPred);
                     if (inheritance != null) {
                         if (truth == null) {
-                            budget = BudgetFunctions.compoundBackward(inheritance, nal);
+                            budget = BudgetFunctions.compoundBackward(inheritance, nal, nal.budget(0));
                         } else {
-                            budget = BudgetFunctions.compoundForward(truth, inheritance, nal);
+                            budget = BudgetFunctions.compoundForward(truth, inheritance, nal, nal.budget(0));
                         }
                         nal.singlePremiseTask(inheritance, truth, budget);
                     }
@@ -526,9 +526,9 @@ public final class StructuralRules {
                 inheritance = Inheritance.make(newSubj, newPred);
                 if (inheritance != null) {
                     if (truth == null) {
-                        budget = BudgetFunctions.compoundBackward(inheritance, nal);
+                        budget = BudgetFunctions.compoundBackward(inheritance, nal, nal.budget(0));
                     } else {
-                        budget = BudgetFunctions.compoundForward(truth, inheritance, nal);
+                        budget = BudgetFunctions.compoundForward(truth, inheritance, nal, nal.budget(0));
                     }
                     nal.singlePremiseTask(inheritance, truth, budget);
                 }
@@ -564,9 +564,9 @@ public final class StructuralRules {
                 inheritance = Inheritance.make(newSubj, newPred);
                 if (inheritance != null) {
                     if (truth == null) {
-                        budget = BudgetFunctions.compoundBackward(inheritance, nal);
+                        budget = BudgetFunctions.compoundBackward(inheritance, nal, nal.budget(0));
                     } else {
-                        budget = BudgetFunctions.compoundForward(truth, inheritance, nal);
+                        budget = BudgetFunctions.compoundForward(truth, inheritance, nal, nal.budget(0));
                     }
                     nal.singlePremiseTask(inheritance, truth, budget);
                 }
@@ -589,9 +589,9 @@ public final class StructuralRules {
                                                 TemporalRules.ORDER_FORWARD, 
                                                 newPred.equals(Term.SEQ_SPATIAL));
                     if (truth == null) {
-                        budget = BudgetFunctions.compoundBackward(seq, nal);
+                        budget = BudgetFunctions.compoundBackward(seq, nal, nal.budget(0));
                     } else {
-                        budget = BudgetFunctions.compoundForward(truth, seq, nal);
+                        budget = BudgetFunctions.compoundForward(truth, seq, nal, nal.budget(0));
                     }
                     nal.singlePremiseTask(seq, truth, budget);
                     return;
@@ -600,9 +600,9 @@ public final class StructuralRules {
                 inheritance = Inheritance.make(newSubj, newPred);
                 if (inheritance != null) { // jmv <<<<<
                     if (truth == null) {
-                        budget = BudgetFunctions.compoundBackward(inheritance, nal);
+                        budget = BudgetFunctions.compoundBackward(inheritance, nal, nal.budget(0));
                     } else {
-                        budget = BudgetFunctions.compoundForward(truth, inheritance, nal);
+                        budget = BudgetFunctions.compoundForward(truth, inheritance, nal, nal.budget(0));
                     }
                     nal.singlePremiseTask(inheritance, truth, budget);
                 }
@@ -633,7 +633,7 @@ public final class StructuralRules {
                 System.arraycopy(conjCompound.term, index + conjComponent.size() - conjComponent.size() + 1, newTerm, index + conjComponent.size(), newTerm.length - (index + conjComponent.size()));
                 final Conjunction cont = (Conjunction) Conjunction.make(newTerm, conjCompound.getTemporalOrder(), conjCompound.getIsSpatial());
                 final TruthValue truth = nal.getCurrentTask().sentence.truth.clone();
-                final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+                final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
                 nal.singlePremiseTask(cont, truth, budget);
             }
         }
@@ -660,12 +660,12 @@ public final class StructuralRules {
             Sentence curS = nal.getCurrentTask().sentence;
             TruthValue truth = null;
             if(curS.isJudgment()) {
-                truth = TruthFunctions.deduction(nal.getCurrentTask().sentence.truth, nal.narParameters.reliance, nal.narParameters);
+                truth = TruthFunctions.deduction(nal.getCurrentTask().sentence.truth, nal.narParameters.reliance, nal.truth(0), nal.narParameters);
             }
             if(curS.isGoal()) {
-                truth = TruthFunctions.desireStrong(nal.getCurrentTask().sentence.truth, new TruthValue(1.0f,nal.narParameters.reliance, nal.narParameters), nal.narParameters);
+                truth = TruthFunctions.desireStrong(nal.getCurrentTask().sentence.truth, nal.truth(1).set(1.0f, nal.narParameters.reliance, false), nal.truth(0), nal.narParameters);
             }
-            final BudgetValue budget = BudgetFunctions.forward(truth, nal);
+            final BudgetValue budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
             nal.singlePremiseTask(cont, truth, budget);
         }
     }
@@ -701,10 +701,10 @@ public final class StructuralRules {
             final Sentence curS = nal.getCurrentTask().sentence;
             TruthValue truth = null;
             if(curS.isJudgment()) {
-                truth = TruthFunctions.deduction(curS.truth, nal.narParameters.reliance, nal.narParameters);
+                truth = TruthFunctions.deduction(curS.truth, nal.narParameters.reliance, nal.truth(0), nal.narParameters);
             }
             if(curS.isGoal()) {
-                truth = TruthFunctions.desireStrong(curS.truth, new TruthValue(1.0f, nal.narParameters.reliance, nal.narParameters), nal.narParameters);
+                truth = TruthFunctions.desireStrong(curS.truth, nal.truth(1).set(1.0f, nal.narParameters.reliance, false), nal.truth(0), nal.narParameters);
             }
             deriveSequenceTask(nal, conjCompound, newTermLeft, truth);
             deriveSequenceTask(nal, conjCompound, newTermRight, truth);
@@ -812,8 +812,8 @@ public final class StructuralRules {
     private static void deriveSequenceTask(DerivationContext nal, Conjunction parentConj, Term[] total, TruthValue truth) {
         final Term cont = Conjunction.make(total, parentConj.getTemporalOrder(), parentConj.getIsSpatial());
         if(cont instanceof Conjunction && total.length != parentConj.size()) {
-            final BudgetValue budget = truth != null ? BudgetFunctions.compoundForward(truth, cont, nal) : 
-                                                       BudgetFunctions.compoundBackward(cont, nal);
+            final BudgetValue budget = truth != null ? BudgetFunctions.compoundForward(truth, cont, nal, nal.budget(0)) : 
+                                                       BudgetFunctions.compoundBackward(cont, nal, nal.budget(0));
             nal.singlePremiseTask(cont, truth, budget);
         }
     }
@@ -877,7 +877,7 @@ public final class StructuralRules {
 
         final BudgetValue budget;
         if (sentence.isQuestion() || sentence.isQuest()) {
-            budget = BudgetFunctions.compoundBackward(content, nal);
+            budget = BudgetFunctions.compoundBackward(content, nal, nal.budget(0));
         } else {  // need to redefine the cases
             
             //[03:24] <patham9> <a --> b>.     (||,<a --> b>,<x --> y>)?    =>    (||,<a --> b>,<x --> y>).
@@ -887,15 +887,15 @@ public final class StructuralRules {
             if ((sentence.isJudgment() || sentence.isGoal()) && 
                 ((!compoundTask && compound instanceof Disjunction) ||
                 (compoundTask && compound instanceof Conjunction))) {
-                truth = TruthFunctions.deduction(truth, reliance, nal.narParameters);
+                truth = TruthFunctions.deduction(truth, reliance, nal.truth(0), nal.narParameters);
             }else {
                 final TruthValue v1;
                 final TruthValue v2;
-                v1 = TruthFunctions.negation(truth, nal.narParameters);
-                v2 = TruthFunctions.deduction(v1, reliance, nal.narParameters);
-                truth = TruthFunctions.negation(v2, nal.narParameters);
+                v1 = TruthFunctions.negation(truth, nal.truth(0), nal.narParameters);
+                v2 = TruthFunctions.deduction(v1, reliance, nal.truth(0), nal.narParameters);
+                truth = TruthFunctions.negation(v2, nal.truth(0), nal.narParameters);
             }
-            budget = BudgetFunctions.forward(truth, nal);
+            budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         }
         return nal.singlePremiseTask(content, truth, budget);
     }
@@ -915,10 +915,10 @@ public final class StructuralRules {
         final BudgetValue budget;
         
         if (sentence.isJudgment() || sentence.isGoal()) {
-            truth = TruthFunctions.negation(truth, nal.narParameters);
-            budget = BudgetFunctions.compoundForward(truth, content, nal);
+            truth = TruthFunctions.negation(truth, nal.truth(0), nal.narParameters);
+            budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         } else {
-            budget = BudgetFunctions.compoundBackward(content, nal);
+            budget = BudgetFunctions.compoundBackward(content, nal, nal.budget(0));
         }
         nal.singlePremiseTask(content, truth, budget);
     }
@@ -947,16 +947,16 @@ public final class StructuralRules {
         final BudgetValue budget;
         if (sentence.isQuestion() || sentence.isQuest()) {
             if (content instanceof Implication) {
-                budget = BudgetFunctions.compoundBackwardWeak(content, nal);
+                budget = BudgetFunctions.compoundBackwardWeak(content, nal, nal.budget(0));
             } else {
-                budget = BudgetFunctions.compoundBackward(content, nal);
+                budget = BudgetFunctions.compoundBackward(content, nal, nal.budget(0));
             }
             return nal.singlePremiseTask(content, Symbols.QUESTION_MARK, truth, budget);
         } else {
             if (content instanceof Implication) {
-                truth = TruthFunctions.contraposition(truth, nal.narParameters);
+                truth = TruthFunctions.contraposition(truth, nal.truth(0), nal.narParameters);
             }
-            budget = BudgetFunctions.compoundForward(truth, content, nal);
+            budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
             return nal.singlePremiseTask(content, Symbols.JUDGMENT_MARK, truth, budget);
         }
     }
@@ -75,24 +75,24 @@ public final class SyllogisticRules {
 
         if (!(sentence.isQuestion() || sentence.isQuest())) {
             if (sentence.isGoal()) {
-                truth1 = TruthFunctions.desireWeak(value1, value2, nal.narParameters);
-                truth2 = TruthFunctions.desireWeak(value1, value2, nal.narParameters);
+                truth1 = TruthFunctions.desireWeak(value1, value2, nal.truth(0), nal.narParameters);
+                truth2 = TruthFunctions.desireWeak(value1, value2, nal.truth(1), nal.narParameters);
             } else {
                 // isJudgment
-                truth1 = TruthFunctions.deduction(value1, value2, nal.narParameters);
-                truth2 = TruthFunctions.exemplification(value1, value2, nal.narParameters);
+                truth1 = TruthFunctions.deduction(value1, value2, nal.truth(0), nal.narParameters);
+                truth2 = TruthFunctions.exemplification(value1, value2, nal.truth(1), nal.narParameters);
             }
         }
 
         if (sentence.isQuestion()) {
-            budget1 = BudgetFunctions.backwardWeak(value2, nal);
-            budget2 = BudgetFunctions.backwardWeak(value2, nal);
+            budget1 = BudgetFunctions.backwardWeak(value2, nal, nal.budget(0));
+            budget2 = BudgetFunctions.backwardWeak(value2, nal, nal.budget(1));
         } else if (sentence.isQuest()) {
-            budget1 = BudgetFunctions.backward(value2, nal);
-            budget2 = BudgetFunctions.backward(value2, nal);
+            budget1 = BudgetFunctions.backward(value2, nal, nal.budget(0));
+            budget2 = BudgetFunctions.backward(value2, nal, nal.budget(1));
         } else {
-            budget1 = BudgetFunctions.forward(truth1, nal);
-            budget2 = BudgetFunctions.forward(truth2, nal);
+            budget1 = BudgetFunctions.forward(truth1, nal, nal.budget(0));
+            budget2 = BudgetFunctions.forward(truth2, nal, nal.budget(1));
         }
 
         final Statement content = (Statement) sentence.term;
@@ -136,42 +136,42 @@ public final class SyllogisticRules {
         final TruthValue value2 = sentence2.truth;
 
         if (sentence1.isGoal()) {
-            truth1 = TruthFunctions.desireStrong(value1, value2, nal.narParameters); //P --> S
-            truth2 = TruthFunctions.desireWeak(value2, value1, nal.narParameters); //S --> P
-            truth3 = TruthFunctions.desireStrong(value1, value2, nal.narParameters); //S <-> P
+            truth1 = TruthFunctions.desireStrong(value1, value2, nal.truth(0), nal.narParameters); //P --> S
+            truth2 = TruthFunctions.desireWeak(value2, value1, nal.truth(1), nal.narParameters); //S --> P
+            truth3 = TruthFunctions.desireStrong(value1, value2, nal.truth(2), nal.narParameters); //S <-> P
         } else if( sentence1.isJudgment() ) {
-            truth1 = TruthFunctions.abduction(value1, value2, nal.narParameters); //P --> S
-            truth2 = TruthFunctions.abduction(value2, value1, nal.narParameters); //S --> P
-            truth3 = TruthFunctions.comparison(value1, value2, nal.narParameters); //S <-> P
+            truth1 = TruthFunctions.abduction(value1, value2, nal.truth(0), nal.narParameters); //P --> S
+            truth2 = TruthFunctions.abduction(value2, value1, nal.truth(1), nal.narParameters); //S --> P
+            truth3 = TruthFunctions.comparison(value1, value2, nal.truth(2), nal.narParameters); //S <-> P
         }
 
         if (sentence1.isQuestion()) {
-            budget1 = BudgetFunctions.backward(value2, nal);
-            budget2 = BudgetFunctions.backwardWeak(value2, nal);
-            budget3 = BudgetFunctions.backward(value2, nal);
+            budget1 = BudgetFunctions.backward(value2, nal, nal.budget(0));
+            budget2 = BudgetFunctions.backwardWeak(value2, nal, nal.budget(1));
+            budget3 = BudgetFunctions.backward(value2, nal, nal.budget(2));
         } else if (sentence1.isQuest()) {
-            budget1 = BudgetFunctions.backwardWeak(value2, nal);
-            budget2 = BudgetFunctions.backward(value2, nal);
-            budget3 = BudgetFunctions.backwardWeak(value2, nal);            
+            budget1 = BudgetFunctions.backwardWeak(value2, nal, nal.budget(0));
+            budget2 = BudgetFunctions.backward(value2, nal, nal.budget(1));
+            budget3 = BudgetFunctions.backwardWeak(value2, nal, nal.budget(2));            
         } else {
-            budget1 = BudgetFunctions.forward(truth1, nal);
-            budget2 = BudgetFunctions.forward(truth2, nal);
-            budget3 = BudgetFunctions.forward(truth3, nal);
+            budget1 = BudgetFunctions.forward(truth1, nal, nal.budget(0));
+            budget2 = BudgetFunctions.forward(truth2, nal, nal.budget(1));
+            budget3 = BudgetFunctions.forward(truth3, nal, nal.budget(2));
         }
         
         if(term1.imagination != null && term2.imagination != null) {
             final TruthValue T = term1.imagination.AbductionOrComparisonTo(term2.imagination, true);
             nal.doublePremiseTask(
                 Statement.make(NativeOperator.SIMILARITY, term1, term2, TemporalRules.ORDER_NONE), 
-                    T, BudgetFunctions.forward(T, nal),false, false);   
+                    T, BudgetFunctions.forward(T, nal, nal.budget(0)),false, false);   
             final TruthValue T2 = term1.imagination.AbductionOrComparisonTo(term2.imagination, false);
             nal.doublePremiseTask(
                 Statement.make(NativeOperator.INHERITANCE, term1, term2, TemporalRules.ORDER_NONE), 
-                    T2, BudgetFunctions.forward(T2, nal),false, false);   
+                    T2, BudgetFunctions.forward(T2, nal, nal.budget(0)),false, false);   
             final TruthValue T3 = term2.imagination.AbductionOrComparisonTo(term1.imagination, false);
             nal.doublePremiseTask(
                 Statement.make(NativeOperator.INHERITANCE, term2, term1, TemporalRules.ORDER_NONE), 
-                    T3, BudgetFunctions.forward(T3, nal),false, false);
+                    T3, BudgetFunctions.forward(T3, nal, nal.budget(0)),false, false);
 
             /**
              * no need for other syllogistic inference, it were sensational terms,
@@ -271,21 +271,21 @@ public final class SyllogisticRules {
                 if(asym.truth==null) { //a question for example
                     return;
                 }
-                budget = BudgetFunctions.backwardWeak(asym.truth, nal);
+                budget = BudgetFunctions.backwardWeak(asym.truth, nal, nal.budget(0));
             } else {
                 if(sym.truth==null) { //a question for example
                     return;
                 }
-                budget = BudgetFunctions.backward(sym.truth, nal);
+                budget = BudgetFunctions.backward(sym.truth, nal, nal.budget(0));
             }
         } else {
             if (sentence.isGoal()) {
-                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(taskTerm.isCommutative(), TruthFunctions.EnumType.DESIREWEAK, TruthFunctions.EnumType.DESIRESTRONG, asym.truth, sym.truth, nal.narParameters);
+                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(taskTerm.isCommutative(), TruthFunctions.EnumType.DESIREWEAK, TruthFunctions.EnumType.DESIRESTRONG, asym.truth, sym.truth, nal.truth(0), nal.narParameters);
             } else {
-                truth = TruthFunctions.analogy(asym.truth, sym.truth, nal.narParameters);
+                truth = TruthFunctions.analogy(asym.truth, sym.truth, nal.truth(0), nal.narParameters);
             }
             
-            budget = BudgetFunctions.forward(truth, nal);
+            budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         }
         
         //nal.mem().logic.ANALOGY.commit();
@@ -317,17 +317,17 @@ public final class SyllogisticRules {
         final BudgetValue budget;
         if (!(sentence.isQuestion() || sentence.isQuest())) {
             if (sentence.isGoal()) {
-                truth = TruthFunctions.desireStrong(sentence.truth, belief.truth, nal.narParameters);
+                truth = TruthFunctions.desireStrong(sentence.truth, belief.truth, nal.truth(0), nal.narParameters);
             } else {
                 // NOTE< this must be Judgement again ? >
-                truth = TruthFunctions.resemblance(belief.truth, sentence.truth, nal.narParameters);
+                truth = TruthFunctions.resemblance(belief.truth, sentence.truth, nal.truth(0), nal.narParameters);
             }
         }
 
         if (sentence.isQuestion() || sentence.isQuest()) {
-            budget = BudgetFunctions.backward(belief.truth, nal);
+            budget = BudgetFunctions.backward(belief.truth, nal, nal.budget(0));
         } else {
-            budget = BudgetFunctions.forward(truth, nal);
+            budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         }
 
         final boolean higherOrder=(belief.term.isHigherOrderStatement() || sentence.term.isHigherOrderStatement());
@@ -476,41 +476,41 @@ public final class SyllogisticRules {
         if (!(taskSentence.isQuestion() || taskSentence.isQuest())) {
             if (taskSentence.isGoal()) {
                 if (statement instanceof Equivalence) {
-                    truth = TruthFunctions.desireStrong(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.desireStrong(truth1, truth2, nal.truth(0), nal.narParameters);
                 } else if (side == 0) {
-                    truth = TruthFunctions.desireInd(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.desireInd(truth1, truth2, nal.truth(0), nal.narParameters);
                 } else {
-                    truth = TruthFunctions.desireDed(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.desireDed(truth1, truth2, nal.truth(0), nal.narParameters);
                 }
             } else { // isJudgment
                 if (statement instanceof Equivalence) {
-                    truth = TruthFunctions.analogy(truth2, truth1, nal.narParameters);
+                    truth = TruthFunctions.analogy(truth2, truth1, nal.truth(0), nal.narParameters);
                 } else if (side == 0) {
-                    truth = TruthFunctions.deduction(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.deduction(truth1, truth2, nal.truth(0), nal.narParameters);
                 } else {
-                    truth = TruthFunctions.abduction(truth2, truth1, nal.narParameters);
+                    truth = TruthFunctions.abduction(truth2, truth1, nal.truth(0), nal.narParameters);
                 }
             }
         }
 
         if (taskSentence.isQuestion()) {
             if (statement instanceof Equivalence) {
-                budget = BudgetFunctions.backward(beliefTruth, nal);
+                budget = BudgetFunctions.backward(beliefTruth, nal, nal.budget(0));
             } else if (side == 0) {
-                budget = BudgetFunctions.backwardWeak(beliefTruth, nal);
+                budget = BudgetFunctions.backwardWeak(beliefTruth, nal, nal.budget(0));
             } else {
-                budget = BudgetFunctions.backward(beliefTruth, nal);
+                budget = BudgetFunctions.backward(beliefTruth, nal, nal.budget(0));
             }
         } else if (taskSentence.isQuest()) {
             if (statement instanceof Equivalence) {
-                budget = BudgetFunctions.backwardWeak(beliefTruth, nal);
+                budget = BudgetFunctions.backwardWeak(beliefTruth, nal, nal.budget(0));
             } else if (side == 0) {
-                budget = BudgetFunctions.backward(beliefTruth, nal);
+                budget = BudgetFunctions.backward(beliefTruth, nal, nal.budget(0));
             } else {
-               budget = BudgetFunctions.backwardWeak(beliefTruth, nal);
+               budget = BudgetFunctions.backwardWeak(beliefTruth, nal, nal.budget(0));
             }
         } else {
-            budget = BudgetFunctions.forward(truth, nal);
+            budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         }
         if(!Variables.indepVarUsedInvalid(content)) {
             final boolean allowOverlap = taskSentence.isJudgment() && strong;
@@ -539,7 +539,7 @@ public final class SyllogisticRules {
         final Sentence taskSentence = task.sentence;
         final Sentence belief = nal.getCurrentBelief();
         final boolean deduction = (side != 0);
-        final boolean conditionalTask = Variables.hasSubstitute(nal.memory.randomNumber, Symbols.VAR_INDEPENDENT, premise2, belief.term);
+        final boolean conditionalTask = Variables.hasSubstitute(nal.memory, Symbols.VAR_INDEPENDENT, premise2, belief.term);
         final Term commonComponent;
         Term newComponent = null;
         if (side == 0 || side == 1) {
@@ -562,7 +562,7 @@ public final class SyllogisticRules {
             index = (short) index2;
         } else {
             Term[] u = new Term[] { premise1, premise2 };            
-            boolean match = Variables.unify(nal.memory.randomNumber, Symbols.VAR_INDEPENDENT, oldCondition.term[index], commonComponent, u);
+            boolean match = Variables.unify(nal.memory, Symbols.VAR_INDEPENDENT, oldCondition.term[index], commonComponent, u);
             premise1 = (Implication) u[0]; premise2 = u[1];
             
             if (!match && (commonComponent.getClass() == oldCondition.getClass())) {
@@ -571,7 +571,7 @@ public final class SyllogisticRules {
                 
                 if ((oldCondition.term.length > index) && (compoundCommonComponent.term.length > index)) { // assumption: { was missing
                     u = new Term[] { premise1, premise2 };
-                    match = Variables.unify(nal.memory.randomNumber, Symbols.VAR_INDEPENDENT, 
+                    match = Variables.unify(nal.memory, Symbols.VAR_INDEPENDENT, 
                             oldCondition.term[index], 
                             compoundCommonComponent.term[index], 
                             u);
@@ -652,27 +652,27 @@ public final class SyllogisticRules {
         if (!(taskSentence.isQuestion() || taskSentence.isQuest())) {
             if (taskSentence.isGoal()) {
                 if (conditionalTask) {
-                    truth = TruthFunctions.desireWeak(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.desireWeak(truth1, truth2, nal.truth(0), nal.narParameters);
                 } else if (deduction) {
-                    truth = TruthFunctions.desireInd(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.desireInd(truth1, truth2, nal.truth(0), nal.narParameters);
                 } else {
-                    truth = TruthFunctions.desireDed(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.desireDed(truth1, truth2, nal.truth(0), nal.narParameters);
                 }
             } else {
                 if (deduction) {
-                    truth = TruthFunctions.deduction(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.deduction(truth1, truth2, nal.truth(0), nal.narParameters);
                 } else if (conditionalTask) {
-                    truth = TruthFunctions.induction(truth2, truth1, nal.narParameters);
+                    truth = TruthFunctions.induction(truth2, truth1, nal.truth(0), nal.narParameters);
                 } else {
-                    truth = TruthFunctions.induction(truth1, truth2, nal.narParameters);
+                    truth = TruthFunctions.induction(truth1, truth2, nal.truth(0), nal.narParameters);
                 }
             }
         }
 
         if (taskSentence.isQuestion() || taskSentence.isQuest()) {
-            budget = BudgetFunctions.backwardWeak(truth2, nal);
+            budget = BudgetFunctions.backwardWeak(truth2, nal, nal.budget(0));
         } else {
-            budget = BudgetFunctions.forward(truth, nal);
+            budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         }
         
         nal.getTheNewStamp().setOccurrenceTime(occurrence_time);
@@ -701,7 +701,7 @@ public final class SyllogisticRules {
         final Task task = nal.getCurrentTask();
         final Sentence taskSentence = task.sentence;
         final Sentence belief = nal.getCurrentBelief();
-        final boolean conditionalTask = Variables.hasSubstitute(nal.memory.randomNumber, Symbols.VAR_INDEPENDENT, premise2, belief.term);
+        final boolean conditionalTask = Variables.hasSubstitute(nal.memory, Symbols.VAR_INDEPENDENT, premise2, belief.term);
         final Term commonComponent;
         Term newComponent = null;
         if (side == 0) {
@@ -721,12 +721,12 @@ public final class SyllogisticRules {
         final Conjunction oldCondition = (Conjunction) tm;
 
         Term[] u = new Term[] { premise1, premise2 };
-        boolean match = Variables.unify(nal.memory.randomNumber, Symbols.VAR_DEPENDENT, oldCondition.term[index], commonComponent, u);
+        boolean match = Variables.unify(nal.memory, Symbols.VAR_DEPENDENT, oldCondition.term[index], commonComponent, u);
         premise1 = (Equivalence) u[0]; premise2 = u[1];
         
         if (!match && (commonComponent.getClass() == oldCondition.getClass())) {
             u = new Term[] { premise1, premise2 };
-            match = Variables.unify(nal.memory.randomNumber, Symbols.VAR_DEPENDENT, oldCondition.term[index], ((CompoundTerm) commonComponent).term[index], u);
+            match = Variables.unify(nal.memory, Symbols.VAR_DEPENDENT, oldCondition.term[index], ((CompoundTerm) commonComponent).term[index], u);
             premise1 = (Equivalence) u[0]; premise2 = u[1];
         }
         if (!match) {
@@ -766,16 +766,16 @@ public final class SyllogisticRules {
         final BudgetValue budget;
         if (!(taskSentence.isQuestion() || taskSentence.isQuest())) {
             if (taskSentence.isGoal()) {
-                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(conditionalTask, TruthFunctions.EnumType.DESIREWEAK, TruthFunctions.EnumType.DESIREDED, truth1, truth2, nal.narParameters);
+                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(conditionalTask, TruthFunctions.EnumType.DESIREWEAK, TruthFunctions.EnumType.DESIREDED, truth1, truth2, nal.truth(0), nal.narParameters);
             } else {
-                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(conditionalTask, TruthFunctions.EnumType.COMPARISON, TruthFunctions.EnumType.ANALOGY, truth1, truth2, nal.narParameters);
+                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(conditionalTask, TruthFunctions.EnumType.COMPARISON, TruthFunctions.EnumType.ANALOGY, truth1, truth2, nal.truth(0), nal.narParameters);
             }
         }
 
         if (taskSentence.isQuestion() || taskSentence.isQuest()) {
-            budget = BudgetFunctions.backwardWeak(truth2, nal);
+            budget = BudgetFunctions.backwardWeak(truth2, nal, nal.budget(0));
         } else {
-            budget = BudgetFunctions.forward(truth, nal);
+            budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
         }
 
         nal.doublePremiseTask(content, truth, budget, false, taskSentence.isJudgment() && !conditionalTask); //(allow overlap) when !conditionalTask on judgment
@@ -820,7 +820,7 @@ public final class SyllogisticRules {
         final TruthValue value1 = sentence.truth;
         final TruthValue value2 = belief.truth;
 
-        final boolean keepOrder = Variables.hasSubstitute(nal.memory.randomNumber, Symbols.VAR_INDEPENDENT, st1, task.getTerm());
+        final boolean keepOrder = Variables.hasSubstitute(nal.memory, Symbols.VAR_INDEPENDENT, st1, task.getTerm());
 
         // we folded the logic to use loops for more compact code
         for (int loop=0;loop<2;loop++) {
@@ -845,19 +845,19 @@ public final class SyllogisticRules {
             }
 
             if (sentence.isQuestion() || sentence.isQuest()) {
-                budget = BudgetFunctions.backwardWeak(value2, nal);
+                budget = BudgetFunctions.backwardWeak(value2, nal, nal.budget(0));
             } else {
                 if (sentence.isGoal()) {
-                    truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(keepOrder, TruthFunctions.EnumType.DESIREDED, TruthFunctions.EnumType.DESIREIND, value1, value2, nal.narParameters);
+                    truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(keepOrder, TruthFunctions.EnumType.DESIREDED, TruthFunctions.EnumType.DESIREIND, value1, value2, nal.truth(0), nal.narParameters);
                 } else { // isJudgment
                     if (isFirstLoop) {
-                        truth = TruthFunctions.abduction(value2, value1, nal.narParameters);
+                        truth = TruthFunctions.abduction(value2, value1, nal.truth(0), nal.narParameters);
                     }
                     else {
-                        truth = TruthFunctions.abduction(value1, value2, nal.narParameters);
+                        truth = TruthFunctions.abduction(value1, value2, nal.truth(0), nal.narParameters);
                     }
                 }
-                budget = BudgetFunctions.forward(truth, nal);
+                budget = BudgetFunctions.forward(truth, nal, nal.budget(0));
             }
             nal.doublePremiseTask(content, truth, budget,false, false);
         }
@@ -877,11 +877,11 @@ public final class SyllogisticRules {
         Term comp = null;
         for(final Term t : compound) {
             final Term[] unify = new Term[] { t, component };
-            if(Variables.unify(nal.memory.randomNumber, Symbols.VAR_DEPENDENT, unify)) {
+            if(Variables.unify(nal.memory, Symbols.VAR_DEPENDENT, unify)) {
                 comp = t;
                 break;
             }
-            if(Variables.unify(nal.memory.randomNumber, Symbols.VAR_QUERY, unify)) {
+            if(Variables.unify(nal.memory, Symbols.VAR_QUERY, unify)) {
                 comp = t;
                 break;
             }
@@ -903,16 +903,16 @@ public final class SyllogisticRules {
 
         if (!(sentence.isQuestion() || sentence.isQuest())) {
             if (sentence.isGoal()) {
-                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(compoundTask, TruthFunctions.EnumType.DESIREDED, TruthFunctions.EnumType.DESIREIND, v1, v2, nal.narParameters);
+                truth = TruthFunctions.lookupTruthFunctionByBoolAndCompute(compoundTask, TruthFunctions.EnumType.DESIREDED, TruthFunctions.EnumType.DESIREIND, v1, v2, nal.truth(0), nal.narParameters);
             } else {
-                truth = (compoundTask ? TruthFunctions.anonymousAnalogy(v1, v2, nal.narParameters) : TruthFunctions.anonymousAnalogy(v2, v1, nal.narParameters));
+                truth = (compoundTask ? TruthFunctions.anonymousAnalogy(v1, v2, nal.truth(0), nal.narParameters) : TruthFunctions.anonymousAnalogy(v2, v1, nal.truth(0), nal.narParameters));
             }
         }
 
         if (sentence.isQuestion() || sentence.isQuest()) {
-            budget = (compoundTask ? BudgetFunctions.backward(v2, nal) : BudgetFunctions.backwardWeak(v2, nal));
+            budget = (compoundTask ? BudgetFunctions.backward(v2, nal, nal.budget(0)) : BudgetFunctions.backwardWeak(v2, nal, nal.budget(0)));
         } else {
-            budget = BudgetFunctions.compoundForward(truth, content, nal);
+            budget = BudgetFunctions.compoundForward(truth, content, nal, nal.budget(0));
         }
 
         nal.doublePremiseTask(content, truth, budget,false, false);
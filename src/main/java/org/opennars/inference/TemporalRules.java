@@ -178,14 +178,14 @@ public class TemporalRules {
         givenTruth2 = s3.truth; 
         
         //Truth and priority calculations
-        final TruthValue truth1 = TruthFunctions.induction(givenTruth1, givenTruth2, nal.narParameters);
-        final TruthValue truth2 = TruthFunctions.induction(givenTruth2, givenTruth1, nal.narParameters);
-        final TruthValue truth3 = TruthFunctions.comparison(givenTruth1, givenTruth2, nal.narParameters);
-        final TruthValue truth4 = TruthFunctions.intersection(givenTruth1, givenTruth2, nal.narParameters);
-        final BudgetValue budget1 = BudgetFunctions.forward(truth1, nal);
-        final BudgetValue budget2 = BudgetFunctions.forward(truth2, nal);
-        final BudgetValue budget3 = BudgetFunctions.forward(truth3, nal);
-        final BudgetValue budget4 = BudgetFunctions.forward(truth4, nal); //this one is sequence in sequenceBag, no need to reduce here
+        final TruthValue truth1 = TruthFunctions.induction(givenTruth1, givenTruth2, nal.truth(0), nal.narParameters);
+        final TruthValue truth2 = TruthFunctions.induction(givenTruth2, givenTruth1, nal.truth(1), nal.narParameters);
+        final TruthValue truth3 = TruthFunctions.comparison(givenTruth1, givenTruth2, nal.truth(2), nal.narParameters);
+        final TruthValue truth4 = TruthFunctions.intersection(givenTruth1, givenTruth2, nal.truth(3), nal.narParameters);
+        final BudgetValue budget1 = BudgetFunctions.forward(truth1, nal, nal.budget(0));
+        final BudgetValue budget2 = BudgetFunctions.forward(truth2, nal, nal.budget(1));
+        final BudgetValue budget3 = BudgetFunctions.forward(truth3, nal, nal.budget(2));
+        final BudgetValue budget4 = BudgetFunctions.forward(truth4, nal, nal.budget(3)); //this one is sequence in sequenceBag, no need to reduce here
         
         final Statement statement1 = Implication.make(t1, t2, order);
         final Statement statement2 = Implication.make(t2, t1, reverseOrder(order));
@@ -30,6 +30,11 @@ import org.opennars.main.Parameters;
 
 /**
  * All truth-value (and desire-value) functions used in inference rules
+ * <p>
+ * Each function is given the truth values of the premises and returns a new truth value. It can also be computed
+ * into a truth value of the caller, either from the truth values of the premises or from their frequencies and
+ * confidences, so that the inference rules create a truth value only for the conclusions which are stored, see
+ * {@link org.opennars.control.DerivationContext#truth(int)}. All forms compute the same bits.
  *
  * @author Pei Wang
  * @author Patrick Hammer
@@ -62,22 +67,34 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return truth value as computed by the truth-function
      */
     public static TruthValue lookupTruthFunctionAndCompute(final EnumType type, final TruthValue a, final TruthValue b, final Parameters narParameters) {
+        return lookupTruthFunctionAndCompute(type, a, b, new TruthValue(narParameters), narParameters);
+    }
+
+    /**
+     * lookup the truth function and compute the value into a truth value of the caller
+     * @param type truth-function
+     * @param a truth value of the first premise
+     * @param b truth value of the second premise
+     * @param result truth value receiving the result
+     * @return result
+     */
+    public static TruthValue lookupTruthFunctionAndCompute(final EnumType type, final TruthValue a, final TruthValue b, final TruthValue result, final Parameters narParameters) {
         switch(type) {
-            case DESIREDED: return desireDed(a, b, narParameters);
-            case DESIREIND: return desireInd(a, b, narParameters);
-            case DESIREWEAK: return desireWeak(a, b, narParameters);
-            case DESIRESTRONG: return desireStrong(a, b, narParameters);
-            case COMPARISON: return comparison(a, b, narParameters);
-            case ANALOGY: return analogy(a, b, narParameters);
-            case ANONYMOUSANALOGY: return anonymousAnalogy(a, b, narParameters);
-            case DEDUCTION: return deduction(a, b, narParameters);
-            case EXEMPLIFICATION: return exemplification(a, b, narParameters);
-            case ABDUCTION: return abduction(a, b, narParameters);
-            case RESEMBLENCE: return resemblance(a, b, narParameters);
-            case REDUCECONJUNCTION: return reduceConjunction(a, b, narParameters);
-            case REDUCEDISJUNCTION: return reduceDisjunction(a, b, narParameters);
-            case REDUCEDISJUNCTIONREV: return reduceDisjunction(b, a, narParameters);
-            case REDUCECONJUNCTIONNEG: return reduceConjunctionNeg(a, b, narParameters);
+            case DESIREDED: return desireDed(a, b, result, narParameters);
+            case DESIREIND: return desireInd(a, b, result, narParameters);
+            case DESIREWEAK: return desireWeak(a, b, result, narParameters);
+            case DESIRESTRONG: return desireStrong(a, b, result, narParameters);
+            case COMPARISON: return comparison(a, b, result, narParameters);
+            case ANALOGY: return analogy(a, b, result, narParameters);
+            case ANONYMOUSANALOGY: return anonymousAnalogy(a, b, result, narParameters);
+            case DEDUCTION: return deduction(a, b, result, narParameters);
+            case EXEMPLIFICATION: return exemplification(a, b, result, narParameters);
+            case ABDUCTION: return abduction(a, b, result, narParameters);
+            case RESEMBLENCE: return resemblance(a, b, result, narParameters);
+            case REDUCECONJUNCTION: return reduceConjunction(a, b, result, narParameters);
+            case REDUCEDISJUNCTION: return reduceDisjunction(a, b, result, narParameters);
+            case REDUCEDISJUNCTIONREV: return reduceDisjunction(b, a, result, narParameters);
+            case REDUCECONJUNCTIONNEG: return reduceConjunctionNeg(a, b, result, narParameters);
             default: throw new IllegalArgumentException("Encountered unimplemented case!"); // internal error
         }
     }
@@ -96,6 +113,21 @@ public final class TruthFunctions extends UtilityFunctions {
         return lookupTruthFunctionAndCompute(type, a, b, narParameters);
     }
 
+    /**
+     * lookup the truth function and compute the value into a truth value of the caller - for two truth functions which are decided by flag
+     * @param flag which type to choose
+     * @param typeTrue truth-function for the case when the flag is true
+     * @param typeFalse truth-function for the case when the flag is false
+     * @param a truth value of the first premise
+     * @param b truth value of the second premise
+     * @param result truth value receiving the result
+     * @return result
+     */
+    public static TruthValue lookupTruthFunctionByBoolAndCompute(final boolean flag, final EnumType typeTrue, final EnumType typeFalse, final TruthValue a, final TruthValue b, final TruthValue result, Parameters narParameters) {
+        final EnumType type = flag ? typeTrue : typeFalse;
+        return lookupTruthFunctionAndCompute(type, a, b, result, narParameters);
+    }
+
     /**
      * lookup the truth function by the first boolean which is true or return null if no boolean is true
      * @param values tuples of boolean conditional values and their corresponding truth function
@@ -104,13 +136,30 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return truth value as computed by the truth-function or null if no boolean value was true
      */
     public static TruthValue lookupTruthOrNull(final TruthValue a, final TruthValue b, Parameters narParameters, final Object... values) {
+        final EnumType type = lookupTypeOrNull(values);
+        return type == null ? null : lookupTruthFunctionAndCompute(type, a, b, narParameters);
+    }
+
+    /**
+     * lookup the truth function by the first boolean which is true and compute it into a truth value of the caller or return null if no boolean is true
+     * @param values tuples of boolean conditional values and their corresponding truth function
+     * @param a truth value of the first premise
+     * @param b truth value of the second premise
+     * @param result truth value receiving the result
+     * @return result or null if no boolean value was true
+     */
+    public static TruthValue lookupTruthOrNull(final TruthValue a, final TruthValue b, final TruthValue result, Parameters narParameters, final Object... values) {
+        final EnumType type = lookupTypeOrNull(values);
+        return type == null ? null : lookupTruthFunctionAndCompute(type, a, b, result, narParameters);
+    }
+
+    private static EnumType lookupTypeOrNull(final Object... values) {
         final int numberOfTuples = (values.length) / 2;
 
         for(int idx = 0; idx < numberOfTuples; idx++) {
             final boolean v = (boolean)values[idx*2];
             if( v ) {
-                final EnumType type = (EnumType)values[idx*2+1];
-                return lookupTruthFunctionAndCompute(type, a, b, narParameters);
+                return (EnumType)values[idx*2+1];
             }
         }
 
@@ -125,11 +174,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue conversion(final TruthValue v1, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final double c1 = v1.getConfidence();
+        return conversion(v1, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #conversion(TruthValue, Parameters)} into result */
+    public static final TruthValue conversion(final TruthValue v1, final TruthValue result, Parameters narParameters) {
+        return conversion(v1.getFrequency(), v1.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #conversion(TruthValue, Parameters)} of the premise (f1, c1) into result */
+    public static final TruthValue conversion(final float f1, final double c1, final TruthValue result, Parameters narParameters) {
         final float w = (float)and(f1, c1);
         final double c = w2c(w, narParameters);
-        return new TruthValue(1, c, narParameters);
+        return result.set(1, c, false);
     }
 
     /* ----- Single argument functions, called in StructuralRules ----- */
@@ -139,9 +196,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue negation(final TruthValue v1, Parameters narParameters) {
-        final float f = 1 - v1.getFrequency();
-        final double c = v1.getConfidence();
-        return new TruthValue(f, c, narParameters);
+        return negation(v1, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #negation(TruthValue, Parameters)} into result */
+    public static final TruthValue negation(final TruthValue v1, final TruthValue result, Parameters narParameters) {
+        return negation(v1.getFrequency(), v1.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #negation(TruthValue, Parameters)} of the premise (f1, c1) into result */
+    public static final TruthValue negation(final float f1, final double c1, final TruthValue result, Parameters narParameters) {
+        final float f = 1 - f1;
+        return result.set(f, c1, false);
     }
 
     /**
@@ -150,11 +216,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue contraposition(final TruthValue v1, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final double c1 = v1.getConfidence();
+        return contraposition(v1, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #contraposition(TruthValue, Parameters)} into result */
+    public static final TruthValue contraposition(final TruthValue v1, final TruthValue result, Parameters narParameters) {
+        return contraposition(v1.getFrequency(), v1.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #contraposition(TruthValue, Parameters)} of the premise (f1, c1) into result */
+    public static final TruthValue contraposition(final float f1, final double c1, final TruthValue result, Parameters narParameters) {
         final float w = (float)and(1 - (double)f1, c1);
         final double c = w2c(w, narParameters);
-        return new TruthValue(0, c, narParameters);
+        return result.set(0, c, false);
     }
 
     /* ----- double argument functions, called in MatchingRules ----- */
@@ -167,16 +241,18 @@ public final class TruthFunctions extends UtilityFunctions {
     public static final TruthValue revision(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
         return revision(v1, v2, new TruthValue(narParameters), narParameters);
     }
-    
-    private static final TruthValue revision(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double w1 = c2w( v1.getConfidence(), narParameters );
-        final double w2 = c2w( v2.getConfidence(), narParameters );
+
+    /** {@link #revision(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue revision(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return revision(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #revision(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue revision(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
+        final double w1 = c2w( c1, narParameters );
+        final double w2 = c2w( c2, narParameters );
         final double w = w1 + w2;
-        result.setFrequency( (float)((w1 * f1 + w2 * f2) / w) );
-        result.setConfidence( w2c(w, narParameters) );
-        return result;
+        return result.set( (float)((w1 * f1 + w2 * f2) / w), w2c(w, narParameters), false );
     }
     
     /* ----- double argument functions, called in SyllogisticRules ----- */
@@ -187,13 +263,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue deduction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return deduction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #deduction(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue deduction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return deduction(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #deduction(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue deduction(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = (float)and(f1, f2);
         final double c = and(c1, c2, f);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /**
@@ -203,10 +285,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue deduction(final TruthValue v1, final float reliance, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final double c1 = v1.getConfidence();
+        return deduction(v1, reliance, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #deduction(TruthValue, float, Parameters)} into result */
+    public static final TruthValue deduction(final TruthValue v1, final float reliance, final TruthValue result, Parameters narParameters) {
+        return deduction(v1.getFrequency(), v1.getConfidence(), reliance, result, narParameters);
+    }
+
+    /** {@link #deduction(TruthValue, float, Parameters)} of the premise (f1, c1) into result */
+    public static final TruthValue deduction(final float f1, final double c1, final float reliance, final TruthValue result, Parameters narParameters) {
         final double c = and(f1, c1, reliance);
-        return new TruthValue(f1, c, true, narParameters);
+        return result.set(f1, c, true);
     }
 
     /**
@@ -216,13 +306,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue analogy(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return analogy(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #analogy(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue analogy(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return analogy(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #analogy(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue analogy(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = (float)and(f1, f2);
         final double c = and(c1, c2, f2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /**
@@ -232,13 +328,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue resemblance(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return resemblance(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #resemblance(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue resemblance(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return resemblance(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #resemblance(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue resemblance(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = (float)and(f1, f2);
         final double c = and(c1, c2, or(f1, f2));
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /**
@@ -248,16 +350,26 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue abduction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        if (v1.getAnalytic() || v2.getAnalytic()) {
-            return new TruthValue(0.5f, 0f, narParameters);
+        return abduction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #abduction(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue abduction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return abduction(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(),
+                v1.getAnalytic() || v2.getAnalytic(), result, narParameters);
+    }
+
+    /**
+     * {@link #abduction(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result
+     * @param analytic Whether one of the premises is analytic
+     */
+    public static final TruthValue abduction(final float f1, final double c1, final float f2, final double c2, final boolean analytic, final TruthValue result, Parameters narParameters) {
+        if (analytic) {
+            return result.set(0.5f, 0f, false);
         }
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
         final double w = and(f2, c1, c2);
         final double c = w2c(w, narParameters);
-        return new TruthValue(f1, c, narParameters);
+        return result.set(f1, c, false);
     }
 
     /**
@@ -267,14 +379,25 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue abduction(final TruthValue v1, final float reliance, Parameters narParameters) {
-        if (v1.getAnalytic()) {
-            return new TruthValue(0.5f, 0f, narParameters);
+        return abduction(v1, reliance, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #abduction(TruthValue, float, Parameters)} into result */
+    public static final TruthValue abduction(final TruthValue v1, final float reliance, final TruthValue result, Parameters narParameters) {
+        return abduction(v1.getFrequency(), v1.getConfidence(), reliance, v1.getAnalytic(), result, narParameters);
+    }
+
+    /**
+     * {@link #abduction(TruthValue, float, Parameters)} of the premise (f1, c1) into result
+     * @param analytic Whether the first premise is analytic
+     */
+    public static final TruthValue abduction(final float f1, final double c1, final float reliance, final boolean analytic, final TruthValue result, Parameters narParameters) {
+        if (analytic) {
+            return result.set(0.5f, 0f, false);
         }
-        final float f1 = v1.getFrequency();
-        final double c1 = v1.getConfidence();
         final double w = and(c1, reliance);
         final double c = w2c(w, narParameters);
-        return new TruthValue(f1, c, true, narParameters);
+        return result.set(f1, c, true);
     }
 
     /**
@@ -287,6 +410,19 @@ public final class TruthFunctions extends UtilityFunctions {
         return abduction(v2, v1, narParameters);
     }
 
+    /** {@link #induction(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue induction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return abduction(v2, v1, result, narParameters);
+    }
+
+    /**
+     * {@link #induction(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result
+     * @param analytic Whether one of the premises is analytic
+     */
+    public static final TruthValue induction(final float f1, final double c1, final float f2, final double c2, final boolean analytic, final TruthValue result, Parameters narParameters) {
+        return abduction(f2, c2, f1, c1, analytic, result, narParameters);
+    }
+
     /**
      * {&lt;M ==&gt; S&gt;, &lt;P ==&gt; M&gt;} |- &lt;S ==&gt; P&gt;
      * @param v1 Truth value of the first premise
@@ -294,16 +430,26 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue exemplification(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        if (v1.getAnalytic() || v2.getAnalytic()) {
-            return new TruthValue(0.5f, 0f, narParameters);
+        return exemplification(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #exemplification(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue exemplification(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return exemplification(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(),
+                v1.getAnalytic() || v2.getAnalytic(), result, narParameters);
+    }
+
+    /**
+     * {@link #exemplification(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result
+     * @param analytic Whether one of the premises is analytic
+     */
+    public static final TruthValue exemplification(final float f1, final double c1, final float f2, final double c2, final boolean analytic, final TruthValue result, Parameters narParameters) {
+        if (analytic) {
+            return result.set(0.5f, 0f, false);
         }
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
         final double w = and(f1, f2, c1, c2);
         final double c = w2c(w, narParameters);
-        return new TruthValue(1, c, narParameters);
+        return result.set(1, c, false);
     }
 
     /**
@@ -313,15 +459,21 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue comparison(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return comparison(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #comparison(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue comparison(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return comparison(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #comparison(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue comparison(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f0 = or(f1, f2);
         final float f = (f0 == 0) ? 0 : ((float)and(f1, f2) / f0);
         final double w = and(f0, c1, c2);
         final double c = w2c(w, narParameters);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /* ----- desire-value functions, called in SyllogisticRules ----- */
@@ -332,13 +484,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireStrong(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return desireStrong(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireStrong(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue desireStrong(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return desireStrong(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #desireStrong(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue desireStrong(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = (float)and(f1, f2);
         final double c = and(c1, c2, f2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /**
@@ -348,13 +506,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireWeak(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return desireWeak(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireWeak(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue desireWeak(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return desireWeak(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #desireWeak(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue desireWeak(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = (float)and(f1, f2);
         final double c = and(c1, c2, f2, w2c(1.0, narParameters));
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /**
@@ -364,13 +528,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireDed(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return desireDed(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireDed(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue desireDed(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return desireDed(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #desireDed(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue desireDed(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = (float)and(f1, f2);
         final double c = and(c1, c2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /**
@@ -380,13 +550,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue desireInd(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return desireInd(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #desireInd(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue desireInd(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return desireInd(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #desireInd(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue desireInd(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final double w = and(f2, c1, c2);
         final double c = w2c(w, narParameters);
-        return new TruthValue(f1, c, narParameters);
+        return result.set(f1, c, false);
     }
 
     /* ----- double argument functions, called in CompositionalRules ----- */
@@ -397,13 +573,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue union(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return union(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #union(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue union(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return union(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #union(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue union(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = or(f1, f2);
         final double c = and(c1, c2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
     /**
@@ -413,15 +595,24 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue intersection(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final float f2 = v2.getFrequency();
-        final double c1 = v1.getConfidence();
-        final double c2 = v2.getConfidence();
+        return intersection(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #intersection(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue intersection(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return intersection(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** {@link #intersection(TruthValue, TruthValue, Parameters)} of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue intersection(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
         final float f = (float)and(f1, f2);
         final double c = and(c1, c2);
-        return new TruthValue(f, c, narParameters);
+        return result.set(f, c, false);
     }
 
+    /* the composed functions below compute each step into the result, which limits the confidence
+       of the intermediate results like the truth values they were composed of */
+
     /**
      * {(||, A, B), (--, B)} |- A
      * @param v1 Truth value of the first premise
@@ -429,8 +620,19 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue reduceDisjunction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final TruthValue v0 = intersection(v1, negation(v2, narParameters), narParameters);
-        return deduction(v0, 1f, narParameters);
+        return reduceDisjunction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #reduceDisjunction(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue reduceDisjunction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return reduceDisjunction(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** deduction(intersection(v1, negation(v2)), 1) of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue reduceDisjunction(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
+        negation(f2, c2, result, narParameters);
+        intersection(f1, c1, result.getFrequency(), result.getConfidence(), result, narParameters);
+        return deduction(result.getFrequency(), result.getConfidence(), 1f, result, narParameters);
     }
 
     /**
@@ -440,8 +642,20 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue reduceConjunction(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final TruthValue v0 = intersection(negation(v1, narParameters), v2, narParameters);
-        return negation(deduction(v0, 1f, narParameters), narParameters);
+        return reduceConjunction(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #reduceConjunction(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue reduceConjunction(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return reduceConjunction(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** negation(deduction(intersection(negation(v1), v2), 1)) of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue reduceConjunction(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
+        negation(f1, c1, result, narParameters);
+        intersection(result.getFrequency(), result.getConfidence(), f2, c2, result, narParameters);
+        deduction(result.getFrequency(), result.getConfidence(), 1f, result, narParameters);
+        return negation(result.getFrequency(), result.getConfidence(), result, narParameters);
     }
 
     /**
@@ -451,7 +665,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue reduceConjunctionNeg(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        return reduceConjunction(v1, negation(v2, narParameters), narParameters);
+        return reduceConjunctionNeg(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #reduceConjunctionNeg(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue reduceConjunctionNeg(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return reduceConjunctionNeg(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** reduceConjunction(v1, negation(v2)) of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue reduceConjunctionNeg(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
+        negation(f2, c2, result, narParameters);
+        return reduceConjunction(f1, c1, result.getFrequency(), result.getConfidence(), result, narParameters);
     }
 
     /**
@@ -461,10 +686,18 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final TruthValue anonymousAnalogy(final TruthValue v1, final TruthValue v2, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final double c1 = v1.getConfidence();
-        final TruthValue v0 = new TruthValue(f1, w2c(c1, narParameters), narParameters);
-        return analogy(v2, v0, narParameters);
+        return anonymousAnalogy(v1, v2, new TruthValue(narParameters), narParameters);
+    }
+
+    /** {@link #anonymousAnalogy(TruthValue, TruthValue, Parameters)} into result */
+    public static final TruthValue anonymousAnalogy(final TruthValue v1, final TruthValue v2, final TruthValue result, Parameters narParameters) {
+        return anonymousAnalogy(v1.getFrequency(), v1.getConfidence(), v2.getFrequency(), v2.getConfidence(), result, narParameters);
+    }
+
+    /** analogy(v2, (f1, w2c(c1))) of the premises (f1, c1) and (f2, c2) into result */
+    public static final TruthValue anonymousAnalogy(final float f1, final double c1, final float f2, final double c2, final TruthValue result, Parameters narParameters) {
+        result.set(f1, w2c(c1, narParameters), false);
+        return analogy(f2, c2, result.getFrequency(), result.getConfidence(), result, narParameters);
     }
     
     
@@ -483,10 +716,14 @@ public final class TruthFunctions extends UtilityFunctions {
      * @return Truth value of the conclusion
      */
     public static final EternalizedTruthValue eternalize(final TruthValue v1, Parameters narParameters) {
-        final float f1 = v1.getFrequency();
-        final double c1 = v1.getConfidence();
+        return eternalize(v1.getFrequency(), v1.getConfidence(), new EternalizedTruthValue(0, 0, narParameters), narParameters);
+    }
+
+    /** {@link #eternalize(TruthValue, Parameters)} of the premise (f1, c1) into result */
+    public static final EternalizedTruthValue eternalize(final float f1, final double c1, final EternalizedTruthValue result, Parameters narParameters) {
         final double c = w2c(c1, narParameters);
-        return new EternalizedTruthValue(f1, c, narParameters);
+        result.set(f1, c, false);
+        return result;
     }
     
     public static final float temporalProjection(final long sourceTime, final long targetTime, final long currentTime, Parameters param) {
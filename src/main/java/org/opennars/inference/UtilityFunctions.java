@@ -47,6 +47,33 @@ public class UtilityFunctions {
         }
         return product;
     }
+
+    /* the fixed arities below are chosen by the compiler over the varargs versions, so the common calls
+       allocate no array, they compute in the same order and with the same precision as the varargs versions */
+
+    public final static double and(final double a, final double b) {
+        float product = 1;
+        product *= a;
+        product *= b;
+        return product;
+    }
+
+    public final static double and(final double a, final double b, final double c) {
+        float product = 1;
+        product *= a;
+        product *= b;
+        product *= c;
+        return product;
+    }
+
+    public final static double and(final double a, final double b, final double c, final double d) {
+        float product = 1;
+        product *= a;
+        product *= b;
+        product *= c;
+        product *= d;
+        return product;
+    }
     
     /**
      * A function where the output is disjunctively determined by the inputs
@@ -60,6 +87,21 @@ public class UtilityFunctions {
         }
         return 1 - product;
     }
+
+    public final static float or(final float a, final float b) {
+        float product = 1;
+        product *= (1 - a);
+        product *= (1 - b);
+        return 1 - product;
+    }
+
+    public final static float or(final float a, final float b, final float c) {
+        float product = 1;
+        product *= (1 - a);
+        product *= (1 - b);
+        product *= (1 - c);
+        return 1 - product;
+    }
     
     /**
      * A function where the output is the arithmetic average the inputs
@@ -74,6 +116,13 @@ public class UtilityFunctions {
         return sum / arr.length;
     }
 
+    public final static float aveAri(final float a, final float b) {
+        float sum = 0;
+        sum += a;
+        sum += b;
+        return sum / 2;
+    }
+
     /**
      * A function where the output is the geometric average the inputs
      * @param arr The inputs, each in [0, 1]
@@ -91,6 +140,10 @@ public class UtilityFunctions {
         return (float) pow(product, 1.00 / arr.length);
     }
 
+    public final static float aveGeo(final float a, final float b) {
+        return (float)sqrt(a*b);
+    }
+
     /**
      * A function to convert weight to confidence
      * @param w Weight of evidence, a non-negative real number
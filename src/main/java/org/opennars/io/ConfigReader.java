@@ -129,6 +129,8 @@ public class ConfigReader {
                         fieldOfProperty.set(parameters, Double.parseDouble(propertyValueAsString));
                     } else if (fieldOfProperty.getType() == boolean.class) {
                         fieldOfProperty.set(parameters, Boolean.parseBoolean(propertyValueAsString));
+                    } else if (fieldOfProperty.getType() == String.class) {
+                        fieldOfProperty.set(parameters, propertyValueAsString);
                     } else {
                         throw new ParseException("Unknown type", 0);
                     }
@@ -62,10 +62,19 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     /** Whether contains a variable */
     private boolean hasVariables, hasVarQueries, hasVarIndeps, hasVarDeps, hasIntervals;
+    /** whether all components are internable */
+    private boolean internableTerms;
+    /** whether the term and its compound components were made by make and not modified since, see {@link #isCanonical()} */
+    private boolean canonical;
     
     int containedTemporalRelations = -1;
+    /** structural hash, created lazily, reset with the name */
     int hash;
+    /** structural signature, see {@link #signature()}, created lazily, reset with the name */
+    private long signature;
     private boolean normalized;
+    /** interval-normalized term naming the concept of this term or NO_CONCEPT, created lazily, reset with the name */
+    private transient Object conceptualKey;
     
 
     /**
@@ -149,6 +158,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
 
         this.complexity = 1;
         this.hasVariables = this.hasVarDeps = this.hasVarIndeps = this.hasVarQueries = false;
+        this.internableTerms = true;
         
         if(this.term_indices == null) {
             final ConvRectangle rect = UpdateConvRectangle(term);
@@ -164,6 +174,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             hasVarIndeps |= t.hasVarIndep();
             hasVarQueries |= t.hasVarQuery();
             hasIntervals |= t.hasInterval();
+            internableTerms &= t.isInternable();
         }
         
         invalidateName();        
@@ -175,6 +186,10 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     public void invalidateName() {        
         this.setName(null); //invalidate name so it will be (re-)created lazily
+        this.conceptualKey = null;
+        this.hash = 0;
+        this.signature = 0;
+        this.canonical = false;
         for (final Term t : term) {
             if (t.hasVar())
                 if (t instanceof CompoundTerm)
@@ -186,8 +201,41 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     /** Must be Term return type because the type of Term may change with different arguments */
     abstract public Term clone(final Term[] replaced);
     
+    /**
+     * Whether the term is what make returns for its components, so it is valid and
+     * rebuilding it, like cloneDeep does, results in an equal term
+     */
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /** called by {@link TermFactory} for the terms returned by make */
+    void setCanonical() {
+        for (final Term t : term) {
+            if (t instanceof CompoundTerm && !((CompoundTerm) t).canonical) {
+                return;
+            }
+        }
+        canonical = true;
+    }
+
+    /**
+     * Check the validity of the term by rebuilding it, unless it is canonical
+     *
+     * @return whether the term can be made from its components
+     */
+    public boolean isValid() {
+        return canonical || cloneDeep() != null;
+    }
+
+    /**
+     * Copy the term, a canonical term which is never modified, see {@link Term#isInternable()}, is returned itself
+     */
     @Override
     public CompoundTerm cloneDeep() {
+        if (canonical && isInternable()) {
+            return this;
+        }
         final Term c = clone(cloneTermsDeep());
         if (c == null)
             return null;
@@ -219,36 +267,76 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     }
     
     static final Interval conceptival = new Interval(1);
-    private static void ReplaceIntervals(final CompoundTerm comp) {
+    /** conceptual key of a term which can not name a concept */
+    private static final Object NO_CONCEPT = new Object();
+
+    /**
+     * Replace all intervals by +1, the components without intervals are shared
+     *
+     * @param comp the term
+     * @return comp if it has no intervals, else a new term, null if it can not be made
+     */
+    private static Term ReplaceIntervals(final CompoundTerm comp) {
         if (!comp.hasIntervals) {
-            return;
+            return comp;
         }
-
-        comp.invalidateName();
-        for(int i=0; i<comp.term.length; i++) {
-            final Term t = comp.term[i];
+        final Term[] replaced = comp.term.clone();
+        for(int i=0; i<replaced.length; i++) {
+            final Term t = replaced[i];
             if(t instanceof Interval) {
                 assert conceptival != null;
-                comp.term[i] = conceptival;
-                comp.invalidateName();
+                replaced[i] = conceptival;
             }
             else
             if(t instanceof CompoundTerm) {
-                ReplaceIntervals((CompoundTerm) t);
+                replaced[i] = ReplaceIntervals((CompoundTerm) t);
+                if (replaced[i] == null) {
+                    return null;
+                }
             }
         }
+        return comp.clone(replaced);
     }
 
-    public static Term replaceIntervals(Term T) {
+    /**
+     * Get the term naming the concept of a term, in which all intervals are replaced by +1
+     * <p>
+     * The result is shared and must not be modified, it is the term itself if it is canonical, see {@link #cloneDeep()}
+     *
+     * @param T the term
+     * @return the conceptual term, or null if the term can not name a concept
+     */
+    public static Term replaceIntervals(final Term T) {
         if(T instanceof CompoundTerm) {
-            T=T.cloneDeep(); //we will operate on a copy
-            if(T == null) {
-                return null; //not a valid concept term
-            }
-            ReplaceIntervals((CompoundTerm) T);
+            return ((CompoundTerm) T).getConceptualKey();
         }
         return T;
     }
+
+    /**
+     * Get the interval-normalized term naming the concept of this term, computed once
+     * <p>
+     * The term is rebuilt like by {@link #cloneDeep()}, so a term which is no longer a compound when it is made
+     * again does not name a concept, then its intervals are replaced
+     *
+     * @return the rebuilt term with the intervals replaced, null if not a valid concept term
+     */
+    public CompoundTerm getConceptualKey() {
+        final Object known = conceptualKey;
+        if (known != null) {
+            return known == NO_CONCEPT ? null : (CompoundTerm) known;
+        }
+        CompoundTerm key = cloneDeep(); //we will operate on a copy
+        if (key != null && hasIntervals) {
+            final Term replaced = ReplaceIntervals(key);
+            key = (replaced instanceof CompoundTerm) ? (CompoundTerm) replaced : null;
+        }
+        if (key != null && key != this) {
+            key.conceptualKey = key; //is rebuilt and only contains the conceptual interval
+        }
+        conceptualKey = (key == null) ? NO_CONCEPT : key;
+        return key;
+    }
     
     private static void ExtractIntervals(final Memory mem, final List<Long> ivals, final CompoundTerm comp) {
         for(int i=0; i<comp.term.length; i++) {
@@ -596,6 +684,9 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
      */
     @Override
     public boolean containsTermRecursively(final Term target) { 
+        if (target == null || !signatureCovers(signature(), target.signature())) {
+            return false;
+        }
         if (super.containsTermRecursively(target))
             return true;
         for (final Term term : term) {            
@@ -719,6 +810,11 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     public boolean hasInterval() {
         return hasIntervals;
     }
+
+    @Override
+    public boolean isInternable() {
+        return internableTerms && super.isInternable();
+    }
     
     /**
      * Recursively apply a substitute to the current CompoundTerm
@@ -797,25 +893,82 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
 
 
 
+    /**
+     * Hash of the operator and the components, so that the name is not needed
+     */
     @Override
     public int hashCode() {
-        return name().hashCode();
+        int h = hash;
+        if (h == 0) {
+            h = makeHash();
+            hash = (h == 0) ? 1 : h;
+        }
+        return hash;
     }
 
+    protected int makeHash() {
+        int h = operator().ordinal();
+        for (final Term t : term) {
+            //variables by name only, their hash includes the scope, which may be this term
+            h = 31 * h + ((t instanceof Variable) ? t.name().hashCode() : t.hashCode());
+        }
+        return h;
+    }
+
+    /**
+     * The order of the names, which is the canonical order of the components of commutative terms,
+     * only the names of the components are created if the terms are unequal
+     */
     @Override
     public int compareTo(final AbstractTerm that) {
         if (that==this) { 
             return 0;
         }
+        if (equals(that)) {
+            return 0;
+        }
         return super.compareTo(that);
     }
-    
+
+    /**
+     * @return The bloom bits of the operator and the components, the types of the contained variables and commutativity
+     */
+    @Override
+    public long signature() {
+        long sig = signature;
+        if (sig == 0) {
+            sig = signatureBit(operator().ordinal()) | (isCommutative() ? SIGNATURE_COMMUTATIVE : 0);
+            for (final Term t : term) {
+                sig |= t.signature();
+            }
+            signature = sig;
+        }
+        return sig;
+    }
+
+    /**
+     * Compares the operator and the components, which is the same as comparing the names
+     * without creating them
+     */
     @Override
     public boolean equals(final Object that) {
         if (that==this) return true;                
-        if (!(that instanceof Term))
+        if (that == null || that.getClass() != getClass())
             return false;
-        return name().equals(((Term)that).name());
+        final CompoundTerm c = (CompoundTerm) that;
+        if (hashCode() != c.hashCode() || operator() != c.operator() || term.length != c.term.length)
+            return false;
+        for (int i = 0; i < term.length; i++) {
+            final Term a = term[i];
+            final Term b = c.term[i];
+            if (a instanceof Variable) { //by name as in the names of the terms, regardless of the scope
+                if (!(b instanceof Variable) || !a.name().equals(b.name()))
+                    return false;
+            } else if (!a.equals(b)) {
+                return false;
+            }
+        }
+        return true;
     }   
 
     public void setNormalized(final boolean b) {
@@ -170,13 +170,28 @@ public class Conjunction extends CompoundTerm {
             return "+"+String.valueOf(value);
         }
     }
+    /**
+     * Rename the index terms relative to the rectangle, rebuilding only the compounds which contain them,
+     * as the other subterms may be shared canonical terms which must not be modified
+     */
     public static Term UpdateRelativeIndices(final int minX, final int minY, final int minsX, final int minsY, final Term term) {
         if(term instanceof CompoundTerm) {
             final CompoundTerm ct = ((CompoundTerm)term);
+            Term[] updated = null;
             for(int i=0;i<ct.term.length;i++) {
-                ct.term[i]=UpdateRelativeIndices(minX, minY, minsX, minsY, ct.term[i]);
+                final Term t = UpdateRelativeIndices(minX, minY, minsX, minsY, ct.term[i]);
+                if(t != ct.term[i]) {
+                    if(updated == null) {
+                        updated = ct.term.clone();
+                    }
+                    updated[i] = t;
+                }
+            }
+            if(updated == null) {
+                return ct; //no index terms below
             }
-            return ct;
+            final Term ret = Terms.term(ct, updated);
+            return ret != null ? ret : ct;
         } else {
             if(term.term_indices != null) {
                 //term indices remain the same, but representation changes
@@ -250,7 +265,7 @@ public class Conjunction extends CompoundTerm {
             if(newArgList.length == 1) {
                 return newArgList[0];
             }
-            return new Conjunction(newArgList, temporalOrder, false, spatial);
+            return TermFactory.intern(new Conjunction(newArgList, temporalOrder, false, spatial));
             
         } 
         else {
@@ -277,7 +292,7 @@ public class Conjunction extends CompoundTerm {
                 return set.first();
             }
             
-            return new Conjunction(set.toArray(new Term[0]), temporalOrder, false, spatial, rect);
+            return TermFactory.intern(new Conjunction(set.toArray(new Term[0]), temporalOrder, false, spatial, rect));
         }
     }
 
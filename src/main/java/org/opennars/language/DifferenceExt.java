@@ -91,7 +91,7 @@ public class DifferenceExt extends CompoundTerm {
             return null;
         }
         
-        return new DifferenceExt(arg);
+        return TermFactory.intern(new DifferenceExt(arg));
     }
 
     /**
@@ -99,7 +99,7 @@ public class DifferenceInt extends CompoundTerm {
             return null;
         }
             
-        return new DifferenceInt(arg);
+        return TermFactory.intern(new DifferenceInt(arg));
     }
 
     /**
@@ -106,7 +106,7 @@ public class Disjunction extends CompoundTerm {
             return t[0];
         }                         
         
-        return new Disjunction(t);
+        return TermFactory.intern(new Disjunction(t));
     }
     
     /**
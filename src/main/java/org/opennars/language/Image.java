@@ -26,8 +26,6 @@ package org.opennars.language;
 import org.opennars.io.Symbols;
 import org.opennars.io.Symbols.NativeOperator;
 
-import java.util.Objects;
-
 import static org.opennars.io.Symbols.NativeOperator.COMPOUND_TERM_CLOSER;
 import static org.opennars.io.Symbols.NativeOperator.COMPOUND_TERM_OPENER;
 
@@ -48,9 +46,13 @@ abstract public class Image extends CompoundTerm {
     }
 
     @Override
-    protected void init(final Term[] components) {
-        super.init(components);
-        this.hash = Objects.hash(super.hashCode(), relationIndex); 
+    protected int makeHash() {
+        return 31 * super.makeHash() + relationIndex;
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        return super.equals(that) && (that == this || relationIndex == ((Image) that).relationIndex);
     }
     
     @Override
@@ -93,7 +93,7 @@ public class ImageExt extends Image {
             }
             n++;
         }
-        return new ImageExt(argument, (short) index);
+        return TermFactory.intern(new ImageExt(argument, (short) index));
     }
 
     /**
@@ -117,7 +117,7 @@ public class ImageExt extends Image {
         }
         final Term[] argument = product.cloneTerms(); //TODO is this clone needed?
         argument[index] = relation;
-        return new ImageExt(argument, index);
+        return TermFactory.intern(new ImageExt(argument, index));
     }
 
     /**
@@ -133,7 +133,7 @@ public class ImageExt extends Image {
         final Term relation = argList[oldIndex];
         argList[oldIndex] = component;
         argList[index] = relation;
-        return new ImageExt(argList, index);
+        return TermFactory.intern(new ImageExt(argList, index));
     }
 
 
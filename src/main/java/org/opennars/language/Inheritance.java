@@ -102,7 +102,7 @@ public class Inheritance extends Statement {
             //name = Operation.makeName(predicate.name(), ((CompoundTerm) subject).term);
             return Operation.make((Operator)predicate, ((CompoundTerm)subject).term, true);
         } else {            
-            return new Inheritance(subject, predicate);
+            return TermFactory.intern(new Inheritance(subject, predicate));
         }
          
     }
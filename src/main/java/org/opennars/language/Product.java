@@ -50,7 +50,7 @@ public class Product extends CompoundTerm {
     }
     
     public static Product make(final Term... arg) {
-        return new Product(arg);
+        return TermFactory.intern(new Product(arg));
     }   
     
     /**
@@ -83,7 +83,7 @@ public class Product extends CompoundTerm {
     public static Term make(final CompoundTerm image, final Term component, final int index) {
         final Term[] argument = image.cloneTerms();
         argument[index] = component;
-        return new Product(argument);
+        return TermFactory.intern(new Product(argument));
     }
     
     /**
@@ -68,7 +68,7 @@ public class SetExt extends SetTensional {
     public static SetExt make(Term... t) {
         t = Term.toSortedSetArray(t);
         if (t.length == 0) return null;
-        return new SetExt(t);
+        return TermFactory.intern(new SetExt(t));
     }
 
     public static SetExt make(final Collection<Term> l) {
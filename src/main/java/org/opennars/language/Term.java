@@ -50,7 +50,6 @@ import java.util.*;
  */
 public class Term implements AbstractTerm, Serializable {
     public ImaginationSpace imagination;
-    private static final Map<CharSequence,Term> atoms = new LinkedHashMap();
 
     final public static Term SELF = SetExt.make(Term.get("SELF"));
     final public static Term SEQ_SPATIAL = Term.get("#");
@@ -108,10 +107,10 @@ public class Term implements AbstractTerm, Serializable {
         setName(name);
     }
     
-    /** gets the atomic term given a name */
+    /** gets the atomic term given a name, shared through {@link TermFactory} unless it is an index term */
     public final static Term get(final CharSequence name) {
-        Term x = atoms.get(name); //only
-        if (x != null && !x.toString().endsWith("]")) { //return only if it isn't an index term
+        Term x = TermFactory.getAtom(name);
+        if (x != null) {
             return x;
         }
 
@@ -145,9 +144,10 @@ public class Term implements AbstractTerm, Serializable {
         x = new Term(name2);
         x.term_indices = term_indices;
         x.index_variable = before_indices_str;
-        atoms.put(name2, x);
-        
-        return x;
+        if(term_indices != null) { //index terms carry their own indices
+            return x;
+        }
+        return TermFactory.putAtom(x);
     }
     
     /** gets the atomic term of an integer */
@@ -379,6 +379,56 @@ public class Term implements AbstractTerm, Serializable {
         return false;
     }
 
+    /**
+     * Whether the term may be shared with all equal terms by {@link TermFactory},
+     * which is not the case if it is modified in place or carries more than its name
+     *
+     * @return true if the term has no variables, intervals, term indices or imagination space
+     */
+    public boolean isInternable() {
+        return !hasVar() && !hasInterval() && term_indices == null && imagination == null;
+    }
+
+    /** signature bits of the variable types, see {@link #signature()} */
+    public static final long SIGNATURE_VAR_INDEP = 1, SIGNATURE_VAR_DEP = 2, SIGNATURE_VAR_QUERY = 4;
+    /** signature bit of terms containing a commutative compound term */
+    public static final long SIGNATURE_COMMUTATIVE = 8;
+    /** amount of signature bits below the bloom bits */
+    private static final int SIGNATURE_FLAG_BITS = 4;
+
+    /**
+     * Structural signature of the term, a 64 bit bloom filter of the atoms and operators it contains,
+     * a mask of the types of its variables and whether it contains a commutative term
+     * <p>
+     * A term containing another term has all the bits of its signature,
+     * so a search or match which the signatures rule out can be skipped without walking the terms.
+     *
+     * @return The signature of the atom
+     */
+    public long signature() {
+        return signatureBit(hashCode());
+    }
+
+    /**
+     * @param hash Hash of an atom or operator
+     * @return The bloom bit of the hash
+     */
+    protected static long signatureBit(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return 1L << (SIGNATURE_FLAG_BITS + (hash & 0x7fffffff) % (Long.SIZE - SIGNATURE_FLAG_BITS));
+    }
+
+    /**
+     * @param container Signature of a term
+     * @param contained Signature of a term which may be in it
+     * @return Whether the signatures allow that the first term contains the second
+     */
+    public static boolean signatureCovers(final long container, final long contained) {
+        return (contained & ~container) == 0;
+    }
+
     public boolean hasVarDep() {
         return false;
     }
@@ -431,8 +481,11 @@ public class Term implements AbstractTerm, Serializable {
         return s.toArray(new Term[0]);
     }
 
-    /** performs a thorough check of the validity of a term (by cloneDeep it) to see if it's valid */
+    /** performs a thorough check of the validity of a term (by cloneDeep it, unless it was made valid) to see if it's valid */
     public static boolean valid(final Term content) {
+        if (content instanceof CompoundTerm) {
+            return ((CompoundTerm) content).isValid();
+        }
         final Term cloned = content.cloneDeep();
         return cloned != null;
     }
@@ -0,0 +1,302 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.language;
+
+import org.opennars.io.Symbols.NativeOperator;
+import org.opennars.operator.Operator;
+import org.opennars.storage.Memory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a term
+ * <p>
+ * The term tree is written in prefix order into an int array, one header word per term:
+ * the kind of the term in the lowest 3 bits, and above them the id of the name of an atom, variable or operator,
+ * or the operator and the amount of components of a compound term.
+ * The id of a variable is followed by a bit telling whether its scope is the encoded term, as in a normalized sentence.
+ * An image is followed by its relation index, an interval by the two halves of its time,
+ * and an index term, whose name is the same for all its indices, by the id of its index variable,
+ * the amount of its indices and the indices.
+ * The names are stored once per encoding, ids are given in the order of their first occurrence,
+ * so equal terms have equal encodings, and {@link #hashCode()} is a structural hash which is the same in every JVM.
+ * <p>
+ * Decoding builds the term through make, so it is interned again,
+ * operators are resolved against the memory which decodes the term.
+ */
+public final class TermCode implements Serializable {
+
+    private static final int ATOM = 0;
+    private static final int VARIABLE = 1;
+    private static final int OPERATOR = 2;
+    private static final int INTERVAL = 3;
+    private static final int COMPOUND = 4;
+    private static final int INDEX = 5;
+
+    private static final int KIND_BITS = 3;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+    private static final int OPERATOR_BITS = 8;
+    private static final int OPERATOR_MASK = (1 << OPERATOR_BITS) - 1;
+
+    private static final NativeOperator[] OPERATORS = NativeOperator.values();
+
+    /** the term in prefix order */
+    private final int[] code;
+    /** names of the atoms, variables and operators by id */
+    private final String[] names;
+    /** structural hash, 0 if not computed yet */
+    private transient int hash;
+
+    private TermCode(final int[] code, final String[] names) {
+        this.code = code;
+        this.names = names;
+    }
+
+    /**
+     * @param t The term to encode
+     * @return The encoding of the term, or null if it has an imagination space, which can not be encoded
+     */
+    public static TermCode encode(final Term t) {
+        final Encoder encoder = new Encoder(t);
+        if (!encoder.add(t)) {
+            return null;
+        }
+        return new TermCode(Arrays.copyOf(encoder.code, encoder.size), encoder.names.toArray(new String[0]));
+    }
+
+    /**
+     * @param memory The memory to resolve operators against, may be null if the term has no operators
+     * @return The decoded term, or null if it contains an operator which is not registered in the memory
+     */
+    public Term decode(final Memory memory) {
+        final int[] pos = new int[1];
+        final List<Variable> scoped = new ArrayList<>();
+        final Term t = decode(pos, memory, scoped);
+        if (pos[0] != code.length) {
+            throw new IllegalStateException("Invalid term code");
+        }
+        for (final Variable v : scoped) {
+            v.setScope(t, v.name());
+        }
+        return t;
+    }
+
+    private Term decode(final int[] pos, final Memory memory, final List<Variable> scoped) {
+        final int header = code[pos[0]++];
+        final int payload = header >>> KIND_BITS;
+        switch (header & KIND_MASK) {
+            case ATOM:
+                return Term.get(names[payload]);
+            case VARIABLE:
+                final Variable v = new Variable(names[payload >>> 1]);
+                if ((payload & 1) != 0) {
+                    scoped.add(v);
+                }
+                return v;
+            case OPERATOR:
+                return memory != null ? memory.getOperator(names[payload]) : null;
+            case INDEX:
+                final Term index = new Term(names[payload]);
+                index.index_variable = names[code[pos[0]++]];
+                index.term_indices = new int[code[pos[0]++]];
+                for (int i = 0; i < index.term_indices.length; i++) {
+                    index.term_indices[i] = code[pos[0]++];
+                }
+                return index;
+            case INTERVAL:
+                final long time = ((long) code[pos[0]++] << 32) | (code[pos[0]++] & 0xFFFFFFFFL);
+                return new Interval(time);
+            case COMPOUND:
+                final NativeOperator op = OPERATORS[payload & OPERATOR_MASK];
+                final short relationIndex = (op == NativeOperator.IMAGE_EXT || op == NativeOperator.IMAGE_INT) ? (short) code[pos[0]++] : 0;
+                final Term[] components = new Term[payload >>> OPERATOR_BITS];
+                boolean valid = true;
+                for (int i = 0; i < components.length; i++) {
+                    components[i] = decode(pos, memory, scoped);
+                    valid &= components[i] != null;
+                }
+                if (!valid) {
+                    return null;
+                }
+                if (op == NativeOperator.IMAGE_EXT) {
+                    return TermFactory.intern(new ImageExt(components, relationIndex));
+                }
+                if (op == NativeOperator.IMAGE_INT) {
+                    return TermFactory.intern(new ImageInt(components, relationIndex));
+                }
+                if (op.relation) {
+                    return Statement.make(op, components[0], components[1], false, 0);
+                }
+                return Terms.term(op, components);
+            default:
+                throw new IllegalStateException("Invalid term code");
+        }
+    }
+
+    /**
+     * @return Amount of words of the encoded tree
+     */
+    public int length() {
+        return code.length;
+    }
+
+    /**
+     * Write the encoding, it is read by {@link #read(DataInput)}
+     *
+     * @param out The output
+     * @throws IOException if writing fails
+     */
+    public void write(final DataOutput out) throws IOException {
+        out.writeInt(names.length);
+        for (final String name : names) {
+            out.writeUTF(name);
+        }
+        out.writeInt(code.length);
+        for (final int word : code) {
+            out.writeInt(word);
+        }
+    }
+
+    /**
+     * @param in The input
+     * @return The encoding written by {@link #write(DataOutput)}
+     * @throws IOException if reading fails
+     */
+    public static TermCode read(final DataInput in) throws IOException {
+        final String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        final int[] code = new int[in.readInt()];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = in.readInt();
+        }
+        return new TermCode(code, names);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * Arrays.hashCode(code) + Arrays.hashCode(names);
+            if (h == 0) {
+                h = 1;
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+        if (that == this) {
+            return true;
+        }
+        if (!(that instanceof TermCode)) {
+            return false;
+        }
+        final TermCode c = (TermCode) that;
+        return hashCode() == c.hashCode() && Arrays.equals(code, c.code) && Arrays.equals(names, c.names);
+    }
+
+    /** writes a term tree in prefix order */
+    private static final class Encoder {
+        final Term root;
+        int[] code = new int[16];
+        int size = 0;
+        final List<String> names = new ArrayList<>();
+        final Map<String, Integer> ids = new HashMap<>();
+
+        Encoder(final Term root) {
+            this.root = root;
+        }
+
+        boolean add(final Term t) {
+            if (t.imagination != null) {
+                return false;
+            }
+            if (t instanceof CompoundTerm) {
+                final CompoundTerm c = (CompoundTerm) t;
+                word(COMPOUND, c.operator().ordinal() | (c.term.length << OPERATOR_BITS));
+                if (c instanceof Image) {
+                    word(((Image) c).relationIndex);
+                }
+                for (final Term component : c.term) {
+                    if (!add(component)) {
+                        return false;
+                    }
+                }
+            } else if (t instanceof Interval) {
+                final long time = ((Interval) t).time;
+                word(INTERVAL, 0);
+                word((int) (time >>> 32));
+                word((int) time);
+            } else if (t instanceof Variable) {
+                final boolean scoped = ((Variable) t).getScope() == root && root != t;
+                word(VARIABLE, (id(t.name().toString()) << 1) | (scoped ? 1 : 0));
+            } else if (t instanceof Operator) {
+                word(OPERATOR, id(t.name().toString()));
+            } else if (t.term_indices != null) {
+                word(INDEX, id(t.name().toString()));
+                word(id(t.index_variable));
+                word(t.term_indices.length);
+                for (final int index : t.term_indices) {
+                    word(index);
+                }
+            } else {
+                word(ATOM, id(t.name().toString()));
+            }
+            return true;
+        }
+
+        private int id(final String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                ids.put(name, id);
+                names.add(name);
+            }
+            return id;
+        }
+
+        private void word(final int kind, final int payload) {
+            word(kind | (payload << KIND_BITS));
+        }
+
+        private void word(final int w) {
+            if (size == code.length) {
+                code = Arrays.copyOf(code, size * 2);
+            }
+            code[size++] = w;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.language;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hash-consing table of the terms, shared by all reasoners in the JVM
+ * <p>
+ * Equal atoms and equal internable compound terms built by the parser or the inference rules
+ * are the same instance, so they are compared by reference and stored once.
+ * The table is thread-safe and only references its terms weakly, a term no longer used is dropped.
+ * Terms which are not internable, see {@link Term#isInternable()}, are returned as they are.
+ */
+public final class TermFactory {
+
+    /** atoms by name */
+    private static final ConcurrentMap<CharSequence, Term> atoms = new MapMaker().weakValues().makeMap();
+    /** internable compound terms */
+    private static final Interner<Term> compounds = Interners.newWeakInterner();
+
+    private TermFactory() {
+    }
+
+    /**
+     * @param name Name of the atom
+     * @return The atom of the name, null if there is none yet
+     */
+    static Term getAtom(final CharSequence name) {
+        return atoms.get(name);
+    }
+
+    /**
+     * Add an atom unless an atom of the same name was added concurrently
+     *
+     * @param atom The new atom
+     * @return The atom of its name in the table
+     */
+    static Term putAtom(final Term atom) {
+        final Term existing = atoms.putIfAbsent(atom.name(), atom);
+        return existing != null ? existing : atom;
+    }
+
+    /**
+     * Get the shared instance of a newly constructed term, called by make, which marks it as canonical
+     *
+     * @param t The new term, may be null
+     * @return The term equal to t which is in the table, t itself if it was not there or is not internable
+     */
+    public static <T extends Term> T intern(final T t) {
+        if (t instanceof CompoundTerm) {
+            ((CompoundTerm) t).setCanonical();
+        }
+        if (t == null || !t.isInternable()) {
+            return t;
+        }
+        return (T) compounds.intern(t);
+    }
+}
@@ -0,0 +1,337 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.language;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Discrimination tree of terms, to find the terms which may unify with a pattern without trying each of them
+ * <p>
+ * A term is stored along the path of its subterms in prefix order:
+ * an atom or interval by its name, a compound term by its operator, amount of components and relation index,
+ * a variable by a wildcard which matches any subterm of a pattern.
+ * The components of commutative terms may match in any order, so they are not part of the path.
+ * <p>
+ * A lookup returns a superset of the terms which unify with the pattern,
+ * it ignores repeated variables, so the candidates still have to be unified.
+ * <p>
+ * The index is thread-safe: the terms are split by the first key of their path, like the shards of a
+ * {@link org.opennars.storage.ShardedBag}, and each part has its own lock, which lookups share.
+ * The locks are never held while calling other code, so the index may be used while holding any other lock.
+ */
+public class TermIndex implements Serializable {
+
+    /** key of the variables, an enum so it stays the same object when the index is deserialized */
+    private enum Wildcard { VARIABLE }
+    private static final Object VARIABLE = Wildcard.VARIABLE;
+
+    private static class Node implements Serializable {
+        final Map<Object, Node> children = new HashMap<>();
+        /** the terms whose path ends here */
+        final Set<Term> terms = new LinkedHashSet<>();
+
+        boolean isEmpty() {
+            return children.isEmpty() && terms.isEmpty();
+        }
+    }
+
+    /** the tree of the terms with the same first key */
+    private static final class Part extends Node {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        /** set when the part became empty and was removed, the terms are then added to a new one */
+        boolean removed;
+    }
+
+    /** a compound term in a path, with the amount of subterms which follow it */
+    private static final class CompoundKey implements Serializable {
+        final int operator;
+        final int arity;
+        final int relationIndex;
+
+        CompoundKey(final CompoundTerm c) {
+            this.operator = c.operator().ordinal();
+            this.arity = c.isCommutative() ? 0 : c.term.length;
+            this.relationIndex = (c instanceof Image) ? ((Image) c).relationIndex : -1;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (!(that instanceof CompoundKey)) {
+                return false;
+            }
+            final CompoundKey k = (CompoundKey) that;
+            return operator == k.operator && arity == k.arity && relationIndex == k.relationIndex;
+        }
+
+        @Override
+        public int hashCode() {
+            return (operator * 31 + arity) * 31 + relationIndex;
+        }
+    }
+
+    /** subterms of a pattern which remain to be matched */
+    private static final class Pending {
+        final Term term;
+        final Pending next;
+
+        Pending(final Term term, final Pending next) {
+            this.term = term;
+            this.next = next;
+        }
+    }
+
+    /** the parts by the first key of the path of their terms */
+    private final Map<Object, Part> parts = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private static Object key(final Term t) {
+        if (t instanceof Variable) {
+            return VARIABLE;
+        }
+        if (t instanceof CompoundTerm) {
+            return new CompoundKey((CompoundTerm) t);
+        }
+        return t.name().toString();
+    }
+
+    /**
+     * @param key A key of a path
+     * @return Amount of subterms which follow it in the path
+     */
+    private static int arity(final Object key) {
+        return (key instanceof CompoundKey) ? ((CompoundKey) key).arity : 0;
+    }
+
+    /**
+     * @param t A term in a path
+     * @param rest The subterms after the term
+     * @return The subterms after the key of the term, its components along the path followed by rest
+     */
+    private static Pending followers(final Term t, final Pending rest) {
+        Pending pending = rest;
+        if (t instanceof CompoundTerm && !((CompoundTerm) t).isCommutative()) {
+            final Term[] components = ((CompoundTerm) t).term;
+            for (int i = components.length - 1; i >= 0; i--) {
+                pending = new Pending(components[i], pending);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Add a term, it is stored once
+     *
+     * @param t The term
+     */
+    public void add(final Term t) {
+        final Object key = key(t);
+        while (true) {
+            final Part part = parts.computeIfAbsent(key, k -> new Part());
+            part.lock.writeLock().lock();
+            try {
+                if (part.removed) {
+                    continue; //emptied meanwhile, add to its replacement
+                }
+                final Pending pending = followers(t, null);
+                final Node leaf = pending == null ? part : insert(part, pending.term, pending.next);
+                if (leaf.terms.add(t)) {
+                    size.incrementAndGet();
+                }
+                return;
+            } finally {
+                part.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static Node insert(final Node node, final Term t, final Pending rest) {
+        final Node child = node.children.computeIfAbsent(key(t), k -> new Node());
+        final Pending pending = followers(t, rest);
+        return pending == null ? child : insert(child, pending.term, pending.next);
+    }
+
+    /**
+     * Remove a term
+     *
+     * @param t The term
+     * @return Whether it was in the index
+     */
+    public boolean remove(final Term t) {
+        final Object key = key(t);
+        final Part part = parts.get(key);
+        if (part == null) {
+            return false;
+        }
+        part.lock.writeLock().lock();
+        try {
+            if (part.removed) {
+                return false;
+            }
+            final Pending pending = followers(t, null);
+            final boolean found = pending == null ? part.terms.remove(t) : remove(part, pending.term, pending.next, t);
+            if (!found) {
+                return false;
+            }
+            if (part.isEmpty()) {
+                part.removed = true;
+                parts.remove(key, part);
+            }
+            size.decrementAndGet();
+            return true;
+        } finally {
+            part.lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean remove(final Node node, final Term t, final Pending rest, final Term removed) {
+        final Object key = key(t);
+        final Node child = node.children.get(key);
+        if (child == null) {
+            return false;
+        }
+        final Pending pending = followers(t, rest);
+        final boolean found = pending == null ? child.terms.remove(removed) : remove(child, pending.term, pending.next, removed);
+        if (found && child.isEmpty()) {
+            node.children.remove(key);
+        }
+        return found;
+    }
+
+    /**
+     * Find the terms which may unify with a pattern
+     *
+     * @param pattern The pattern
+     * @param type The type of the variables of the pattern which can be substituted, see {@link Variables#allowUnification}
+     * @return The candidates, a superset of the terms which unify with the pattern, each once
+     */
+    public List<Term> unifiable(final Term pattern, final char type) {
+        final List<Term> result = new ArrayList<>();
+        if (pattern instanceof Variable && Variables.allowUnification(((Variable) pattern).getType(), type)) {
+            for (final Map.Entry<Object, Part> e : parts.entrySet()) { //any term
+                matchPart(e.getValue(), arity(e.getKey()), null, type, result);
+            }
+            return result;
+        }
+        final Part variable = parts.get(VARIABLE);
+        if (variable != null) { //a variable may stand for the whole pattern
+            matchPart(variable, 0, null, type, result);
+        }
+        if (!(pattern instanceof Variable)) {
+            final Part part = parts.get(key(pattern));
+            if (part != null) {
+                matchPart(part, 0, followers(pattern, null), type, result);
+            }
+        }
+        return result;
+    }
+
+    /** match the rest of the pattern in a part, after skipping a number of subterms of its terms */
+    private static void matchPart(final Part part, final int subterms, final Pending rest, final char type, final List<Term> result) {
+        part.lock.readLock().lock();
+        try {
+            if (!part.removed) {
+                skip(part, subterms, rest, type, result);
+            }
+        } finally {
+            part.lock.readLock().unlock();
+        }
+    }
+
+    private static void match(final Node node, final Pending pending, final char type, final List<Term> result) {
+        if (pending == null) {
+            result.addAll(node.terms);
+            return;
+        }
+        final Term p = pending.term;
+        if (p instanceof Variable && Variables.allowUnification(((Variable) p).getType(), type)) {
+            skip(node, 1, pending.next, type, result);
+            return;
+        }
+        final Node variable = node.children.get(VARIABLE);
+        if (variable != null) { //a variable of a term may stand for the whole subterm of the pattern
+            match(variable, pending.next, type, result);
+        }
+        if (p instanceof Variable) {
+            return;
+        }
+        final Node child = node.children.get(key(p));
+        if (child != null) {
+            match(child, followers(p, pending.next), type, result);
+        }
+    }
+
+    /** continue the match after skipping a number of subterms of the stored terms */
+    private static void skip(final Node node, final int subterms, final Pending rest, final char type, final List<Term> result) {
+        if (subterms == 0) {
+            match(node, rest, type, result);
+            return;
+        }
+        for (final Map.Entry<Object, Node> e : node.children.entrySet()) {
+            skip(e.getValue(), subterms - 1 + arity(e.getKey()), rest, type, result);
+        }
+    }
+
+    /**
+     * @return Amount of stored terms
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Remove all terms
+     */
+    public void clear() {
+        for (final Map.Entry<Object, Part> e : parts.entrySet()) {
+            final Part part = e.getValue();
+            part.lock.writeLock().lock();
+            try {
+                if (!part.removed) {
+                    part.removed = true;
+                    parts.remove(e.getKey(), part);
+                    size.addAndGet(-count(part));
+                }
+            } finally {
+                part.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static int count(final Node node) {
+        int n = node.terms.size();
+        for (final Node child : node.children.values()) {
+            n += count(child);
+        }
+        return n;
+    }
+}
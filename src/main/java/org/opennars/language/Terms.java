@@ -125,7 +125,7 @@ public class Terms {
      */
     public static Term term(final CompoundTerm compound, final Term[] components) {
         if (compound instanceof ImageExt) {
-            return new ImageExt(components, ((Image) compound).relationIndex);
+            return TermFactory.intern(new ImageExt(components, ((Image) compound).relationIndex));
         } else if (compound instanceof ImageInt) {
             return ImageInt.make(components, ((Image) compound).relationIndex);
         } else {
@@ -167,7 +167,7 @@ public class Terms {
             case INHERITANCE:
                 return Inheritance.make(componentList[0], componentList[1]);
             case PRODUCT:
-                return new Product(componentList);
+                return TermFactory.intern(new Product(componentList));
             case IMAGE_EXT:
                 return ImageExt.make(componentList);
             case IMAGE_INT:
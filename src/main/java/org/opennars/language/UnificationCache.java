@@ -0,0 +1,257 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.language;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Least recently used results of unifications, each memory has its own, sized by UNIFICATION_CACHE_SIZE
+ * <p>
+ * An entry maps the variable type and the two terms to whether they unify and the substitution found.
+ * Interned terms are compared by reference, the other terms structurally and by the scopes of their variables.
+ * The hashes of the terms are kept with the entry, an entry whose terms were modified since is not used,
+ * so it never gives the result of other terms and is dropped instead.
+ * It is disabled while its capacity is 0.
+ * <p>
+ * A large cache is split into stripes by the hash of the key, each with its own lock and an equal share of the capacity,
+ * so the least recently used result of a stripe is dropped. A small cache has one stripe.
+ * The results are not serialized, a deserialized cache is empty.
+ */
+public class UnificationCache implements Serializable {
+
+    /** result of two terms which do not unify */
+    static final Map<Term, Term>[] FAILED = new Map[0];
+
+    private static final class Key {
+        final char type;
+        final Term term1;
+        final Term term2;
+        final int hash1;
+        final int hash2;
+
+        Key(final char type, final Term term1, final Term term2) {
+            this.type = type;
+            this.term1 = term1;
+            this.term2 = term2;
+            this.hash1 = term1.hashCode();
+            this.hash2 = term2.hashCode();
+        }
+
+        /** whether the terms still have the hashes they had when the entry was added */
+        boolean isUnchanged() {
+            return term1.hashCode() == hash1 && term2.hashCode() == hash2;
+        }
+
+        @Override
+        public boolean equals(final Object that) {
+            if (!(that instanceof Key)) {
+                return false;
+            }
+            final Key k = (Key) that;
+            return type == k.type && hash1 == k.hash1 && hash2 == k.hash2 &&
+                   term1.equals(k.term1) && term2.equals(k.term2) &&
+                   sameVariables(term1, k.term1) && sameVariables(term2, k.term2);
+        }
+
+        @Override
+        public int hashCode() {
+            return (type * 31 + hash1) * 31 + hash2;
+        }
+    }
+
+    /**
+     * Whether the variables of two equal terms are equal including their scopes,
+     * the unification tells variables apart by their scopes, the equality of compound terms by their names only
+     */
+    private static boolean sameVariables(final Term a, final Term b) {
+        if (a == b || !a.hasVar()) {
+            return true;
+        }
+        if (a instanceof Variable) {
+            return a.equals(b);
+        }
+        if (a instanceof CompoundTerm) {
+            final Term[] as = ((CompoundTerm) a).term;
+            final Term[] bs = ((CompoundTerm) b).term;
+            for (int i = 0; i < as.length; i++) {
+                if (!sameVariables(as[i], bs[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static final class Result {
+        /** the key as it was added, with the terms it was found for */
+        final Key key;
+        final Map<Term, Term>[] substitute;
+
+        Result(final Key key, final Map<Term, Term>[] substitute) {
+            this.key = key;
+            this.substitute = substitute;
+        }
+    }
+
+    /** results in access order, guarded by itself */
+    private static final class Stripe extends LinkedHashMap<Key, Result> {
+        final int capacity;
+
+        Stripe(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, Result> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /** most stripes of a cache */
+    private static final int MAX_STRIPES = 16;
+    /** least capacity of a stripe, a cache which is smaller has one stripe */
+    private static final int MIN_STRIPE_CAPACITY = 256;
+
+    /** amount of unifications answered by the cache */
+    public final LongAdder hits = new LongAdder();
+    /** amount of unifications which were not in the cache */
+    public final LongAdder misses = new LongAdder();
+
+    private volatile int capacity;
+    /** a power of two amount of stripes */
+    private transient volatile Stripe[] stripes;
+
+    public UnificationCache(final int capacity) {
+        setCapacity(capacity);
+    }
+
+    /**
+     * @return Whether results are cached
+     */
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Set the capacity, the cached results are dropped
+     *
+     * @param capacity Amount of results to keep, 0 to disable the cache
+     */
+    public void setCapacity(final int capacity) {
+        final int amount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, capacity / MIN_STRIPE_CAPACITY)));
+        final Stripe[] created = new Stripe[amount];
+        for (int i = 0; i < amount; i++) {
+            created[i] = new Stripe((capacity + amount - 1) / amount);
+        }
+        this.stripes = created;
+        this.capacity = capacity;
+    }
+
+    private Stripe stripeOf(final Key key) {
+        final Stripe[] all = stripes;
+        final int h = key.hashCode();
+        return all[(h ^ (h >>> 16)) & (all.length - 1)];
+    }
+
+    /**
+     * Get a result
+     *
+     * @param type The type of variable that can be substituted
+     * @param term1 The first term
+     * @param term2 The second term
+     * @return The substitutions of the two terms, {@link #FAILED} if they do not unify, null if the result is unknown
+     */
+    public Map<Term, Term>[] get(final char type, final Term term1, final Term term2) {
+        final Key key = new Key(type, term1, term2);
+        final Stripe stripe = stripeOf(key);
+        Result entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+            if (entry != null && !entry.key.isUnchanged()) {
+                stripe.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.substitute;
+    }
+
+    /**
+     * Add a result
+     *
+     * @param type The type of variable that can be substituted
+     * @param term1 The first term
+     * @param term2 The second term
+     * @param map1 The substitution of the first term, it is copied, null if the terms do not unify
+     * @param map2 The substitution of the second term, it is copied
+     */
+    public void put(final char type, final Term term1, final Term term2, final Map<Term, Term> map1, final Map<Term, Term> map2) {
+        if (capacity <= 0) {
+            return;
+        }
+        final Map<Term, Term>[] substitute = (map1 == null) ? FAILED : new Map[] { new HashMap<>(map1), new HashMap<>(map2) };
+        final Key key = new Key(type, term1, term2);
+        final Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.put(key, new Result(key, substitute));
+        }
+    }
+
+    /**
+     * @return Amount of cached results
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        setCapacity(capacity);
+    }
+}
@@ -0,0 +1,428 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.language;
+
+import org.opennars.inference.TemporalRules;
+import org.opennars.io.Symbols;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Unification of two terms on a reusable binding trail, used by {@link Variables}
+ * <p>
+ * The bindings of the variables of both terms are pushed onto one stack,
+ * a failed attempt to match components is undone by resetting the stack to a mark,
+ * so no maps are created or copied while matching.
+ * The latest binding of a variable on its side is its value, as in the maps the bindings replace,
+ * {@link #bindings(int)} presents them as a map without copying them.
+ * <p>
+ * Each thread reuses its unifier, an unifier is used by one unification at a time.
+ */
+final class Unifier {
+
+    private static final ThreadLocal<Unifier> unifiers = ThreadLocal.withInitial(Unifier::new);
+
+    /** the bound variables, their values and the side of the term they belong to, 0 or 1 */
+    private Term[] vars = new Term[16];
+    private Term[] values = new Term[16];
+    private byte[] sides = new byte[16];
+    private int size = 0;
+    /** size of the bindings given by the caller */
+    private int loaded = 0;
+
+    /** bindings of the matched components of a partial match, pushed onto the trail once all components matched */
+    private Term[] keptVars = new Term[16];
+    private Term[] keptValues = new Term[16];
+    private byte[] keptSides = new byte[16];
+    private int kept = 0;
+
+    /** component orders and matched flags of the commutative matches in progress */
+    private int[] ints = new int[32];
+    private int intsSize = 0;
+
+    /** highest sizes used since the last release, to clear the references */
+    private int maxSize = 0, maxKept = 0;
+    private boolean busy = false;
+
+    private final Map<Term, Term> bindings0 = new Bindings(0);
+    private final Map<Term, Term> bindings1 = new Bindings(1);
+
+    /**
+     * @return The unifier of the current thread, or a new one if it is in use
+     */
+    static Unifier acquire() {
+        Unifier u = unifiers.get();
+        if (u.busy) {
+            u = new Unifier();
+        }
+        u.busy = true;
+        return u;
+    }
+
+    /**
+     * Discard the bindings and allow the unifier to be acquired again
+     */
+    void release() {
+        Arrays.fill(vars, 0, maxSize, null);
+        Arrays.fill(values, 0, maxSize, null);
+        Arrays.fill(keptVars, 0, maxKept, null);
+        Arrays.fill(keptValues, 0, maxKept, null);
+        size = loaded = kept = intsSize = maxSize = maxKept = 0;
+        busy = false;
+    }
+
+    /**
+     * Start from the bindings of the caller
+     *
+     * @param map The bindings of the variables of the first and the second term, the maps may be null
+     */
+    void load(final Map<Term, Term>[] map) {
+        for (int side = 0; side < 2; side++) {
+            if (map[side] != null) {
+                for (final Map.Entry<Term, Term> e : map[side].entrySet()) {
+                    bind(side, e.getKey(), e.getValue());
+                }
+            }
+        }
+        loaded = size;
+    }
+
+    /**
+     * Add the bindings made since {@link #load} to the maps of the caller
+     *
+     * @param map The bindings of the variables of the first and the second term, missing maps are created
+     */
+    void store(final Map<Term, Term>[] map) {
+        for (int i = loaded; i < size; i++) {
+            if (map[0] == null || map[1] == null) {
+                map[0] = map[0] == null ? new LinkedHashMap<>() : map[0];
+                map[1] = map[1] == null ? new LinkedHashMap<>() : map[1];
+            }
+            map[sides[i]].put(vars[i], values[i]);
+        }
+    }
+
+    /**
+     * @param side 0 for the first term, 1 for the second
+     * @return Read-only view of the current bindings of the side, valid until the unifier is released
+     */
+    Map<Term, Term> bindings(final int side) {
+        return side == 0 ? bindings0 : bindings1;
+    }
+
+    /**
+     * Find the bindings which make two terms equal, with the same results as the former map based unification
+     *
+     * @param rnd Random number generator to shuffle the components of commutative terms
+     * @param type The type of variable that can be substituted
+     * @param term1 The first term
+     * @param term2 The second term
+     * @param allowPartial Whether a sequence may match a part of a longer sequence
+     * @return Whether the terms unify, the bindings are on the trail then
+     */
+    boolean unify(final Random rnd, final char type, final Term term1, final Term term2, final boolean allowPartial) {
+        boolean term1HasVar = term1.hasVar(type);
+        if(type == Symbols.VAR_INDEPENDENT) {
+            term1HasVar |= term1.hasVarDep();
+            term1HasVar |= term1.hasVarQuery();
+        }
+        if(type == Symbols.VAR_DEPENDENT) {
+            term1HasVar |= term1.hasVarQuery();
+        }
+        final boolean term2HasVar = term2.hasVar(type);
+
+        final boolean term1Var = term1 instanceof Variable;
+        final boolean term2Var = term2 instanceof Variable;
+
+        if(allowPartial && term1 instanceof Conjunction && term2 instanceof Conjunction && unifyPartial(rnd, type, (Conjunction) term1, (Conjunction) term2)) {
+            return true;
+        }
+
+        final boolean termsEqual = term1.equals(term2);
+        if (!term1Var && !term2Var && termsEqual)  {
+            return true;
+        }
+
+        //variable "renaming" to variable of same type is always valid
+        if(term1Var && term2Var) {
+            final Variable v1 = (Variable) term1;
+            final Variable v2 = (Variable) term2;
+            if(v1.getType() == v2.getType()) {
+                final Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                bind(0, v1, commonVar);
+                bind(1, v2, commonVar);
+                return true;
+            }
+        }
+
+        final boolean term1VarUnifyAllowed = term1Var && Variables.allowUnification(((Variable) term1).getType(), type);
+        final boolean term2VarUnifyAllowed = term2Var && Variables.allowUnification(((Variable) term2).getType(), type);
+
+        if (term1VarUnifyAllowed || term2VarUnifyAllowed) {
+            final Variable termA = (Variable) (term1VarUnifyAllowed ? term1 : term2);
+            final Term termB = term1VarUnifyAllowed ? term2 : term1;
+            //https://github.com/opennars/opennars/issues/482:
+            final int side = term1VarUnifyAllowed ? 0 : 1;
+            final Term t = get(side, termA);
+            if (t != null) {
+                return unify(rnd, type, t, termB, false);
+            }
+            if (term1VarUnifyAllowed) {
+                if ((termB instanceof Variable) && Variables.allowUnification(((Variable) termB).getType(), type)) {
+                    final Variable commonVar = Variables.makeCommonVariable(termA, termB);
+                    bind(0, termA, commonVar);
+                    bind(1, termB, commonVar);
+                } else {
+                    if(termB instanceof Variable && ((((Variable)termB).getType()==Symbols.VAR_QUERY && termA.getType()!=Symbols.VAR_QUERY) ||
+                        (((Variable)termB).getType()!=Symbols.VAR_QUERY && termA.getType()==Symbols.VAR_QUERY))) {
+                        return false;
+                    }
+                    bind(0, termA, termB);
+                    if (termA.isCommon()) {
+                        bind(1, termA, termB);
+                    }
+                }
+            } else {
+                bind(1, termA, termB);
+                if (termA.isCommon()) {
+                    bind(0, termA, termB);
+                }
+            }
+            return true;
+        }
+
+        final boolean hasAnyTermVars = term1HasVar || term2HasVar;
+        if (!(hasAnyTermVars && term1.getClass() == term2.getClass() && term1 instanceof CompoundTerm)) {
+            return termsEqual;
+        }
+        final CompoundTerm cTerm1 = (CompoundTerm) term1;
+        final CompoundTerm cTerm2 = (CompoundTerm) term2;
+
+        //consider temporal order on term matching
+        final boolean isSameOrder = term1.getTemporalOrder() == term2.getTemporalOrder();
+        final boolean isSameSpatial = term1.getIsSpatial() == term2.getIsSpatial();
+        if((term1 instanceof Conjunction && !(isSameOrder && isSameSpatial)) ||
+           ((term1 instanceof Equivalence || term1 instanceof Implication) && !isSameOrder)) {
+            return false;
+        }
+        if (cTerm1.size() != cTerm2.size()) {
+            return false;
+        }
+        if (cTerm1 instanceof Image && ((Image) cTerm1).relationIndex != ((Image) cTerm2).relationIndex) {
+            return false;
+        }
+        if (cTerm1.isCommutative()) {
+            return unifyCommutative(rnd, type, cTerm1, cTerm2);
+        }
+        for (int i = 0; i < cTerm1.term.length; i++) {
+            if (!unify(rnd, type, cTerm1.term[i], cTerm2.term[i], false)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Match a sequence with a part of a longer sequence, more effective matching for NLP
+     * <p>
+     * Each component is matched against the bindings from before the partial match,
+     * the bindings of a successful match are kept aside until all components matched.
+     *
+     * @return Whether an offset was found, otherwise the trail is unchanged
+     */
+    private boolean unifyPartial(final Random rnd, final char type, final Conjunction c1, final Conjunction c2) {
+        if(c1.getTemporalOrder() != TemporalRules.ORDER_FORWARD || c2.getTemporalOrder() != TemporalRules.ORDER_FORWARD ||
+           c1.size() >= c2.size()) {
+            return false;
+        }
+        final int base = size;
+        //find an offset that works
+        for(int k = 0; k < c2.term.length - c1.term.length; k++) {
+            final int keptBase = kept;
+            boolean succeeded = true;
+            for(int i = 0; i < c1.term.length; i++) {
+                if(unify(rnd, type, c1.term[i], c2.term[k + i], false)) {
+                    keep(0, size); //the component was matched on a copy of all bindings, which replaces them
+                    size = base;
+                } else { //another shift k is needed
+                    size = base;
+                    succeeded = false;
+                    break;
+                }
+            }
+            if(succeeded) {
+                for(int i = keptBase; i < kept; i++) {
+                    bind(keptSides[i], keptVars[i], keptValues[i]);
+                }
+                kept = keptBase;
+                return true;
+            }
+            kept = keptBase;
+        }
+        return false;
+    }
+
+    /**
+     * Match the components of two commutative terms in a random order
+     */
+    private boolean unifyCommutative(final Random rnd, final char type, final CompoundTerm cTerm1, final CompoundTerm cTerm2) {
+        final int n = cTerm1.term.length;
+        final int order = intsSize;
+        final int matched = order + n;
+        if (matched + n > ints.length) {
+            ints = Arrays.copyOf(ints, Math.max(ints.length * 2, matched + n));
+        }
+        intsSize = matched + n;
+        for (int i = 0; i < n; i++) {
+            ints[order + i] = i;
+            ints[matched + i] = 0;
+        }
+        //same random draws as CompoundTerm.shuffle
+        for (int i = n - 1; i > 0; i--) {
+            final int index = rnd.nextInt(i + 1);
+            final int a = ints[order + index];
+            ints[order + index] = ints[order + i];
+            ints[order + i] = a;
+        }
+        try {
+            for(int i = 0; i < n; i++) {
+                boolean succeeded = false;
+                for(int j = 0; j < n; j++) {
+                    if(ints[matched + j] != 0) { //this one already was used to match one of the i's
+                        continue;
+                    }
+                    final int mark = size;
+                    if(unify(rnd, type, cTerm1.term[ints[order + i]], cTerm2.term[j], false)) {
+                        ints[matched + j] = 1;
+                        succeeded = true;
+                        break;
+                    }
+                    size = mark;
+                }
+                if(!succeeded) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            intsSize = order;
+        }
+    }
+
+    /**
+     * @return The latest binding of a variable of the side, or null if it is unbound
+     */
+    private Term get(final int side, final Object var) {
+        final int i = indexOf(side, var);
+        return i >= 0 ? values[i] : null;
+    }
+
+    /** @return Position of the latest binding of the variable on the trail, -1 if there is none */
+    private int indexOf(final int side, final Object var) {
+        if (var == null) {
+            return -1;
+        }
+        final int hash = var.hashCode();
+        for (int i = size - 1; i >= 0; i--) {
+            if (sides[i] == side && (vars[i] == var || (vars[i].hashCode() == hash && var.equals(vars[i])))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void bind(final int side, final Term var, final Term value) {
+        if (size == vars.length) {
+            vars = Arrays.copyOf(vars, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            sides = Arrays.copyOf(sides, size * 2);
+        }
+        vars[size] = var;
+        values[size] = value;
+        sides[size] = (byte) side;
+        size++;
+        maxSize = Math.max(maxSize, size);
+    }
+
+    /** move bindings of the trail aside */
+    private void keep(final int from, final int to) {
+        final int needed = kept + to - from;
+        if (needed > keptVars.length) {
+            final int length = Math.max(keptVars.length * 2, needed);
+            keptVars = Arrays.copyOf(keptVars, length);
+            keptValues = Arrays.copyOf(keptValues, length);
+            keptSides = Arrays.copyOf(keptSides, length);
+        }
+        System.arraycopy(vars, from, keptVars, kept, to - from);
+        System.arraycopy(values, from, keptValues, kept, to - from);
+        System.arraycopy(sides, from, keptSides, kept, to - from);
+        kept = needed;
+        maxKept = Math.max(maxKept, kept);
+    }
+
+    /** read-only view of the bindings of one side */
+    private final class Bindings extends AbstractMap<Term, Term> {
+        private final int side;
+
+        Bindings(final int side) {
+            this.side = side;
+        }
+
+        @Override
+        public Term get(final Object key) {
+            return Unifier.this.get(side, key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return indexOf(side, key) >= 0;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (int i = 0; i < size; i++) {
+                if (sides[i] == side) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Set<Entry<Term, Term>> entrySet() {
+            final Map<Term, Term> copy = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                if (sides[i] == side) {
+                    copy.put(vars[i], values[i]);
+                }
+            }
+            return copy.entrySet();
+        }
+    }
+}
@@ -127,6 +127,19 @@ public class Variable extends Term {
     }
     
 
+    /**
+     * A variable can stand for any term, so only its type is in its signature
+     *
+     * @return The signature bit of the variable type
+     */
+    @Override public long signature() {
+        switch (type) {
+            case VAR_INDEPENDENT: return SIGNATURE_VAR_INDEP;
+            case VAR_DEPENDENT: return SIGNATURE_VAR_DEP;
+            default: return SIGNATURE_VAR_QUERY;
+        }
+    }
+
     @Override public boolean equals(final Object that) {
         if (that == this) {
             return true;
@@ -23,15 +23,12 @@
  */
 package org.opennars.language;
 
-import org.opennars.inference.TemporalRules;
 import org.opennars.io.Symbols;
 import org.opennars.storage.Memory;
 
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Static utility class for static methods related to Variables
@@ -39,6 +36,11 @@ import java.util.Set;
  * @author Patrick Hammer
  */
 public class Variables {
+
+    /** amount of unifications attempted by unify and hasSubstitute */
+    public static final LongAdder unifications = new LongAdder();
+    /** amount of them rejected by the signatures of the terms, see {@link #signaturesExclude} */
+    public static final LongAdder signatureRejections = new LongAdder();
     
     public static boolean findSubstitute(Random rnd, final char type, final Term term1, final Term term2, final Map<Term, Term> map1, final Map<Term, Term> map2) {
         return findSubstitute(rnd, type, term1, term2, new Map[] { map1, map2 });
@@ -66,235 +68,71 @@ public class Variables {
         return false;
     }
     
-    /** map is a 2-element array of Map&lt;Term,Term&gt;. it may be null, in which case
-     * the maps will be instantiated as necessary.  
-     * this is to delay the instantiation of the 2 Map until necessary to avoid
-     * wasting them if they are not used.
+    /**
+     * @param type The type of variable that can be substituted
+     * @return The signature bits of the variable types which can be substituted in a unification of the type
      */
-    public static boolean findSubstitute(Random rnd, final char type, final Term term1, final Term term2, final Map<Term, Term>[] map) {
-        return findSubstitute(rnd, type, term1, term2, map, false);
-    }
-    public static boolean findSubstitute(Random rnd, final char type, final Term term1, final Term term2, final Map<Term, Term>[] map, final boolean allowPartial) {
-
-        boolean term1HasVar = term1.hasVar(type);
-        if(type == Symbols.VAR_INDEPENDENT) {
-            term1HasVar |= term1.hasVarDep();
-            term1HasVar |= term1.hasVarQuery();
-        }
-        if(type == Symbols.VAR_DEPENDENT) {
-            term1HasVar |= term1.hasVarQuery();
-        }
-        final boolean term2HasVar = term2.hasVar(type);
-        
-        
-        final boolean term1Var = term1 instanceof Variable;
-        final boolean term2Var = term2 instanceof Variable;
-        
-        if(allowPartial && term1 instanceof Conjunction && term2 instanceof Conjunction) {
-            final Conjunction c1 = (Conjunction) term1;
-            final Conjunction c2 = (Conjunction) term2;
-            //more effective matching for NLP
-            if(c1.getTemporalOrder() == TemporalRules.ORDER_FORWARD &&
-                    c2.getTemporalOrder() == TemporalRules.ORDER_FORWARD) {
-                final int size_smaller = c1.size();
-                if(c1.size() < c2.size()) {
-                    //find an offset that works
-                    for(int k=0;k<(c2.term.length - c1.term.length);k++) {
-
-                        if(map[0] == null) {
-                            map[0] = new LinkedHashMap<>();
-                        }
-                        if(map[1] == null) {
-                            map[1] = new LinkedHashMap<>();
-                        }
-
-                        final Map<Term, Term>[] mapk = copyMapFrom(map);
-                        boolean succeeded = true;
-                        for(int j=k;j<k+size_smaller;j++) {
-                            final int i = j-k;
-                            final Map<Term, Term>[] mapNew = copyMapFrom(map);
-                            //attempt unification:
-                            if(findSubstitute(rnd, type,c1.term[i],c2.term[j],mapNew)) {
-                                appendToMap(mapNew[0], mapk[0]);
-                                appendToMap(mapNew[1], mapk[1]);
-                            } else { //another shift k is needed
-                                succeeded = false;
-                                break;
-                            }
-                        }
-                        if(succeeded) {
-                            appendToMap(mapk[0], map[0]);
-                            appendToMap(mapk[1], map[1]);
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        
-        final boolean termsEqual = term1.equals(term2);
-        if (!term1Var && !term2Var && termsEqual)  {
-            return true;
-        }
-        
-        //variable "renaming" to variable of same type is always valid
-        if(term1 instanceof Variable && term2 instanceof Variable) {
-            final Variable v1 = (Variable) term1;
-            final Variable v2 = (Variable) term2;
-            if(v1.getType() == v2.getType()) {
-                final Variable CommonVar = makeCommonVariable(term1, term2);
-                if (map[0] == null) {  map[0] = new LinkedHashMap<>(); map[1] = new LinkedHashMap<>(); }
-                map[0].put(v1, CommonVar);
-                map[1].put(v2, CommonVar);
-                return true;
-            }
-        }
-
-        final boolean term1VarUnifyAllowed = term1Var && allowUnification(((Variable) term1).getType(), type);
-        final boolean term2VarUnifyAllowed = term2Var && allowUnification(((Variable) term2).getType(), type);
-
-        if (term1VarUnifyAllowed || term2VarUnifyAllowed) {
-
-            Term termA = term1VarUnifyAllowed ? term1 : term2;
-            Term termB = term1VarUnifyAllowed ? term2 : term1;
-            Variable termAAsVariable = (Variable)termA;
-            //https://github.com/opennars/opennars/issues/482:
-            int mapIdx = term1VarUnifyAllowed ? 0 : 1;
-            final Term t = map[mapIdx]!=null ? map[mapIdx].get(termAAsVariable) : null;
-            if (t != null) {
-                return findSubstitute(rnd, type, t, termB, map);
-            }
-
-            if (map[0] == null) {  map[0] = new LinkedHashMap<>(); map[1] = new LinkedHashMap<>(); }
-
-            if (term1VarUnifyAllowed) {
-
-                if ((termB instanceof Variable) && allowUnification(((Variable) termB).getType(), type)) {
-                    final Variable CommonVar = makeCommonVariable(termA, termB);
-                    map[0].put(termAAsVariable, CommonVar);
-                    map[1].put(termB, CommonVar);
-                } else {
-                    if(termB instanceof Variable && ((((Variable)termB).getType()==Symbols.VAR_QUERY && ((Variable)termA).getType()!=Symbols.VAR_QUERY) ||
-                        (((Variable)termB).getType()!=Symbols.VAR_QUERY && ((Variable)termA).getType()==Symbols.VAR_QUERY))) {
-                        return false;
-                    }
-                    map[0].put(termAAsVariable, termB);
-                    if (termAAsVariable.isCommon()) {
-                        map[1].put(termAAsVariable, termB);
-                    }
-                }
-            } else {
-                map[1].put(termAAsVariable, termB);
-                if (termAAsVariable.isCommon()) {
-                    map[0].put(termAAsVariable, termB);
-                }
-            }
-
-            return true;
-
-        } else {
-            final boolean hasAnyTermVars = term1HasVar || term2HasVar;
-            final boolean termsHaveSameClass = term1.getClass().equals(term2.getClass());
-            
-            if (!(hasAnyTermVars && termsHaveSameClass && term1 instanceof CompoundTerm)) {
-                return termsEqual;
-            }
-
-            final CompoundTerm cTerm1 = (CompoundTerm) term1;
-            final CompoundTerm cTerm2 = (CompoundTerm) term2;
-
-            //consider temporal order on term matching
-            final boolean isSameOrder = term1.getTemporalOrder() == term2.getTemporalOrder();
-            final boolean isSameSpatial = term1.getIsSpatial() == term2.getIsSpatial();
-            final boolean isSameOrderAndSameSpatial = isSameOrder && isSameSpatial;
-
-            final boolean areBothConjunctions = term1 instanceof Conjunction && term2 instanceof Conjunction;
-            final boolean areBothImplication = term1 instanceof Implication && term2 instanceof Implication;
-            final boolean areBothEquivalence = term1 instanceof Equivalence && term2 instanceof Equivalence;
-
-            if((areBothConjunctions && !isSameOrderAndSameSpatial) ||
-                ((areBothEquivalence || areBothImplication) && !isSameOrder)
-            ) {
-                return false;
-            }
-
-            if (cTerm1.size() != cTerm2.size()) {
-                return false;
-            }
-            if ((cTerm1 instanceof ImageExt) && (((ImageExt) cTerm1).relationIndex != ((ImageExt) cTerm2).relationIndex) || (cTerm1 instanceof ImageInt) && (((ImageInt) cTerm1).relationIndex != ((ImageInt) cTerm2).relationIndex)) {
-                return false;
-            }
-            final Term[] list = cTerm1.cloneTerms();
-            if (cTerm1.isCommutative()) {
-                CompoundTerm.shuffle(list, rnd);
-                //ok attempt unification
-                if(list == null || cTerm2.term == null || list.length != cTerm2.term.length) {
-                    return false;
-                }
-                final Set<Integer> matchedJ = new LinkedHashSet<>(list.length * 2);
-                for(int i = 0; i < list.length; i++) {
-                    boolean succeeded = false;
-                    for(int j = 0; j < list.length; j++) {
-                        if(matchedJ.contains(j)) { //this one already was used to match one of the i's
-                            continue;
-                        }
-                        final Term ti = list[i].clone();
-                        //clone map also:
-
-                        if(map[0] == null) {
-                            map[0] = new LinkedHashMap<>();
-                        }
-                        if(map[1] == null) {
-                            map[1] = new LinkedHashMap<>();
-                        }
-
-                        final Map<Term, Term>[] mapNew = copyMapFrom(map);
-                        //attempt unification:
-                        if(findSubstitute(rnd, type,ti,cTerm2.term[j],mapNew)) {
-                            appendToMap(mapNew[0], map[0]);
-                            appendToMap(mapNew[1], map[1]);
-                            succeeded = true;
-                            matchedJ.add(j);
-                            break;
-                        }
-                    }
-                    if(!succeeded) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-            for (int i = 0; i < cTerm1.size(); i++) {
-                final Term t1 = list[i];
-                final Term t2 = cTerm2.term[i];
-                if (!findSubstitute(rnd, type, t1, t2, map)) {
-                    return false;
-                }
-            }
-            return true;
-
+    private static long substitutableSignature(final char type) {
+        switch (type) {
+            case Symbols.VAR_INDEPENDENT: return Term.SIGNATURE_VAR_INDEP | Term.SIGNATURE_VAR_DEP | Term.SIGNATURE_VAR_QUERY;
+            case Symbols.VAR_DEPENDENT: return Term.SIGNATURE_VAR_DEP | Term.SIGNATURE_VAR_QUERY;
+            default: return Term.SIGNATURE_VAR_QUERY;
         }
     }
 
     /**
-     * copies two maps from source into two new maps
-     * @param source source maps (two)
-     * @return copied maps
+     * Whether the signatures of two terms rule out that they unify, see {@link Term#signature()}
+     * <p>
+     * The atoms, operators and the other variables of a term can only be matched by equal components,
+     * so a term without substitutable variables contains all of them of the other term.
+     *
+     * @param type The type of variable that can be substituted
+     * @param term1 The first term
+     * @param term2 The second term
+     * @return true if the terms can not unify, false if they may
      */
-    private static Map<Term, Term>[] copyMapFrom(Map<Term, Term>[] source) {
-        final Map<Term, Term>[] destination = (Map<Term, Term>[]) new LinkedHashMap<?,?>[2];
-
-        destination[0] = new LinkedHashMap<>();
-        destination[1] = new LinkedHashMap<>();
+    public static boolean signaturesExclude(final char type, final Term term1, final Term term2) {
+        final long substitutable = substitutableSignature(type);
+        final long sig1 = term1.signature();
+        final long sig2 = term2.signature();
+        return ((sig1 & substitutable) == 0 && !Term.signatureCovers(sig1, sig2 & ~substitutable)) ||
+               ((sig2 & substitutable) == 0 && !Term.signatureCovers(sig2, sig1 & ~substitutable));
+    }
 
-        appendToMap(source[0], destination[0]);
-        appendToMap(source[1], destination[1]);
-        return destination;
+    /**
+     * Count a unification and whether it is rejected by the signatures, see {@link #signaturesExclude}
+     * <p>
+     * Matching two commutative terms shuffles their components with the random number generator of the memory,
+     * unifications which may get there are not rejected, so the reasoning stays the same for a seed.
+     *
+     * @return Whether the terms can not unify
+     */
+    private static boolean rejectedBySignatures(final char type, final Term term1, final Term term2) {
+        unifications.increment();
+        if ((term1.signature() & term2.signature() & Term.SIGNATURE_COMMUTATIVE) != 0 || !signaturesExclude(type, term1, term2)) {
+            return false;
+        }
+        signatureRejections.increment();
+        return true;
     }
 
-    private static void appendToMap(Map<Term, Term> source, Map<Term, Term> target) {
-        for(final Term c : source.keySet()) {
-            target.put(c, source.get(c));
+    /** map is a 2-element array of Map&lt;Term,Term&gt;. it may be null, in which case
+     * the maps will be instantiated as necessary.  
+     * the unification runs on the binding trail of a {@link Unifier},
+     * the bindings it made are added to the maps, also if it fails.
+     */
+    public static boolean findSubstitute(Random rnd, final char type, final Term term1, final Term term2, final Map<Term, Term>[] map) {
+        return findSubstitute(rnd, type, term1, term2, map, false);
+    }
+    public static boolean findSubstitute(Random rnd, final char type, final Term term1, final Term term2, final Map<Term, Term>[] map, final boolean allowPartial) {
+        final Unifier unifier = Unifier.acquire();
+        try {
+            unifier.load(map);
+            final boolean hasSubs = unifier.unify(rnd, type, term1, term2, allowPartial);
+            unifier.store(map);
+            return hasSubs;
+        } finally {
+            unifier.release();
         }
     }
 
@@ -339,6 +177,18 @@ public class Variables {
         return unify(rnd, type, t[0], t[1], t);
     }
 
+    /**
+     * To unify two terms with the random number generator of a memory, using its unification cache
+     *
+     * @param memory The memory of the reasoner
+     * @param type The type of variable that can be substituted
+     * @param t The first and second term as an array, which will have been modified upon returning true
+     * @return Whether the unification is possible.  't' will refer to the unified terms
+     */
+    public static boolean unify(final Memory memory, final char type, final Term[] t) {
+        return unify(memory, type, t[0], t[1], t);
+    }
+
  
     /**
      * To unify two terms
@@ -353,30 +203,84 @@ public class Variables {
         return unify(rnd, type, t1, t2, compound, false);
     }
     public static boolean unify(Random rnd, final char type, final Term t1, final Term t2, final Term[] compound, final boolean allowPartial) {
-        final Map<Term, Term> map[] = new Map[2]; //begins empty: null,null
-        
-        final boolean hasSubs = findSubstitute(rnd, type, t1, t2, map, allowPartial);
-        if (hasSubs) {
-            final Term a = (compound[0] instanceof Variable && map[0].containsKey(compound[0])) ? 
-                            map[0].get(compound[0]) : 
-                            applySubstituteAndRenameVariables(((CompoundTerm)compound[0]), map[0]);
-            if (a == null) return false;
-            final Term b = (compound[1] instanceof Variable && map[1].containsKey(compound[1])) ? 
-                            map[1].get(compound[1]) :
-                            applySubstituteAndRenameVariables(((CompoundTerm)compound[1]), map[1]);
-            if (b == null) return false;
-            //only set the values if it will return true, otherwise if it returns false the callee can expect its original values untouched
-            if(compound[0] instanceof Variable && compound[0].hasVarQuery() && (a.hasVarIndep() || a.hasVarIndep()) ) {
-                return false;
+        return unify(rnd, null, type, t1, t2, compound, allowPartial);
+    }
+    /** unify with the random number generator and the unification cache of a memory */
+    public static boolean unify(final Memory memory, final char type, final Term t1, final Term t2, final Term[] compound) {
+        return unify(memory, type, t1, t2, compound, false);
+    }
+    public static boolean unify(final Memory memory, final char type, final Term t1, final Term t2, final Term[] compound, final boolean allowPartial) {
+        return unify(memory.randomNumber, memory.unificationCache, type, t1, t2, compound, allowPartial);
+    }
+    private static boolean unify(final Random rnd, final UnificationCache unificationCache, final char type, final Term t1, final Term t2, final Term[] compound, final boolean allowPartial) {
+        if (!allowPartial && rejectedBySignatures(type, t1, t2)) { //a partial match may leave out components
+            return false;
+        }
+        final boolean cached = !allowPartial && isCacheable(unificationCache, t1, t2);
+        if (cached) {
+            final Map<Term, Term>[] substitute = unificationCache.get(type, t1, t2);
+            if (substitute != null) {
+                return substitute != UnificationCache.FAILED && applyUnification(compound, substitute[0], substitute[1]);
             }
-            if(compound[1] instanceof Variable && compound[1].hasVarQuery() && (b.hasVarIndep() || b.hasVarIndep()) ) {
+        }
+        final Unifier unifier = Unifier.acquire();
+        try {
+            if (!unifier.unify(rnd, type, t1, t2, allowPartial)) {
+                if (cached) {
+                    unificationCache.put(type, t1, t2, null, null);
+                }
                 return false;
             }
-            compound[0] = a;
-            compound[1] = b;
-            return true;
+            final Map<Term, Term> map0 = unifier.bindings(0);
+            final Map<Term, Term> map1 = unifier.bindings(1);
+            if (cached) {
+                unificationCache.put(type, t1, t2, map0, map1);
+            }
+            return applyUnification(compound, map0, map1);
+        } finally {
+            unifier.release();
         }
-        return false;
+    }
+
+    /**
+     * Apply the substitutions found by an unification
+     *
+     * @param compound The first and second term as an array, which will have been modified upon returning true
+     * @param map0 The substitution of the first term
+     * @param map1 The substitution of the second term
+     * @return Whether the substitutions apply
+     */
+    private static boolean applyUnification(final Term[] compound, final Map<Term, Term> map0, final Map<Term, Term> map1) {
+        final Term a = (compound[0] instanceof Variable && map0.containsKey(compound[0])) ? 
+                        map0.get(compound[0]) : 
+                        applySubstituteAndRenameVariables(((CompoundTerm)compound[0]), map0);
+        if (a == null) return false;
+        final Term b = (compound[1] instanceof Variable && map1.containsKey(compound[1])) ? 
+                        map1.get(compound[1]) :
+                        applySubstituteAndRenameVariables(((CompoundTerm)compound[1]), map1);
+        if (b == null) return false;
+        //only set the values if it will return true, otherwise if it returns false the callee can expect its original values untouched
+        if(compound[0] instanceof Variable && compound[0].hasVarQuery() && (a.hasVarIndep() || a.hasVarIndep()) ) {
+            return false;
+        }
+        if(compound[1] instanceof Variable && compound[1].hasVarQuery() && (b.hasVarIndep() || b.hasVarIndep()) ) {
+            return false;
+        }
+        compound[0] = a;
+        compound[1] = b;
+        return true;
+    }
+
+    /**
+     * Whether the result of the unification of two terms is cached, see {@link Memory#unificationCache}
+     * <p>
+     * The unification of two terms with commutative components draws from the random number generator,
+     * so it is done each time, which also keeps the reasoning the same for a seed.
+     *
+     * @param unificationCache The cache, null if there is none
+     */
+    private static boolean isCacheable(final UnificationCache unificationCache, final Term term1, final Term term2) {
+        return unificationCache != null && unificationCache.isEnabled() && (term1.signature() & term2.signature() & Term.SIGNATURE_COMMUTATIVE) == 0;
     }
 
     /** appliesSubstitute and renameVariables, resulting in a cloned object, 
@@ -438,7 +342,43 @@ public class Variables {
      * @return Whether there is a substitution
      */
     public static boolean hasSubstitute(Random rnd, final char type, final Term term1, final Term term2) {
-        return findSubstitute(rnd, type, term1, term2, new LinkedHashMap<>(), new LinkedHashMap<>());
+        return hasSubstitute(rnd, null, type, term1, term2);
+    }
+
+    /**
+     * Check if two terms can be unified, with the random number generator of a memory, using its unification cache
+     *
+     * @param memory The memory of the reasoner
+     * @param type The type of variable that can be substituted
+     * @param term1 The first term to be unified
+     * @param term2 The second term to be unified
+     * @return Whether there is a substitution
+     */
+    public static boolean hasSubstitute(final Memory memory, final char type, final Term term1, final Term term2) {
+        return hasSubstitute(memory.randomNumber, memory.unificationCache, type, term1, term2);
+    }
+
+    private static boolean hasSubstitute(final Random rnd, final UnificationCache unificationCache, final char type, final Term term1, final Term term2) {
+        if (rejectedBySignatures(type, term1, term2)) {
+            return false;
+        }
+        final boolean cached = isCacheable(unificationCache, term1, term2);
+        if (cached) {
+            final Map<Term, Term>[] substitute = unificationCache.get(type, term1, term2);
+            if (substitute != null) {
+                return substitute != UnificationCache.FAILED;
+            }
+        }
+        final Unifier unifier = Unifier.acquire();
+        try {
+            final boolean hasSubs = unifier.unify(rnd, type, term1, term2, false);
+            if (cached) {
+                unificationCache.put(type, term1, term2, hasSubs ? unifier.bindings(0) : null, unifier.bindings(1));
+            }
+            return hasSubs;
+        } finally {
+            unifier.release();
+        }
     }
     
 }
@@ -46,7 +46,11 @@ import org.opennars.operator.Operator;
 import org.opennars.plugin.Plugin;
 import org.opennars.plugin.perception.SensoryChannel;
 import org.opennars.storage.Bag;
+import org.opennars.storage.BagFactory;
+import org.opennars.storage.ConcurrentBag;
+import org.opennars.storage.LevelBag;
 import org.opennars.storage.Memory;
+import org.opennars.storage.ShardedBag;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -200,10 +204,10 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
             NoSuchMethodException, ParserConfigurationException, SAXException, IllegalAccessException, ParseException, ClassNotFoundException {
         List<Plugin> pluginsToAdd = ConfigReader.loadParamsFromFileAndReturnPlugins(relativeConfigFilePath, this, this.narParameters);
         final Memory m = new Memory(this.narParameters,
-                new Bag(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, this.narParameters),
-                new Bag<>(narParameters.NOVEL_TASK_BAG_LEVELS, narParameters.NOVEL_TASK_BAG_SIZE, this.narParameters),
-                new Bag<>(narParameters.SEQUENCE_BAG_LEVELS, narParameters.SEQUENCE_BAG_SIZE, this.narParameters),
-                new Bag<>(narParameters.OPERATION_BAG_LEVELS, narParameters.OPERATION_BAG_SIZE, this.narParameters));
+                newConceptBag(this.narParameters),
+                BagFactory.newBag(narParameters.NOVEL_TASK_BAG_TYPE, narParameters.NOVEL_TASK_BAG_LEVELS, narParameters.NOVEL_TASK_BAG_SIZE, this.narParameters),
+                BagFactory.newBag(narParameters.SEQUENCE_BAG_TYPE, narParameters.SEQUENCE_BAG_LEVELS, narParameters.SEQUENCE_BAG_SIZE, this.narParameters),
+                BagFactory.newBag(narParameters.OPERATION_BAG_TYPE, narParameters.OPERATION_BAG_LEVELS, narParameters.OPERATION_BAG_SIZE, this.narParameters));
         this.memory = m;
         this.memory.narId = narId;
         this.usedConfigFilePath = relativeConfigFilePath;
@@ -223,10 +227,10 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         List<Plugin> pluginsToAdd = ConfigReader.loadParamsFromFileAndReturnPlugins(relativeConfigFilePath, this, this.narParameters);
         overrideParameters(narParameters, parameterOverrides);
         final Memory m = new Memory(this.narParameters,
-            new Bag(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, this.narParameters),
-            new Bag<>(narParameters.NOVEL_TASK_BAG_LEVELS, narParameters.NOVEL_TASK_BAG_SIZE, this.narParameters),
-            new Bag<>(narParameters.SEQUENCE_BAG_LEVELS, narParameters.SEQUENCE_BAG_SIZE, this.narParameters),
-            new Bag<>(narParameters.OPERATION_BAG_LEVELS, narParameters.OPERATION_BAG_SIZE, this.narParameters));
+            newConceptBag(this.narParameters),
+            BagFactory.newBag(narParameters.NOVEL_TASK_BAG_TYPE, narParameters.NOVEL_TASK_BAG_LEVELS, narParameters.NOVEL_TASK_BAG_SIZE, this.narParameters),
+            BagFactory.newBag(narParameters.SEQUENCE_BAG_TYPE, narParameters.SEQUENCE_BAG_LEVELS, narParameters.SEQUENCE_BAG_SIZE, this.narParameters),
+            BagFactory.newBag(narParameters.OPERATION_BAG_TYPE, narParameters.OPERATION_BAG_LEVELS, narParameters.OPERATION_BAG_SIZE, this.narParameters));
         this.memory = m;
         this.memory.narId = narId;
         this.usedConfigFilePath = relativeConfigFilePath;
@@ -236,6 +240,37 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
 
     }
     
+    /**
+     * creates the concept bag of the configured type,
+     * the level bag is replaced by its thread-safe variant if more than one inference thread is used
+     *
+     * @param narParameters parameters of the Reasoner
+     * @return the concept bag
+     */
+    private static Bag<Concept,Term> newConceptBag(final Parameters narParameters) {
+        if (narParameters.THREADS_AMOUNT > 1 && LevelBag.class.getName().equals(narParameters.CONCEPT_BAG_TYPE)) {
+            return new ConcurrentBag<>(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, narParameters);
+        }
+        final Bag<Concept,Term> bag = BagFactory.newBag(narParameters.CONCEPT_BAG_TYPE, narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, narParameters);
+        warnIfSingleLock(bag, narParameters.THREADS_AMOUNT);
+        return bag;
+    }
+
+    /**
+     * warns if several inference threads would share a concept bag which is guarded by a single lock,
+     * they work correctly but wait for each other on every access to the concepts
+     *
+     * @param concepts the concept bag
+     * @param threads amount of inference threads
+     */
+    private static void warnIfSingleLock(final Bag<Concept,Term> concepts, final int threads) {
+        if (threads > 1 && !(concepts instanceof ConcurrentBag) && !(concepts instanceof ShardedBag)) {
+            Logger.getLogger(Nar.class.getName()).log(Level.WARNING,
+                "The concept bag {0} is guarded by a single lock, so {1} inference threads will not run in parallel",
+                new Object[] {concepts.getClass().getName(), threads});
+        }
+    }
+
     /** constructs the NAR and loads a config from the filepath
      *
      * @param relativeConfigFilePath (relative) path of the XML encoded config file
@@ -319,6 +354,7 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
         if(text.startsWith("*threads=")) {
             final Integer value = Integer.valueOf(text.split("threads=")[1]);
             narParameters.THREADS_AMOUNT = value;
+            warnIfSingleLock(memory.concepts, value);
             return true;
         }
         else
@@ -335,6 +371,21 @@ public class Nar extends SensoryChannel implements Reasoner, Serializable, Runna
             return true;
         }
         else
+        if(text.startsWith("*profile=")) { //counters of the inference rules and of the derivation filter, as csv or json, or clear them
+            final String format = text.split("profile=")[1].trim();
+            if(format.equals("clear")) {
+                memory.ruleProfile.clear();
+                memory.derivationFilter.hits.reset();
+                memory.derivationFilter.misses.reset();
+            } else {
+                emit(org.opennars.io.events.OutputHandler.ECHO.class, format.equals("json") ? memory.ruleProfile.toJSON() : memory.ruleProfile.toCSV());
+                if(memory.derivationFilter.isEnabled()) {
+                    emit(org.opennars.io.events.OutputHandler.ECHO.class, format.equals("json") ? memory.derivationFilter.toJSON() : memory.derivationFilter.toCSV());
+                }
+            }
+            return true;
+        }
+        else
         if(text.startsWith("*speed=")) {
             final Integer value = Integer.valueOf(text.split("speed=")[1]);
             this.minCyclePeriodMS = value;
@@ -43,6 +43,13 @@ public class Parameters implements Serializable {
     //not changeable at runtime as bags would have to be re-constructed
     public int CONCEPT_BAG_SIZE = 10000;
     public int CONCEPT_BAG_LEVELS = 1000;
+    /** Bag implementation of each kind of bag, full class name, see BagFactory */
+    public String CONCEPT_BAG_TYPE = "org.opennars.storage.LevelBag";
+    /** File of the long-term memory which takes concepts displaced from the ConceptBag,
+     *  empty to forget them, see ConceptStore */
+    public String CONCEPT_STORE_FILE = "";
+    /** Amount of independently locked shards of a ShardedBag */
+    public int CONCEPT_BAG_SHARDS = 16;
     
     /** 
        Cycles per duration.
@@ -118,21 +125,26 @@ public class Parameters implements Serializable {
     /** Size of TaskLinkBag */
     public int TASK_LINK_BAG_SIZE = 100;  //was 200 in new experiment
     public int TASK_LINK_BAG_LEVELS = 10;
+    public String TASK_LINK_BAG_TYPE = "org.opennars.storage.CompactBag";
     /** Size of TermLinkBag */
     public int TERM_LINK_BAG_SIZE = 100;  //was 1000 in new experiment
     public int TERM_LINK_BAG_LEVELS = 10;
+    public String TERM_LINK_BAG_TYPE = "org.opennars.storage.CompactBag";
     /** Maximum TermLinks checked for novelty for each TaskLink in TermLinkBag */
     public volatile int TERM_LINK_MAX_MATCHED = 10;
     /** Size of Novel Task Buffer */
     public int NOVEL_TASK_BAG_SIZE = 1000;
     public int NOVEL_TASK_BAG_LEVELS = 100;
+    public String NOVEL_TASK_BAG_TYPE = "org.opennars.storage.LevelBag";
     public volatile int NOVEL_TASK_BAG_SELECTIONS = 100;
     /**  Size of derived sequence and input event bag */
     public int SEQUENCE_BAG_SIZE = 30;
     public int SEQUENCE_BAG_LEVELS = 10;
+    public String SEQUENCE_BAG_TYPE = "org.opennars.storage.LevelBag";
     /**  Size of remembered last operation tasks */
     public int OPERATION_BAG_SIZE = 10;
     public int OPERATION_BAG_LEVELS = 10;
+    public String OPERATION_BAG_TYPE = "org.opennars.storage.LevelBag";
     public volatile int OPERATION_SAMPLES = 6; //should be at least 2 to not only consider last decision
     
     /** How fast events decay in confidence **/
@@ -142,6 +154,15 @@ public class Parameters implements Serializable {
     /** Maximum length of the evidental base of the Stamp */
     public int MAXIMUM_EVIDENTAL_BASE_LENGTH = 20000;
 
+    /** Amount of unification results kept, 0 to disable the cache, see UnificationCache */
+    public int UNIFICATION_CACHE_SIZE = 0;
+
+    /** Amount of recently derived sentences whose repeats are dropped, 0 to disable the filter, see DerivationFilter */
+    public int DERIVATION_FILTER_SIZE = 0;
+
+    /** Amount of projections kept per sentence, 0 to disable the cache, see Sentence.projection */
+    public int PROJECTION_CACHE_SIZE = 2;
+
     /** Maximum TermLinks used in reasoning for each Task in Concept */
     public volatile int TERMLINK_MAX_REASONED = 3;
 
@@ -130,6 +130,12 @@ public abstract class Operator extends Term implements Plugin {
         return this;
     }
 
+    /** operators belong to the reasoner which registered them, so terms containing them are not shared */
+    @Override
+    public boolean isInternable() {
+        return false;
+    }
+
 //    /**
 //     * Display a message in the output stream to indicate the reportExecution of
 //     * an operation
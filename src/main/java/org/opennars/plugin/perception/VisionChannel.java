@@ -142,11 +142,11 @@ public class VisionChannel extends SensoryChannel  {
         cnt_updated = 0;
         HadNewInput = false;
         termid++;
-        final Term V;
+        final Term V; //not made by SetExt.make, which would share it, as the sensation is attached below
         if(isEternal) {
-            V = SetExt.make(new Term(subj));
+            V = new SetExt(new Term(subj));
         } else {
-            V = SetExt.make(new Term(subj+termid));   
+            V = new SetExt(new Term(subj+termid));   
         }
         //the visual space has to be a copy.
         final float[][] cpy = new float[height][width];
@@ -0,0 +1,66 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Item;
+import org.opennars.main.Parameters;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates bags of the implementation named in the configuration
+ * <p>
+ * An implementation is named by its full class name and needs a public
+ * constructor taking the amount of levels, the capacity and the parameters.
+ */
+public final class BagFactory {
+
+    /** constructors by class name, looked up once because link bags are created with every concept */
+    private static final Map<String, Constructor<?>> constructors = new ConcurrentHashMap<>();
+
+    private BagFactory() {
+    }
+
+    /**
+     * @param type Full class name of the Bag implementation
+     * @param levels Amount of priority levels, ignored by bags without levels
+     * @param capacity Maximum amount of items
+     * @param narParameters parameters of the Reasoner
+     * @return A new empty bag
+     */
+    public static <E extends Item<K>,K> Bag<E,K> newBag(final String type, final int levels, final int capacity, final Parameters narParameters) {
+        try {
+            Constructor<?> constructor = constructors.get(type);
+            if (constructor == null) {
+                constructor = Class.forName(type).getConstructor(int.class, int.class, Parameters.class);
+                constructors.put(type, constructor);
+            }
+            return (Bag<E,K>) constructor.newInstance(levels, capacity, narParameters);
+        } catch (final ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Bag type " + type + " can not be created", e);
+        }
+    }
+}
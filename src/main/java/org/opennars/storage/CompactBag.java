@@ -0,0 +1,546 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Item;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.main.Parameters;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Level bag for the small bags every concept owns, such as its task links and term links
+ * <p>
+ * It selects and iterates items exactly like {@link LevelBag}, but keeps them in slots of flat arrays
+ * instead of nodes, linked maps and level lists: each slot holds the item, the hash of its key,
+ * its level and the links of its level list and of the insertion order, both circular,
+ * and an open addressing table maps the keys to the slots.
+ * All operations take constant time apart from the level search, like in {@link LevelBag}.
+ * Nothing is allocated for an empty bag, the arrays grow with the amount of items,
+ * and the Distributor is shared by all bags with the same amount of levels.
+ */
+public class CompactBag<Type extends Item<K>,K> implements Bag<Type,K> {
+
+    /** amount of slots when the first item is put in */
+    private static final int INITIAL_LENGTH = 4;
+
+    /* offsets of the fields of a slot in the slots array */
+    private static final int HASH = 0;
+    private static final int LEVEL = 1;
+    private static final int LEVEL_NEXT = 2;
+    private static final int LEVEL_PREV = 3;
+    private static final int ORDER_NEXT = 4;
+    private static final int ORDER_PREV = 5;
+    private static final int SLOT_FIELDS = 6;
+
+    /** no slot */
+    private static final int NONE = -1;
+
+    /** priority levels */
+    private final int TOTAL_LEVEL;
+    /** firing threshold */
+    private final int THRESHOLD;
+    /** shared DISTRIBUTOR that produce the probability distribution */
+    private final Distributor DISTRIBUTOR;
+    /** defined in different bags */
+    private final int capacity;
+    /** items by slot, null while the bag is empty */
+    private Item[] items;
+    /** fields of the slots, SLOT_FIELDS ints per slot; LEVEL_NEXT links the free slots */
+    private int[] slots;
+    /** open addressing table from the key hash to the slot + 1, 0 for an empty entry */
+    private int[] index;
+    /** first slot of each level, NONE for an empty level */
+    private int[] levelFirst;
+    /** amount of items in each level */
+    private int[] levelSize;
+    /** first slot in insertion order */
+    private int orderFirst;
+    /** first free slot */
+    private int free;
+    /** amount of items */
+    private int size;
+    /** current sum of occupied level */
+    private int mass;
+    /** index to get next level, kept in individual objects */
+    private int levelIndex;
+    /** current take out level */
+    private int currentLevel;
+    /** maximum number of items to be taken out at current level */
+    private int currentCounter;
+
+    public CompactBag(final int levels, final int capacity, final Parameters narParameters) {
+        this(levels, capacity, (int) (narParameters.BAG_THRESHOLD * levels));
+    }
+
+    /** thresholdLevel = 0 disables "fire level completely" threshold effect */
+    public CompactBag(final int levels, final int capacity, final int thresholdLevel) {
+        this.TOTAL_LEVEL = levels;
+        this.DISTRIBUTOR = Distributor.get(levels);
+        this.THRESHOLD = thresholdLevel;
+        this.capacity = capacity;
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        items = null;
+        slots = null;
+        index = null;
+        levelFirst = null;
+        levelSize = null;
+        orderFirst = NONE;
+        free = NONE;
+        size = 0;
+        mass = 0;
+        currentLevel = TOTAL_LEVEL - 1;
+        levelIndex = capacity % TOTAL_LEVEL; // so that different bags start at different point
+        currentCounter = 0;
+    }
+
+    @Override
+    public float getAveragePriority() {
+        if (size == 0) {
+            return 0.01f;
+        }
+        final float f = (float) mass / (size * TOTAL_LEVEL);
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    @Override
+    public boolean contains(final Type it) {
+        return find(it.name()) != NONE;
+    }
+
+    @Override
+    public Type get(final K key) {
+        final int slot = find(key);
+        return slot == NONE ? null : item(slot);
+    }
+
+    /**
+     * This bag is not thread-safe, so all callers share the bag itself
+     */
+    @Override
+    public Object lockFor(final K key) {
+        return this;
+    }
+
+    @Override
+    public Type putIn(final Type newItem) {
+        final K newKey = newItem.name();
+        final int inLevel = getLevel(newItem);
+        final int oldSlot = find(newKey);
+        if (oldSlot != NONE) {                  // merge duplications, the item keeps its place in the insertion order
+            final Type oldItem = item(oldSlot);
+            unlinkLevel(oldSlot);
+            newItem.merge(oldItem);
+            items[oldSlot] = newItem;
+            linkLevel(oldSlot, getLevel(newItem));
+            return null;
+        }
+        Type overflow = null;
+        if (size >= capacity) {                 // the bag is full
+            int outLevel = 0;
+            while (outLevel < TOTAL_LEVEL && emptyLevel(outLevel)) { // no level at all without capacity
+                outLevel++;
+            }
+            if (outLevel > inLevel) {           // ignore the item and exit
+                return newItem;
+            }
+            final int oldest = levelFirst[outLevel]; // remove the first item in the lowest non-empty level
+            overflow = item(oldest);
+            remove(oldest);
+        }
+        add(newItem, inLevel);
+        return overflow;
+    }
+
+    @Override
+    public Type putBack(final Type oldItem, final float forgetCycles, final Memory m) {
+        final float relativeThreshold = m.narParameters.FORGET_QUALITY_RELATIVE;
+        BudgetFunctions.applyForgetting(oldItem.budget, forgetCycles, relativeThreshold);
+        return putIn(oldItem);
+    }
+
+    @Override
+    public Type takeOut() {
+        while (size > 0) {
+            if (emptyLevel(currentLevel) || (currentCounter == 0)) { // done with the current level
+                do {
+                    currentLevel = DISTRIBUTOR.pick(levelIndex);
+                    levelIndex = DISTRIBUTOR.next(levelIndex);
+                } while (emptyLevel(currentLevel)); // look for a non-empty level
+                if (currentLevel < THRESHOLD) { // for dormant levels, take one item
+                    currentCounter = 1;
+                } else {                  // for active levels, take all current items
+                    currentCounter = levelSize[currentLevel];
+                }
+            }
+            final int selected = levelFirst[currentLevel]; // take out the first item in the level
+            final Type item = item(selected);
+            final int belongingLevel = getLevel(item);
+            if (currentLevel != belongingLevel) { // priority changed while it was in the bag
+                unlinkLevel(selected);
+                linkLevel(selected, belongingLevel);
+                continue;
+            }
+            currentCounter--;
+            remove(selected);
+            return item;
+        }
+        return null;
+    }
+
+    /**
+     * Take out up to n Items in one walk of the DISTRIBUTOR, in the same order as n calls of {@link #takeOut()}
+     */
+    @Override
+    public int takeOut(final int n, final Collection<Type> out) {
+        int level = currentLevel;
+        int counter = currentCounter;
+        int index = levelIndex;
+        int taken = 0;
+        while (taken < n && size > 0) {
+            if (emptyLevel(level) || (counter == 0)) { // done with the current level
+                do {
+                    level = DISTRIBUTOR.pick(index);
+                    index = DISTRIBUTOR.next(index);
+                } while (emptyLevel(level)); // look for a non-empty level
+                counter = (level < THRESHOLD) ? 1 : levelSize[level];
+            }
+            final int selected = levelFirst[level];
+            final Type item = item(selected);
+            final int belongingLevel = getLevel(item);
+            if (level != belongingLevel) { // priority changed while it was in the bag
+                unlinkLevel(selected);
+                linkLevel(selected, belongingLevel);
+                continue;
+            }
+            counter--;
+            remove(selected);
+            out.add(item);
+            taken++;
+        }
+        currentLevel = level;
+        currentCounter = counter;
+        levelIndex = index;
+        return taken;
+    }
+
+    /**
+     * Put Items back like {@link #putBack}, reading the forgetting threshold once
+     */
+    @Override
+    public void putBackAll(final Collection<Type> items, final float forgetCycles, final Memory m) {
+        final float relativeThreshold = m.narParameters.FORGET_QUALITY_RELATIVE;
+        for (final Type item : items) {
+            BudgetFunctions.applyForgetting(item.budget, forgetCycles, relativeThreshold);
+            putIn(item);
+        }
+    }
+
+    @Override
+    public Type pickOut(final K key) {
+        final int slot = find(key);
+        if (slot == NONE) {
+            return null;
+        }
+        final Type picked = item(slot);
+        remove(slot);
+        return picked;
+    }
+
+    @Override
+    public Type pickOut(final Type val) {
+        return pickOut(val.name());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterate in insertion order, like the name table of {@link LevelBag}
+     */
+    @Override
+    public Iterator<Type> iterator() {
+        return new Iterator<Type>() {
+            private int next = orderFirst;
+
+            @Override
+            public boolean hasNext() {
+                return next != NONE;
+            }
+
+            @Override
+            public Type next() {
+                if (next == NONE) {
+                    throw new NoSuchElementException();
+                }
+                final Type item = item(next);
+                next = slots[next * SLOT_FIELDS + ORDER_NEXT];
+                if (next == orderFirst) {
+                    next = NONE;
+                }
+                return item;
+            }
+        };
+    }
+
+    private Type item(final int slot) {
+        return (Type) items[slot];
+    }
+
+    private boolean emptyLevel(final int n) {
+        return size == 0 || levelFirst[n] == NONE;
+    }
+
+    /**
+     * Decide the put-in level according to priority
+     * @param item The Item to put in
+     * @return The put-in level
+     */
+    private int getLevel(final Type item) {
+        final float fl = item.getPriority() * TOTAL_LEVEL;
+        final int level = (int) Math.ceil(fl) - 1;
+        return (level < 0) ? 0 : level;     // cannot be -1
+    }
+
+    /**
+     * Scatter the hash, as keys often have consecutive hashes which would form long runs in the index
+     */
+    private static int spread(final int hash) {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param key The key of an Item
+     * @return The slot of the Item with the key, or NONE
+     */
+    private int find(final K key) {
+        if (size == 0) {
+            return NONE;
+        }
+        final int hash = key.hashCode();
+        final int mask = index.length - 1;
+        for (int i = spread(hash) & mask; index[i] != 0; i = (i + 1) & mask) {
+            final int slot = index[i] - 1;
+            if (slots[slot * SLOT_FIELDS + HASH] == hash && item(slot).name().equals(key)) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Put a new item into a free slot, its level and the end of the insertion order, then adjust mass
+     * @param newItem The Item to put in
+     * @param level The level of the Item
+     */
+    private void add(final Type newItem, final int level) {
+        if (free == NONE) {
+            grow();
+        }
+        final int slot = free;
+        free = slots[slot * SLOT_FIELDS + LEVEL_NEXT];
+        items[slot] = newItem;
+        slots[slot * SLOT_FIELDS + HASH] = newItem.name().hashCode();
+        size++;
+        insertIndex(slot);
+        if (orderFirst == NONE) {
+            orderFirst = slot;
+            slots[slot * SLOT_FIELDS + ORDER_NEXT] = slot;
+            slots[slot * SLOT_FIELDS + ORDER_PREV] = slot;
+        } else {
+            link(slot, orderFirst, ORDER_NEXT, ORDER_PREV);
+        }
+        linkLevel(slot, level);
+    }
+
+    /**
+     * Remove the item of a slot from the index, its level and the insertion order, then adjust mass
+     * @param slot The slot of the Item
+     */
+    private void remove(final int slot) {
+        unlinkLevel(slot);
+        orderFirst = unlink(slot, orderFirst, ORDER_NEXT, ORDER_PREV);
+        removeIndex(slot);
+        items[slot] = null;
+        slots[slot * SLOT_FIELDS + LEVEL_NEXT] = free;
+        free = slot;
+        size--;
+    }
+
+    /**
+     * Append a slot to a level, FIFO, then increase mass
+     */
+    private void linkLevel(final int slot, final int level) {
+        slots[slot * SLOT_FIELDS + LEVEL] = level;
+        final int first = levelFirst[level];
+        if (first == NONE) {
+            levelFirst[level] = slot;
+            slots[slot * SLOT_FIELDS + LEVEL_NEXT] = slot;
+            slots[slot * SLOT_FIELDS + LEVEL_PREV] = slot;
+        } else {
+            link(slot, first, LEVEL_NEXT, LEVEL_PREV);
+        }
+        levelSize[level]++;
+        mass += (level + 1);
+    }
+
+    /**
+     * Remove a slot from the level it was put into, even if its priority changed since then, then decrease mass
+     */
+    private void unlinkLevel(final int slot) {
+        final int level = slots[slot * SLOT_FIELDS + LEVEL];
+        levelFirst[level] = unlink(slot, levelFirst[level], LEVEL_NEXT, LEVEL_PREV);
+        levelSize[level]--;
+        mass -= (level + 1);
+    }
+
+    /**
+     * Insert a slot before the first slot of a non-empty circular list, which makes it the last one
+     */
+    private void link(final int slot, final int first, final int next, final int prev) {
+        final int last = slots[first * SLOT_FIELDS + prev];
+        slots[slot * SLOT_FIELDS + next] = first;
+        slots[slot * SLOT_FIELDS + prev] = last;
+        slots[last * SLOT_FIELDS + next] = slot;
+        slots[first * SLOT_FIELDS + prev] = slot;
+    }
+
+    /**
+     * Remove a slot from a circular list
+     * @return The new first slot of the list
+     */
+    private int unlink(final int slot, final int first, final int next, final int prev) {
+        final int after = slots[slot * SLOT_FIELDS + next];
+        if (after == slot) {
+            return NONE;
+        }
+        final int before = slots[slot * SLOT_FIELDS + prev];
+        slots[before * SLOT_FIELDS + next] = after;
+        slots[after * SLOT_FIELDS + prev] = before;
+        return slot == first ? after : first;
+    }
+
+    /**
+     * Allocate the tables for the first item, or double the amount of slots up to the capacity
+     */
+    private void grow() {
+        final int oldLength = items == null ? 0 : items.length;
+        final int length = Math.max(1, Math.min(oldLength == 0 ? INITIAL_LENGTH : 2 * oldLength, capacity));
+        if (items == null) {
+            items = new Item[length];
+            slots = new int[length * SLOT_FIELDS];
+            levelFirst = new int[TOTAL_LEVEL];
+            Arrays.fill(levelFirst, NONE);
+            levelSize = new int[TOTAL_LEVEL];
+        } else {
+            items = Arrays.copyOf(items, length);
+            slots = Arrays.copyOf(slots, length * SLOT_FIELDS);
+        }
+        for (int slot = length - 1; slot >= oldLength; slot--) {
+            slots[slot * SLOT_FIELDS + LEVEL_NEXT] = free;
+            free = slot;
+        }
+        index = new int[Integer.highestOneBit(length) << 2]; // at most half full
+        for (int slot = 0; slot < oldLength; slot++) {
+            insertIndex(slot);
+        }
+    }
+
+    private void insertIndex(final int slot) {
+        final int mask = index.length - 1;
+        int i = spread(slots[slot * SLOT_FIELDS + HASH]) & mask;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = slot + 1;
+    }
+
+    /**
+     * Remove a slot from the index, moving back the entries after it which would not be found anymore
+     */
+    private void removeIndex(final int slot) {
+        final int mask = index.length - 1;
+        int i = spread(slots[slot * SLOT_FIELDS + HASH]) & mask;
+        while (index[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        index[i] = 0;
+        for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            final int home = spread(slots[(index[j] - 1) * SLOT_FIELDS + HASH]) & mask;
+            final boolean reachable = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!reachable) {               // its probe sequence passes the emptied entry
+                index[i] = index[j];
+                index[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder(" ");
+        for (int level = TOTAL_LEVEL - 1; level >= 0; level--) {
+            if (!emptyLevel(level)) {
+                buf.append("\n --- Level ").append(level + 1).append(":\n ");
+                appendLevel(buf, level, false);
+            }
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String toStringLong() {
+        final StringBuilder buf = new StringBuilder(" BAG " + getClass().getSimpleName());
+        for (int level = TOTAL_LEVEL - 1; level >= 0; level--) {
+            if (!emptyLevel(level)) {
+                buf.append("\n --- LEVEL ").append(level + 1).append(":\n ");
+                appendLevel(buf, level, true);
+            }
+        }
+        buf.append(">>>> end of Bag").append(getClass().getSimpleName());
+        return buf.toString();
+    }
+
+    private void appendLevel(final StringBuilder buf, final int level, final boolean longForm) {
+        final int first = levelFirst[level];
+        int slot = first;
+        do {
+            buf.append(longForm ? item(slot).toStringLong() : item(slot).toString()).append("\n ");
+            slot = slots[slot * SLOT_FIELDS + LEVEL_NEXT];
+        } while (slot != first);
+    }
+}
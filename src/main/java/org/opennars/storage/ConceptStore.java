@@ -0,0 +1,327 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Concept;
+import org.opennars.language.Term;
+import org.opennars.language.TermCode;
+import org.opennars.operator.Operator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Long-term memory tier for concepts displaced from the concept bag
+ * <p>
+ * Concepts are serialized into an append-only file which is accessed through a memory mapping,
+ * an in-heap index maps the term of each stored concept to the offset of its record.
+ * A reloaded or replaced concept leaves its record behind. When a record does not fit into the mapping
+ * and such garbage takes more space than the stored concepts, the records of these are moved to the start of the file,
+ * so the file stays within about twice the size of the stored concepts.
+ * A concept which can not be stored is logged and forgotten.
+ * The memory and its registered operators are written as references
+ * and resolved against the memory which loads the concept.
+ * Terms are written as their {@link TermCode}, so a loaded concept shares its terms with the rest of the memory.
+ */
+public class ConceptStore implements Closeable {
+
+    /** size of the first mapping, doubled whenever a record does not fit */
+    private static final int INITIAL_MAPPING = 1 << 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer mapping;
+    /** end of the written records */
+    private int end = 0;
+    /** bytes of the records of the stored concepts, the rest up to end is garbage */
+    private int live = 0;
+    /** offset of the record of each stored concept */
+    private final Map<Term, Integer> index = new HashMap<>();
+
+    /** stands for the memory of a concept */
+    private static final class MemoryRef implements Serializable {
+    }
+
+    /** stands for an operator registered in the memory */
+    private static final class OperatorRef implements Serializable {
+        final String name;
+
+        OperatorRef(final String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * @param file The file of the store, its content is discarded
+     * @throws IOException if the file can not be opened or mapped
+     */
+    public ConceptStore(final Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_MAPPING);
+    }
+
+    /**
+     * Append a concept to the store, replacing an older record of the same term
+     *
+     * @param concept The concept to store
+     * @param memory The memory the concept belongs to
+     * @return Whether the concept was stored, false if it can not be serialized or the store is full
+     */
+    public synchronized boolean save(final Concept concept, final Memory memory) {
+        final byte[] record;
+        try {
+            record = serialize(concept, memory);
+        } catch (final IOException e) {
+            return notStored(concept, e);
+        }
+        final int length = Integer.BYTES + record.length;
+        if ((long) end + length > mapping.capacity() && end - live > live) { //garbage dominates, reclaim it before growing
+            compact();
+        }
+        final long needed = (long) end + length;
+        if (needed > Integer.MAX_VALUE) {
+            return notStored(concept, new IOException("The store is full with " + index.size() + " concepts in " + live + " bytes"));
+        }
+        try {
+            ensureMapped((int) needed);
+        } catch (final IOException e) {
+            return notStored(concept, e);
+        }
+        mapping.putInt(end, record.length);
+        final ByteBuffer target = mapping.duplicate();
+        target.position(end + Integer.BYTES);
+        target.put(record);
+        final Integer replaced = index.put(concept.term, end);
+        if (replaced != null) { //kept until now in case the new record could not be written
+            live -= recordLength(replaced);
+        }
+        end = (int) needed;
+        live += length;
+        return true;
+    }
+
+    /**
+     * Log a concept which is forgotten because it can not be stored
+     *
+     * @return false
+     */
+    private static boolean notStored(final Concept concept, final IOException e) {
+        Logger.getLogger(ConceptStore.class.getName()).log(Level.WARNING, "Concept " + concept.term + " can not be stored and is forgotten", e);
+        return false;
+    }
+
+    /**
+     * Remove a concept from the store and deserialize it
+     *
+     * @param term The term of the concept
+     * @param memory The memory which takes the concept
+     * @return The concept, or null if none is stored for the term
+     */
+    public synchronized Concept load(final Term term, final Memory memory) {
+        final Integer offset = index.remove(term);
+        if (offset == null) {
+            return null;
+        }
+        live -= recordLength(offset);
+        final byte[] record = new byte[mapping.getInt(offset)];
+        final ByteBuffer source = mapping.duplicate();
+        source.position(offset + Integer.BYTES);
+        source.get(record);
+        try {
+            return deserialize(record, memory);
+        } catch (final IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Stored concept " + term + " can not be read", e);
+        }
+    }
+
+    /**
+     * @param term The term of a concept
+     * @return Whether the concept is in the store
+     */
+    public synchronized boolean contains(final Term term) {
+        return index.containsKey(term);
+    }
+
+    /**
+     * @return amount of stored concepts
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return bytes used in the file, by the stored concepts and by the records not reclaimed yet
+     */
+    public synchronized int usedBytes() {
+        return end;
+    }
+
+    /**
+     * Remove all concepts and reclaim the space of the records
+     */
+    public synchronized void clear() {
+        index.clear();
+        end = 0;
+        live = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.clear();
+        mapping = null;
+        channel.close();
+    }
+
+    /**
+     * @param offset Offset of a record
+     * @return Bytes of the record, with its length
+     */
+    private int recordLength(final int offset) {
+        return Integer.BYTES + mapping.getInt(offset);
+    }
+
+    /**
+     * Move the records of the stored concepts to the start of the file, in their order, dropping the garbage between them
+     */
+    private void compact() {
+        final List<Map.Entry<Term, Integer>> records = new ArrayList<>(index.entrySet());
+        records.sort(Map.Entry.comparingByValue());
+        int to = 0;
+        for (final Map.Entry<Term, Integer> record : records) {
+            final int from = record.getValue();
+            final int length = recordLength(from);
+            if (from != to) {
+                final byte[] bytes = new byte[length];
+                final ByteBuffer source = mapping.duplicate();
+                source.position(from);
+                source.get(bytes);
+                final ByteBuffer target = mapping.duplicate();
+                target.position(to);
+                target.put(bytes);
+                record.setValue(to);
+            }
+            to += length;
+        }
+        end = to;
+        live = to;
+    }
+
+    private void ensureMapped(final int size) throws IOException {
+        if (size <= mapping.capacity()) {
+            return;
+        }
+        long capacity = mapping.capacity();
+        while (capacity < size) {
+            capacity *= 2;
+        }
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    private static byte[] serialize(final Concept concept, final Memory memory) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ReferencingOutputStream(bytes, memory)) {
+            out.writeObject(concept);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Concept deserialize(final byte[] record, final Memory memory) throws IOException, ClassNotFoundException {
+        try (final ObjectInputStream in = new ResolvingInputStream(new ByteArrayInputStream(record), memory)) {
+            return (Concept) in.readObject();
+        }
+    }
+
+    /** writes references instead of the memory and its operators, and terms as their code */
+    private static final class ReferencingOutputStream extends ObjectOutputStream {
+        private final Memory memory;
+
+        ReferencingOutputStream(final OutputStream out, final Memory memory) throws IOException {
+            super(out);
+            this.memory = memory;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(final Object obj) {
+            if (obj == memory) {
+                return new MemoryRef();
+            }
+            if (obj instanceof Operator) {
+                final String name = ((Operator) obj).name().toString();
+                if (memory.getOperator(name) == obj) {
+                    return new OperatorRef(name);
+                }
+                return obj;
+            }
+            if (obj instanceof Term) { //the stream writes a term which occurs again as a reference to its code
+                final TermCode code = TermCode.encode((Term) obj);
+                return code != null ? code : obj;
+            }
+            return obj;
+        }
+    }
+
+    /** resolves the references against the memory which loads the concept */
+    private static final class ResolvingInputStream extends ObjectInputStream {
+        private final Memory memory;
+
+        ResolvingInputStream(final InputStream in, final Memory memory) throws IOException {
+            super(in);
+            this.memory = memory;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(final Object obj) {
+            if (obj instanceof MemoryRef) {
+                return memory;
+            }
+            if (obj instanceof OperatorRef) {
+                return memory.getOperator(((OperatorRef) obj).name);
+            }
+            if (obj instanceof TermCode) {
+                return ((TermCode) obj).decode(memory);
+            }
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import com.google.common.collect.Iterators;
+import org.opennars.entity.Item;
+import org.opennars.main.Parameters;
+import org.opennars.storage.LinkedLevel.Node;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thread-safe variant of the level Bag, used as concept bag when several inference threads run
+ * <p>
+ * Items are distributed into the same priority levels and taken out with the same Distributor,
+ * but every level is guarded by its own monitor and the name table is a concurrent map,
+ * so threads only contend when they touch the same level.
+ * Compound operations on one key (pickOut followed by putBack) are made atomic
+ * by holding the stripe returned by {@link #lockFor}.
+ */
+public class ConcurrentBag<Type extends Item<K>,K> extends LevelBag<Type,K> {
+
+    /** amount of key stripes, a power of two */
+    private static final int STRIPES = 64;
+
+    /* the following fields are assigned in clear(), which is called by the super constructor
+       before field initializers of this class could run */
+
+    /** mapping from key to the node of the item, serialized by writeObject */
+    private transient ConcurrentHashMap<K, Node<Type>> nameTable;
+    /** array of lists of items, for items on different level, each one is its own monitor */
+    private transient LinkedLevel<Type>[] itemTable;
+    /** amount of items in each level, readable without holding the level */
+    private transient AtomicIntegerArray levelSize;
+    /** current sum of occupied level */
+    private AtomicInteger mass;
+    /** monitors handed out by lockFor */
+    private Mutex[] stripes;
+    /** guards levelIndex, currentLevel and currentCounter */
+    private Mutex cursor;
+    /** index to get next level, kept in individual objects */
+    private int levelIndex;
+    /** current take out level */
+    private int currentLevel;
+    /** maximum number of items to be taken out at current level */
+    private int currentCounter;
+
+    /** serializable monitor object */
+    private static final class Mutex implements Serializable {
+    }
+
+    public ConcurrentBag(final int levels, final int capacity, final Parameters narParameters) {
+        super(levels, capacity, narParameters);
+    }
+
+    public ConcurrentBag(final int levels, final int capacity, final int thresholdLevel) {
+        super(levels, capacity, thresholdLevel);
+    }
+
+    private void allocateTables() {
+        itemTable = new LinkedLevel[TOTAL_LEVEL];
+        for (int i = 0; i < TOTAL_LEVEL; i++) {
+            itemTable[i] = new LinkedLevel<>(i);
+        }
+        levelSize = new AtomicIntegerArray(TOTAL_LEVEL);
+        nameTable = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Remove all items, not atomic in respect to concurrent insertions
+     */
+    @Override
+    public void clear() {
+        if (itemTable == null) {
+            allocateTables();
+            mass = new AtomicInteger();
+            stripes = new Mutex[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Mutex();
+            }
+            cursor = new Mutex();
+        }
+        synchronized (cursor) {
+            for (final LinkedLevel<Type> level : itemTable) {
+                synchronized (level) {
+                    level.clear();
+                    levelSize.set(level.level, 0);
+                }
+            }
+            nameTable.clear();
+            mass.set(0);
+            currentLevel = TOTAL_LEVEL - 1;
+            levelIndex = capacity % TOTAL_LEVEL; // so that different bags start at different point
+            currentCounter = 0;
+        }
+    }
+
+    @Override
+    public float getAveragePriority() {
+        final int size = nameTable.size();
+        if (size == 0) {
+            return 0.01f;
+        }
+        final float f = (float) mass.get() / (size * TOTAL_LEVEL);
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    @Override
+    public boolean contains(final Type it) {
+        return nameTable.containsKey(it.name());
+    }
+
+    @Override
+    public Type get(final K key) {
+        final Node<Type> node = nameTable.get(key);
+        return node == null ? null : node.item;
+    }
+
+    /**
+     * Get the monitor to hold while doing a compound operation on an item
+     * <p>
+     * The bag itself is thread-safe, so only operations on the same key stripe exclude each other
+     *
+     * @param key The key of the Item, null for operations like takeOut which are not bound to a key
+     * @return The monitor to synchronize on
+     */
+    @Override
+    public Object lockFor(final K key) {
+        if (key == null) {
+            return cursor;
+        }
+        final int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Add a new Item into the Bag
+     * <p>
+     * Only correct while the caller holds {@link #lockFor} of the key of the Item:
+     * two threads putting in the same key at once could both merge with the same old item
+     * or leave a node in a level which is not in the name table.
+     *
+     * @param newItem The new Item
+     * @return The overflow Item which was removed, or null if none removed
+     */
+    @Override
+    public Type putIn(final Type newItem) {
+        final K newKey = newItem.name();
+        final Node<Type> newNode = new Node<>(newItem);
+        final Node<Type> oldNode = nameTable.put(newKey, newNode);
+        if (oldNode != null) {                  // merge duplications
+            outOfBase(oldNode);
+            newItem.merge(oldNode.item);
+        }
+        final Node<Type> overflowNode = intoBase(newNode);  // put the (new or merged) item into itemTable
+        if (overflowNode != null) {             // remove overflow
+            nameTable.remove(overflowNode.item.name(), overflowNode);
+            return overflowNode.item;
+        }
+        return null;
+    }
+
+    /**
+     * Choose an Item according to priority distribution and take it out of the Bag
+     * <p>
+     * Items which were replaced or picked out by another thread while being taken out are skipped
+     *
+     * @return The selected Item, or null if no item could be found
+     */
+    @Override
+    public Type takeOut() {
+        while (!nameTable.isEmpty()) {
+            final int level;
+            synchronized (cursor) {
+                if (emptyLevel(currentLevel) || (currentCounter == 0)) { // done with the current level
+                    int searched = 0;
+                    do {
+                        if (searched++ == DISTRIBUTOR.order.length) {
+                            return null;        // the items were not placed into levels yet
+                        }
+                        currentLevel = DISTRIBUTOR.pick(levelIndex);
+                        levelIndex = DISTRIBUTOR.next(levelIndex);
+                    } while (emptyLevel(currentLevel));
+                    if (currentLevel < THRESHOLD) { // for dormant levels, take one item
+                        currentCounter = 1;
+                    } else {                  // for active levels, take all current items
+                        currentCounter = levelSize.get(currentLevel);
+                    }
+                }
+                level = currentLevel;
+                currentCounter--;
+            }
+            final Node<Type> selected = takeOutFirst(level);
+            if (selected == null) {             // the level was emptied by another thread
+                continue;
+            }
+            if (getLevel(selected.item) != level) {  // priority changed while it was in the bag
+                reinsert(selected);
+                continue;
+            }
+            if (nameTable.remove(selected.item.name(), selected)) {
+                return selected.item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take out up to n Items one after another, each like {@link #takeOut()} under the locks of its level
+     * <p>
+     * Overrides the batch of the level bag, which walks the tables of the level bag this bag does not use
+     *
+     * @param n Maximum amount of Items to take out
+     * @param out Receives the Items in the order they were chosen
+     * @return The amount of Items taken out, less than n only if no more item could be found
+     */
+    @Override
+    public int takeOut(final int n, final Collection<Type> out) {
+        int taken = 0;
+        while (taken < n) {
+            final Type selected = takeOut();
+            if (selected == null) {
+                break;
+            }
+            out.add(selected);
+            taken++;
+        }
+        return taken;
+    }
+
+    @Override
+    public Type pickOut(final K key) {
+        final Node<Type> picked = nameTable.remove(key);
+        if (picked != null) {
+            outOfBase(picked);
+            return picked.item;
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean emptyLevel(final int n) {
+        return levelSize.get(n) == 0;
+    }
+
+    /**
+     * Insert an item into the itemTable, and return the overflow
+     * @param newNode The node of the Item to put in
+     * @return The node of the overflow Item
+     */
+    private Node<Type> intoBase(final Node<Type> newNode) {
+        Node<Type> oldNode = null;
+        final int inLevel = getLevel(newNode.item);
+        if (nameTable.size() > capacity) {      // the bag is full
+            for (int outLevel = 0; outLevel < TOTAL_LEVEL && oldNode == null; outLevel++) {
+                if (emptyLevel(outLevel)) {
+                    continue;
+                }
+                if (outLevel > inLevel) {       // ignore the item and exit
+                    return newNode;
+                }
+                oldNode = takeOutFirst(outLevel); // remove an old item in the lowest non-empty level
+            }
+        }
+        final LinkedLevel<Type> level = itemTable[inLevel];
+        synchronized (level) {
+            level.addLast(newNode);             // FIFO
+            levelSize.incrementAndGet(inLevel);
+        }
+        mass.addAndGet(inLevel + 1);            // increase total mass
+        return oldNode;
+    }
+
+    /**
+     * Put a node which was taken out of a stale level into the level of its current priority
+     * <p>
+     * The node is still in the name table, so the size of the bag does not change and nothing overflows.
+     * If another thread picked the item out or replaced it meanwhile, the node is dropped instead,
+     * as it would be left in a level without being in the name table.
+     * @param node The node of the Item to put back
+     */
+    private void reinsert(final Node<Type> node) {
+        final int inLevel = getLevel(node.item);
+        final LinkedLevel<Type> level = itemTable[inLevel];
+        synchronized (level) {
+            if (nameTable.get(node.item.name()) != node) {
+                return;
+            }
+            level.addLast(node);
+            levelSize.incrementAndGet(inLevel);
+        }
+        mass.addAndGet(inLevel + 1);
+    }
+
+    /**
+     * Take out the first Item in a level from the itemTable
+     * @param level The current level
+     * @return The node of the first Item, or null if the level is empty
+     */
+    private Node<Type> takeOutFirst(final int level) {
+        final LinkedLevel<Type> items = itemTable[level];
+        final Node<Type> selected;
+        synchronized (items) {
+            selected = items.removeFirst();
+            if (selected == null) {
+                return null;
+            }
+            levelSize.decrementAndGet(level);
+        }
+        mass.addAndGet(-(level + 1));
+        return selected;
+    }
+
+    /**
+     * Remove an item from itemTable, then adjust mass
+     * @param oldNode The node of the Item to be removed
+     */
+    private void outOfBase(final Node<Type> oldNode) {
+        for (;;) {
+            final LinkedLevel<Type> level = oldNode.owner;
+            if (level == null) {                // taken out by another thread meanwhile
+                return;
+            }
+            synchronized (level) {
+                if (oldNode.owner == level) {   // else it was moved to another level meanwhile
+                    level.remove(oldNode);
+                    levelSize.decrementAndGet(level.level);
+                    mass.addAndGet(-(level.level + 1));
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder(" ");
+        for (int i = TOTAL_LEVEL; i > 0; i--) {
+            final LinkedLevel<Type> items = itemTable[i - 1];
+            synchronized (items) {
+                if (!items.isEmpty()) {
+                    buf.append("\n --- Level ").append(i).append(":\n ");
+                    for (Node<Type> n = items.first(); n != null; n = n.next) {
+                        buf.append(n.item.toString()).append("\n ");
+                    }
+                }
+            }
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String toStringLong() {
+        final StringBuilder buf = new StringBuilder(" BAG " + getClass().getSimpleName());
+        for (int i = TOTAL_LEVEL; i > 0; i--) {
+            final LinkedLevel<Type> items = itemTable[i - 1];
+            synchronized (items) {
+                if (!items.isEmpty()) {
+                    buf.append("\n --- LEVEL ").append(i).append(":\n ");
+                    for (Node<Type> n = items.first(); n != null; n = n.next) {
+                        buf.append(n.item.toStringLong()).append("\n ");
+                    }
+                }
+            }
+        }
+        buf.append(">>>> end of Bag").append(getClass().getSimpleName());
+        return buf.toString();
+    }
+
+    @Override
+    public int size() {
+        return nameTable.size();
+    }
+
+    @Override
+    public Iterator<Type> iterator() {
+        return Iterators.transform(nameTable.values().iterator(), n -> n.item);
+    }
+
+    /**
+     * Write the items level by level instead of the linked nodes,
+     * whose serialization would recurse along each level
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        for (final LinkedLevel<Type> level : itemTable) {
+            synchronized (level) {
+                out.writeInt(level.size());
+                for (Node<Type> n = level.first(); n != null; n = n.next) {
+                    out.writeObject(n.item);
+                }
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        allocateTables();
+        for (final LinkedLevel<Type> level : itemTable) {
+            final int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                final Node<Type> node = new Node<>((Type) in.readObject());
+                level.addLast(node);
+                nameTable.put(node.item.name(), node);
+            }
+            levelSize.set(level.level, size);
+        }
+    }
+}
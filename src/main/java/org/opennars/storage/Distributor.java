@@ -24,6 +24,8 @@
 package org.opennars.storage;
 
 import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A pseudo-random number generator, used in Bag.
@@ -35,6 +37,18 @@ public class Distributor implements Serializable {
     /** Capacity of the array */
     private int capacity;
 
+    /** distributors by range, they are immutable and shared by all bags with the same amount of levels */
+    private static final Map<Integer, Distributor> shared = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared distributor of a range
+     * @param range Range of valid numbers
+     * @return The distributor, which must not be modified
+     */
+    public static Distributor get(final int range) {
+        return shared.computeIfAbsent(range, Distributor::new);
+    }
+
     /**
      * For any number N &lt; range, there is N+1 copies of it in the array, distributed as evenly as possible
      * @param range Range of valid numbers
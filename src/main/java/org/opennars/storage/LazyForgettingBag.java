@@ -0,0 +1,100 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Item;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.main.Parameters;
+
+/**
+ * Level bag which applies forgetting when an item is sampled instead of when it is put back
+ * <p>
+ * The decay of an item covers all cycles since it was sampled last, so items which
+ * sit in the bag lose priority too, but cost nothing while they are not sampled.
+ * An item whose decayed priority belongs to a lower level is moved there by takeOut,
+ * so the levels are corrected as the distributor reaches them.
+ * The clock of the bag is the cycle time of the memory given to the latest putBack,
+ * read again whenever an item is sampled, so it advances with the memory between put backs.
+ */
+public class LazyForgettingBag<Type extends Item<K>,K> extends LevelBag<Type,K> {
+
+    /** memory of the latest putBack, not serialized with the items, for example with a concept */
+    private transient Memory memory;
+    /** latest cycle time seen, the clock while no memory is known */
+    private long now = 0;
+    /** forgetting duration in cycles of the latest putBack */
+    private float forgetCycles = 0;
+    /** relative quality threshold of the latest putBack */
+    private float relativeThreshold = 0;
+
+    public LazyForgettingBag(final int levels, final int capacity, final Parameters narParameters) {
+        super(levels, capacity, narParameters);
+    }
+
+    public LazyForgettingBag(final int levels, final int capacity, final int thresholdLevel) {
+        super(levels, capacity, thresholdLevel);
+    }
+
+    /**
+     * Put an item back without forgetting, it is applied when the item is sampled again
+     *
+     * @param oldItem The Item to put back
+     * @param forgetCycles The forgetting duration in cycles
+     * @param m related memory
+     * @return the item which was removed, or null if none removed
+     */
+    @Override
+    public Type putBack(final Type oldItem, final float forgetCycles, final Memory m) {
+        memory = m;
+        now = m.getCycleTime();
+        this.forgetCycles = forgetCycles;
+        this.relativeThreshold = m.narParameters.FORGET_QUALITY_RELATIVE;
+        if (oldItem.budget.getLastForgetTime() == -1) { // decays from now on
+            oldItem.budget.setLastForgetTime(now);
+        }
+        return putIn(oldItem);
+    }
+
+    /**
+     * Apply the forgetting of all cycles since the item was sampled last
+     * <p>
+     * One putBack decays the priority above quality by durability^(1 / (forgetCycles * p)),
+     * so the decay over a period is the one of a putBack with forgetCycles / period
+     *
+     * @param item The Item which was taken out of its level
+     */
+    @Override
+    protected void applyPendingForgetting(final Type item) {
+        final BudgetValue budget = item.budget;
+        final Memory m = memory;
+        if (m != null) {
+            now = m.getCycleTime();
+        }
+        final long period = budget.setLastForgetTime(now);
+        if (period > 0 && forgetCycles > 0) {
+            BudgetFunctions.applyForgetting(budget, forgetCycles / period, relativeThreshold);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import com.google.common.collect.Iterators;
+import org.opennars.entity.Item;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.*;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.main.Parameters;
+import org.opennars.storage.LinkedLevel.Node;
+
+/**
+ * Original Bag implementation which distributes items into
+ * discrete levels (queues) according to priority
+ * <p>
+ * The name table maps each key to the node which links the item into its level,
+ * so putting in, removing by key and taking out of a level take constant time.
+ */
+public class LevelBag<Type extends Item<K>,K> implements Bag<Type,K> {
+    
+       /** priority levels */
+    protected final int TOTAL_LEVEL;
+    /** firing threshold */
+    protected final int THRESHOLD;
+    /** shared DISTRIBUTOR that produce the probability distribution */
+    protected final Distributor DISTRIBUTOR;
+    /** mapping from key to the node of the item, serialized by writeObject */
+    private transient HashMap<K, Node<Type>> nameTable;
+    /** array of lists of items, for items on different level, serialized by writeObject */
+    private transient LinkedLevel<Type>[] itemTable;
+    /** defined in different bags */
+    protected final int capacity;
+    /** current sum of occupied level */
+    private int mass;
+    /** index to get next level, kept in individual objects */
+    private int levelIndex;
+    /** current take out level */
+    private int currentLevel;
+    /** maximum number of items to be taken out at current level */
+    private int currentCounter;
+    
+    public LevelBag(final int levels, final int capacity, Parameters narParameters) {
+        this(levels, capacity, (int) (narParameters.BAG_THRESHOLD * levels));
+    }
+
+    /** thresholdLevel = 0 disables "fire level completely" threshold effect */
+    public LevelBag(final int levels, final int capacity, final int thresholdLevel) {
+        this.TOTAL_LEVEL = levels;
+        DISTRIBUTOR = Distributor.get(TOTAL_LEVEL);
+        this.THRESHOLD = thresholdLevel;
+        this.capacity = capacity;
+        clear();
+    }
+    
+     public void clear() {
+        itemTable = new LinkedLevel[TOTAL_LEVEL];
+        for (int i = 0; i < TOTAL_LEVEL; i++) {
+            itemTable[i] = new LinkedLevel<>(i);
+        }
+        nameTable = new LinkedHashMap<K, Node<Type>>();
+        currentLevel = TOTAL_LEVEL - 1;
+        levelIndex = capacity % TOTAL_LEVEL; // so that different bags start at different point
+        mass = 0;
+        currentCounter = 0;
+    }
+
+    /**
+     * Get the average priority of Items
+     * @return The average priority of Items in the bag
+     */
+    public float getAveragePriority() {
+        if (nameTable.isEmpty()) {
+            return 0.01f;
+        }
+        float f = (float) mass / (nameTable.size() * TOTAL_LEVEL);
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    /**
+     * Check if an item is in the bag
+     * @param it An item
+     * @return Whether the Item is in the Bag
+     */
+    public boolean contains(Type it) {
+        return nameTable.containsKey(it.name());
+    }
+
+    /**
+     * Get an Item by key
+     * @param key The key of the Item
+     * @return The Item with the given key
+     */
+    public Type get(K key) {
+        final Node<Type> node = nameTable.get(key);
+        return node == null ? null : node.item;
+    }
+
+    /**
+     * Get the monitor to hold while doing a compound operation on an item,
+     * for example a pickOut followed by a putBack
+     * <p>
+     * This bag is not thread-safe, so all callers share the bag itself
+     *
+     * @param key The key of the Item, null for operations like takeOut which are not bound to a key
+     * @return The monitor to synchronize on
+     */
+    public Object lockFor(K key) {
+        return this;
+    }
+
+    /**
+     * Add a new Item into the Bag
+     * @param newItem The new Item
+     * @return Whether the new Item is added into the Bag
+     */
+    public Type putIn(Type newItem) {
+        K newKey = newItem.name();
+        final Node<Type> newNode = new Node<>(newItem);
+        Node<Type> oldNode = nameTable.put(newKey, newNode);
+        if (oldNode != null) {                  // merge duplications
+            outOfBase(oldNode);
+            newItem.merge(oldNode.item);
+        }
+        Node<Type> overflowNode = intoBase(newNode);  // put the (new or merged) item into itemTable
+        if (overflowNode != null) {             // remove overflow
+            K overflowKey = overflowNode.item.name();
+            nameTable.remove(overflowKey);
+            return overflowNode.item;
+        } else {
+            return null;
+        }
+    }
+    
+    /**
+     * Add a new Item in place of the first Item in the lowest non-empty level,
+     * for bags which share their capacity with other bags and are full as a whole
+     *
+     * @param newItem The new Item, whose key is not in the bag
+     * @return The removed Item, or the new Item if it would be in a lower level than all Items
+     */
+    Type putInReplacingLowest(final Type newItem) {
+        if (nameTable.isEmpty()) {
+            return newItem;
+        }
+        int outLevel = 0;
+        while (emptyLevel(outLevel)) {
+            outLevel++;
+        }
+        if (outLevel > getLevel(newItem)) {      // ignore the item and exit
+            return newItem;
+        }
+        final Node<Type> oldNode = takeOutFirst(outLevel);
+        nameTable.remove(oldNode.item.name());
+        putIn(newItem);
+        return oldNode.item;
+    }
+
+    /**
+     * Put an item back into the itemTable
+     * <p>
+     * The only place where the forgetting rate is applied
+     *
+     * @param oldItem The Item to put back
+     * @param m related memory
+     * @return the item which was removed, or null if none removed
+     */    
+    public Type putBack(final Type oldItem, final float forgetCycles, final Memory m) {
+        final float relativeThreshold = m.narParameters.FORGET_QUALITY_RELATIVE;
+        BudgetFunctions.applyForgetting(oldItem.budget, forgetCycles, relativeThreshold);
+        return putIn(oldItem);
+    }
+
+    /**
+     * Choose an Item according to priority distribution and take it out of the Bag
+     * @return The selected Item
+     */
+    public Type takeOut() {
+        while (!nameTable.isEmpty()) {
+            if (emptyLevel(currentLevel) || (currentCounter == 0)) { // done with the current level
+                currentLevel = DISTRIBUTOR.pick(levelIndex);
+                levelIndex = DISTRIBUTOR.next(levelIndex);
+                while (emptyLevel(currentLevel)) {          // look for a non-empty level
+                    currentLevel = DISTRIBUTOR.pick(levelIndex);
+                    levelIndex = DISTRIBUTOR.next(levelIndex);
+                }
+                if (currentLevel < THRESHOLD) { // for dormant levels, take one item
+                    currentCounter = 1;
+                } else {                  // for active levels, take all current items
+                    currentCounter = itemTable[currentLevel].size();
+                }
+            }
+            final Node<Type> selected = takeOutFirst(currentLevel); // take out the first item in the level
+            applyPendingForgetting(selected.item);
+            final int belongingLevel = getLevel(selected.item);
+            if (currentLevel != belongingLevel) { // priority changed while it was in the bag
+                intoBase(selected);
+                continue;
+            }
+            currentCounter--;
+            nameTable.remove(selected.item.name());
+            return selected.item;
+        }
+        return null; // empty bag
+    }
+
+    /**
+     * Take out up to n Items in one walk of the DISTRIBUTOR
+     * <p>
+     * Selects the same Items in the same order as n calls of {@link #takeOut()},
+     * but keeps the take out level, its counter and the distributor index in locals
+     * and stores them once, so the caller holds the monitor of the bag once for the whole batch.
+     *
+     * @param n Maximum amount of Items to take out
+     * @param out Receives the Items in the order they were chosen
+     * @return The amount of Items taken out, less than n only if the bag became empty
+     */
+    @Override
+    public int takeOut(final int n, final Collection<Type> out) {
+        int level = currentLevel;
+        int counter = currentCounter;
+        int index = levelIndex;
+        int taken = 0;
+        while (taken < n && !nameTable.isEmpty()) {
+            if (emptyLevel(level) || (counter == 0)) { // done with the current level
+                do {                                  // look for a non-empty level
+                    level = DISTRIBUTOR.pick(index);
+                    index = DISTRIBUTOR.next(index);
+                } while (emptyLevel(level));
+                counter = (level < THRESHOLD) ? 1 : itemTable[level].size();
+            }
+            final Node<Type> selected = takeOutFirst(level);
+            applyPendingForgetting(selected.item);
+            final int belongingLevel = getLevel(selected.item);
+            if (level != belongingLevel) {  // priority changed while it was in the bag
+                intoBase(selected);
+                continue;
+            }
+            counter--;
+            nameTable.remove(selected.item.name());
+            out.add(selected.item);
+            taken++;
+        }
+        currentLevel = level;
+        currentCounter = counter;
+        levelIndex = index;
+        return taken;
+    }
+
+    /**
+     * Bring the priority of a sampled item up to date before its level is checked
+     * <p>
+     * Forgetting is applied in putBack in this bag, so nothing is pending
+     *
+     * @param item The Item which was taken out of its level
+     */
+    protected void applyPendingForgetting(Type item) {
+    }
+
+    /**
+     * Pick an item by key, then remove it from the bag
+     * @param key The given key
+     * @return The Item with the key
+     */
+    public Type pickOut(K key) {
+        Node<Type> picked = nameTable.remove(key);
+        if (picked != null) {
+            outOfBase(picked);
+            return picked.item;
+        }
+        return null;
+    }
+    public Type pickOut(Type val) {
+        return pickOut(val.name());
+    }
+
+    /**
+     * Check whether a level is empty
+     * @param n The level index
+     * @return Whether that level is empty
+     */
+    protected boolean emptyLevel(int n) {
+        return itemTable[n].isEmpty();
+    }
+
+    /**
+     * Decide the put-in level according to priority
+     * @param item The Item to put in
+     * @return The put-in level
+     */
+    protected int getLevel(Type item) {
+        float fl = item.getPriority() * TOTAL_LEVEL;
+        int level = (int) Math.ceil(fl) - 1;
+        return (level < 0) ? 0 : level;     // cannot be -1
+    }
+
+    /**
+     * Insert an item into the itemTable, and return the overflow
+     * @param newNode The node of the Item to put in
+     * @return The node of the overflow Item
+     */
+    private Node<Type> intoBase(Node<Type> newNode) {
+        Node<Type> oldNode = null;
+        int inLevel = getLevel(newNode.item);
+        if (nameTable.size() > capacity) {      // the bag is full
+            int outLevel = 0;
+            while (emptyLevel(outLevel)) {
+                outLevel++;
+            }
+            if (outLevel > inLevel) {           // ignore the item and exit
+                return newNode;
+            } else {                            // remove an old item in the lowest non-empty level
+                oldNode = takeOutFirst(outLevel);
+            }
+        }
+        itemTable[inLevel].addLast(newNode);        // FIFO
+        mass += (inLevel + 1);                  // increase total mass
+        return oldNode;		// TODO return null is a bad smell
+    }
+
+    /**
+     * Take out the first or last Type in a level from the itemTable
+     * @param level The current level
+     * @return The node of the first Item
+     */
+    private Node<Type> takeOutFirst(int level) {
+        Node<Type> selected = itemTable[level].removeFirst();
+        mass -= (level + 1);
+        return selected;
+    }
+
+    /**
+     * Remove an item from itemTable, then adjust mass
+     * <p>
+     * Uses the level the item was put into, even if its priority changed since then
+     *
+     * @param oldNode The node of the Item to be removed
+     */
+    private void outOfBase(Node<Type> oldNode) {
+        final LinkedLevel<Type> level = oldNode.owner;
+        if (level != null) {
+            level.remove(oldNode);
+            mass -= (level.level + 1);
+        }
+    }
+
+    /**
+     * Collect Bag content into a String for display
+     */
+    @Override
+    public String toString() {
+        StringBuffer buf = new StringBuffer(" ");
+	for (int i = TOTAL_LEVEL; i > 0 ; i--) {
+            if (!emptyLevel(i - 1)) {
+                buf = buf.append("\n --- Level " + i + ":\n ");
+                for (Node<Type> n = itemTable[i - 1].first(); n != null; n = n.next) {
+                    buf = buf.append(n.item.toString() + "\n ");
+                }
+            }
+        }
+        return buf.toString();
+    }
+    
+    /** TODO bad paste from preceding */
+    public String toStringLong() {
+        StringBuffer buf = new StringBuffer(" BAG " + getClass().getSimpleName() );
+        buf.append(" ").append( showSizes() );
+		for (int i = TOTAL_LEVEL; i > 0; i--) {
+            if (!emptyLevel(i - 1)) {
+                buf = buf.append("\n --- LEVEL " + i + ":\n ");
+                for (Node<Type> n = itemTable[i - 1].first(); n != null; n = n.next) {
+                    buf = buf.append(n.item.toStringLong() + "\n ");
+                }
+            }
+        }
+		buf.append(">>>> end of Bag").append( getClass().getSimpleName() );
+        return buf.toString();
+    }
+    
+    String showSizes() {
+        StringBuilder buf = new StringBuilder(" ");
+    	int levels = 0;
+    	for ( LinkedLevel<Type> items : itemTable) {
+            if ((items != null) && ! items.isEmpty()) {
+				levels++;
+				buf.append( items.size() ).append( " " );
+            }
+		}
+    	return "Levels: " + Integer.toString( levels ) + ", sizes: " + buf;
+    }
+    
+    public int size() { 
+        return nameTable.size();
+    }
+
+    /**
+     * @return The sum of the occupied levels, the average priority times the size and the amount of levels
+     */
+    int mass() {
+        return mass;
+    }
+
+    @Override
+    public Iterator<Type> iterator() {
+        return Iterators.transform(nameTable.values().iterator(), n -> n.item);
+    }
+
+    /**
+     * Write the items level by level instead of the linked nodes,
+     * whose serialization would recurse along each level
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        if (nameTable == null) { // the tables are replaced by a subclass
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(nameTable.size());
+        for (final LinkedLevel<Type> level : itemTable) {
+            for (Node<Type> n = level.first(); n != null; n = n.next) {
+                out.writeInt(level.level);
+                out.writeObject(n.item);
+            }
+        }
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int size = in.readInt();
+        if (size < 0) {
+            return;
+        }
+        itemTable = new LinkedLevel[TOTAL_LEVEL];
+        for (int i = 0; i < TOTAL_LEVEL; i++) {
+            itemTable[i] = new LinkedLevel<>(i);
+        }
+        nameTable = new LinkedHashMap<K, Node<Type>>();
+        for (int i = 0; i < size; i++) {
+            final int level = in.readInt();
+            final Node<Type> node = new Node<>((Type) in.readObject());
+            itemTable[level].addLast(node);
+            nameTable.put(node.item.name(), node);
+        }
+    }
+}
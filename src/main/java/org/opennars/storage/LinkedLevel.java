@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+/**
+ * FIFO queue of the items of one bag level
+ * <p>
+ * The bag keeps the node of every item in its name table, so an item can be
+ * appended, removed and taken from the front in constant time.
+ * Not serializable, bags write their items instead.
+ */
+final class LinkedLevel<E> {
+
+    /** Holder of one item, linked into at most one level at a time */
+    static final class Node<E> {
+        final E item;
+        /** level this node is linked into, null if it is in none, read by ConcurrentBag without holding the level */
+        volatile LinkedLevel<E> owner;
+        Node<E> prev, next;
+
+        Node(final E item) {
+            this.item = item;
+        }
+    }
+
+    /** priority level of this queue */
+    final int level;
+    private Node<E> first, last;
+    private int size;
+
+    LinkedLevel(final int level) {
+        this.level = level;
+    }
+
+    boolean isEmpty() {
+        return first == null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Node<E> first() {
+        return first;
+    }
+
+    void addLast(final Node<E> node) {
+        node.owner = this;
+        node.prev = last;
+        node.next = null;
+        if (last == null) {
+            first = node;
+        } else {
+            last.next = node;
+        }
+        last = node;
+        size++;
+    }
+
+    /**
+     * @return the first node, or null if the level is empty
+     */
+    Node<E> removeFirst() {
+        final Node<E> node = first;
+        if (node != null) {
+            remove(node);
+        }
+        return node;
+    }
+
+    /**
+     * @param node a node linked into this level
+     */
+    void remove(final Node<E> node) {
+        if (node.prev == null) {
+            first = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            last = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.owner = null;
+        node.prev = node.next = null;
+        size--;
+    }
+
+    void clear() {
+        for (Node<E> node = first; node != null; ) {
+            final Node<E> next = node.next;
+            node.owner = null;
+            node.prev = node.next = null;
+            node = next;
+        }
+        first = last = null;
+        size = 0;
+    }
+}
@@ -25,10 +25,12 @@ package org.opennars.storage;
  
 import org.opennars.control.concept.ProcessTask;
 import org.opennars.control.DerivationContext;
+import org.opennars.control.DerivationFilter;
 import org.opennars.control.GeneralInferenceControl;
 import org.opennars.control.TemporalInferenceControl;
 import org.opennars.entity.*;
 import org.opennars.inference.BudgetFunctions;
+import org.opennars.inference.RuleProfile;
 import org.opennars.interfaces.Resettable;
 import org.opennars.interfaces.Timable;
 import org.opennars.io.Symbols;
@@ -44,6 +46,8 @@ import org.opennars.language.CompoundTerm;
 import org.opennars.language.Interval;
 import org.opennars.language.Tense;
 import org.opennars.language.Term;
+import org.opennars.language.TermIndex;
+import org.opennars.language.UnificationCache;
 import org.opennars.main.Nar;
 import org.opennars.main.Parameters;
 import org.opennars.operator.Operation;
@@ -51,7 +55,9 @@ import org.opennars.operator.Operator;
 import org.opennars.plugin.mental.Emotions;
 import org.opennars.main.Debug;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Paths;
 import java.util.*;
 import org.opennars.entity.Stamp.BaseEntry;
 
@@ -83,11 +89,24 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     public Task lastDecision = null;
     public boolean allowExecution = true;
 
+    /* amount of cycles since the last reset, the clock of lazily forgetting bags */
+    private long cycleTime = 0;
+
     public final long randomSeed = 1;
     public final Random randomNumber = new Random(randomSeed);
     
     //todo make sense of this class and de-obfuscate
     public final Bag<Concept,Term> concepts;
+    /* long-term memory of displaced concepts, opened on first use, null if disabled */
+    private transient volatile ConceptStore conceptStore;
+    /* counters of the inference rules */
+    public final RuleProfile ruleProfile = new RuleProfile();
+    /* recently derived sentences, to drop their repeats */
+    public final DerivationFilter derivationFilter;
+    /* results of the unifications of this reasoner, sized by UNIFICATION_CACHE_SIZE, see Variables.unify */
+    public final UnificationCache unificationCache;
+    /* terms of the concepts, to find the concepts which may unify with a term */
+    private final TermIndex conceptTerms = new TermIndex();
     public transient EventEmitter event;
     
     /* InnateOperator registry. Containing all registered operators of the system */
@@ -123,14 +142,24 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         this.recent_operations = recent_operations;
         this.seq_current = seq_current;
         this.operators = new LinkedHashMap<>();
+        this.unificationCache = new UnificationCache(narParameters.UNIFICATION_CACHE_SIZE);
+        this.derivationFilter = new DerivationFilter(narParameters.DERIVATION_FILTER_SIZE);
         reset();
     }
     
     public void reset() {
         event.emit(ResetStart.class);
-        synchronized (concepts) {
+        synchronized (concepts.lockFor(null)) {
             concepts.clear();
         }
+        conceptTerms.clear();
+        ruleProfile.clear();
+        derivationFilter.clear();
+        unificationCache.setCapacity(narParameters.UNIFICATION_CACHE_SIZE);
+        final ConceptStore store = conceptStore;
+        if (store != null) {
+            store.clear();
+        }
         synchronized (tasksMutex) {
             novelTasks.clear();
         }
@@ -141,6 +170,7 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
             emotion.resetEmotions();
         }
         this.lastDecision = null;
+        this.cycleTime = 0;
         randomNumber.setSeed(randomSeed);
         event.emit(ResetEnd.class);
     }
@@ -155,8 +185,9 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      * @return a Concept or null
      */
     public Concept concept(final Term t) {
-        synchronized (concepts) {
-            return concepts.get(CompoundTerm.replaceIntervals(t));
+        final Term term = CompoundTerm.replaceIntervals(t);
+        synchronized (concepts.lockFor(term)) {
+            return concepts.get(term);
         }
     }
 
@@ -169,7 +200,8 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
      * 
      * If failed to insert as a result of null bag, returns null
      *
-     * A displaced Concept resulting from insert is forgotten (but may be stored in optional  subconcept memory
+     * A displaced Concept resulting from insert is forgotten, or moved into the ConceptStore if one is configured,
+     * from where it is reloaded by the next conceptualization of its term
      * 
      * @param term indicating the concept
      * @return an existing Concept, or a new one, or null 
@@ -183,8 +215,14 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
         final Concept displaced;
         Concept concept;
 
-        synchronized (concepts) {
+        synchronized (concepts.lockFor(term)) {
             concept = concepts.pickOut(term);
+            final boolean added = concept == null;
+            final ConceptStore store = getConceptStore();
+            if (concept == null && store != null) {
+                //see if concept was moved into long-term memory
+                concept = store.load(term, this);
+            }
 
             //see if concept is active
             if (concept == null) {
@@ -194,6 +232,7 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
                 //    memory.logic.CONCEPT_NEW.commit(term.getComplexity());
                 emit(Events.ConceptNew.class, concept);
             }
+
             else if (concept!=null) {
                 //apply budget to existing concept
                 //memory.logic.CONCEPT_ACTIVATE.commit(term.getComplexity());
@@ -204,6 +243,9 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
                 return null;
             }
 
+            if (added) {
+                conceptTerms.add(term);
+            }
             displaced = concepts.putBack(concept, cycles(narParameters.CONCEPT_FORGET_DURATIONS), this);
         }
 
@@ -221,6 +263,28 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
             return concept;
         }
     }
+
+    /**
+     * Get the long-term memory of displaced concepts
+     *
+     * @return the store, or null if CONCEPT_STORE_FILE is empty
+     */
+    public ConceptStore getConceptStore() {
+        ConceptStore store = conceptStore;
+        if (store == null && !narParameters.CONCEPT_STORE_FILE.isEmpty()) {
+            synchronized (this) { //only until the store is opened
+                store = conceptStore;
+                if (store == null) {
+                    try {
+                        conceptStore = store = new ConceptStore(Paths.get(narParameters.CONCEPT_STORE_FILE));
+                    } catch (final IOException e) {
+                        throw new IllegalStateException("Concept store " + narParameters.CONCEPT_STORE_FILE + " can not be opened", e);
+                    }
+                }
+            }
+        }
+        return store;
+    }
     
     /* ---------- new task entries ---------- */
     /**
@@ -343,20 +407,46 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     }
     
     public void conceptRemoved(final Concept c) {
+        synchronized (concepts.lockFor(c.getTerm())) {
+            if (concepts.get(c.getTerm()) == null) { //not conceptualized again meanwhile
+                conceptTerms.remove(c.getTerm());
+            }
+        }
+        final ConceptStore store = getConceptStore();
+        if (store != null) {
+            store.save(c, this);
+        }
         emit(Events.ConceptForget.class, c);
     }
     
+    /**
+     * Find the concepts whose terms may unify with a term, without visiting the other concepts
+     *
+     * @param term The term, usually with variables
+     * @param type The type of the variables of the term which can be substituted
+     * @return Terms of the concepts, a superset of those which unify with the term
+     */
+    public List<Term> unifiableConceptTerms(final Term term, final char type) {
+        return conceptTerms.unifiable(CompoundTerm.replaceIntervals(term), type);
+    }
+
     public void cycle(final Nar nar) {
     
         event.emit(Events.CycleStart.class);
-        for(int i=0; i<nar.narParameters.NOVEL_TASK_BAG_SELECTIONS; i++) {
-            this.processNovelTask(nar.narParameters, nar);
-        }
+        this.processNovelTasks(nar.narParameters.NOVEL_TASK_BAG_SELECTIONS, nar.narParameters, nar);
     //if(noResult()) //newTasks empty
         GeneralInferenceControl.selectConceptForInference(this, nar.narParameters, nar);
         
         event.emit(Events.CycleEnd.class);
         event.synch();
+        cycleTime++;
+    }
+
+    /**
+     * @return amount of cycles since the last reset, independent of the clock of the Reasoner
+     */
+    public long getCycleTime() {
+        return cycleTime;
     }
 
     /**
@@ -388,15 +478,20 @@ public class Memory implements Serializable, Iterable<Concept>, Resettable {
     }
 
     /**
-     * Select a novel task to process
+     * Select and process up to n novel tasks under one lock,
+     * one after the other, as processing a task may add novel tasks which compete with the rest
      *
+     * @param n maximum amount of tasks to process
      * @param narParameters parameters for the Reasoner instance
      * @param time indirection to retrieve time
      */
-    public void processNovelTask(Parameters narParameters, final Timable time) {
+    public void processNovelTasks(final int n, Parameters narParameters, final Timable time) {
         synchronized (tasksMutex) {
-            final Task task = novelTasks.takeOut();
-            if (task != null) {            
+            for (int i = 0; i < n; i++) {
+                final Task task = novelTasks.takeOut();
+                if (task == null) {
+                    break;
+                }
                 localInference(task, narParameters, time);
             }
         }
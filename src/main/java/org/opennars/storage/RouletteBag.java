@@ -0,0 +1,341 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import com.google.common.collect.Iterators;
+import org.opennars.entity.Item;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.main.Parameters;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Bag which takes out items exactly in proportion to their priority
+ * <p>
+ * The priorities are summed up in a binary indexed (Fenwick) tree, so an item is sampled,
+ * put in or removed in O(log n), independent of any level quantization.
+ * A min-heap over the same priorities finds the item which is dropped when the bag is full.
+ * The priority of an item is read when it is put in.
+ */
+public class RouletteBag<Type extends Item<K>,K> implements Bag<Type,K> {
+
+    /** seed of the selection, so that runs are reproducible */
+    private static final long RANDOM_SEED = 1;
+
+    /** defined in different bags */
+    private final int capacity;
+    /** highest power of two not above capacity, where the tree descent starts */
+    private final int topBit;
+    /** mapping from key to the slot of the item */
+    private HashMap<K, Slot<Type>> nameTable;
+    /** occupied slots, packed into [0, size) */
+    private Slot<Type>[] slots;
+    /** binary indexed tree over the weights of the slots, 1-based */
+    private double[] tree;
+    /** binary min-heap of the slots by weight, packed into [0, size) */
+    private Slot<Type>[] heap;
+    /** amount of items */
+    private int size;
+    private final Random random = new Random(RANDOM_SEED);
+
+    /** Item with its priority at insertion and its positions in the tables */
+    private static final class Slot<E> implements Serializable {
+        final E item;
+        final double weight;
+        int index;
+        int heapIndex;
+
+        Slot(final E item, final double weight) {
+            this.item = item;
+            this.weight = weight;
+        }
+    }
+
+    /** levels are ignored, the constructor matches the other bags for {@link BagFactory} */
+    public RouletteBag(final int levels, final int capacity, final Parameters narParameters) {
+        this(capacity);
+    }
+
+    public RouletteBag(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("the capacity of a bag can not be negative");
+        }
+        this.capacity = capacity;
+        this.topBit = Integer.highestOneBit(Math.max(capacity, 1));
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        nameTable = new HashMap<>();
+        slots = new Slot[capacity];
+        heap = new Slot[capacity];
+        tree = new double[capacity + 1];
+        size = 0;
+        random.setSeed(RANDOM_SEED);
+    }
+
+    @Override
+    public float getAveragePriority() {
+        if (size == 0) {
+            return 0.01f;
+        }
+        final float f = (float) (totalWeight() / size);
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    @Override
+    public boolean contains(final Type it) {
+        return nameTable.containsKey(it.name());
+    }
+
+    @Override
+    public Type get(final K key) {
+        final Slot<Type> slot = nameTable.get(key);
+        return slot == null ? null : slot.item;
+    }
+
+    /**
+     * This bag is not thread-safe, so all callers share the bag itself
+     */
+    @Override
+    public Object lockFor(final K key) {
+        return this;
+    }
+
+    @Override
+    public Type putIn(final Type newItem) {
+        final K newKey = newItem.name();
+        final Slot<Type> oldSlot = nameTable.get(newKey);
+        if (oldSlot != null) {                  // merge duplications
+            remove(oldSlot);
+            newItem.merge(oldSlot.item);
+        }
+        final Slot<Type> newSlot = new Slot<>(newItem, newItem.getPriority());
+        Type overflow = null;
+        if (size == capacity) {                 // the bag is full
+            if (size == 0) {                    // a bag without capacity keeps nothing
+                return newItem;
+            }
+            final Slot<Type> lowest = heap[0];
+            if (lowest.weight > newSlot.weight) { // ignore the item and exit
+                return newItem;
+            }
+            remove(lowest);                     // remove the item with the lowest priority
+            nameTable.remove(lowest.item.name());
+            overflow = lowest.item;
+        }
+        nameTable.put(newKey, newSlot);
+        add(newSlot);
+        return overflow;
+    }
+
+    @Override
+    public Type putBack(final Type oldItem, final float forgetCycles, final Memory m) {
+        final float relativeThreshold = m.narParameters.FORGET_QUALITY_RELATIVE;
+        BudgetFunctions.applyForgetting(oldItem.budget, forgetCycles, relativeThreshold);
+        return putIn(oldItem);
+    }
+
+    /**
+     * Take out an Item with a probability proportional to its priority,
+     * items of zero priority are only chosen if all items have zero priority
+     *
+     * @return The selected Item, or null if the bag is empty
+     */
+    @Override
+    public Type takeOut() {
+        if (size == 0) {
+            return null;
+        }
+        final double total = totalWeight();
+        final int index;
+        if (total > 0) {
+            index = Math.min(find(random.nextDouble() * total), size - 1); // rounding can overshoot
+        } else {
+            index = random.nextInt(size);
+        }
+        final Slot<Type> selected = slots[index];
+        remove(selected);
+        nameTable.remove(selected.item.name());
+        return selected.item;
+    }
+
+    @Override
+    public Type pickOut(final K key) {
+        final Slot<Type> picked = nameTable.remove(key);
+        if (picked != null) {
+            remove(picked);
+            return picked.item;
+        }
+        return null;
+    }
+
+    @Override
+    public Type pickOut(final Type val) {
+        return pickOut(val.name());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Type> iterator() {
+        return Iterators.transform(nameTable.values().iterator(), s -> s.item);
+    }
+
+    private void add(final Slot<Type> slot) {
+        slot.index = size;
+        slots[size] = slot;
+        slot.heapIndex = size;
+        heap[size] = slot;
+        size++;
+        update(slot.index, slot.weight);
+        siftUp(slot.heapIndex);
+    }
+
+    /**
+     * Remove a slot from the tables, the last slot takes its place
+     * @param slot The slot to remove
+     */
+    private void remove(final Slot<Type> slot) {
+        size--;
+        final Slot<Type> lastInHeap = heap[size];
+        heap[size] = null;
+        if (lastInHeap != slot) {
+            heap[slot.heapIndex] = lastInHeap;
+            lastInHeap.heapIndex = slot.heapIndex;
+            siftDown(lastInHeap.heapIndex);
+            siftUp(lastInHeap.heapIndex);
+        }
+        update(slot.index, -slot.weight);
+        final Slot<Type> last = slots[size];
+        slots[size] = null;
+        if (last != slot) {
+            update(last.index, -last.weight);
+            last.index = slot.index;
+            slots[last.index] = last;
+            update(last.index, last.weight);
+        }
+        if (size == 0) {
+            Arrays.fill(tree, 0); // drop accumulated rounding errors
+        }
+    }
+
+    /** add delta to the weight of the slot at index */
+    private void update(final int index, final double delta) {
+        for (int i = index + 1; i <= capacity; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private double totalWeight() {
+        double sum = 0;
+        for (int i = size; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @param target A value in [0, total weight)
+     * @return the smallest index whose prefix sum of weights exceeds target
+     */
+    private int find(double target) {
+        int pos = 0;
+        for (int bit = topBit; bit > 0; bit >>= 1) {
+            final int next = pos + bit;
+            if (next <= capacity && tree[next] <= target) {
+                pos = next;
+                target -= tree[next];
+            }
+        }
+        return pos;
+    }
+
+    private void siftUp(int i) {
+        final Slot<Type> slot = heap[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (heap[parent].weight <= slot.weight) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heap[i].heapIndex = i;
+            i = parent;
+        }
+        heap[i] = slot;
+        slot.heapIndex = i;
+    }
+
+    private void siftDown(int i) {
+        final Slot<Type> slot = heap[i];
+        for (;;) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].weight < heap[child].weight) {
+                child++;
+            }
+            if (slot.weight <= heap[child].weight) {
+                break;
+            }
+            heap[i] = heap[child];
+            heap[i].heapIndex = i;
+            i = child;
+        }
+        heap[i] = slot;
+        slot.heapIndex = i;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder(" ");
+        for (int i = 0; i < size; i++) {
+            buf.append(slots[i].item.toString()).append("\n ");
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String toStringLong() {
+        final StringBuilder buf = new StringBuilder(" BAG " + getClass().getSimpleName());
+        buf.append(" size: ").append(size).append("\n ");
+        for (int i = 0; i < size; i++) {
+            buf.append(slots[i].item.toStringLong()).append("\n ");
+        }
+        buf.append(">>>> end of Bag").append(getClass().getSimpleName());
+        return buf.toString();
+    }
+}
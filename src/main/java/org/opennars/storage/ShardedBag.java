@@ -0,0 +1,334 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.storage;
+
+import org.opennars.entity.Item;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.main.Parameters;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Bag which partitions its items by key hash into independent level bags
+ * <p>
+ * Every shard is its own monitor and keeps its own Distributor cursor,
+ * so operations on keys of different shards do not contend.
+ * takeOut visits the shards in a smooth weighted round-robin, weighted by the mass of each shard,
+ * and then takes out of the chosen shard by its own distribution.
+ * <p>
+ * The shards share the capacity, so no item is dropped before the bag as a whole is full,
+ * however unevenly the keys are spread. When it is full, a new item replaces the first item
+ * in the lowest level of its own shard, as the shards of other keys can not be locked without
+ * risking a deadlock with the callers holding them.
+ */
+public class ShardedBag<Type extends Item<K>,K> implements Bag<Type,K> {
+
+    /** the shards, each one is the monitor of its items */
+    private final LevelBag<Type,K>[] shards;
+    /** accumulated weight of each shard in the round-robin, guarded by itself */
+    private final float[] credit;
+    /** maximum amount of items of all shards */
+    private final int capacity;
+    /** priority levels of each shard */
+    private final int levels;
+    /** amount of items of all shards, reserved before an item is added */
+    private final AtomicInteger size = new AtomicInteger();
+    /** mass of each shard, stored while holding the shard so it can be read without it */
+    private final AtomicIntegerArray masses;
+
+    public ShardedBag(final int levels, final int capacity, final Parameters narParameters) {
+        this(levels, capacity, narParameters.CONCEPT_BAG_SHARDS, narParameters);
+    }
+
+    /**
+     * @param levels Amount of priority levels of each shard
+     * @param capacity Maximum amount of items, shared by the shards
+     * @param shardCount Amount of shards
+     * @param narParameters parameters of the Reasoner
+     */
+    public ShardedBag(final int levels, final int capacity, final int shardCount, final Parameters narParameters) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("a sharded bag needs at least one shard");
+        }
+        this.capacity = capacity;
+        this.levels = levels;
+        shards = new LevelBag[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LevelBag<>(levels, capacity, narParameters); // never full on its own
+        }
+        credit = new float[shardCount];
+        masses = new AtomicIntegerArray(shardCount);
+    }
+
+    private int shardIndex(final K key) {
+        final int h = key.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % shards.length;
+    }
+
+    private LevelBag<Type,K> shardFor(final K key) {
+        return shards[shardIndex(key)];
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < shards.length; i++) {
+            final LevelBag<Type,K> shard = shards[i];
+            synchronized (shard) {
+                size.addAndGet(-shard.size());
+                shard.clear();
+                masses.set(i, 0);
+            }
+        }
+    }
+
+    @Override
+    public float getAveragePriority() {
+        final int items = size.get();
+        if (items <= 0) {
+            return 0.01f;
+        }
+        long mass = 0;
+        for (int i = 0; i < shards.length; i++) {
+            mass += masses.get(i);
+        }
+        return Math.min(1.0f, (float) mass / ((long) items * levels));
+    }
+
+    @Override
+    public boolean contains(final Type it) {
+        final LevelBag<Type,K> shard = shardFor(it.name());
+        synchronized (shard) {
+            return shard.contains(it);
+        }
+    }
+
+    @Override
+    public Type get(final K key) {
+        final LevelBag<Type,K> shard = shardFor(key);
+        synchronized (shard) {
+            return shard.get(key);
+        }
+    }
+
+    /**
+     * Get the monitor to hold while doing a compound operation on an item
+     * <p>
+     * The bag itself is thread-safe, so only operations on the same shard exclude each other
+     *
+     * @param key The key of the Item, null for operations like takeOut which are not bound to a key
+     * @return The monitor to synchronize on
+     */
+    @Override
+    public Object lockFor(final K key) {
+        return key == null ? credit : shardFor(key);
+    }
+
+    /**
+     * Add a new Item into its shard, replacing the lowest Item of the shard if the bag is full
+     *
+     * @param newItem The new Item
+     * @return The overflow Item which was removed, or null if none removed
+     */
+    @Override
+    public Type putIn(final Type newItem) {
+        final int i = shardIndex(newItem.name());
+        final LevelBag<Type,K> shard = shards[i];
+        synchronized (shard) {
+            final Type overflow;
+            if (shard.get(newItem.name()) != null || reserve()) { // merged, or added into reserved room
+                overflow = shard.putIn(newItem);
+            } else {
+                overflow = shard.putInReplacingLowest(newItem);
+            }
+            masses.set(i, shard.mass());
+            return overflow;
+        }
+    }
+
+    /**
+     * Reserve the room for a new item
+     *
+     * @return Whether the bag was not full
+     */
+    private boolean reserve() {
+        while (true) {
+            final int items = size.get();
+            if (items >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(items, items + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Type putBack(final Type oldItem, final float forgetCycles, final Memory m) {
+        final LevelBag<Type,K> shard = shardFor(oldItem.name());
+        synchronized (shard) {
+            BudgetFunctions.applyForgetting(oldItem.budget, forgetCycles, m.narParameters.FORGET_QUALITY_RELATIVE);
+            return putIn(oldItem);
+        }
+    }
+
+    /**
+     * Choose a shard by its mass, then take an Item out of it by its priority distribution
+     *
+     * @return The selected Item, or null if the bag is empty
+     */
+    @Override
+    public Type takeOut() {
+        for (int attempt = 0; attempt < shards.length; attempt++) {
+            final int i = nextShard();
+            if (i < 0) {
+                return null;
+            }
+            final LevelBag<Type,K> shard = shards[i];
+            final Type selected;
+            synchronized (shard) {
+                selected = shard.takeOut();
+                removed(i, shard, selected);
+            }
+            if (selected != null) {
+                return selected;
+            }
+        }
+        return null;                            // emptied by other threads meanwhile
+    }
+
+    /**
+     * Smooth weighted round-robin: every shard gains its mass as credit,
+     * the one with most credit is chosen and pays the total mass
+     *
+     * @return The index of the chosen shard, or -1 if all shards are empty
+     */
+    private int nextShard() {
+        synchronized (credit) {
+            float total = 0;
+            int best = -1;
+            for (int i = 0; i < shards.length; i++) {
+                final int mass = masses.get(i);
+                if (mass <= 0) {
+                    continue;
+                }
+                credit[i] += mass;
+                total += mass;
+                if (best < 0 || credit[i] > credit[best]) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            credit[best] -= total;
+            return best;
+        }
+    }
+
+    /**
+     * Update the counters after an Item was taken out of a shard, while holding the shard
+     *
+     * @param i The index of the shard
+     * @param shard The shard
+     * @param item The removed Item, or null if none was removed
+     */
+    private void removed(final int i, final LevelBag<Type,K> shard, final Type item) {
+        if (item != null) {
+            size.decrementAndGet();
+        }
+        masses.set(i, shard.mass());
+    }
+
+    @Override
+    public Type pickOut(final K key) {
+        final int i = shardIndex(key);
+        final LevelBag<Type,K> shard = shards[i];
+        synchronized (shard) {
+            final Type picked = shard.pickOut(key);
+            removed(i, shard, picked);
+            return picked;
+        }
+    }
+
+    @Override
+    public Type pickOut(final Type val) {
+        return pickOut(val.name());
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Iterate the shards one after another, not thread-safe like the iterators of the shards
+     */
+    @Override
+    public Iterator<Type> iterator() {
+        return new Iterator<Type>() {
+            private int shard = 0;
+            private Iterator<Type> current = shards[0].iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (++shard == shards.length) {
+                        return false;
+                    }
+                    current = shards[shard].iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Type next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < shards.length; i++) {
+            buf.append(" === Shard ").append(i).append(':').append(shards[i]);
+        }
+        return buf.toString();
+    }
+
+    @Override
+    public String toStringLong() {
+        final StringBuilder buf = new StringBuilder(" BAG " + getClass().getSimpleName());
+        for (int i = 0; i < shards.length; i++) {
+            buf.append("\n === SHARD ").append(i).append(':').append(shards[i].toStringLong());
+        }
+        return buf.toString();
+    }
+}
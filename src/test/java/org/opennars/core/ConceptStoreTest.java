@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Concept;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.storage.ConceptStore;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the long-term memory of concepts displaced from the concept bag
+ */
+public class ConceptStoreTest {
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.cycles(1);
+        final Concept c = nar.concept("<a --> b>");
+        final File file = File.createTempFile("concepts", ".store");
+        file.deleteOnExit();
+        try (final ConceptStore store = new ConceptStore(file.toPath())) {
+            assertTrue(store.save(c, nar.memory));
+            assertTrue(store.contains(c.getTerm()));
+            final Concept loaded = store.load(c.getTerm(), nar.memory);
+            assertFalse(store.contains(c.getTerm()));
+            assertTrue(loaded.memory == nar.memory);
+            assertSame(c.getTerm(), loaded.getTerm());
+            assertEquals(c.beliefs.size(), loaded.beliefs.size());
+            assertEquals(c.beliefs.get(0).sentence, loaded.beliefs.get(0).sentence);
+        }
+    }
+
+    @Test
+    public void testReplacedRecordsAreReclaimed() throws Exception {
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.cycles(1);
+        final Concept ab = nar.concept("<a --> b>");
+        final Concept bc = nar.concept("<b --> c>");
+        final File file = File.createTempFile("concepts", ".store");
+        file.deleteOnExit();
+        try (final ConceptStore store = new ConceptStore(file.toPath())) {
+            assertTrue(store.save(ab, nar.memory));
+            final int record = store.usedBytes();
+            assertTrue(store.save(bc, nar.memory));
+            for (int i = 0; i < (8 << 20) / record; i++) { //8 MB of records, all but the last replaced
+                assertTrue(store.save(ab, nar.memory));
+            }
+            assertTrue(store.usedBytes() <= 1 << 20); //never grown beyond the first mapping
+            assertEquals(2, store.size());
+            assertEquals(ab.beliefs.get(0).sentence, store.load(ab.getTerm(), nar.memory).beliefs.get(0).sentence);
+            assertEquals(bc.beliefs.get(0).sentence, store.load(bc.getTerm(), nar.memory).beliefs.get(0).sentence);
+        }
+    }
+
+    @Test
+    public void testDisplacedConceptIsReloaded() throws Exception {
+        final File file = File.createTempFile("concepts", ".store");
+        file.deleteOnExit();
+        final Map<String, Object> overrides = new HashMap<>();
+        overrides.put("CONCEPT_BAG_SIZE", 1);
+        overrides.put("CONCEPT_STORE_FILE", file.getPath());
+        final Nar nar = new Nar(overrides);
+        final Term a = new Term("a");
+        final Term b = new Term("b");
+        final Concept ca = nar.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), a);
+        ca.observable = true;
+        nar.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), b);
+        final ConceptStore store = nar.memory.getConceptStore();
+        assertTrue(store.contains(a));
+        assertTrue(nar.memory.concept(a) == null);
+        final Concept reloaded = nar.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f, nar.narParameters), a);
+        assertTrue(reloaded.observable);
+        assertFalse(store.contains(a));
+        assertTrue(store.contains(b));
+        nar.reset();
+        assertEquals(0, store.size());
+    }
+}
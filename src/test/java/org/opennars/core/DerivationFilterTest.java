@@ -0,0 +1,114 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.control.DerivationFilter;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.TruthValue;
+import org.opennars.io.Symbols;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.OutputHandler;
+import org.opennars.language.Tense;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the filter of repeated derivations
+ */
+public class DerivationFilterTest {
+
+    @Test
+    public void testRepeats() throws Exception {
+        final Nar nar = new Nar();
+        final Stamp stamp = new Stamp(nar, nar.memory, Tense.Eternal);
+        final Sentence s = new Sentence(new Term("a"), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.9, nar.narParameters), stamp);
+        final Sentence close = new Sentence(new Term("a"), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.901, nar.narParameters), stamp);
+        final Sentence other = new Sentence(new Term("a"), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.5, nar.narParameters), stamp);
+        final DerivationFilter filter = new DerivationFilter(4);
+        assertFalse(filter.isRepeated(s, 0.01f, 5));
+        assertTrue(filter.isRepeated(close, 0.01f, 5));
+        assertFalse(filter.isRepeated(other, 0.01f, 5));
+        assertEquals(1.0 / 3, filter.hitRate(), 1e-9);
+        for (int i = 0; i < 4; i++) {
+            filter.isRepeated(new Sentence(new Term("b" + i), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.9, nar.narParameters), stamp), 0.01f, 5);
+        }
+        assertFalse(filter.isRepeated(s, 0.01f, 5)); //forgotten after capacity derivations
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        final Nar nar = new Nar();
+        assertFalse(nar.memory.derivationFilter.isEnabled());
+        final Map<String, Object> overrides = new HashMap<>();
+        overrides.put("DERIVATION_FILTER_SIZE", 1000);
+        final Nar filtered = new Nar(overrides);
+        filtered.addInput("<a --> b>.");
+        filtered.addInput("<b --> c>.");
+        filtered.addInput("<c --> d>.");
+        filtered.cycles(100);
+        assertTrue(filtered.memory.derivationFilter.misses.sum() > 0);
+    }
+
+    /** sentences from different inputs are not repeats of each other */
+    @Test
+    public void testEvidentialBases() throws Exception {
+        final Nar nar = new Nar();
+        final Stamp first = new Stamp(nar, nar.memory, Tense.Eternal);
+        final Stamp second = new Stamp(nar, nar.memory, Tense.Eternal);
+        final DerivationFilter filter = new DerivationFilter(4);
+        assertFalse(filter.isRepeated(new Sentence(new Term("a"), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.9, nar.narParameters), first), 0.01f, 5));
+        assertFalse(filter.isRepeated(new Sentence(new Term("a"), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.9, nar.narParameters), second), 0.01f, 5));
+        assertTrue(filter.isRepeated(new Sentence(new Term("a"), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.9, nar.narParameters), new Stamp(first, 0)), 0.01f, 5));
+    }
+
+    @Test
+    public void testProfileCommand() throws Exception {
+        final Map<String, Object> overrides = new HashMap<>();
+        overrides.put("DERIVATION_FILTER_SIZE", 1000);
+        final Nar nar = new Nar(overrides);
+        final List<String> echoed = new ArrayList<>();
+        nar.on(OutputHandler.ECHO.class, (EventObserver) (event, args) -> echoed.add(String.valueOf(args[0])));
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.cycles(100);
+        nar.addInput("*profile=csv");
+        assertEquals(2, echoed.size());
+        assertTrue(echoed.get(1).startsWith("derivation_filter_hits,"));
+        nar.addInput("*profile=json");
+        assertTrue(echoed.get(3).startsWith("{\"derivationFilter\":{\"hits\":"));
+        nar.addInput("*profile=clear");
+        assertEquals(0, nar.memory.derivationFilter.misses.sum());
+    }
+}
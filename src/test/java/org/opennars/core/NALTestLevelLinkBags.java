@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.core;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.opennars.main.Nar;
+import org.opennars.storage.LevelBag;
+import org.opennars.util.io.ExampleFileInput;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.text.ParseException;
+import java.util.Collection;
+
+
+/**
+ * runs the multi step test cases with LevelBag task and term link bags instead of the configured ones,
+ * so a change of the reasoning can not be hidden by the order in which the link bags select their items
+ */
+@RunWith(Parameterized.class)
+public class NALTestLevelLinkBags extends NALTest {
+
+    @Parameterized.Parameters
+    public static Collection params() {
+        return ExampleFileInput.getUnitTests(new String[] {"/nal/multi_step/"}).values();
+    }
+
+    public NALTestLevelLinkBags(final String scriptPath) {
+        super(scriptPath);
+    }
+
+    @Override
+    public Nar newNAR() throws IOException, InstantiationException, InvocationTargetException, NoSuchMethodException, ParserConfigurationException, IllegalAccessException, SAXException, ClassNotFoundException, ParseException {
+        final Nar nar = new Nar();
+        nar.narParameters.TASK_LINK_BAG_TYPE = LevelBag.class.getName();
+        nar.narParameters.TERM_LINK_BAG_TYPE = LevelBag.class.getName();
+        return nar;
+    }
+}
@@ -0,0 +1,100 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.Sentence;
+import org.opennars.entity.Stamp;
+import org.opennars.entity.TruthValue;
+import org.opennars.io.Symbols;
+import org.opennars.language.Tense;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that projections from the cache are identical to freshly computed ones and not shared
+ */
+public class ProjectionCacheTest {
+
+    private static Sentence event(final Nar nar, final long occurrenceTime) {
+        final Stamp stamp = new Stamp(nar, nar.memory, Tense.Present);
+        stamp.setOccurrenceTime(occurrenceTime);
+        return new Sentence(new Term("a"), Symbols.JUDGMENT_MARK, new TruthValue(1.0f, 0.9, nar.narParameters), stamp);
+    }
+
+    private static void assertProjection(final Nar nar, final Sentence s, final long targetTime, final long currentTime) {
+        final Sentence cached = s.projection(targetTime, currentTime, nar.memory);
+        final int size = nar.narParameters.PROJECTION_CACHE_SIZE;
+        nar.narParameters.PROJECTION_CACHE_SIZE = 0;
+        final Sentence expected = s.projection(targetTime, currentTime, nar.memory);
+        nar.narParameters.PROJECTION_CACHE_SIZE = size;
+        assertEquals(expected.truth.getClass(), cached.truth.getClass());
+        assertEquals(expected.truth.getFrequency(), cached.truth.getFrequency(), 0);
+        assertEquals(expected.truth.getConfidence(), cached.truth.getConfidence(), 0);
+        assertEquals(expected.getOccurenceTime(), cached.getOccurenceTime());
+        assertTrue(expected.stamp.equals(cached.stamp, true, true, true));
+    }
+
+    @Test
+    public void testIdenticalResults() throws Exception {
+        final Nar nar = new Nar();
+        final Sentence s = event(nar, 10);
+        for (final long target : new long[] {Stamp.ETERNAL, 0, 10, 12, 100000}) {
+            for (final long current : new long[] {0, 10, 11, 50}) {
+                assertProjection(nar, s, target, current);
+                assertProjection(nar, s, target, current);
+            }
+        }
+    }
+
+    /** every call gets its own sentence, stamp and truth, so a holder can not see the changes of another */
+    @Test
+    public void testResultsAreNotShared() throws Exception {
+        final Nar nar = new Nar();
+        final Sentence s = event(nar, 10);
+        final Sentence first = s.projection(Stamp.ETERNAL, 11, nar.memory);
+        final Sentence second = s.projection(Stamp.ETERNAL, 50, nar.memory); //same truth for any current time
+        assertNotSame(first, second);
+        assertNotSame(first.stamp, second.stamp);
+        assertNotSame(first.truth, second.truth);
+        first.stamp.alreadyAnticipatedNegConfirmation = true;
+        first.discountConfidence(nar.narParameters);
+        assertFalse(s.projection(Stamp.ETERNAL, 11, nar.memory).stamp.alreadyAnticipatedNegConfirmation);
+        assertProjection(nar, s, Stamp.ETERNAL, 11);
+    }
+
+    @Test
+    public void testModifiedSourceIsProjectedAgain() throws Exception {
+        final Nar nar = new Nar();
+        final Sentence s = event(nar, 10);
+        assertProjection(nar, s, 12, 11);
+        s.discountConfidence(nar.narParameters);
+        assertProjection(nar, s, 12, 11);
+    }
+}
@@ -35,6 +35,9 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.text.ParseException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
 /**
  * Tests for interval handling integrity
  *
@@ -50,4 +53,16 @@ public class ReplaceIntervalTest {
         CompoundTerm ct = (CompoundTerm) CompoundTerm.replaceIntervals(ret);
         assert(ct.toString().equals("<(*,{SELF},<{(*,fragmentC,fragmentD)} --> compare>,TRUE) =\\> (*,{SELF},(&/,<{fragmentC} --> mutate>,+1),TRUE)>"));
     }
+
+    @Test
+    public void replaceIvalSharesTest() throws Narsese.InvalidInputException, IOException, InstantiationException, InvocationTargetException, NoSuchMethodException, ParserConfigurationException, IllegalAccessException, SAXException, ClassNotFoundException, ParseException {
+        Nar nar = new Nar();
+        Narsese parser = new Narsese(nar);
+        CompoundTerm ret = (CompoundTerm) parser.parseTerm("<(*,{SELF},<a --> b>) =/> (&/,<c --> d>,+12)>");
+        CompoundTerm ct = (CompoundTerm) CompoundTerm.replaceIntervals(ret);
+        assertEquals("<(*,{SELF},<a --> b>) =/> (&/,<c --> d>,+1)>", ct.toString());
+        assertEquals("<(*,{SELF},<a --> b>) =/> (&/,<c --> d>,+12)>", ret.toString()); //not modified
+        assertSame(ret.term[0], ct.term[0]); //the part without intervals is shared
+        assertSame(ct, CompoundTerm.replaceIntervals(ret));
+    }
 }
@@ -0,0 +1,96 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.inference.RuleProfile;
+import org.opennars.inference.RuleProfile.Counters;
+import org.opennars.inference.RuleTables;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.OutputHandler;
+import org.opennars.main.Nar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the counters of the inference rules
+ */
+public class RuleProfileTest {
+
+    @Test
+    public void testCounters() throws Exception {
+        final Nar nar = new Nar();
+        nar.addInput("<a --> b>.");
+        nar.addInput("<b --> c>.");
+        nar.cycles(50);
+        final Counters syllogisms = nar.memory.ruleProfile.getCounters().get(RuleTables.Rule.SYLLOGISMS.name());
+        assertTrue(syllogisms != null && syllogisms.invocations.sum() > 0);
+        assertTrue(syllogisms.nanos.sum() > 0);
+        assertSame(syllogisms, nar.memory.ruleProfile.of(RuleTables.Rule.SYLLOGISMS));
+        long derived = 0;
+        for (final Counters c : nar.memory.ruleProfile.getCounters().values()) {
+            derived += c.derived.sum();
+        }
+        assertTrue(derived > 0);
+        nar.reset();
+        assertTrue(nar.memory.ruleProfile.getCounters().isEmpty());
+        assertSame(nar.memory.ruleProfile.of(RuleTables.Rule.SYLLOGISMS), nar.memory.ruleProfile.getCounters().get(RuleTables.Rule.SYLLOGISMS.name()));
+    }
+
+    @Test
+    public void testFormats() {
+        final RuleProfile profile = new RuleProfile();
+        final Counters c = profile.of("r");
+        c.invocations.add(2);
+        c.derived.increment();
+        c.reject(RuleProfile.Rejection.WRONG_FORMAT);
+        final String[] lines = profile.toCSV().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(lines[0].split(",").length, lines[1].split(",").length);
+        assertTrue(lines[1].startsWith("r,2,0,1,"));
+        final String json = profile.toJSON();
+        assertTrue(json.startsWith("{\"r\":{\"invocations\":2,\"nanoseconds\":0,\"derived\":1,\"rejected\":{"));
+        assertTrue(json.contains("\"wrong_format\":1"));
+        assertTrue(json.endsWith("}}}"));
+    }
+
+    @Test
+    public void testCommand() throws Exception {
+        final Nar nar = new Nar();
+        final List<String> echoed = new ArrayList<>();
+        nar.on(OutputHandler.ECHO.class, (EventObserver) (event, args) -> echoed.add(String.valueOf(args[0])));
+        nar.addInput("<a --> b>.");
+        nar.cycles(10);
+        nar.addInput("*profile=json");
+        assertEquals(1, echoed.size());
+        assertTrue(echoed.get(0).startsWith("{\""));
+        nar.addInput("*profile=clear");
+        assertTrue(nar.memory.ruleProfile.getCounters().isEmpty());
+    }
+}
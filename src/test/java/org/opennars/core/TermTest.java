@@ -25,26 +25,42 @@ package org.opennars.core;
 
 import org.junit.Test;
 import org.opennars.entity.Concept;
+import org.opennars.inference.TemporalRules;
 import org.opennars.io.Narsese;
+import org.opennars.io.Symbols;
 import org.opennars.io.Symbols.NativeOperator;
 import org.opennars.io.Texts;
 import org.opennars.language.CompoundTerm;
+import org.opennars.language.Conjunction;
 import org.opennars.language.Inheritance;
+import org.opennars.language.Product;
 import org.opennars.language.Statement;
 import org.opennars.language.Term;
+import org.opennars.language.TermCode;
+import org.opennars.language.TermIndex;
+import org.opennars.language.Variables;
 import org.opennars.main.Nar;
 import org.opennars.main.Debug;
 import org.opennars.operator.Operation;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.text.ParseException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.NavigableSet;
 import java.util.TreeSet;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -179,7 +195,152 @@ public class TermTest {
        assertTrue(cterm1.term[0].equals(cterm2.term[0])); //'a'
 
     }
-    
+
+    @Test
+    public void testTermInterning() throws Narsese.InvalidInputException, IOException, InstantiationException, InvocationTargetException, NoSuchMethodException, ParserConfigurationException, IllegalAccessException, SAXException, ClassNotFoundException, ParseException {
+        //equal ground terms of the parser and of the inference rules are the same instance
+        final Term parsed = np.parseTerm("<(*,a,b) --> c>");
+        final Term made = Inheritance.make(Product.make(Term.get("a"), Term.get("b")), Term.get("c"));
+        assertSame(parsed, made);
+        assertSame(parsed, new Narsese(new Nar()).parseTerm("<(*,a,b) --> c>"));
+        assertSame(((CompoundTerm) parsed).term[0], ((CompoundTerm) made).term[0]);
+        assertSame(parsed, ((CompoundTerm) parsed).cloneDeep());
+
+        //terms with variables or intervals are modified in place, so they are not shared
+        final Term withVariable = np.parseTerm("<(*,a,$1) --> c>");
+        assertNotSame(withVariable, np.parseTerm("<(*,a,$1) --> c>"));
+        assertEquals(withVariable, np.parseTerm("<(*,a,$1) --> c>"));
+        final Term withInterval = np.parseTerm("(&/,a,+5,b)");
+        assertNotSame(withInterval, np.parseTerm("(&/,a,+5,b)"));
+    }
+
+    @Test
+    public void testStructuralEquality() throws Narsese.InvalidInputException {
+        //equality and hash follow the names without relying on them
+        final String[] terms = {"<(*,a,$1) --> c>", "(/,r,_,a)", "(/,r,a,_)", "(&/,a,+5,b)", "(&/,a,+6,b)",
+                                "(&|,a,b)", "(&&,a,b)", "<a =/> b>", "<a ==> b>", "(--,<$1 --> b>)"};
+        for (final String s1 : terms) {
+            for (final String s2 : terms) {
+                final Term t1 = np.parseTerm(s1);
+                final Term t2 = np.parseTerm(s2);
+                assertEquals(s1 + " " + s2, t1.name().equals(t2.name()), t1.equals(t2));
+                assertEquals(s1 + " " + s2, t1.equals(t2), t1.compareTo(t2) == 0);
+                if (t1.equals(t2)) {
+                    assertEquals(t1.hashCode(), t2.hashCode());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTermCode() throws Narsese.InvalidInputException, IOException {
+        final String[] terms = {"a", "<(*,a,$1) --> c>", "(/,r,_,a)", "(\\,r,a,_)", "(&/,a,+5,b)", "{a,b,c}",
+                                "<(&&,<$1 --> a>,<#2 --> b>) ==> <$1 --> c>>", "(--,<a <-> b>)", "<(*,a,b) --> ^want>", "p[1,2]"};
+        for (final String s : terms) {
+            final Term t = np.parseTerm(s);
+            final TermCode code = TermCode.encode(t);
+            final Term decoded = code.decode(n.memory);
+            assertEquals(s, t, decoded);
+            assertEquals(s, t.name(), decoded.name());
+            if (t.isInternable()) {
+                assertSame(s, t, decoded);
+            }
+            assertEquals(s, code, TermCode.encode(np.parseTerm(s)));
+            assertEquals(s, code.hashCode(), TermCode.encode(np.parseTerm(s)).hashCode());
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            code.write(new DataOutputStream(bytes));
+            assertEquals(s, code, TermCode.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+        assertTrue(!TermCode.encode(np.parseTerm("<a --> b>")).equals(TermCode.encode(np.parseTerm("<b --> a>"))));
+
+        //index terms are equal by name, so their indices are checked
+        final Term index = Term.get("p[1,2]");
+        index.term_indices[3] = -1;
+        final Term decodedIndex = TermCode.encode(index).decode(n.memory);
+        assertEquals(index.name(), decodedIndex.name());
+        assertEquals(index.index_variable, decodedIndex.index_variable);
+        assertArrayEquals(index.term_indices, decodedIndex.term_indices);
+    }
+
+    @Test
+    public void testRelativeIndicesKeepSharedTerms() {
+        final Term shared = Product.make(new Term[] {Term.get("a"), Term.get("b")});
+        final Term first = Inheritance.make(Term.get("p[1,1,2,3]"), shared);
+        final Term second = Inheritance.make(Term.get("p[1,1,4,5]"), Term.get("c"));
+        final Conjunction conj = (Conjunction) Conjunction.make(new Term[] {first, second}, TemporalRules.ORDER_CONCURRENT);
+
+        //the compounds with index terms are rebuilt, the shared product is neither copied nor modified
+        boolean found = false;
+        for (final Term t : conj.term) {
+            final Inheritance inh = (Inheritance) t;
+            if (inh.getPredicate().equals(shared)) {
+                assertSame(shared, inh.getPredicate());
+                assertEquals("p[i,j,k,l]", inh.getSubject().name().toString());
+                found = true;
+            } else {
+                assertEquals("p[i,j,k+2,l+2]", inh.getSubject().name().toString());
+            }
+        }
+        assertTrue(found);
+        assertEquals("(*,a,b)", shared.name().toString());
+        assertEquals("p[i,j,k,l]", ((Inheritance) first).getSubject().name().toString());
+    }
+
+    @Test
+    public void testSignature() throws Narsese.InvalidInputException {
+        final String[] terms = {"a", "$1", "<a --> b>", "<b --> a>", "<$1 --> b>", "<#1 --> b>", "<?1 --> b>", "<a --> (&,b,c)>",
+                                "<(*,a,b) --> c>", "<(*,$1,b) --> c>", "(&&,<a --> b>,<#1 --> c>)", "(&&,<a --> b>,<d --> c>)",
+                                "<<$1 --> a> ==> <$1 --> b>>", "<<c --> a> ==> <c --> b>>", "<<c --> a> =/> <c --> b>>"};
+        for (final String s1 : terms) {
+            for (final String s2 : terms) {
+                final Term t1 = np.parseTerm(s1);
+                final Term t2 = np.parseTerm(s2);
+                if (t1.containsTermRecursively(t2)) {
+                    assertTrue(s1 + " " + s2, Term.signatureCovers(t1.signature(), t2.signature()));
+                }
+                for (final char type : new char[] {Symbols.VAR_INDEPENDENT, Symbols.VAR_DEPENDENT, Symbols.VAR_QUERY}) {
+                    //a rejection by the signatures is never wrong
+                    if (Variables.signaturesExclude(type, t1, t2)) {
+                        assertTrue(s1 + " " + s2, !Variables.findSubstitute(n.memory.randomNumber, type, t1, t2, new HashMap<>(), new HashMap<>()));
+                    }
+                }
+            }
+        }
+        assertTrue(Variables.signaturesExclude(Symbols.VAR_INDEPENDENT, np.parseTerm("<a --> b>"), np.parseTerm("<a --> c>")));
+        assertTrue(!Variables.signaturesExclude(Symbols.VAR_INDEPENDENT, np.parseTerm("<$1 --> b>"), np.parseTerm("<a --> b>")));
+    }
+
+    @Test
+    public void testTermIndex() throws Narsese.InvalidInputException {
+        final String[] terms = {"a", "$1", "?1", "<a --> b>", "<b --> a>", "<$1 --> b>", "<#1 --> b>", "<?1 --> b>", "<a --> (&,b,c)>",
+                                "<(*,a,b) --> c>", "<(*,?1,b) --> c>", "<(*,a,b) --> ?1>", "(&&,<a --> b>,<?1 --> c>)", "(&&,<a --> b>,<d --> c>)",
+                                "<<$1 --> a> ==> <$1 --> b>>", "<<c --> a> ==> <c --> b>>", "(/,a,_,b)", "(/,a,b,_)", "(/,?1,_,b)"};
+        final TermIndex index = new TermIndex();
+        for (final String s : terms) {
+            index.add(np.parseTerm(s));
+        }
+        assertEquals(terms.length, index.size());
+        for (final String s1 : terms) {
+            for (final char type : new char[] {Symbols.VAR_INDEPENDENT, Symbols.VAR_QUERY}) {
+                final Term pattern = np.parseTerm(s1);
+                final List<Term> candidates = index.unifiable(pattern, type);
+                for (final String s2 : terms) {
+                    final Term t = np.parseTerm(s2);
+                    //the index never misses a term which unifies
+                    if (Variables.findSubstitute(n.memory.randomNumber, type, pattern, t, new HashMap<>(), new HashMap<>())) {
+                        assertTrue(s1 + " " + s2, candidates.contains(t));
+                    }
+                }
+            }
+        }
+        assertEquals(5, index.unifiable(np.parseTerm("<(*,a,?1) --> c>"), Symbols.VAR_QUERY).size());
+        assertTrue(index.remove(np.parseTerm("<(*,a,b) --> c>")));
+        assertTrue(!index.remove(np.parseTerm("<(*,a,b) --> c>")));
+        assertEquals(4, index.unifiable(np.parseTerm("<(*,a,?1) --> c>"), Symbols.VAR_QUERY).size());
+        assertEquals(terms.length - 1, index.size());
+    }
+
     @Test
     public void testConceptInstancing() throws Narsese.InvalidInputException, IOException, InstantiationException, InvocationTargetException, NoSuchMethodException, ParserConfigurationException, IllegalAccessException, SAXException, ClassNotFoundException, ParseException {
        final Nar n = new Nar();
@@ -25,10 +25,19 @@ package org.opennars.core;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
+import org.opennars.entity.Stamp;
 import org.opennars.entity.Stamp.BaseEntry;
+import org.opennars.main.Nar;
+import org.opennars.main.Parameters;
 import static org.opennars.entity.Stamp.toSetArray;
 
 /**
@@ -58,4 +67,71 @@ public class TestStamp {
                 Arrays.hashCode(toSetArray(new BaseEntry[] { entry(1),entry(1),entry(3) }))
         );    
     }
+
+    private static boolean overlapOfSets(final BaseEntry[] a, final BaseEntry[] b) {
+        final Set<BaseEntry> seen = new HashSet<>();
+        for (final BaseEntry e : a) {
+            if (!seen.add(e)) {
+                return true;
+            }
+        }
+        for (final BaseEntry e : b) {
+            if (!seen.add(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<BaseEntry> randomEntries(final Random rnd) {
+        final List<BaseEntry> entries = new ArrayList<>();
+        final int n = 1 + rnd.nextInt(6);
+        for (int i = 0; i < n; i++) {
+            entries.add(new BaseEntry(rnd.nextInt(2), rnd.nextInt(40)));
+        }
+        return entries;
+    }
+
+    private static Stamp stampOf(final List<BaseEntry> entries, final Parameters parameters) {
+        Stamp s = new Stamp(0, null, entries.get(0), 5);
+        for (int i = 1; i < entries.size(); i++) {
+            s = new Stamp(s, new Stamp(0, null, entries.get(i), 5), 0, parameters);
+        }
+        return s;
+    }
+
+    @Test
+    public void testBaseOverlap() throws Exception {
+        final Parameters parameters = new Nar().narParameters;
+        final Random rnd = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            final List<BaseEntry> x = randomEntries(rnd);
+            final List<BaseEntry> y = randomEntries(rnd);
+            final BaseEntry[] xs = x.toArray(new BaseEntry[0]);
+            final BaseEntry[] ys = y.toArray(new BaseEntry[0]);
+            final Stamp a = stampOf(x, parameters);
+            final Stamp b = stampOf(y, parameters);
+            assertTrue(Arrays.equals(toSetArray(xs), a.getEvidentialBase().toArray()));
+            assertEquals(overlapOfSets(xs, ys), Stamp.baseOverlap(a, b));
+            assertEquals(overlapOfSets(xs, new BaseEntry[0]), a.evidenceIsCyclic());
+            final Stamp ab = new Stamp(a, b, 0, parameters);
+            assertTrue(ab.getEvidentialBase().includes(a.getEvidentialBase()));
+            assertEquals(new HashSet<>(x).containsAll(y), a.getEvidentialBase().includes(b.getEvidentialBase()));
+        }
+    }
+
+    @Test
+    public void testCompactEvidentialBase() throws Exception {
+        final Parameters parameters = new Nar().narParameters;
+        parameters.MAXIMUM_EVIDENTAL_BASE_LENGTH = 1000;
+        Stamp s = new Stamp(0, null, entry(0), 5);
+        for (int i = 1; i < 1500; i++) {
+            s = new Stamp(new Stamp(0, null, entry(i), 5), s, 0, parameters);
+        }
+        final BaseEntry[] entries = s.getEvidentialBase().toArray();
+        assertEquals(1000, entries.length);
+        assertEquals(500, entries[0].inputId); //the oldest inputs are evicted
+        assertEquals(1499, entries[999].inputId);
+        assertTrue(s.getEvidentialBase().encodedLength() < 10); //one run of consecutive ids
+    }
 }
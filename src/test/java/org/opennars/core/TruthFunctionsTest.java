@@ -0,0 +1,203 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.core;
+
+import org.junit.Test;
+import org.opennars.entity.TruthValue;
+import org.opennars.inference.BudgetFunctions;
+import org.opennars.inference.TruthFunctions;
+import org.opennars.inference.UtilityFunctions;
+import org.opennars.main.Nar;
+import org.opennars.main.Parameters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that the allocation free forms of the truth and utility functions compute the same bits
+ * as the allocating forms and the compositions they replace
+ */
+public class TruthFunctionsTest {
+
+    private static void assertSameBits(final TruthValue expected, final TruthValue actual) {
+        assertEquals(Float.floatToIntBits(expected.getFrequency()), Float.floatToIntBits(actual.getFrequency()));
+        assertEquals(Double.doubleToLongBits(expected.getConfidence()), Double.doubleToLongBits(actual.getConfidence()));
+        assertEquals(expected.getAnalytic(), actual.getAnalytic());
+    }
+
+    @Test
+    public void testComposedFunctions() throws Exception {
+        final Parameters p = new Nar().narParameters;
+        final Random rnd = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            final TruthValue a = new TruthValue(rnd.nextFloat(), rnd.nextDouble(), p);
+            final TruthValue b = new TruthValue(rnd.nextFloat(), i % 10 == 0 ? 1.0 : rnd.nextDouble(), p);
+            assertSameBits(TruthFunctions.deduction(TruthFunctions.intersection(a, TruthFunctions.negation(b, p), p), 1f, p),
+                    TruthFunctions.reduceDisjunction(a, b, p));
+            assertSameBits(TruthFunctions.negation(TruthFunctions.deduction(TruthFunctions.intersection(TruthFunctions.negation(a, p), b, p), 1f, p), p),
+                    TruthFunctions.reduceConjunction(a, b, p));
+            assertSameBits(TruthFunctions.reduceConjunction(a, TruthFunctions.negation(b, p), p),
+                    TruthFunctions.reduceConjunctionNeg(a, b, p));
+            assertSameBits(TruthFunctions.analogy(b, new TruthValue(a.getFrequency(), UtilityFunctions.w2c(a.getConfidence(), p), p), p),
+                    TruthFunctions.anonymousAnalogy(a, b, p));
+        }
+    }
+
+    /** a truth function of two premises in its three forms */
+    private interface Forms {
+        TruthValue allocating(TruthValue a, TruthValue b, Parameters p);
+        TruthValue holder(TruthValue a, TruthValue b, TruthValue result, Parameters p);
+        TruthValue primitive(TruthValue a, TruthValue b, TruthValue result, Parameters p);
+    }
+
+    private static Forms forms(final TruthFunctions.EnumType type) {
+        return new Forms() {
+            public TruthValue allocating(final TruthValue a, final TruthValue b, final Parameters p) {
+                return TruthFunctions.lookupTruthFunctionAndCompute(type, a, b, p);
+            }
+            public TruthValue holder(final TruthValue a, final TruthValue b, final TruthValue result, final Parameters p) {
+                return TruthFunctions.lookupTruthFunctionAndCompute(type, a, b, result, p);
+            }
+            public TruthValue primitive(final TruthValue a, final TruthValue b, final TruthValue result, final Parameters p) {
+                final float f1 = a.getFrequency(), f2 = b.getFrequency();
+                final double c1 = a.getConfidence(), c2 = b.getConfidence();
+                final boolean analytic = a.getAnalytic() || b.getAnalytic();
+                switch (type) {
+                    case DESIREDED: return TruthFunctions.desireDed(f1, c1, f2, c2, result, p);
+                    case DESIREIND: return TruthFunctions.desireInd(f1, c1, f2, c2, result, p);
+                    case DESIREWEAK: return TruthFunctions.desireWeak(f1, c1, f2, c2, result, p);
+                    case DESIRESTRONG: return TruthFunctions.desireStrong(f1, c1, f2, c2, result, p);
+                    case COMPARISON: return TruthFunctions.comparison(f1, c1, f2, c2, result, p);
+                    case ANALOGY: return TruthFunctions.analogy(f1, c1, f2, c2, result, p);
+                    case ANONYMOUSANALOGY: return TruthFunctions.anonymousAnalogy(f1, c1, f2, c2, result, p);
+                    case DEDUCTION: return TruthFunctions.deduction(f1, c1, f2, c2, result, p);
+                    case EXEMPLIFICATION: return TruthFunctions.exemplification(f1, c1, f2, c2, analytic, result, p);
+                    case ABDUCTION: return TruthFunctions.abduction(f1, c1, f2, c2, analytic, result, p);
+                    case RESEMBLENCE: return TruthFunctions.resemblance(f1, c1, f2, c2, result, p);
+                    case REDUCECONJUNCTION: return TruthFunctions.reduceConjunction(f1, c1, f2, c2, result, p);
+                    case REDUCEDISJUNCTION: return TruthFunctions.reduceDisjunction(f1, c1, f2, c2, result, p);
+                    case REDUCEDISJUNCTIONREV: return TruthFunctions.reduceDisjunction(f2, c2, f1, c1, result, p);
+                    case REDUCECONJUNCTIONNEG: return TruthFunctions.reduceConjunctionNeg(f1, c1, f2, c2, result, p);
+                    default: throw new IllegalArgumentException();
+                }
+            }
+        };
+    }
+
+    private static Forms forms(final String name) {
+        return new Forms() {
+            public TruthValue allocating(final TruthValue a, final TruthValue b, final Parameters p) {
+                switch (name) {
+                    case "revision": return TruthFunctions.revision(a, b, p);
+                    case "induction": return TruthFunctions.induction(a, b, p);
+                    case "union": return TruthFunctions.union(a, b, p);
+                    case "intersection": return TruthFunctions.intersection(a, b, p);
+                    case "conversion": return TruthFunctions.conversion(a, p);
+                    case "negation": return TruthFunctions.negation(a, p);
+                    case "contraposition": return TruthFunctions.contraposition(a, p);
+                    case "deductionReliance": return TruthFunctions.deduction(a, b.getFrequency(), p);
+                    case "abductionReliance": return TruthFunctions.abduction(a, b.getFrequency(), p);
+                    default: throw new IllegalArgumentException(name);
+                }
+            }
+            public TruthValue holder(final TruthValue a, final TruthValue b, final TruthValue result, final Parameters p) {
+                switch (name) {
+                    case "revision": return TruthFunctions.revision(a, b, result, p);
+                    case "induction": return TruthFunctions.induction(a, b, result, p);
+                    case "union": return TruthFunctions.union(a, b, result, p);
+                    case "intersection": return TruthFunctions.intersection(a, b, result, p);
+                    case "conversion": return TruthFunctions.conversion(a, result, p);
+                    case "negation": return TruthFunctions.negation(a, result, p);
+                    case "contraposition": return TruthFunctions.contraposition(a, result, p);
+                    case "deductionReliance": return TruthFunctions.deduction(a, b.getFrequency(), result, p);
+                    case "abductionReliance": return TruthFunctions.abduction(a, b.getFrequency(), result, p);
+                    default: throw new IllegalArgumentException(name);
+                }
+            }
+            public TruthValue primitive(final TruthValue a, final TruthValue b, final TruthValue result, final Parameters p) {
+                final float f1 = a.getFrequency(), f2 = b.getFrequency();
+                final double c1 = a.getConfidence(), c2 = b.getConfidence();
+                switch (name) {
+                    case "revision": return TruthFunctions.revision(f1, c1, f2, c2, result, p);
+                    case "induction": return TruthFunctions.induction(f1, c1, f2, c2, a.getAnalytic() || b.getAnalytic(), result, p);
+                    case "union": return TruthFunctions.union(f1, c1, f2, c2, result, p);
+                    case "intersection": return TruthFunctions.intersection(f1, c1, f2, c2, result, p);
+                    case "conversion": return TruthFunctions.conversion(f1, c1, result, p);
+                    case "negation": return TruthFunctions.negation(f1, c1, result, p);
+                    case "contraposition": return TruthFunctions.contraposition(f1, c1, result, p);
+                    case "deductionReliance": return TruthFunctions.deduction(f1, c1, f2, result, p);
+                    case "abductionReliance": return TruthFunctions.abduction(f1, c1, f2, a.getAnalytic(), result, p);
+                    default: throw new IllegalArgumentException(name);
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testForms() throws Exception {
+        final Parameters p = new Nar().narParameters;
+        final List<Forms> functions = new ArrayList<>();
+        for (final TruthFunctions.EnumType type : TruthFunctions.EnumType.values()) {
+            functions.add(forms(type));
+        }
+        for (final String name : new String[]{"revision", "induction", "union", "intersection", "conversion",
+                "negation", "contraposition", "deductionReliance", "abductionReliance"}) {
+            functions.add(forms(name));
+        }
+        final Random rnd = new Random(1);
+        final TruthValue holder = new TruthValue(p);
+        for (int i = 0; i < 10000; i++) {
+            final TruthValue a = new TruthValue(rnd.nextFloat(), rnd.nextDouble(), i % 7 == 0, p);
+            final TruthValue b = new TruthValue(rnd.nextFloat(), i % 10 == 0 ? 1.0 : rnd.nextDouble(), i % 11 == 0, p);
+            for (final Forms function : functions) {
+                final TruthValue expected = function.allocating(a, b, p);
+                assertSameBits(expected, function.holder(a, b, holder, p));
+                assertSameBits(expected, function.primitive(a, b, holder, p));
+            }
+            assertSameBits(TruthFunctions.eternalize(a, p),
+                    TruthFunctions.eternalize(a.getFrequency(), a.getConfidence(), new TruthFunctions.EternalizedTruthValue(1, 0.5, p), p));
+            assertEquals(Float.floatToIntBits(BudgetFunctions.truthToQuality(a)),
+                    Float.floatToIntBits(BudgetFunctions.truthToQuality(a.getFrequency(), a.getConfidence())));
+        }
+    }
+
+    @Test
+    public void testFixedArities() {
+        final Random rnd = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            final float a = rnd.nextFloat(), b = rnd.nextFloat(), c = rnd.nextFloat();
+            final double d = rnd.nextDouble();
+            assertEquals(Double.doubleToLongBits(UtilityFunctions.and(new double[]{a, d})), Double.doubleToLongBits(UtilityFunctions.and(a, d)));
+            assertEquals(Double.doubleToLongBits(UtilityFunctions.and(new double[]{d, a, b})), Double.doubleToLongBits(UtilityFunctions.and(d, a, b)));
+            assertEquals(Double.doubleToLongBits(UtilityFunctions.and(new double[]{a, b, d, c})), Double.doubleToLongBits(UtilityFunctions.and(a, b, d, c)));
+            assertEquals(Float.floatToIntBits(UtilityFunctions.or(new float[]{a, b})), Float.floatToIntBits(UtilityFunctions.or(a, b)));
+            assertEquals(Float.floatToIntBits(UtilityFunctions.or(new float[]{a, b, c})), Float.floatToIntBits(UtilityFunctions.or(a, b, c)));
+            assertEquals(Float.floatToIntBits(UtilityFunctions.aveAri(new float[]{a, b})), Float.floatToIntBits(UtilityFunctions.aveAri(a, b)));
+            assertEquals(Float.floatToIntBits(UtilityFunctions.aveGeo(new float[]{a, b})), Float.floatToIntBits(UtilityFunctions.aveGeo(a, b)));
+        }
+    }
+}
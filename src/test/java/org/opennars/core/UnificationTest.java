@@ -23,6 +23,7 @@
  */
 package org.opennars.core;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import org.junit.Test;
@@ -30,9 +31,16 @@ import org.opennars.io.Narsese;
 import org.opennars.io.Symbols;
 import org.opennars.language.CompoundTerm;
 import org.opennars.language.Term;
+import org.opennars.language.UnificationCache;
 import org.opennars.language.Variables;
 import org.opennars.main.Nar;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 /**
  * Tests the correct functionality of the unifier
  *
@@ -55,4 +63,53 @@ public class UnificationTest {
             assert(false); //test failed, no matter what happened
         }
     }
+
+    @Test
+    public void testUnificationCache() throws Exception {
+        Nar nar = new Nar();
+        Narsese parser = new Narsese(nar);
+        UnificationCache cache = new UnificationCache(2);
+        Term pattern = parser.parseTerm("<$1 --> animal>");
+        Term robin = parser.parseTerm("<robin --> animal>");
+        Map<Term,Term> map0 = new LinkedHashMap<>();
+        Map<Term,Term> map1 = new LinkedHashMap<>();
+        assertTrue(Variables.findSubstitute(nar.memory.randomNumber, Symbols.VAR_INDEPENDENT, pattern, robin, map0, map1));
+        assertNull(cache.get(Symbols.VAR_INDEPENDENT, pattern, robin));
+        cache.put(Symbols.VAR_INDEPENDENT, pattern, robin, map0, map1);
+        cache.put(Symbols.VAR_INDEPENDENT, robin, pattern, null, null);
+        //equal terms find the result
+        Map<Term,Term>[] cached = cache.get(Symbols.VAR_INDEPENDENT, parser.parseTerm("<$1 --> animal>"), parser.parseTerm("<robin --> animal>"));
+        assertEquals(map0, cached[0]);
+        assertEquals(map1, cached[1]);
+        assertNull(cache.get(Symbols.VAR_DEPENDENT, pattern, robin));
+        assertNotNull(cache.get(Symbols.VAR_INDEPENDENT, robin, pattern));
+        assertEquals(0, cache.get(Symbols.VAR_INDEPENDENT, robin, pattern).length);
+        //the least recently used result is dropped
+        cache.put(Symbols.VAR_DEPENDENT, pattern, robin, null, null);
+        assertEquals(2, cache.size());
+        assertNull(cache.get(Symbols.VAR_INDEPENDENT, pattern, robin));
+        assertEquals(3, cache.hits.intValue());
+        assertEquals(3, cache.misses.intValue());
+    }
+
+    @Test
+    public void testUnificationCacheIsPerMemory() throws Exception {
+        Map<String,Object> overrides = new HashMap<>();
+        overrides.put("UNIFICATION_CACHE_SIZE", 1000);
+        Nar cached = new Nar(overrides);
+        Nar uncached = new Nar();
+        Narsese parser = new Narsese(cached);
+        Term pattern = parser.parseTerm("<$1 --> animal>");
+        Term robin = parser.parseTerm("<robin --> animal>");
+        assertTrue(Variables.hasSubstitute(cached.memory, Symbols.VAR_INDEPENDENT, pattern, robin));
+        assertTrue(Variables.hasSubstitute(cached.memory, Symbols.VAR_INDEPENDENT, pattern, robin));
+        assertEquals(1, cached.memory.unificationCache.size());
+        assertEquals(1, cached.memory.unificationCache.hits.intValue());
+        //a reasoner without a cache does not use the one of another reasoner
+        assertFalse(uncached.memory.unificationCache.isEnabled());
+        assertTrue(Variables.hasSubstitute(uncached.memory, Symbols.VAR_INDEPENDENT, pattern, robin));
+        assertEquals(0, uncached.memory.unificationCache.size());
+        cached.reset();
+        assertEquals(0, cached.memory.unificationCache.size());
+    }
 }
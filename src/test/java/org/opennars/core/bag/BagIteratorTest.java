@@ -93,7 +93,7 @@ public class BagIteratorTest {
     @Test
     public void testBags() throws Exception {
         //Nar nar = new Nar();
-        //testBagIterator(new Bag(L, L*2, nar.narParameters));
+        //testBagIterator(new LevelBag(L, L*2, nar.narParameters));
         assert(true);
     }
     
@@ -30,14 +30,28 @@ import org.opennars.entity.Item;
 import org.opennars.language.Term;
 import org.opennars.main.Nar;
 import org.opennars.storage.Bag;
+import org.opennars.storage.BagFactory;
+import org.opennars.storage.CompactBag;
+import org.opennars.storage.ConcurrentBag;
+import org.opennars.storage.LazyForgettingBag;
+import org.opennars.storage.LevelBag;
+import org.opennars.storage.RouletteBag;
+import org.opennars.storage.ShardedBag;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import org.opennars.main.Parameters;
 
@@ -84,7 +98,323 @@ public class BagOperationsTest {
     public void testConcept() throws Exception {
         Nar nar = new Nar();
         this.narParameters = nar.narParameters;
-        testBagSequence(new Bag(2, 2, nar.narParameters));    
+        testBagSequence(new LevelBag(2, 2, nar.narParameters));    
+    }
+
+    @Test
+    public void testConcurrentBag() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        testBagSequence(new ConcurrentBag(2, 2, nar.narParameters));
+    }
+
+    /** an item picked out by another thread while its stale level is corrected must not stay in a level */
+    @Test
+    public void testConcurrentBagDropsItemPickedOutMeanwhile() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final boolean[] armed = {false};
+        final Bag<Concept,Term> b = new ConcurrentBag<Concept,Term>(10, 10, nar.narParameters) {
+            @Override
+            protected int getLevel(final Concept item) {
+                if (armed[0]) {
+                    armed[0] = false;
+                    pickOut(item.name()); //as another thread would between taking the item out of its level and putting it back
+                }
+                return super.getLevel(item);
+            }
+        };
+        final Concept a = makeConcept("a", 0.1f);
+        b.putIn(a);
+        a.setPriority(0.9f); //its level is stale now
+        armed[0] = true;
+        assertEquals(null, b.takeOut());
+        assertEquals(0, b.size());
+        assertFalse(b.toString().contains("a"));
+        b.putIn(makeConcept("b", 0.5f));
+        assertEquals("b", b.takeOut().name().toString());
+        assertEquals(null, b.takeOut());
+    }
+
+    /** threads taking out and putting back items under the locks of the bag neither lose items nor mass */
+    @Test
+    public void testConcurrentBagStress() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final int levels = 10;
+        final int items = 40;
+        final Bag<Concept,Term> b = new ConcurrentBag<>(levels, 50, nar.narParameters);
+        for (int i = 0; i < items; i++) {
+            b.putIn(makeConcept("c" + i, (i % levels) / (float) levels + 0.05f));
+        }
+        final Thread[] threads = new Thread[4];
+        final Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads.length; t++) {
+            final Random rnd = new Random(t);
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        if (rnd.nextBoolean()) {
+                            final Concept c;
+                            synchronized (b.lockFor(null)) {
+                                c = b.takeOut();
+                            }
+                            if (c != null) {
+                                c.setPriority(rnd.nextFloat());
+                                synchronized (b.lockFor(c.name())) {
+                                    b.putIn(c);
+                                }
+                            }
+                        } else {
+                            final Term name = new Term("c" + rnd.nextInt(items));
+                            synchronized (b.lockFor(name)) {
+                                final Concept c = b.pickOut(name);
+                                if (c != null) {
+                                    b.putBack(c, 10, nar.memory);
+                                }
+                            }
+                        }
+                    }
+                } catch (final Throwable e) {
+                    failure[0] = e;
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertEquals(null, failure[0]);
+        assertEquals(items, b.size());
+        int mass = 0;
+        for (final Concept c : b) {
+            mass += Math.max(0, (int) Math.ceil(c.getPriority() * levels) - 1) + 1;
+        }
+        assertEquals((float) mass / (items * levels), b.getAveragePriority(), 0.0001f);
+        final Set<Term> taken = new HashSet<>();
+        for (int i = 0; i < items; i++) {
+            assertTrue(taken.add(b.takeOut().name()));
+        }
+        assertEquals(0, b.size());
+        assertEquals(null, b.takeOut());
+    }
+
+    @Test
+    public void testCompactBag() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        testBagSequence(new CompactBag(2, 2, nar.narParameters));
+    }
+
+    /** the compact bag has to select the same items in the same order as the level bag */
+    @Test
+    public void testCompactBagMatchesLevelBag() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final Bag<Concept,Term> level = new LevelBag<>(10, 20, nar.narParameters);
+        final Bag<Concept,Term> compact = new CompactBag<>(10, 20, nar.narParameters);
+        final Random rnd = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            final int op = rnd.nextInt(4);
+            if (op == 0) {
+                final Concept a = level.takeOut();
+                final Concept b = compact.takeOut();
+                assertEquals(a == null ? null : a.name(), b == null ? null : b.name());
+            } else if (op == 1) {
+                final Term name = new Term("c" + rnd.nextInt(40));
+                final Concept a = level.pickOut(name);
+                final Concept b = compact.pickOut(name);
+                assertEquals(a == null ? null : a.name(), b == null ? null : b.name());
+            } else {
+                final String name = "c" + rnd.nextInt(40);
+                final float priority = rnd.nextFloat();
+                final Concept a = level.putIn(makeConcept(name, priority));
+                final Concept b = compact.putIn(makeConcept(name, priority));
+                assertEquals(a == null ? null : a.name(), b == null ? null : b.name());
+            }
+            assertEquals(level.size(), compact.size());
+            assertEquals(level.getAveragePriority(), compact.getAveragePriority(), 0.0001f);
+            final Iterator<Concept> compactItems = compact.iterator();
+            for (final Concept c : level) { //same insertion order
+                assertEquals(c.name(), compactItems.next().name());
+            }
+            assertFalse(compactItems.hasNext());
+        }
+    }
+
+    /** a batch takes out the same items in the same order as single take outs */
+    @Test
+    public void testBatchTakeOutMatchesTakeOut() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        testBatchTakeOut(new LevelBag<>(10, 20, nar.narParameters), new LevelBag<>(10, 20, nar.narParameters));
+        testBatchTakeOut(new CompactBag<>(10, 20, nar.narParameters), new CompactBag<>(10, 20, nar.narParameters));
+    }
+
+    /** every bag the factory can build takes out and puts back batches */
+    @Test
+    public void testBatchOfEveryBagType() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final Class[] types = {LevelBag.class, CompactBag.class, ConcurrentBag.class, LazyForgettingBag.class, RouletteBag.class, ShardedBag.class};
+        for (final Class type : types) {
+            final Bag<Concept,Term> b = BagFactory.newBag(type.getName(), 10, 20, nar.narParameters);
+            for (int i = 0; i < 10; i++) {
+                b.putIn(makeConcept("c" + i, (i + 1) / 10.0f - 0.05f));
+            }
+            final List<Concept> taken = new ArrayList<>();
+            assertEquals(type.getName(), 4, b.takeOut(4, taken));
+            assertEquals(type.getName(), 6, b.takeOut(10, taken));
+            assertEquals(type.getName(), 0, b.size());
+            final Set<Term> names = new HashSet<>();
+            for (final Concept c : taken) {
+                assertTrue(type.getName(), names.add(c.name()));
+            }
+            b.putBackAll(taken, 10, nar.memory);
+            assertEquals(type.getName(), 10, b.size());
+        }
+    }
+
+    private void testBatchTakeOut(final Bag<Concept,Term> single, final Bag<Concept,Term> batch) {
+        final Random rnd = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            final int op = rnd.nextInt(3);
+            if (op == 0) {
+                final int n = rnd.nextInt(6);
+                final List<Concept> taken = new ArrayList<>();
+                final int amount = batch.takeOut(n, taken);
+                assertEquals(taken.size(), amount);
+                for (int k = 0; k < n; k++) {
+                    final Concept c = single.takeOut();
+                    assertEquals(c == null ? null : c.name(), k < amount ? taken.get(k).name() : null);
+                }
+            } else if (op == 1) { //the level of the item gets stale
+                final Term name = new Term("c" + rnd.nextInt(40));
+                final float priority = rnd.nextFloat();
+                if (single.get(name) != null) {
+                    single.get(name).setPriority(priority);
+                    batch.get(name).setPriority(priority);
+                }
+            } else {
+                final String name = "c" + rnd.nextInt(40);
+                final float priority = rnd.nextFloat();
+                single.putIn(makeConcept(name, priority));
+                batch.putIn(makeConcept(name, priority));
+            }
+            assertEquals(single.size(), batch.size());
+        }
+    }
+
+    @Test
+    public void testLazyForgettingBag() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        testBagSequence(new LazyForgettingBag(2, 2, nar.narParameters));
+    }
+
+    /** items decay by the cycles they spent in the bag, not when they are put back */
+    @Test
+    public void testLazyForgettingBagDecay() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final Bag<Concept,Term> b = new LazyForgettingBag<>(10, 10, nar.narParameters);
+        b.putBack(makeConcept("a", 0.9f), 10, nar.memory);
+        assertEquals(0.9f, b.get(new Term("a")).getPriority(), 0.001f);
+        nar.cycles(20); //the clock of the bag follows the memory without another putBack
+        final Concept a = b.takeOut();
+        assertEquals(new Term("a"), a.name());
+        assertTrue(a.getPriority() < 0.9f);
+        assertTrue(a.getPriority() >= 0.9f * narParameters.FORGET_QUALITY_RELATIVE);
+    }
+
+    @Test
+    public void testRouletteBag() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        testBagSequence(new RouletteBag(2, 2, nar.narParameters));
+    }
+
+    @Test
+    public void testRouletteBagProportion() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final Bag<Concept,Term> b = new RouletteBag<>(3);
+        final float[] priorities = {0.1f, 0.3f, 0.6f};
+        for (int i = 0; i < priorities.length; i++) {
+            b.putIn(makeConcept("c" + i, priorities[i]));
+        }
+        final int[] counts = new int[priorities.length];
+        final int samples = 30000;
+        for (int i = 0; i < samples; i++) {
+            final Concept c = b.takeOut();
+            counts[Integer.parseInt(c.name().toString().substring(1))]++;
+            b.putIn(c);
+        }
+        for (int i = 0; i < priorities.length; i++) {
+            assertEquals(priorities[i], (float) counts[i] / samples, 0.02f);
+        }
+    }
+
+    @Test
+    public void testRouletteBagWithoutCapacity() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final Bag<Concept,Term> b = new RouletteBag<>(0);
+        final Concept a = makeConcept("a", 0.5f);
+        assertEquals(a, b.putIn(a));
+        assertEquals(0, b.size());
+        assertEquals(null, b.takeOut());
+    }
+
+    @Test
+    public void testShardedBag() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        testBagSequence(new ShardedBag(2, 2, 1, nar.narParameters));
+    }
+
+    /** every item is taken out exactly once, whatever shard it is in */
+    @Test
+    public void testShardedBagTakesOutAllShards() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final Bag<Concept,Term> b = new ShardedBag<>(10, 100, 4, nar.narParameters);
+        for (int i = 0; i < 50; i++) {
+            b.putIn(makeConcept("c" + i, (i % 10) / 10.0f + 0.05f));
+        }
+        assertEquals(50, b.size());
+        final Set<Term> taken = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(taken.add(b.takeOut().name()));
+        }
+        assertEquals(0, b.size());
+        assertEquals(null, b.takeOut());
+    }
+
+    /** the shards share the capacity, so nothing is dropped before the whole bag is full */
+    @Test
+    public void testShardedBagSharesCapacity() throws Exception {
+        Nar nar = new Nar();
+        this.narParameters = nar.narParameters;
+        final Bag<Concept,Term> b = new ShardedBag<>(10, 20, 8, nar.narParameters);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(null, b.putIn(makeConcept("c" + i, 0.5f)));
+        }
+        assertEquals(20, b.size());
+        assertEquals(0.5f, b.getAveragePriority(), 0.001f);
+        final Concept low = makeConcept("low", 0.01f);
+        assertEquals(low, b.putIn(low));
+        assertEquals(20, b.size());
+        int items = 0;
+        for (final Concept c : b) {
+            items++;
+        }
+        assertEquals(20, items);
+        for (int i = 0; i < 20; i++) {
+            b.takeOut();
+        }
+        assertEquals(0, b.size());
+        assertEquals(null, b.takeOut());
     }
 
     public static float getMinPriority(Bag<Concept,Term> bag) {
@@ -147,9 +477,12 @@ public class BagOperationsTest {
         assertEquals(null, b.putIn(makeConcept("a", 0.2f)));
         assertEquals(null, b.putIn(makeConcept("b", 0.3f)));
         
-        if (b instanceof Bag) {
+        if (b instanceof LevelBag || b instanceof CompactBag) {
             assertEquals("a", b.putIn(makeConcept("c", 0.1f)).name().toString()); //replaces item on level
         }
+        if (b instanceof RouletteBag) {
+            assertEquals("c", b.putIn(makeConcept("c", 0.1f)).name().toString()); //lower than all items
+        }
         
     }
 }
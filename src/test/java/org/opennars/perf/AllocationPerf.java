@@ -0,0 +1,70 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.perf;
+
+import org.opennars.core.NALTest;
+import org.opennars.main.Nar;
+import org.opennars.util.io.ExampleFileInput;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated per cycle by the reasoner on the multi step examples
+ */
+public class AllocationPerf {
+
+    static final String[] directories = new String[] {"/nal/multi_step/"};
+
+    /** bytes allocated so far by the current thread */
+    public static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @param nar reasoner to run the examples on
+     * @param cycles amount of cycles each example is run
+     * @return bytes allocated per cycle
+     */
+    public static long bytesPerCycle(final Nar nar, final int cycles) {
+        long bytes = 0;
+        long totalCycles = 0;
+        for (final Object o : ExampleFileInput.getUnitTests(directories).values()) {
+            final String path = (String)((Object[])o)[0];
+            nar.reset();
+            nar.addInput(NALTest.getExample(path));
+            final long before = allocatedBytes();
+            nar.cycles(cycles);
+            bytes += allocatedBytes() - before;
+            totalCycles += cycles;
+        }
+        return bytes / totalCycles;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final Nar nar = new Nar();
+        bytesPerCycle(nar, cycles); //warmup
+        System.out.println("bytes allocated per cycle: " + bytesPerCycle(nar, cycles));
+    }
+}
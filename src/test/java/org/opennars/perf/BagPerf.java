@@ -30,13 +30,17 @@ import org.opennars.entity.BudgetValue;
 import org.opennars.entity.Item;
 import org.opennars.main.Nar;
 import org.opennars.storage.Bag;
+import org.opennars.storage.ConcurrentBag;
+import org.opennars.storage.LevelBag;
 import org.opennars.storage.Memory;
+import org.opennars.storage.RouletteBag;
 import org.opennars.main.Parameters;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
+import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.util.*;
 import java.util.logging.Level;
@@ -78,6 +82,7 @@ public class BagPerf {
 
     int randomAccesses;
     final double insertRatio = 0.9;
+    static final DecimalFormat df = new DecimalFormat("#.#");
     
     /*public int getLevelSize(Bag lb, final int level) {
         return (lb.level[level] == null) ? 0 : lb.level[level].size();
@@ -143,7 +148,7 @@ public class BagPerf {
                 } catch (ParseException ex) {
                     Logger.getLogger(BagPerf.class.getName()).log(Level.SEVERE, null, ex);
                 }
-                final Bag<NullItem,CharSequence> b = new Bag(levels, capacity, nar.narParameters) {
+                final Bag<NullItem,CharSequence> b = new LevelBag(levels, capacity, nar.narParameters) {
 
 //                    @Override
 //                    protected ArrayDeque<NullItem> newLevel() {
@@ -187,8 +192,12 @@ public class BagPerf {
         }
 
         public NullItem(final float priority) {
+            this("" + (itemID++), priority);
+        }
+
+        public NullItem(final String key, final float priority) {
             super(new BudgetValue(priority, priority, priority, narParameters));
-            this.key = "" + (itemID++);
+            this.key = key;
         }
 
         @Override
@@ -288,8 +297,111 @@ public class BagPerf {
         out.println(line.toString());
     }
     
+    /**
+     * Random putIn/takeOut on one bag shared by several threads, locking it like Memory does
+     *
+     * @return accesses per millisecond over all threads
+     */
+    public static double threadedBagIO(final Bag<NullItem,CharSequence> b, final int threads, final int accessesPerThread, final double insertProportion) throws InterruptedException {
+        final List<List<NullItem>> items = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final List<NullItem> l = new ArrayList<>(accessesPerThread);
+            for (int i = 0; i < accessesPerThread; i++) {
+                l.add(new NullItem());
+            }
+            items.add(l);
+        }
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final List<NullItem> l = items.get(t);
+            final Random r = new Random(t);
+            workers[t] = new Thread(() -> {
+                for (final NullItem n : l) {
+                    if (r.nextFloat() > insertProportion) {
+                        synchronized (b.lockFor(null)) {
+                            b.takeOut();
+                        }
+                    }
+                    else {
+                        synchronized (b.lockFor(n.name())) {
+                            b.putIn(n);
+                        }
+                    }
+                }
+            });
+        }
+        final long start = System.nanoTime();
+        for (final Thread w : workers) {
+            w.start();
+        }
+        for (final Thread w : workers) {
+            w.join();
+        }
+        return (threads * (double) accessesPerThread) / ((System.nanoTime() - start) / 1.0e6);
+    }
+
+    /** prints the throughput of the single-threaded and the concurrent concept bag by amount of threads */
+    public static void printThreadScaling(final int levels, final int capacity, final int accessesPerThread) throws InterruptedException {
+        printCSVLine(System.out, "threads", "Bag accesses/ms", "ConcurrentBag accesses/ms");
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            double single = 0, concurrent = 0;
+            for (int r = 0; r < 3; r++) { //first round is warmup
+                final double s = threadedBagIO(new LevelBag<>(levels, capacity, narParameters), threads, accessesPerThread, 0.5);
+                final double c = threadedBagIO(new ConcurrentBag<>(levels, capacity, narParameters), threads, accessesPerThread, 0.5);
+                if (r > 0) {
+                    single += s / 2;
+                    concurrent += c / 2;
+                }
+            }
+            printCSVLine(System.out, threads + "", df.format(single), df.format(concurrent));
+        }
+    }
+
+    /**
+     * Access pattern of a full bag in a running system: half of the accesses take an item out
+     * and put it back with changed priority, the other half put in a new version of an item
+     * which is already in the bag, which has to remove the old version from its level
+     *
+     * @return accesses per millisecond
+     */
+    public static double fullBagIO(final Bag<NullItem,CharSequence> b, final int items, final int accesses) {
+        for (int i = 0; i < items; i++) {
+            b.putIn(new NullItem("" + i, rnd.nextFloat()));
+        }
+        final Random r = new Random(items);
+        final long start = System.nanoTime();
+        for (int i = 0; i < accesses; i++) {
+            if (r.nextBoolean()) {
+                final NullItem n = b.takeOut();
+                if (n != null) {
+                    n.setPriority(r.nextFloat());
+                    b.putIn(n);
+                }
+            }
+            else {
+                b.putIn(new NullItem("" + r.nextInt(items), r.nextFloat()));
+            }
+        }
+        return accesses / ((System.nanoTime() - start) / 1.0e6);
+    }
+
+    /** prints the throughput of a full level bag and roulette bag by their size */
+    public static void printSizeScaling(final int levels, final int accesses) {
+        printCSVLine(System.out, "items", "LevelBag accesses/ms", "RouletteBag accesses/ms");
+        for (int items = 10000; items <= 1000000; items *= 10) {
+            fullBagIO(new LevelBag<>(levels, items, narParameters), items, accesses); //warmup
+            final double l = fullBagIO(new LevelBag<>(levels, items, narParameters), items, accesses);
+            fullBagIO(new RouletteBag<>(items), items, accesses); //warmup
+            final double r = fullBagIO(new RouletteBag<>(items), items, accesses);
+            printCSVLine(System.out, items + "", df.format(l), df.format(r));
+        }
+    }
+
     public static void main(final String[] args) throws Exception {
         narParameters = new Nar().narParameters;
+        printSizeScaling(narParameters.CONCEPT_BAG_LEVELS, 100000);
+        printThreadScaling(narParameters.CONCEPT_BAG_LEVELS, narParameters.CONCEPT_BAG_SIZE, 200000);
+
         final int itemsPerLevel = 10;
         final int repeats = 10;
         final int warmups = 1;
@@ -307,7 +419,7 @@ public class BagPerf {
                 final int randomAccesses = accessesPerItem * items;
 
                 final Bag[] bags = new Bag[1];
-                bags[0] = new Bag(levels, items, narParameters);
+                bags[0] = new LevelBag(levels, items, narParameters);
 
 
                 final Map<Bag, Double> t = BagPerf.compare(
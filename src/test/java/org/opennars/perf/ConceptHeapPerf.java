@@ -0,0 +1,86 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.perf;
+
+import org.opennars.entity.BudgetValue;
+import org.opennars.entity.Concept;
+import org.opennars.entity.TermLink;
+import org.opennars.language.Term;
+import org.opennars.main.Nar;
+import org.opennars.main.Parameters;
+
+/**
+ * Measures the heap retained by each concept, without and with term links
+ */
+public class ConceptHeapPerf {
+
+    public static long usedHeap() {
+        final Runtime r = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return r.totalMemory() - r.freeMemory();
+    }
+
+    /**
+     * @param nar reasoner whose memory and parameters the concepts use
+     * @param concepts amount of concepts to create
+     * @param links amount of term links put into each concept
+     * @return bytes per concept
+     */
+    public static long bytesPerConcept(final Nar nar, final int concepts, final int links) {
+        final Parameters p = nar.narParameters;
+        final Term[] terms = new Term[concepts];
+        for (int i = 0; i < concepts; i++) {
+            terms[i] = new Term("c" + i);
+        }
+        final Term[] targets = new Term[links];
+        for (int i = 0; i < links; i++) {
+            targets[i] = new Term("t" + i);
+        }
+        final TermLink template = new TermLink(TermLink.COMPONENT, targets.length > 0 ? targets[0] : terms[0], 0);
+        final Concept[] created = new Concept[concepts];
+        final long before = usedHeap();
+        for (int i = 0; i < concepts; i++) {
+            created[i] = new Concept(new BudgetValue(0.5f, 0.5f, 0.5f, p), terms[i], nar.memory);
+            for (int j = 0; j < links; j++) {
+                final float priority = (float) j / links;
+                created[i].termLinks.putIn(new TermLink(targets[j], template, new BudgetValue(priority, 0.5f, 0.5f, p)));
+            }
+        }
+        final long after = usedHeap();
+        if (created[concepts - 1] == null) { // keep the concepts reachable until measured
+            throw new IllegalStateException();
+        }
+        return (after - before) / concepts;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Nar nar = new Nar();
+        final int concepts = nar.narParameters.CONCEPT_BAG_SIZE;
+        bytesPerConcept(nar, concepts, 10); //warmup
+        System.out.println("bytes per concept without links: " + bytesPerConcept(nar, concepts, 0));
+        System.out.println("bytes per concept with 10 term links: " + bytesPerConcept(nar, concepts, 10));
+    }
+}
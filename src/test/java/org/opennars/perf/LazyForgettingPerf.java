@@ -0,0 +1,123 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.perf;
+
+import org.opennars.core.NALTest;
+import org.opennars.io.events.EventEmitter.EventObserver;
+import org.opennars.io.events.Events;
+import org.opennars.main.Debug;
+import org.opennars.main.Nar;
+import org.opennars.storage.LazyForgettingBag;
+import org.opennars.util.io.ExampleFileInput;
+import org.opennars.util.test.OutputCondition;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares derivation throughput and the amount of solved examples on the multi step examples
+ * with forgetting on putBack and with lazy forgetting in all bags
+ */
+public class LazyForgettingPerf {
+
+    static final String[] directories = new String[] {"/nal/multi_step/"};
+
+    /** derivations counted by the observer */
+    static long derivations = 0;
+
+    /**
+     * @param nar reasoner to run the examples on
+     * @param cycles amount of cycles each example is run
+     * @param repeats amount of runs of all examples
+     * @return derivations per millisecond
+     */
+    public static double derivationsPerMS(final Nar nar, final int cycles, final int repeats) {
+        final EventObserver counter = (event, args) -> derivations++;
+        nar.on(Events.TaskDerive.class, counter);
+        derivations = 0;
+        long totalTime = 0;
+        for (int r = 0; r < repeats; r++) {
+            for (final Object o : ExampleFileInput.getUnitTests(directories).values()) {
+                final String path = (String)((Object[])o)[0];
+                nar.reset();
+                nar.addInput(NALTest.getExample(path));
+                final long start = System.nanoTime();
+                nar.cycles(cycles);
+                totalTime += System.nanoTime() - start;
+            }
+        }
+        nar.off(Events.TaskDerive.class, counter);
+        return derivations / (totalTime / 1.0e6);
+    }
+
+    /**
+     * @param overrides parameters of the reasoners, like the bag types
+     * @param cycles amount of cycles each example is run
+     * @return amount of examples whose expected outputs were all derived
+     */
+    public static int solved(final Map<String, Object> overrides, final int cycles) throws Exception {
+        int solved = 0;
+        for (final Object o : ExampleFileInput.getUnitTests(directories).values()) {
+            final String path = (String)((Object[])o)[0];
+            final Nar nar = new Nar(overrides);
+            final List<OutputCondition> expects = OutputCondition.getConditions(nar, NALTest.getExample(path), 5);
+            nar.addInputFile(path);
+            nar.cycles(cycles);
+            boolean success = !expects.isEmpty();
+            for (final OutputCondition e : expects) {
+                success &= e.succeeded;
+            }
+            if (success) {
+                solved++;
+            }
+        }
+        return solved;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        Debug.TEST = true; //output format of the examples
+        final int cycles = 500;
+        final int repeats = 2;
+        final int exampleCycles = 1550; //like NALTest
+        final String lazy = LazyForgettingBag.class.getName();
+        final Map<String, Object> lazyBags = new HashMap<>();
+        lazyBags.put("CONCEPT_BAG_TYPE", lazy);
+        lazyBags.put("TASK_LINK_BAG_TYPE", lazy);
+        lazyBags.put("TERM_LINK_BAG_TYPE", lazy);
+        lazyBags.put("NOVEL_TASK_BAG_TYPE", lazy);
+        lazyBags.put("SEQUENCE_BAG_TYPE", lazy);
+        lazyBags.put("OPERATION_BAG_TYPE", lazy);
+
+        final Nar eager = new Nar();
+        final Nar lazyNar = new Nar(lazyBags);
+        derivationsPerMS(eager, cycles, 1); //warmup
+        derivationsPerMS(lazyNar, cycles, 1);
+        System.out.println("derivations/ms, forgetting on putBack: " + derivationsPerMS(eager, cycles, repeats));
+        System.out.println("derivations/ms, lazy forgetting: " + derivationsPerMS(lazyNar, cycles, repeats));
+        final int examples = ExampleFileInput.getUnitTests(directories).size();
+        System.out.println("solved examples, forgetting on putBack: " + solved(new HashMap<>(), exampleCycles) + "/" + examples);
+        System.out.println("solved examples, lazy forgetting: " + solved(lazyBags, exampleCycles) + "/" + examples);
+    }
+}
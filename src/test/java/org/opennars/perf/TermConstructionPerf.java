@@ -0,0 +1,98 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.perf;
+
+import org.opennars.inference.TemporalRules;
+import org.opennars.language.Conjunction;
+import org.opennars.language.ImageExt;
+import org.opennars.language.Implication;
+import org.opennars.language.Inheritance;
+import org.opennars.language.Negation;
+import org.opennars.language.Product;
+import org.opennars.language.SetExt;
+import org.opennars.language.Similarity;
+import org.opennars.language.Term;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Measures how many terms per millisecond the make methods used by the inference rules construct,
+ * each term is hashed and compared like a derived term looked up in a bag
+ */
+public class TermConstructionPerf {
+
+    /** amount of distinct atoms the terms are made of */
+    static final int ATOMS = 64;
+
+    /**
+     * @param atoms atoms to combine
+     * @param rounds amount of passes over all pairs of atoms
+     * @return terms constructed per millisecond
+     */
+    public static double termsPerMS(final Term[] atoms, final int rounds) {
+        final Set<Term> seen = new HashSet<>();
+        long terms = 0;
+        final long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            seen.clear();
+            for (int i = 0; i < atoms.length; i++) {
+                for (int j = 0; j < atoms.length; j++) {
+                    if (i == j) {
+                        continue;
+                    }
+                    final Term a = atoms[i];
+                    final Term b = atoms[j];
+                    final Term c = atoms[(i + j) % atoms.length];
+                    final Term inh = Inheritance.make(a, b);
+                    final Term sim = Similarity.make(a, b);
+                    final Term product = Product.make(a, b);
+                    final Term image = ImageExt.make((Product) product, c, (short) 1);
+                    final Term set = SetExt.make(a, b, c);
+                    final Term conj = Conjunction.make(inh, Negation.make(sim));
+                    final Term seq = Conjunction.make(inh, set, TemporalRules.ORDER_FORWARD);
+                    final Term impl = Implication.make(conj, Inheritance.make(product, c));
+                    seen.add(inh);
+                    seen.add(sim);
+                    seen.add(image);
+                    seen.add(conj);
+                    seen.add(seq);
+                    seen.add(impl);
+                    terms += 10;
+                }
+            }
+        }
+        return terms / ((System.nanoTime() - start) / 1.0e6);
+    }
+
+    public static void main(final String[] args) {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        final Term[] atoms = new Term[ATOMS];
+        for (int i = 0; i < ATOMS; i++) {
+            atoms[i] = Term.get("t" + i);
+        }
+        termsPerMS(atoms, rounds); //warmup
+        System.out.println("terms/ms: " + termsPerMS(atoms, rounds));
+    }
+}
@@ -0,0 +1,84 @@
+/* 
+ * The MIT License
+ *
+ * Copyright 2018 The OpenNARS authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.opennars.perf;
+
+import org.opennars.io.Narsese;
+import org.opennars.io.Symbols;
+import org.opennars.language.Term;
+import org.opennars.language.Variables;
+import org.opennars.main.Nar;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures unifications per millisecond and the bytes they allocate,
+ * on the terms of UnificationTest and on statements as matched by the inference rules
+ */
+public class UnificationPerf {
+
+    static final String[][] pairs = new String[][] {
+        {"<(&&,$1#1$,$2,$4$3$,(#,$2,$1#1$,$4$3$)) ==> <(*,$1#1$,(*,(/,REPRESENT,$2,_),(/,REPRESENT,$4$3$,_))) --> REPRESENT>>",
+         "<(&&,#1,$2,$3,(#,$2,#1,$3)) ==> <(*,#1,(*,(/,REPRESENT,$2,_),(/,REPRESENT,$3,_))) --> REPRESENT>>"},
+        {"<<$1 --> bird> ==> <$1 --> animal>>", "<<robin --> bird> ==> <robin --> animal>>"},
+        {"(&&,<#1 --> lock>,<#1 --> (/,open,$2,_)>)", "(&&,<{lock1} --> lock>,<{lock1} --> (/,open,{key1},_)>)"},
+        {"(&/,<$1 --> a>,+5,<$1 --> b>)", "(&/,<x --> a>,+5,<x --> b>,+5,<y --> c>)"}
+    };
+
+    /**
+     * @param terms pairs of terms to unify
+     * @param rounds amount of passes over the pairs
+     * @return unifications per millisecond
+     */
+    public static double unificationsPerMS(final Term[][] terms, final int rounds) {
+        final Random rnd = new Random(1);
+        long unifications = 0;
+        final long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (final Term[] pair : terms) {
+                rnd.setSeed(1); //same matching order every round, some orders of the first pair do not terminate
+                Variables.findSubstitute(rnd, Symbols.VAR_DEPENDENT, pair[0], pair[1], new Map[] { new LinkedHashMap<>(), new LinkedHashMap<>() });
+                Variables.findSubstitute(rnd, Symbols.VAR_INDEPENDENT, pair[0], pair[1], new Map[] { new LinkedHashMap<>(), new LinkedHashMap<>() }, true);
+                Variables.hasSubstitute(rnd, Symbols.VAR_INDEPENDENT, pair[0], pair[1]);
+                Variables.unify(rnd, Symbols.VAR_INDEPENDENT, new Term[] { pair[0], pair[1] });
+                unifications += 4;
+            }
+        }
+        return unifications / ((System.nanoTime() - start) / 1.0e6);
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        final Narsese parser = new Narsese(new Nar());
+        final Term[][] terms = new Term[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            terms[i] = new Term[] { parser.parseTerm(pairs[i][0]), parser.parseTerm(pairs[i][1]) };
+        }
+        unificationsPerMS(terms, rounds); //warmup
+        final long before = AllocationPerf.allocatedBytes();
+        System.out.println("unifications/ms: " + unificationsPerMS(terms, rounds));
+        System.out.println("bytes per unification: " + (AllocationPerf.allocatedBytes() - before) / (rounds * 4L * terms.length));
+    }
+}